@@ -0,0 +1,34 @@
+/**
+ * Opens up the ERSServlet helpers that the benchmarks measure, since they're protected.
+ * Never actually deployed.
+ */
+package com.revature.bench;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+import com.revature.model.ReimbursementRequest;
+import com.revature.servlets.ERSServlet;
+
+class BenchServlet extends ERSServlet {
+
+    private static final long serialVersionUID = 0L;
+
+    public void writeTable(Writer out, List<ReimbursementRequest> reimbs)
+            throws IOException{
+        writeTableFromReimbursementRequests(out, reimbs);
+    }
+
+    public boolean isMoneyValid(String moneyString){
+        return isMoneyStringValid(moneyString);
+    }
+
+    public boolean isIDValid(String idString){
+        return isIDStringValid(idString);
+    }
+
+    public boolean isEmailValid(String email){
+        return isEmailAddressValid(email);
+    }
+}
@@ -0,0 +1,141 @@
+/**
+ * This class contains benchmarks for the DAO queries behind the busiest pages. It runs in
+ * test mode (the embedded database), and fills it with the given number of reimb-reqs
+ * spread over 50 employees (see DAOFixtures) before measuring.
+ * Each query runs inside its own request scope, the same as under the ServiceFront.
+ */
+package com.revature.bench;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.revature.model.ReimbursementRequest;
+import com.revature.model.UserProfile;
+import com.revature.repository.DAO.exceptions.DAOException;
+import com.revature.repository.DAO.impl.ReimbursementRequestDAOImpl;
+import com.revature.repository.DAO.impl.UserProfileDAOImpl;
+import com.revature.repository.DAO.interfaces.ReimbursementRequestDAO;
+import com.revature.repository.DAO.interfaces.UserProfileDAO;
+import com.revature.repository.DAO.interfaces.ReimbursementRequestDAO.SearchType;
+import com.revature.repository.DAOFixtures;
+import com.revature.repository.Util.HibernateConnectionUtil;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DAOBenchmark {
+
+    private static final int EMPLOYEES = 50;
+    private static final int PAGE_SIZE = 50;
+
+    @Param({"1000", "10000"})
+    public int reimbs;
+
+    private UserProfileDAO updao;
+    private ReimbursementRequestDAO rrdao;
+    private int[] employeeIDs;
+    private int next; // which employee/day the next call looks at
+
+    @Setup
+    public void setup(){
+
+        HibernateConnectionUtil.enterTestMode();
+        updao = new UserProfileDAOImpl();
+        rrdao = new ReimbursementRequestDAOImpl();
+
+        DAOFixtures fixtures = DAOFixtures.load(EMPLOYEES, 2, reimbs / EMPLOYEES);
+        employeeIDs = new int[EMPLOYEES];
+        for (int i = 0; i < EMPLOYEES; i++) employeeIDs[i] = fixtures.getEmployeeID(i);
+    }
+
+    @TearDown
+    public void tearDown(){
+        HibernateConnectionUtil.exitTestMode(); // drops the factory
+    }
+
+    @Benchmark
+    public List<ReimbursementRequest> firstPendingPage() throws DAOException{
+
+        HibernateConnectionUtil.beginRequestScope();
+        try{
+            return rrdao.getReimbursementRequestPage(
+                    -1, SearchType.PENDING, 0, true, PAGE_SIZE);
+        }
+        finally{
+            HibernateConnectionUtil.endRequestScope();
+        }
+    }
+
+    @Benchmark
+    public List<ReimbursementRequest> allByAuthor() throws DAOException{
+
+        HibernateConnectionUtil.beginRequestScope();
+        try{
+            return rrdao.getReimbursementRequests(nextEmployeeID(), SearchType.ALL);
+        }
+        finally{
+            HibernateConnectionUtil.endRequestScope();
+        }
+    }
+
+    @Benchmark
+    public List<ReimbursementRequest> submittedInOneDay() throws DAOException{
+
+        // each employee's reqs are an hour apart, so a day holds 24 of each
+        int days = Math.max(1, reimbs / EMPLOYEES / 24);
+        LocalDateTime from = DAOFixtures.START.plusDays(next++ % days);
+        HibernateConnectionUtil.beginRequestScope();
+        try{
+            return rrdao.getReimbursementRequestsSubmittedBetween(from, from.plusDays(1));
+        }
+        finally{
+            HibernateConnectionUtil.endRequestScope();
+        }
+    }
+
+    @Benchmark
+    public List<ReimbursementRequest> oldestPending() throws DAOException{
+
+        HibernateConnectionUtil.beginRequestScope();
+        try{
+            return rrdao.getOldestPendingRequests(PAGE_SIZE);
+        }
+        finally{
+            HibernateConnectionUtil.endRequestScope();
+        }
+    }
+
+    @Benchmark
+    public Optional<UserProfile> userByName() throws DAOException{
+
+        HibernateConnectionUtil.beginRequestScope();
+        try{
+            return updao.findUserProfile("employee" + (next++ % EMPLOYEES));
+        }
+        finally{
+            HibernateConnectionUtil.endRequestScope();
+        }
+    }
+
+    private int nextEmployeeID(){
+        return employeeIDs[next++ % EMPLOYEES];
+    }
+}
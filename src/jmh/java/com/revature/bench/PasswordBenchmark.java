@@ -0,0 +1,56 @@
+/**
+ * This class contains benchmarks for hashing and checking passwords at a few bcrypt
+ * costs. Each step up in cost should roughly double the time; the cost PasswordUtil
+ * calibrates to at start up is picked from the same measurement.
+ */
+package com.revature.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.revature.service.BCryptPasswordPolicy;
+import com.revature.service.PasswordUtil;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class PasswordBenchmark {
+
+    private static final String PASSWORD = "correct horse battery staple";
+
+    @Param({"4", "10", "12"})
+    public int cost;
+
+    private String hash;
+
+    @Setup
+    public void setup(){
+
+        PasswordUtil.setPolicy(new BCryptPasswordPolicy(cost));
+        hash = PasswordUtil.hash(PASSWORD);
+    }
+
+    @Benchmark
+    public String hash(){
+        return PasswordUtil.hash(PASSWORD);
+    }
+
+    @Benchmark
+    public boolean check(){
+        return PasswordUtil.checkPassword(PASSWORD, hash);
+    }
+}
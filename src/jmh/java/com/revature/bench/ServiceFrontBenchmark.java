@@ -0,0 +1,124 @@
+/**
+ * This class contains benchmarks for the ServiceFront's dispatching: the permission
+ * check, finding the handler, the request scope, and the timing listeners. The DAOs are
+ * canned stand-ins (not mocks, which would cost more than the dispatch itself), so no
+ * database is involved; see DAOBenchmark for that.
+ */
+package com.revature.bench;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.revature.model.ReimbursementRequest;
+import com.revature.model.UserProfile;
+import com.revature.model.ReimbursementRequest.ReimbursementType;
+import com.revature.model.UserProfile.UserRole;
+import com.revature.repository.DAO.interfaces.ReimbursementRequestDAO;
+import com.revature.repository.DAO.interfaces.UserProfileDAO;
+import com.revature.service.ServiceFront;
+import com.revature.service.comms.ERSRequest;
+import com.revature.service.comms.ERSResponse;
+import com.revature.service.comms.ERSRequest.ERSRequestType;
+import com.revature.service.handlers.AuthRequestHandler;
+import com.revature.service.handlers.ModifyRequestHandler;
+import com.revature.service.handlers.ViewRequestHandler;
+import com.revature.service.metrics.Metrics;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ServiceFrontBenchmark {
+
+    private ServiceFront sf;
+    private ERSRequest logOut;
+    private ERSRequest forbidden;
+    private ERSRequest viewPage;
+
+    @Setup
+    public void setup(){
+
+        List<ReimbursementRequest> page = new ArrayList<>();
+        UserProfile author = new UserProfile(7, UserRole.EMPLOYEE);
+        for (int i = 1; i <= 50; i++){
+            page.add(new ReimbursementRequest(
+                    i, author, 100L * i, ReimbursementType.FOOD));
+        }
+
+        UserProfileDAO updao = canned(UserProfileDAO.class, page);
+        ReimbursementRequestDAO rrdao = canned(ReimbursementRequestDAO.class, page);
+        sf = new ServiceFront(
+                new AuthRequestHandler(updao, rrdao),
+                new ViewRequestHandler(updao, rrdao),
+                new ModifyRequestHandler(updao, rrdao));
+        sf.addTimingListener(new Metrics()); // as in BackEndUtil
+
+        logOut = new ERSRequest(ERSRequestType.LOG_OUT, 7, UserRole.EMPLOYEE);
+        forbidden = new ERSRequest(ERSRequestType.APPROVE_REQUEST, 7, UserRole.EMPLOYEE);
+        viewPage = new ERSRequest(ERSRequestType.VIEW_ALL_PENDING, 3, UserRole.MANAGER);
+        viewPage.putParameter(ERSRequest.PAGE_SIZE_KEY, "50");
+    }
+
+    /**
+     * Permitted, and the handler does no work at all.
+     */
+    @Benchmark
+    public ERSResponse logOut(){
+        return sf.handleERSRequest(logOut);
+    }
+
+    /**
+     * Turned away by the permission check.
+     */
+    @Benchmark
+    public ERSResponse forbidden(){
+        return sf.handleERSRequest(forbidden);
+    }
+
+    /**
+     * A page of pending reqs, from a DAO that hands back the same list every time.
+     */
+    @Benchmark
+    public ERSResponse viewPage(){
+        return sf.handleERSRequest(viewPage);
+    }
+
+    /**
+     * Makes a DAO that answers every method with the same canned values: the given list
+     * for lists, true for booleans, nothing for Optionals, and 0/null otherwise.
+     *
+     * @param type
+     * @param list
+     * @return
+     */
+    private static <T> T canned(Class<T> type, List<?> list){
+
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(),
+                new Class<?>[] {type}, (proxy, method, args) -> {
+                    Class<?> returns = method.getReturnType();
+                    if (returns == List.class) return list;
+                    if (returns == boolean.class) return true;
+                    if (returns == int.class) return 0;
+                    if (returns == Optional.class) return Optional.empty();
+                    if (returns == String.class && method.getName().equals("toString"))
+                        return "canned " + type.getSimpleName();
+                    return null;
+                }));
+    }
+}
@@ -0,0 +1,103 @@
+/**
+ * This class contains benchmarks for writing the reimb-req html table, at a few table
+ * sizes. The output goes to a Blackhole rather than a buffer, so only the rendering
+ * itself is measured (as it would be when streamed to the response).
+ */
+package com.revature.bench;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.revature.model.ReimbursementRequest;
+import com.revature.model.UserProfile;
+import com.revature.model.ReimbursementRequest.ReimbursementStatus;
+import com.revature.model.ReimbursementRequest.ReimbursementType;
+import com.revature.model.UserProfile.UserRole;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TableRenderingBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    public int rows;
+
+    private final BenchServlet servlet = new BenchServlet();
+    private List<ReimbursementRequest> reimbs;
+
+    @Setup
+    public void setup(){
+
+        UserProfile author = new UserProfile(7, UserRole.EMPLOYEE);
+        LocalDateTime time = LocalDateTime.of(2021, 3, 1, 9, 30);
+        ReimbursementType[] types = ReimbursementType.values();
+
+        reimbs = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++){
+            boolean resolved = (i % 2 == 0);
+            reimbs.add(new ReimbursementRequest(
+                    i + 1, author, 1000L + i * 37L, types[i % types.length],
+                    resolved ? ReimbursementStatus.APPROVED : ReimbursementStatus.PENDING,
+                    "Hotel <& taxi> for the " + i + "th trip",
+                    time.plusMinutes(i),
+                    resolved ? 3 : ReimbursementRequest.NULL_ID,
+                    resolved ? time.plusDays(1) : null));
+        }
+    }
+
+    @Benchmark
+    public void writeTable(Blackhole hole) throws IOException{
+        servlet.writeTable(new BlackholeWriter(hole), reimbs);
+    }
+
+    /**
+     * Hands everything written to it to the Blackhole, so none of it is optimized away.
+     */
+    private static class BlackholeWriter extends Writer{
+
+        private final Blackhole hole;
+
+        BlackholeWriter(Blackhole hole){
+            this.hole = hole;
+        }
+
+        @Override
+        public void write(char[] chars, int offset, int length){
+            hole.consume(chars);
+            hole.consume(length);
+        }
+
+        @Override
+        public void write(String s){
+            hole.consume(s);
+        }
+
+        @Override
+        public void flush(){
+        }
+
+        @Override
+        public void close(){
+        }
+    }
+}
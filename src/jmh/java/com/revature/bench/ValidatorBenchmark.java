@@ -0,0 +1,52 @@
+/**
+ * This class contains benchmarks for the form field validators that run on every
+ * submitted form: money amounts, IDs, and email addresses. Each is fed a mix of good and
+ * bad input (never blank, since the servlets check for that first).
+ */
+package com.revature.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidatorBenchmark {
+
+    private static final String[] MONEY
+            = {"$12.50", "12.5", "1,234.56", "$.99", "12.345", "abc", "", "$-3.00"};
+    private static final String[] IDS
+            = {"1", "42", "#17", "001234", "2147483647", "2147483648", "-1", "4x"};
+    private static final String[] EMAILS = {"bob@example.com", "a.b-c@mail.co.uk",
+            "no-at-sign.com", "two@@ats.com", "trailing@dot.", "x@y", "", "@a.com"};
+
+    private final BenchServlet servlet = new BenchServlet();
+
+    @Benchmark
+    public void money(Blackhole hole){
+        for (String s : MONEY) hole.consume(servlet.isMoneyValid(s));
+    }
+
+    @Benchmark
+    public void id(Blackhole hole){
+        for (String s : IDS) hole.consume(servlet.isIDValid(s));
+    }
+
+    @Benchmark
+    public void email(Blackhole hole){
+        for (String s : EMAILS) hole.consume(servlet.isEmailValid(s));
+    }
+}
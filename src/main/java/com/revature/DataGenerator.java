@@ -0,0 +1,531 @@
+/**
+ * Fills the database with made-up users and reimbursement requests, in whatever amounts
+ * are needed to reproduce production-sized slowdowns (millions of reqs is fine). Rows
+ * are written with JDBC batch inserts, committed every COMMIT_ROWS rows, rather than one
+ * hibernate save + commit per object like DataSetup does.
+ *
+ * The same settings (including the seed) always make the same data, so a slow query
+ * found in staging can be reproduced on a laptop. That's why the time range ends on a
+ * fixed day by default, rather than today; use --end=today to get recent-looking data
+ * (which then depends on when it's run).
+ *
+ * Usage (any option can be left out to use its default):
+ *      DataGenerator --employees=10000 --managers=50 --reqsPerEmployee=100
+ *          --seed=42 --days=365 --end=2021-01-01 --prefix=gen --password=password
+ *          --status=PENDING:20,APPROVED:60,DENIED:20
+ *          --types=LODGING:2,TRAVEL:3,FOOD:4,OTHER:1
+ *          --medianCents=4500 --amountSpread=1.0
+ *
+ * Generated usernames start with the prefix (eg "gen_e17", "gen_m3"), so they never
+ * clash with real accounts; it won't run if there are already users with that prefix.
+ * Every generated user has the same password, hashed once.
+ *
+ * @author Andrew Curry
+ */
+package com.revature;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import org.apache.log4j.Logger;
+import org.hibernate.HibernateException;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+
+import com.revature.model.ReimbursementRequest;
+import com.revature.model.ReimbursementRequest.ReimbursementStatus;
+import com.revature.model.ReimbursementRequest.ReimbursementType;
+import com.revature.model.UserProfile.UserRole;
+import com.revature.repository.DAO.exceptions.DAOException;
+import com.revature.repository.Util.HibernateConnectionUtil;
+import com.revature.service.PasswordUtil;
+
+public class DataGenerator {
+
+    // constants
+    private static final int BATCH_SIZE = 1000;
+    private static final int COMMIT_ROWS = 50000;
+    private static final long MAX_AMOUNT_CENTS = 10000000L; // $100,000
+    public static final String DEFAULT_END = "2021-01-01";
+    private static final String[][] DESCRIPTIONS = { // same order as ReimbursementType
+        {"Hotel for client visit", "Conference hotel", "Extended stay on-site"},
+        {"Plane tickets", "Rental car", "Train to regional office", "Taxi to airport"},
+        {"Team lunch", "Client dinner", "Per diem meals", "Coffee for workshop"},
+        {"Office supplies", "Software license", "Training course", "Phone bill"}
+    };
+
+    // class / static variables
+    private static final Logger log = Logger.getLogger(DataGenerator.class);
+
+    /**
+     * What to make. The defaults make a mid-sized company with a year of history.
+     */
+    public static class Settings{
+
+        public int employees = 1000;
+        public int managers = 20;
+        public int reqsPerEmployee = 50;
+        public long seed = 42L;
+        public int days = 365; // reqs are submitted in this many days up to end
+        public LocalDateTime end = parseEnd(DEFAULT_END);
+        public String prefix = "gen";
+        public String password = "password";
+        public Map<ReimbursementStatus, Integer> statusWeights = parseWeights(
+                ReimbursementStatus.class, "PENDING:20,APPROVED:60,DENIED:20");
+        public Map<ReimbursementType, Integer> typeWeights = parseWeights(
+                ReimbursementType.class, "LODGING:2,TRAVEL:3,FOOD:4,OTHER:1");
+        // amounts are log-normal: half are under the median, and a bigger spread
+        // means a longer tail of expensive reqs
+        public long medianCents = 4500L;
+        public double amountSpread = 1.0;
+
+        /**
+         * Reads --name=value options over the defaults. Unknown options are an error,
+         * so a typo doesn't quietly make the wrong amount of data.
+         *
+         * @param args
+         * @return
+         * @throws IllegalArgumentException
+         */
+        public static Settings fromArgs(String[] args){
+
+            Settings settings = new Settings();
+            for (String arg : args){
+                int equals = arg.indexOf('=');
+                if (!arg.startsWith("--") || equals < 0)
+                    throw new IllegalArgumentException("Expected --name=value: " + arg);
+                String name = arg.substring(2, equals);
+                String value = arg.substring(equals + 1);
+
+                switch (name){
+                    case "employees": settings.employees = Integer.parseInt(value); break;
+                    case "managers": settings.managers = Integer.parseInt(value); break;
+                    case "reqsPerEmployee":
+                        settings.reqsPerEmployee = Integer.parseInt(value); break;
+                    case "seed": settings.seed = Long.parseLong(value); break;
+                    case "days": settings.days = Integer.parseInt(value); break;
+                    case "end": settings.end = parseEnd(value); break;
+                    case "prefix": settings.prefix = value; break;
+                    case "password": settings.password = value; break;
+                    case "status":
+                        settings.statusWeights
+                                = parseWeights(ReimbursementStatus.class, value);
+                        break;
+                    case "types":
+                        settings.typeWeights
+                                = parseWeights(ReimbursementType.class, value);
+                        break;
+                    case "medianCents":
+                        settings.medianCents = Long.parseLong(value); break;
+                    case "amountSpread":
+                        settings.amountSpread = Double.parseDouble(value); break;
+                    default: throw new IllegalArgumentException("Unknown option: " + arg);
+                }
+            }
+            if (settings.employees < 0 || settings.managers < 0
+                    || settings.reqsPerEmployee < 0 || settings.days < 1)
+                throw new IllegalArgumentException("Counts can't be negative");
+            expand(settings.statusWeights); // throws if they're all 0
+            expand(settings.typeWeights);
+            return settings;
+        }
+
+        /**
+         * Reads an --end value: a date like 2021-01-01, or "today". Either way, the
+         * range ends at the start of that day.
+         *
+         * @param value
+         * @return
+         * @throws IllegalArgumentException
+         */
+        private static LocalDateTime parseEnd(String value){
+
+            try{
+                LocalDate day = value.equalsIgnoreCase("today") 
+                        ? LocalDate.now() : LocalDate.parse(value);
+                return day.atStartOfDay();
+            }
+            catch(DateTimeParseException e){
+                throw new IllegalArgumentException(
+                        "Expected yyyy-mm-dd or today: " + value);
+            }
+        }
+    }
+
+    // instance variables
+    private final Settings settings;
+    private final SplittableRandom random;
+    private final String table; // schema-qualified prefix for table names
+
+    // constructor(s)
+
+    public DataGenerator(Settings settings){
+
+        this.settings = settings;
+        this.random = new SplittableRandom(settings.seed);
+        String schema = HibernateConnectionUtil.getDefaultSchema();
+        this.table = (schema == null) ? "" : schema + ".";
+    }
+
+    // methods
+
+    public static void main(String[] args) throws DAOException{
+
+        try{
+            HibernateConnectionUtil.migrate(); // make sure the tables are there
+        }
+        catch(SQLException e){
+            throw new DAOException("SQLException: " + e.getMessage());
+        }
+
+        new DataGenerator(Settings.fromArgs(args)).generate();
+        HibernateConnectionUtil.forceDropSessionFactory(); // closes the pool
+    }
+
+    /**
+     * Writes all of the users, passwords and reqs.
+     *
+     * @return the number of reqs written
+     * @throws DAOException if there are already users with the prefix, or the database
+     *      had a problem
+     * @throws IllegalArgumentException if the status or type weights are all 0
+     */
+    public long generate() throws DAOException{
+
+        Session session = HibernateConnectionUtil.getSession();
+        SessionFactory factory = session.getSessionFactory();
+        final long[] written = new long[1];
+        try{
+            session.doWork(connection -> {
+                boolean oldAutoCommit = connection.getAutoCommit();
+                connection.setAutoCommit(false);
+                try{
+                    written[0] = generate(connection);
+                }
+                catch(SQLException | RuntimeException e){
+                    connection.rollback();
+                    throw e;
+                }
+                finally{
+                    connection.setAutoCommit(oldAutoCommit);
+                }
+            });
+        }
+        catch(HibernateException e){
+            throw new DAOException("HibernateException: " + e.getMessage());
+        }
+        catch(IllegalStateException e){
+            throw new DAOException(e.getMessage());
+        }
+        finally{
+            HibernateConnectionUtil.releaseSession(session);
+        }
+
+        // everything went around hibernate, so none of its caches can be trusted
+        factory.getCache().evictEntityRegions();
+        factory.getCache().evictQueryRegions();
+        return written[0];
+    }
+
+    // helpers
+
+    /**
+     * Does the work of generate(), on a connection that isn't auto-committing.
+     *
+     * @param connection
+     * @return
+     * @throws SQLException
+     * @throws IllegalStateException if there are already users with the prefix
+     */
+    private long generate(Connection connection) throws SQLException{
+
+        String managerPrefix = settings.prefix + "_m";
+        String employeePrefix = settings.prefix + "_e";
+        if (countUsers(connection, likePrefix(settings.prefix + "_")) > 0)
+            throw new IllegalStateException("There are already generated users with "
+                    + "the prefix " + settings.prefix);
+
+        // checked before anything is written
+        List<ReimbursementStatus> statuses = expand(settings.statusWeights);
+        List<ReimbursementType> types = expand(settings.typeWeights);
+
+        long start = System.currentTimeMillis();
+        insertUsers(connection, managerPrefix, UserRole.MANAGER, settings.managers);
+        insertUsers(connection, employeePrefix, UserRole.EMPLOYEE, settings.employees);
+        connection.commit();
+
+        int[] managerIDs = readIDs(connection, managerPrefix, settings.managers);
+        int[] employeeIDs = readIDs(connection, employeePrefix, settings.employees);
+        insertPasswords(connection, managerIDs, employeeIDs);
+        connection.commit();
+        log.info("Wrote " + (managerIDs.length + employeeIDs.length) + " users in "
+                + (System.currentTimeMillis() - start) + "ms");
+
+        long reqs = insertReqs(connection, employeeIDs, managerIDs, statuses, types);
+        countChange(connection); // for the rows since the last commit in addToBatch
+        connection.commit();
+        log.info("Wrote " + reqs + " reimbursement requests in "
+                + (System.currentTimeMillis() - start) + "ms");
+        return reqs;
+    }
+
+    /**
+     * These inserts skip the DAO, so they have to bump RR_CHANGE_COUNT themselves (see
+     * ReimbursementRequestDAO.getChangeCount()).
+     *
+     * @param connection
+     * @throws SQLException
+     */
+    private void countChange(Connection connection) throws SQLException{
+
+        String sql = "UPDATE " + table + "RR_CHANGE_COUNT "
+                + "SET CHANGE_COUNT = CHANGE_COUNT + 1 WHERE ID = 1";
+        try (PreparedStatement ps = connection.prepareStatement(sql)){
+            ps.executeUpdate();
+        }
+    }
+
+    private int countUsers(Connection connection, String pattern) throws SQLException{
+
+        String sql = "SELECT COUNT(*) FROM " + table + "USER_PROFILE "
+                + "WHERE USERNAME LIKE ? ESCAPE '\\'";
+        try (PreparedStatement ps = connection.prepareStatement(sql)){
+            ps.setString(1, pattern);
+            try (ResultSet rs = ps.executeQuery()){
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+
+    private void insertUsers(Connection connection, String usernamePrefix, UserRole role,
+            int count) throws SQLException{
+
+        String sql = "INSERT INTO " + table + "USER_PROFILE "
+                + "(USER_ROLE, USERNAME, FIRST_NAME, LAST_NAME, EMAIL_ADDRESS, "
+                + "USER_VERSION) "
+                + "VALUES (?, ?, ?, ?, ?, 0)";
+        try (PreparedStatement ps = connection.prepareStatement(sql)){
+            for (int i = 0; i < count; i++){
+                String username = usernamePrefix + i;
+                ps.setString(1, role.name());
+                ps.setString(2, username);
+                ps.setString(3, role == UserRole.MANAGER ? "Manager" : "Employee");
+                ps.setString(4, "Number" + i);
+                ps.setString(5, username + "@example.com");
+                addToBatch(connection, ps, i);
+            }
+            ps.executeBatch();
+        }
+    }
+
+    /**
+     * Looks up the IDs the database gave the users, by username (generated keys from a
+     * batch aren't something every driver does).
+     *
+     * @return the ID of user i is at index i
+     */
+    private int[] readIDs(Connection connection, String usernamePrefix, int count)
+            throws SQLException{
+
+        int[] ids = new int[count];
+        String sql = "SELECT USER_ID, USERNAME FROM " + table + "USER_PROFILE "
+                + "WHERE USERNAME LIKE ? ESCAPE '\\'";
+        try (PreparedStatement ps = connection.prepareStatement(sql)){
+            ps.setString(1, likePrefix(usernamePrefix));
+            try (ResultSet rs = ps.executeQuery()){
+                while (rs.next()){
+                    int index = Integer.parseInt(
+                            rs.getString(2).substring(usernamePrefix.length()));
+                    ids[index] = rs.getInt(1);
+                }
+            }
+        }
+        return ids;
+    }
+
+    private void insertPasswords(Connection connection, int[] managerIDs,
+            int[] employeeIDs) throws SQLException{
+
+        String hash = PasswordUtil.hash(settings.password); // one hash is plenty
+        String sql = "INSERT INTO " + table + "USER_PASSWORD (PASSWORD_USER_ID, PASS) "
+                + "VALUES (?, ?)";
+        try (PreparedStatement ps = connection.prepareStatement(sql)){
+            int row = 0;
+            for (int[] ids : new int[][] {managerIDs, employeeIDs}){
+                for (int id : ids){
+                    ps.setInt(1, id);
+                    ps.setString(2, hash);
+                    addToBatch(connection, ps, row++);
+                }
+            }
+            ps.executeBatch();
+        }
+    }
+
+    /**
+     * Writes reqsPerEmployee reqs for every employee, drawing everything from the
+     * seeded random, in a fixed order. Statuses and types are picked uniformly from
+     * the given lists (see expand()).
+     *
+     * @return how many were written
+     */
+    private long insertReqs(Connection connection, int[] employeeIDs, int[] managerIDs,
+            List<ReimbursementStatus> statuses, List<ReimbursementType> types)
+            throws SQLException{
+
+        String sql = "INSERT INTO " + table + "REIMBURSEMENT_REQUEST "
+                + "(USER_ID, RR_MONEY_AMOUNT, RR_TYPE, RR_STATUS, RR_DESCRIPTION, "
+                + "RR_SUBMITTED_AT, RR_RESOLVER_ID, RR_RESOLVED_AT, RR_VERSION) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, 0)";
+        long spanSeconds = settings.days * 86400L;
+        LocalDateTime begin = settings.end.minusDays(settings.days);
+
+        long row = 0;
+        try (PreparedStatement ps = connection.prepareStatement(sql)){
+            for (int authorID : employeeIDs){
+                for (int r = 0; r < settings.reqsPerEmployee; r++){
+                    ReimbursementType type = types.get(random.nextInt(types.size()));
+                    ReimbursementStatus status
+                            = statuses.get(random.nextInt(statuses.size()));
+                    LocalDateTime submitted
+                            = begin.plusSeconds(random.nextLong(spanSeconds));
+                    boolean resolved = (status != ReimbursementStatus.PENDING)
+                            && managerIDs.length > 0;
+
+                    ps.setInt(1, authorID);
+                    ps.setLong(2, nextAmount());
+                    ps.setString(3, type.name());
+                    ps.setString(4, resolved 
+                            ? status.name() : ReimbursementStatus.PENDING.name());
+                    ps.setString(5, nextDescription(type, row));
+                    ps.setTimestamp(6, Timestamp.valueOf(submitted));
+                    if (resolved){
+                        ps.setInt(7, managerIDs[random.nextInt(managerIDs.length)]);
+                        ps.setTimestamp(8, Timestamp.valueOf(nextResolved(submitted)));
+                    }
+                    else{
+                        ps.setInt(7, -1);
+                        ps.setTimestamp(8, null);
+                    }
+                    addToBatch(connection, ps, row++);
+                }
+            }
+            ps.executeBatch();
+        }
+        return row;
+    }
+
+    /**
+     * @return a log-normal amount in cents, at least 1 cent and at most MAX_AMOUNT_CENTS
+     */
+    private long nextAmount(){
+
+        double gaussian = nextGaussian();
+        long cents = Math.round(settings.medianCents * Math.exp(settings.amountSpread
+                * gaussian));
+        return Math.max(1L, Math.min(MAX_AMOUNT_CENTS, cents));
+    }
+
+    /**
+     * Standard normal, by Box-Muller (SplittableRandom doesn't have nextGaussian).
+     */
+    private double nextGaussian(){
+
+        double u1 = 1.0 - random.nextDouble(); // (0, 1], so the log is finite
+        double u2 = random.nextDouble();
+        return Math.sqrt(-2.0 * Math.log(u1)) * Math.cos(2.0 * Math.PI * u2);
+    }
+
+    private String nextDescription(ReimbursementType type, long row){
+
+        String[] options = DESCRIPTIONS[type.ordinal() % DESCRIPTIONS.length];
+        String description = options[random.nextInt(options.length)] + " #" + row;
+        int max = ReimbursementRequest.MAX_DESCRIPTION_LENGTH;
+        return (description.length() > max) ? description.substring(0, max) : description;
+    }
+
+    /**
+     * Most reqs are resolved within a couple of days, some take a few weeks; never after
+     * the end of the time range.
+     */
+    private LocalDateTime nextResolved(LocalDateTime submitted){
+
+        double days = -2.0 * Math.log(1.0 - random.nextDouble()); // exponential, mean 2
+        LocalDateTime resolved = submitted.plusSeconds((long)(days * 86400));
+        return resolved.isAfter(settings.end) ? settings.end : resolved;
+    }
+
+    /**
+     * Sends the batch every BATCH_SIZE rows, and commits every COMMIT_ROWS, so one
+     * giant transaction doesn't have to be held (or rolled back) all at once. Each
+     * commit bumps the change count too, so a list page can't be passed off as current
+     * once the rows it's missing are visible.
+     */
+    private void addToBatch(Connection connection, PreparedStatement ps, long row)
+            throws SQLException{
+
+        ps.addBatch();
+        if ((row + 1) % BATCH_SIZE == 0) ps.executeBatch();
+        if ((row + 1) % COMMIT_ROWS == 0){
+            countChange(connection);
+            connection.commit();
+            log.info("... " + (row + 1) + " rows");
+        }
+    }
+
+    /**
+     * Turns weights into a list to pick from uniformly, eg {A:2, B:1} -> [A, A, B].
+     */
+    private static <E> List<E> expand(Map<E, Integer> weights){
+
+        List<E> table = new ArrayList<>();
+        for (Map.Entry<E, Integer> e : weights.entrySet()){
+            for (int w = 0; w < e.getValue(); w++) table.add(e.getKey());
+        }
+        if (table.isEmpty())
+            throw new IllegalArgumentException("Weights must add up to more than 0");
+        return table;
+    }
+
+    /**
+     * @return a LIKE pattern matching usernames that start with the given prefix
+     */
+    private static String likePrefix(String prefix){
+        return prefix.replace("\\", "\\\\").replace("_", "\\_").replace("%", "\\%") + "%";
+    }
+
+    /**
+     * Parses weights like "PENDING:20,APPROVED:60". Values that aren't listed get 0.
+     *
+     * @param type
+     * @param spec
+     * @return
+     * @throws IllegalArgumentException if a name or weight isn't valid
+     */
+    static <E extends Enum<E>> Map<E, Integer> parseWeights(Class<E> type, String spec){
+
+        Map<E, Integer> weights = new EnumMap<>(type);
+        for (String part : spec.split(",")){
+            String[] pieces = part.trim().split(":");
+            if (pieces.length != 2)
+                throw new IllegalArgumentException("Expected NAME:weight: " + part);
+            int weight = Integer.parseInt(pieces[1].trim());
+            if (weight < 0) 
+                throw new IllegalArgumentException("Negative weight: " + part);
+            weights.put(Enum.valueOf(type, pieces[0].trim().toUpperCase()), weight);
+        }
+        return weights;
+    }
+}
@@ -11,9 +11,15 @@
  * 
  * It has a failsafe where it will not add anything if it detects that the databse is
  * already populated.
+ * 
+ * For more than a handful of rows (load testing, reproducing slow queries), pass
+ * DataGenerator options (eg --employees=10000) and this hands off to DataGenerator
+ * instead, which can add any amount of made-up data to a populated database.
  */
 package com.revature;
 
+import java.sql.SQLException;
+
 import com.revature.model.ReimbursementRequest;
 import com.revature.model.UserPassword;
 import com.revature.model.UserProfile;
@@ -33,6 +39,19 @@ public class DataSetup {
    
     public static void main (String[] args) throws DAOException{
 
+        if (args.length > 0){
+            DataGenerator.main(args);
+            return;
+        }
+
+        // hibernate no longer creates the tables, so make sure they're there
+        try{
+            HibernateConnectionUtil.migrate();
+        }
+        catch(SQLException e){
+            throw new DAOException("SQLException: " + e.getMessage());
+        }
+
         // make the DAOs - skip the service layer
         UserProfileDAO updao = new UserProfileDAOImpl();
         //ReimbursementRequestDAO rrdao = new ReimbursementRequestDAOImpl();
@@ -140,7 +159,7 @@ public class DataSetup {
         rr0.setType(ReimbursementType.FOOD);
         rr0.setStatus(ReimbursementStatus.PENDING);
         rr0.setDescription("A delicious cheese burger");
-        rr0.setTimeSubmitted(java.time.LocalDateTime.now().toString());
+        rr0.setTimeSubmitted(java.time.LocalDateTime.now());
         tx = session.beginTransaction();
         session.save(rr0);
         tx.commit();
@@ -153,9 +172,9 @@ public class DataSetup {
         rr1.setType(ReimbursementType.LODGING);
         rr1.setStatus(ReimbursementStatus.APPROVED);
         rr1.setDescription("Hotel while on-site for client");
-        rr1.setTimeSubmitted(java.time.LocalDateTime.now().toString());
+        rr1.setTimeSubmitted(java.time.LocalDateTime.now());
         rr1.setResolverID(man1.getID());
-        rr1.setTimeResolved(java.time.LocalDateTime.now().toString());
+        rr1.setTimeResolved(java.time.LocalDateTime.now());
         tx = session.beginTransaction();
         session.save(rr1);
         tx.commit();
@@ -169,7 +188,7 @@ public class DataSetup {
         rr2.setType(ReimbursementType.TRAVEL);
         rr2.setStatus(ReimbursementStatus.PENDING);
         rr2.setDescription("Plane tickets");
-        rr2.setTimeSubmitted(java.time.LocalDateTime.now().toString());
+        rr2.setTimeSubmitted(java.time.LocalDateTime.now());
         tx = session.beginTransaction();
         session.save(rr2);
         tx.commit();
@@ -182,9 +201,9 @@ public class DataSetup {
         rr3.setType(ReimbursementType.OTHER);
         rr3.setStatus(ReimbursementStatus.DENIED);
         rr3.setDescription("Subcribed to WOW");
-        rr3.setTimeSubmitted(java.time.LocalDateTime.now().toString());
+        rr3.setTimeSubmitted(java.time.LocalDateTime.now());
         rr3.setResolverID(man0.getID());
-        rr3.setTimeResolved(java.time.LocalDateTime.now().toString());
+        rr3.setTimeResolved(java.time.LocalDateTime.now());
         tx = session.beginTransaction();
         session.save(rr3);
         tx.commit();
@@ -8,6 +8,8 @@
 package com.revature.model;
 
 import java.io.Serializable;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
@@ -19,14 +21,18 @@ import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.Table;
+import javax.persistence.Version;
+
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
 @Table(name="REIMBURSEMENT_REQUEST")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE) // changes on approve/deny
 public class ReimbursementRequest implements Serializable{
 
     // constants
     public static final int NULL_ID = -1; // can't make ints null???
-    public static final String TIME_DEFAULT = "--";
     private static final long serialVersionUID = 0L; // makes compiler happy
     
     
@@ -107,6 +113,7 @@ public class ReimbursementRequest implements Serializable{
     } // end enum Status
     
     // class/static variables ---------------------
+    public static final int MAX_DESCRIPTION_LENGTH = 255; // RR_DESCRIPTION, see V1.sql
 
     // instance variables ---------------------
     @Id
@@ -133,14 +140,22 @@ public class ReimbursementRequest implements Serializable{
     @Column(name="RR_DESCRIPTION")
     private String description;
 
-    @Column(name="RR_TIME_SUBMITTED")
-    private String timeSubmitted;
+    // stored as real timestamps so the database can index/sort them; null if not set
+    // (hibernate 3 doesn't know about java.time, so the getters/setters convert)
+    @Column(name="RR_SUBMITTED_AT")
+    private Timestamp timeSubmitted;
 
     @Column(name="RR_RESOLVER_ID")
     private int resolverID; // manager
 
-    @Column(name="RR_TIME_RESOLVED")
-    private String timeResolved;
+    @Column(name="RR_RESOLVED_AT")
+    private Timestamp timeResolved; // null until resolved
+
+    // bumped by hibernate on every update; a save based on an old version fails, so two
+    // managers can't both resolve the same req
+    @Version
+    @Column(name="RR_VERSION")
+    private int version;
 
     // optionally, some way of representing an image
     
@@ -169,9 +184,9 @@ public class ReimbursementRequest implements Serializable{
         this.type = type;
         this.status = ReimbursementStatus.PENDING;
         this.description = "";
-        this.timeSubmitted = TIME_DEFAULT;
+        this.timeSubmitted = null;
         this.resolverID = NULL_ID;
-        this.timeResolved = TIME_DEFAULT;
+        this.timeResolved = null;
     }
 
     /**
@@ -190,9 +205,9 @@ public class ReimbursementRequest implements Serializable{
         this.type = type;
         this.status = ReimbursementStatus.PENDING;
         this.description = "";
-        this.timeSubmitted = TIME_DEFAULT;
+        this.timeSubmitted = null;
         this.resolverID = NULL_ID;
-        this.timeResolved = TIME_DEFAULT;
+        this.timeResolved = null;
     }
 
     /**
@@ -214,9 +229,9 @@ public class ReimbursementRequest implements Serializable{
             ReimbursementType type,
             ReimbursementStatus status,
             String description,
-            String timeSubmitted,
+            LocalDateTime timeSubmitted,
             int resolverID,
-            String timeResolved) {
+            LocalDateTime timeResolved) {
 
         this.ID = ID;
         this.author = author;
@@ -224,9 +239,9 @@ public class ReimbursementRequest implements Serializable{
         this.type = type;
         this.status = status;
         this.description = description;
-        this.timeSubmitted = timeSubmitted;
+        setTimeSubmitted(timeSubmitted);
         this.resolverID = resolverID;
-        this.timeResolved = timeResolved;
+        setTimeResolved(timeResolved);
     }
 
     // getters and setters ---------------------
@@ -284,12 +299,17 @@ public class ReimbursementRequest implements Serializable{
         this.description = description;
     }
 
-    public String getTimeSubmitted() {
-        return this.timeSubmitted;
+    /**
+     * Returns null if the time hasn't been set.
+     * 
+     * @return
+     */
+    public LocalDateTime getTimeSubmitted() {
+        return toLocalDateTime(this.timeSubmitted);
     }
 
-    public void setTimeSubmitted(String timeSubmitted) {
-        this.timeSubmitted = timeSubmitted;
+    public void setTimeSubmitted(LocalDateTime timeSubmitted) {
+        this.timeSubmitted = toTimestamp(timeSubmitted);
     }
 
     public int getResolverID() {
@@ -300,12 +320,40 @@ public class ReimbursementRequest implements Serializable{
         this.resolverID = resolverID;
     }
 
-    public String getTimeResolved() {
-        return this.timeResolved;
+    /**
+     * Returns null if the req hasn't been resolved.
+     * 
+     * @return
+     */
+    public LocalDateTime getTimeResolved() {
+        return toLocalDateTime(this.timeResolved);
+    }
+
+    public void setTimeResolved(LocalDateTime timeResolved) {
+        this.timeResolved = toTimestamp(timeResolved);
+    }
+
+    /**
+     * How many times this req has been updated. Managed by hibernate.
+     * 
+     * @return
+     */
+    public int getVersion() {
+        return this.version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
+    // helpers ---------------------
+
+    private static LocalDateTime toLocalDateTime(Timestamp ts){
+        return (ts == null) ? null : ts.toLocalDateTime();
     }
 
-    public void setTimeResolved(String timeResolved) {
-        this.timeResolved = timeResolved;
+    private static Timestamp toTimestamp(LocalDateTime ldt){
+        return (ldt == null) ? null : Timestamp.valueOf(ldt);
     }
 
 }
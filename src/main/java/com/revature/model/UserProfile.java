@@ -17,9 +17,14 @@ import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.Table;
+import javax.persistence.Version;
+
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
 @Table(name="USER_PROFILE")
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE) // read-mostly; see ehcache.xml
 public class UserProfile implements Serializable{
 
     // constants
@@ -79,6 +84,11 @@ public class UserProfile implements Serializable{
     @Column(name="EMAIL_ADDRESS")
     private String emailAddress;
 
+    // bumped by hibernate on every update (see ReimbursementRequest)
+    @Version
+    @Column(name="USER_VERSION")
+    private int version;
+
     // constructor(s) ---------------------
 
     /**
@@ -179,4 +189,17 @@ public class UserProfile implements Serializable{
     public void setEmailAddress(String emailAddress) {
         this.emailAddress = emailAddress;
     }
+
+    /**
+     * How many times this profile has been updated. Managed by hibernate.
+     * 
+     * @return
+     */
+    public int getVersion() {
+        return this.version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
 }
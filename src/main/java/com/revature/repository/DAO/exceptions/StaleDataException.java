@@ -0,0 +1,15 @@
+/**
+ * Thrown by a DAO object/method when asked to save something that someone else changed
+ * (or deleted) after it was read, eg two managers resolving the same reimb-req at once.
+ * Nothing is saved; the caller can re-read the current version and try again.
+ */
+package com.revature.repository.DAO.exceptions;
+
+public class StaleDataException extends DAOException {
+    
+    static final long serialVersionUID = 0L;
+
+    public StaleDataException(String message){
+        super(message);
+    }
+}
@@ -5,24 +5,61 @@
  */
 package com.revature.repository.DAO.impl;
 
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 import com.revature.model.ReimbursementRequest;
 import com.revature.model.ReimbursementRequest.ReimbursementStatus;
 import com.revature.repository.DAO.exceptions.DAOException;
+import com.revature.repository.DAO.exceptions.StaleDataException;
 import com.revature.repository.DAO.interfaces.ReimbursementRequestDAO;
 
 import org.hibernate.Criteria;
+import org.hibernate.FetchMode;
 import org.hibernate.HibernateException;
+import org.hibernate.Query;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.SQLQuery;
 import org.hibernate.Session;
+import org.hibernate.StaleStateException;
+import org.hibernate.StatelessSession;
 import org.hibernate.Transaction;
+import org.hibernate.criterion.Order;
 import org.hibernate.criterion.Restrictions;
+import org.hibernate.type.StandardBasicTypes;
 
 import com.revature.repository.Util.HibernateConnectionUtil;
 
 public class ReimbursementRequestDAOImpl implements ReimbursementRequestDAO {
 
     // constants
+    private static final int WARM_UP_ID = 0; // generated IDs start at 1
+    // used by resolvePendingRequests. The lock has to be plain SQL: Hibernate only adds
+    // "for update" to HQL queries that select whole entities, and we just want 2 columns
+    private static final String LOCK_STATUSES 
+            = "select RR_ID, RR_STATUS from %sREIMBURSEMENT_REQUEST "
+            + "where RR_ID in (:ids) for update";
+    private static final String RESOLVE_PENDING
+            = "update versioned ReimbursementRequest r set r.status = :newStatus, "
+            + "r.resolverID = :resolverID, r.timeResolved = :timeResolved "
+            + "where r.ID in (:ids) and r.status = :pending";
+    // rows fetched from the database at a time by exportReimbursementRequests
+    private static final int EXPORT_FETCH_SIZE = 1000;
+    // RR_CHANGE_COUNT has one row (see db/migration/V5.sql), bumped by every write in
+    // the same transaction, so it can't miss a change the way a timestamp can
+    private static final String CHANGE_COUNT_TABLE = "RR_CHANGE_COUNT";
+    private static final String GET_CHANGE_COUNT
+            = "select CHANGE_COUNT from %sRR_CHANGE_COUNT where ID = 1";
+    private static final String BUMP_CHANGE_COUNT
+            = "update %sRR_CHANGE_COUNT set CHANGE_COUNT = CHANGE_COUNT + 1 where ID = 1";
 
     // class/static variables
 
@@ -53,21 +90,12 @@ public class ReimbursementRequestDAOImpl implements ReimbursementRequestDAO {
 
         try{
             Session session = HibernateConnectionUtil.getSession();
-            Criteria crit = session.createCriteria(ReimbursementRequest.class);
-            if (authorID != -1)
-                    crit.add(Restrictions.eq("author.ID", authorID));
-            if (searchBy == SearchType.PENDING)
-                    crit.add(Restrictions.eq("status", ReimbursementStatus.PENDING));
-            else if (searchBy == SearchType.RESOLVED)
-                    crit.add(Restrictions.or(
-                            Restrictions.eq("status", ReimbursementStatus.APPROVED),
-                            Restrictions.eq("status", ReimbursementStatus.DENIED)));
-    
+            Criteria crit = makeSearchCriteria(session, authorID, searchBy);
             List<ReimbursementRequest> reimbList = crit.list();
             for (ReimbursementRequest reimb : reimbList){
                 session.evict(reimb); // ? is this necessary?
             }
-            session.close();
+            HibernateConnectionUtil.releaseSession(session);
             return reimbList;
         }
         catch(HibernateException e){
@@ -76,6 +104,203 @@ public class ReimbursementRequestDAOImpl implements ReimbursementRequestDAO {
         
     }
 
+    /**
+     * Returns one page of the reimb-reqs matching the given constraints, in order of ID.
+     * See ReimbursementRequestDAO for how the cursor works.
+     * 
+     * @param authorID
+     * @param searchBy
+     * @param cursorID
+     * @param forward
+     * @param maxResults
+     * @return
+     * @throws DAOException
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<ReimbursementRequest> getReimbursementRequestPage(
+            int authorID, 
+            SearchType searchBy, 
+            int cursorID, 
+            boolean forward, 
+            int maxResults) throws DAOException {
+
+        try{
+            Session session = HibernateConnectionUtil.getSession();
+            Criteria crit = makeSearchCriteria(session, authorID, searchBy);
+            // the primary key index lets the database jump straight to the cursor
+            if (forward){
+                crit.add(Restrictions.gt("ID", cursorID));
+                crit.addOrder(Order.asc("ID"));
+            }
+            else{
+                crit.add(Restrictions.lt("ID", cursorID));
+                crit.addOrder(Order.desc("ID")); // closest to the cursor first
+            }
+            crit.setMaxResults(maxResults);
+            List<ReimbursementRequest> reimbList = crit.list();
+
+            for (ReimbursementRequest reimb : reimbList){
+                session.evict(reimb);
+            }
+            HibernateConnectionUtil.releaseSession(session);
+
+            if (!forward) Collections.reverse(reimbList);
+            return reimbList;
+        }
+        catch(HibernateException e){
+            throw new DAOException("HibernateException: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the reimb-reqs submitted in [from, to), oldest first. If none are found,
+     * returns an empty list.
+     * Runs as a range scan on the RR_SUBMITTED_IDX index (see db/migration/V3.sql).
+     * 
+     * @param from : inclusive
+     * @param to : exclusive
+     * @return
+     * @throws DAOException
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<ReimbursementRequest> getReimbursementRequestsSubmittedBetween(
+            LocalDateTime from, LocalDateTime to) throws DAOException {
+
+        try{
+            Session session = HibernateConnectionUtil.getSession();
+            List<ReimbursementRequest> reimbList 
+                    = makeSubmittedBetweenCriteria(session, from, to).list();
+            for (ReimbursementRequest reimb : reimbList){
+                session.evict(reimb);
+            }
+            HibernateConnectionUtil.releaseSession(session);
+            return reimbList;
+        }
+        catch(HibernateException e){
+            throw new DAOException("HibernateException: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Hands every matching reimb-req to the sink, in order of ID. See
+     * ReimbursementRequestDAO for what the parameters mean.
+     * Reads with a stateless session and a forward-only cursor, EXPORT_FETCH_SIZE rows
+     * at a time, so memory use stays the same no matter how many rows there are. The
+     * author is joined in, since a stateless session would otherwise load each one with
+     * a separate select.
+     * 
+     * @param searchBy
+     * @param from : may be null
+     * @param to : may be null
+     * @param sink
+     * @return
+     * @throws DAOException
+     * @throws IOException
+     */
+    @Override
+    public int exportReimbursementRequests(
+            SearchType searchBy, 
+            LocalDateTime from, 
+            LocalDateTime to, 
+            ExportSink sink) throws DAOException, IOException {
+
+        StatelessSession session = null;
+        Transaction tx = null;
+        ScrollableResults rows = null;
+        try{
+            session = HibernateConnectionUtil.openStatelessSession();
+            // postgres only fetches a few rows at a time (instead of the whole result)
+            // inside a transaction
+            tx = session.beginTransaction();
+
+            Criteria crit = session.createCriteria(ReimbursementRequest.class)
+                    .setFetchMode("author", FetchMode.JOIN);
+            addSearchRestrictions(crit, -1, searchBy);
+            if (from != null) 
+                crit.add(Restrictions.ge("timeSubmitted", Timestamp.valueOf(from)));
+            if (to != null) 
+                crit.add(Restrictions.lt("timeSubmitted", Timestamp.valueOf(to)));
+            rows = crit.addOrder(Order.asc("ID"))
+                    .setFetchSize(EXPORT_FETCH_SIZE)
+                    .scroll(ScrollMode.FORWARD_ONLY);
+
+            int count = 0;
+            while (rows.next()){
+                sink.accept((ReimbursementRequest)rows.get(0));
+                count++;
+            }
+            tx.commit();
+            return count;
+        }
+        catch(HibernateException e){
+            throw new DAOException("HibernateException: " + e.getMessage());
+        }
+        finally{
+            // the sink may have thrown part way through
+            try{
+                if (rows != null) rows.close();
+                if (tx != null && tx.isActive()) tx.rollback();
+                if (session != null) session.close();
+            }
+            catch(HibernateException e){
+                // already failed (or done); nothing more to do
+            }
+        }
+    }
+
+    /**
+     * Returns up to maxResults pending reimb-reqs, the longest-waiting first.
+     * The RR_STATUS_SUBMITTED_IDX index (see db/migration/V3.sql) is already in this
+     * order, so the database only has to read the first maxResults entries.
+     * 
+     * @param maxResults
+     * @return
+     * @throws DAOException
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<ReimbursementRequest> getOldestPendingRequests(int maxResults) 
+            throws DAOException {
+
+        try{
+            Session session = HibernateConnectionUtil.getSession();
+            List<ReimbursementRequest> reimbList 
+                    = makeOldestPendingCriteria(session).setMaxResults(maxResults).list();
+            for (ReimbursementRequest reimb : reimbList){
+                session.evict(reimb);
+            }
+            HibernateConnectionUtil.releaseSession(session);
+            return reimbList;
+        }
+        catch(HibernateException e){
+            throw new DAOException("HibernateException: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the number of writes made to the reimb-reqs so far. It's a single row
+     * lookup.
+     * 
+     * @return
+     * @throws DAOException
+     */
+    @Override
+    public long getChangeCount() throws DAOException {
+
+        try{
+            Session session = HibernateConnectionUtil.getSession();
+            Number count = (Number)makeChangeCountQuery(session).uniqueResult();
+            HibernateConnectionUtil.releaseSession(session);
+            if (count == null) throw new DAOException("RR_CHANGE_COUNT has no row.");
+            return count.longValue();
+        }
+        catch(HibernateException e){
+            throw new DAOException("HibernateException: " + e.getMessage());
+        }
+    }
+
     /**
      * Saves/writes the given reimb-req to the database.
      * Returns the ID of the reimb-req.
@@ -89,18 +314,101 @@ public class ReimbursementRequestDAOImpl implements ReimbursementRequestDAO {
     @Override
     public int saveReimbursementRequest(ReimbursementRequest reimb) throws DAOException{
 
+        Session session = null;
+        Transaction tx = null;
         try{
-            Session session = HibernateConnectionUtil.getSession();
-            Transaction tx = session.beginTransaction();
-            if (reimb.getID() == -1) session.save(reimb);
-            else session.saveOrUpdate(reimb);
+            session = HibernateConnectionUtil.getSession();
+            tx = session.beginTransaction();
+            ReimbursementRequest saved = reimb;
+            if (reimb.getID() < 1) session.save(reimb);
+            // unlike saveOrUpdate, ok if session has a copy
+            else saved = (ReimbursementRequest)session.merge(reimb);
+            // the req's row first, as in resolvePendingRequests, so the two can't
+            // deadlock over it and the change count
+            session.flush();
+            countChange(session);
             tx.commit();
-            session.evict(reimb);
-            session.close();
-    
+            session.evict(saved);
+            reimb.setVersion(saved.getVersion()); // so it can be saved again
+            HibernateConnectionUtil.releaseSession(session);
             return reimb.getID();
         }
+        catch(StaleStateException e){
+            // the session may be shared with the rest of the request; don't leave the
+            // failed change in it to be flushed later
+            HibernateConnectionUtil.rollBack(session);
+            HibernateConnectionUtil.releaseSession(session);
+            throw new StaleDataException(String.format(
+                    "Reimbursement request #%d was changed by someone else.", 
+                    reimb.getID()));
+        }
+        catch(HibernateException e){
+            HibernateConnectionUtil.rollBack(session);
+            HibernateConnectionUtil.releaseSession(session);
+            throw new DAOException("HibernateException: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Approves or denies every PENDING reimb-req in the given list, in one transaction.
+     * See ReimbursementRequestDAO for the details.
+     * The bulk update skips the session, but Hibernate still clears the cached reqs
+     * (and cached queries) for us afterwards, so nobody sees a stale status.
+     * 
+     * @param reimbIDs
+     * @param newStatus
+     * @param resolverID
+     * @param timeResolved
+     * @return
+     * @throws DAOException
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Map<Integer, ReimbursementStatus> resolvePendingRequests(
+            Collection<Integer> reimbIDs, 
+            ReimbursementStatus newStatus,
+            int resolverID, 
+            LocalDateTime timeResolved) throws DAOException {
+
+        Map<Integer, ReimbursementStatus> before = new HashMap<>();
+        if (reimbIDs.isEmpty()) return before;
+
+        Session session = null;
+        try{
+            session = HibernateConnectionUtil.getSession();
+            Transaction tx = session.beginTransaction();
+
+            // locked, so nobody else can resolve them before the update
+            List<Object[]> rows 
+                    = session.createSQLQuery(String.format(LOCK_STATUSES, tablePrefix()))
+                    .addScalar("RR_ID", StandardBasicTypes.INTEGER)
+                    .addScalar("RR_STATUS", StandardBasicTypes.STRING)
+                    .setParameterList("ids", reimbIDs)
+                    .list();
+            boolean anyPending = false;
+            for (Object[] row : rows){
+                ReimbursementStatus status = ReimbursementStatus.valueOf((String)row[1]);
+                before.put((Integer)row[0], status);
+                anyPending = anyPending || status == ReimbursementStatus.PENDING;
+            }
+
+            if (anyPending){
+                Query update = session.createQuery(RESOLVE_PENDING)
+                        .setParameter("newStatus", newStatus)
+                        .setParameter("resolverID", resolverID)
+                        .setTimestamp("timeResolved", Timestamp.valueOf(timeResolved))
+                        .setParameterList("ids", reimbIDs)
+                        .setParameter("pending", ReimbursementStatus.PENDING);
+                update.executeUpdate();
+                countChange(session);
+            }
+            tx.commit();
+            HibernateConnectionUtil.releaseSession(session);
+            return before;
+        }
         catch(HibernateException e){
+            HibernateConnectionUtil.rollBack(session);
+            HibernateConnectionUtil.releaseSession(session);
             throw new DAOException("HibernateException: " + e.getMessage());
         }
     }
@@ -120,7 +428,7 @@ public class ReimbursementRequestDAOImpl implements ReimbursementRequestDAO {
             Session session = HibernateConnectionUtil.getSession();
             ReimbursementRequest reimb 
                     = (ReimbursementRequest)session.get(ReimbursementRequest.class, reimbID);
-            session.close();
+            HibernateConnectionUtil.releaseSession(session);
             return reimb != null;
         }
         catch(HibernateException e){
@@ -140,16 +448,201 @@ public class ReimbursementRequestDAOImpl implements ReimbursementRequestDAO {
     @Override
     public ReimbursementRequest getReimbursementRequest(int reimbID) throws DAOException{
 
+        return findReimbursementRequest(reimbID).orElse(null);
+    }
+
+    /**
+     * Retrieves the reimb-req corresponding to the given ID, or an empty Optional if
+     * there isn't one. Only needs the one lookup, so use this instead of checkExists()
+     * followed by getReimbursementRequest().
+     * Throws an exception if there is a problem with the database.
+     * 
+     * @param reimbID
+     * @return
+     * @throws DAOException
+     */
+    @Override
+    public Optional<ReimbursementRequest> findReimbursementRequest(int reimbID) 
+            throws DAOException{
+
         try{
             Session session = HibernateConnectionUtil.getSession();
             ReimbursementRequest reimb 
                     = (ReimbursementRequest)session.get(ReimbursementRequest.class, reimbID);
-            session.evict(reimb);
-            session.close();
-            return reimb;
+            if (reimb != null) session.evict(reimb); // evict(null) throws
+            HibernateConnectionUtil.releaseSession(session);
+            return Optional.ofNullable(reimb);
+        }
+        catch(HibernateException e){
+            throw new DAOException("HibernateException: " + e.getMessage());
+        }
+    }
+
+    // ---------------------------
+    // other methods
+    // ---------------------------
+
+    /**
+     * Runs each of the queries this DAO uses once, so that Hibernate and the connection
+     * pool have already done their first-time setup before any real requests come in.
+     * Author-specific searches use an ID that can't exist, and searches over every author
+     * are limited to one row, so this is cheap no matter how big the table is.
+     * Meant to be called once, at start up.
+     * 
+     * @throws DAOException
+     */
+    public void warmUp() throws DAOException{
+
+        try{
+            Session session = HibernateConnectionUtil.getSession();
+            for (SearchType searchBy : SearchType.values()){
+                makeSearchCriteria(session, WARM_UP_ID, searchBy).list();
+                makeSearchCriteria(session, -1, searchBy).setMaxResults(1).list();
+                makeSearchCriteria(session, -1, searchBy)
+                        .add(Restrictions.gt("ID", WARM_UP_ID))
+                        .addOrder(Order.asc("ID"))
+                        .setMaxResults(1)
+                        .list();
+            }
+            LocalDateTime now = LocalDateTime.now();
+            makeSubmittedBetweenCriteria(session, now, now).list(); // empty range
+            makeOldestPendingCriteria(session).setMaxResults(1).list();
+            makeChangeCountQuery(session).uniqueResult();
+            session.get(ReimbursementRequest.class, WARM_UP_ID);
+            session.clear();
+            HibernateConnectionUtil.releaseSession(session);
         }
         catch(HibernateException e){
             throw new DAOException("HibernateException: " + e.getMessage());
         }
     }
+
+    // ---------------------------
+    // helpers
+    // ---------------------------
+
+    /**
+     * Returns "schema." if a default schema is configured, or "" if not, to go in front
+     * of a table name in plain SQL.
+     * 
+     * @return
+     */
+    private String tablePrefix(){
+
+        String schema = HibernateConnectionUtil.getDefaultSchema();
+        return (schema == null) ? "" : schema + ".";
+    }
+
+    /**
+     * Used by getChangeCount and warmUp.
+     * 
+     * @param session
+     * @return
+     */
+    private SQLQuery makeChangeCountQuery(Session session){
+
+        return session.createSQLQuery(String.format(GET_CHANGE_COUNT, tablePrefix()));
+    }
+
+    /**
+     * Bumps RR_CHANGE_COUNT. Must be called inside the transaction making the change, so
+     * the new count commits (or rolls back) along with it.
+     * It's a single row, so it's a write hotspot: each write transaction holds its lock
+     * until it commits, and the next write waits for that. Keep the transactions that
+     * call this short, and call it last.
+     * The query space matters: a native update without one makes Hibernate assume it
+     * could have changed anything, and empty every second level cache region.
+     * 
+     * @param session
+     */
+    private void countChange(Session session){
+
+        session.createSQLQuery(String.format(BUMP_CHANGE_COUNT, tablePrefix()))
+                .addSynchronizedQuerySpace(CHANGE_COUNT_TABLE)
+                .executeUpdate();
+    }
+
+    /**
+     * Every list query starts here. The author of each req is loaded by the same
+     * statement (an outer join), rather than one more select per author, so a list is
+     * always exactly one SQL statement no matter how many rows or authors are in it.
+     * (The mapping's default would join too, but that's easy to lose by accident.)
+     * 
+     * @param session
+     * @return
+     */
+    private Criteria makeCriteria(Session session){
+
+        return session.createCriteria(ReimbursementRequest.class)
+                .setFetchMode("author", FetchMode.JOIN);
+    }
+
+    /**
+     * Builds the Criteria used by getReimbursementRequests. See that method for what the
+     * parameters mean.
+     * 
+     * @param session
+     * @param authorID
+     * @param searchBy
+     * @return
+     */
+    private Criteria makeSearchCriteria(Session session, int authorID, SearchType searchBy){
+
+        return addSearchRestrictions(makeCriteria(session), authorID, searchBy);
+    }
+
+    /**
+     * Limits the given Criteria to the reqs matching authorID and searchBy (see
+     * getReimbursementRequests).
+     * 
+     * @param crit
+     * @param authorID
+     * @param searchBy
+     * @return crit
+     */
+    private Criteria addSearchRestrictions(
+            Criteria crit, int authorID, SearchType searchBy){
+
+        if (authorID != -1)
+                crit.add(Restrictions.eq("author.ID", authorID));
+        if (searchBy == SearchType.PENDING)
+                crit.add(Restrictions.eq("status", ReimbursementStatus.PENDING));
+        else if (searchBy == SearchType.RESOLVED)
+                crit.add(Restrictions.or(
+                        Restrictions.eq("status", ReimbursementStatus.APPROVED),
+                        Restrictions.eq("status", ReimbursementStatus.DENIED)));
+        return crit;
+    }
+
+    /**
+     * Builds the Criteria used by getReimbursementRequestsSubmittedBetween.
+     * 
+     * @param session
+     * @param from : inclusive
+     * @param to : exclusive
+     * @return
+     */
+    private Criteria makeSubmittedBetweenCriteria(
+            Session session, LocalDateTime from, LocalDateTime to){
+
+        return makeCriteria(session)
+                .add(Restrictions.ge("timeSubmitted", Timestamp.valueOf(from)))
+                .add(Restrictions.lt("timeSubmitted", Timestamp.valueOf(to)))
+                .addOrder(Order.asc("timeSubmitted"))
+                .addOrder(Order.asc("ID")); // ties
+    }
+
+    /**
+     * Builds the Criteria used by getOldestPendingRequests (without the limit).
+     * 
+     * @param session
+     * @return
+     */
+    private Criteria makeOldestPendingCriteria(Session session){
+
+        return makeSearchCriteria(session, -1, SearchType.PENDING)
+                .add(Restrictions.isNotNull("timeSubmitted"))
+                .addOrder(Order.asc("timeSubmitted"))
+                .addOrder(Order.asc("ID"));
+    }
 }
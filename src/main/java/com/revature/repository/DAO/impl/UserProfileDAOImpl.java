@@ -6,15 +6,19 @@
 package com.revature.repository.DAO.impl;
 
 import java.util.List;
+import java.util.Optional;
 
 import com.revature.model.UserPassword;
 import com.revature.model.UserProfile;
 import com.revature.repository.DAO.exceptions.DAOException;
+import com.revature.repository.DAO.exceptions.StaleDataException;
 import com.revature.repository.DAO.interfaces.UserProfileDAO;
 
 import org.hibernate.Criteria;
 import org.hibernate.HibernateException;
+import org.hibernate.Query;
 import org.hibernate.Session;
+import org.hibernate.StaleStateException;
 import org.hibernate.Transaction;
 import org.hibernate.criterion.Restrictions;
 
@@ -23,6 +27,13 @@ import com.revature.repository.Util.HibernateConnectionUtil;
 public class UserProfileDAOImpl implements UserProfileDAO {
     
     // constants
+    private static final int WARM_UP_ID = 0; // generated IDs start at 1
+    private static final String WARM_UP_NAME = ""; // never a valid username/email
+    private static final String FIND_PASSWORD_BY_USERNAME = "select p, u "
+            + "from UserPassword p, UserProfile u "
+            + "where p.user.ID = u.ID and u.username = :username";
+    // region name must match the one in ehcache.xml
+    public static final String ALL_EMPLOYEES_CACHE_REGION = "query.AllEmployeeProfiles";
 
     // class/static variables
 
@@ -46,7 +57,7 @@ public class UserProfileDAOImpl implements UserProfileDAO {
         try{
             Session session = HibernateConnectionUtil.getSession();
             UserProfile up = (UserProfile)session.get(UserProfile.class, userID);
-            session.close();
+            HibernateConnectionUtil.releaseSession(session);
             return up != null;
         }
         catch(HibernateException e){
@@ -68,7 +79,7 @@ public class UserProfileDAOImpl implements UserProfileDAO {
             Criteria crit = session.createCriteria(UserProfile.class);
             crit.add(Restrictions.eq("username", username));
             List<UserProfile> userList = crit.list();
-            session.close();
+            HibernateConnectionUtil.releaseSession(session);
             return !userList.isEmpty();
         }
         catch(HibernateException e){
@@ -91,7 +102,7 @@ public class UserProfileDAOImpl implements UserProfileDAO {
             Criteria crit = session.createCriteria(UserProfile.class);
             crit.add(Restrictions.eq("emailAddress", emailAddress));
             List<UserProfile> userList = crit.list();
-            session.close();
+            HibernateConnectionUtil.releaseSession(session);
             return !userList.isEmpty();
         }
         catch(HibernateException e){
@@ -117,14 +128,14 @@ public class UserProfileDAOImpl implements UserProfileDAO {
             List<UserPassword> passList = crit.list();
     
             if (passList.isEmpty()){
-                session.close();
+                HibernateConnectionUtil.releaseSession(session);
                 throw new DAOException(  
                     "getPassword: No password for account with ID " + userID);
             } 
     
             UserPassword uPass = passList.get(0);
             session.evict(uPass);
-            session.close();
+            HibernateConnectionUtil.releaseSession(session);
             return uPass.getPass();
         }
         catch(HibernateException e){
@@ -138,33 +149,14 @@ public class UserProfileDAOImpl implements UserProfileDAO {
      * Throws exception if the user is not found.
      */
     @Override
-    @SuppressWarnings("unchecked")
     public String getPassword(String username) throws DAOException{
         
-        try{
-            Session session = HibernateConnectionUtil.getSession();
-    
-            UserProfile user = getUserProfile(username); // a little hacky but it works
-            int userID = user.getID();
-            Criteria crit = session.createCriteria(UserPassword.class);
-            crit.add(Restrictions.eq("user.id", userID));
-            List<UserPassword> passList = crit.list();
-    
-            if (passList.isEmpty()){
-                session.close();
-                throw new DAOException(  
-                    String.format("getPassword: No password for account with username '%s'",
-                    username));
-            } 
-    
-            UserPassword uPass = passList.get(0);
-            session.evict(uPass);
-            session.close();
-            return uPass.getPass();
-        }
-        catch(HibernateException e){
-            throw new DAOException("HibernateException: " + e.getMessage());
-        }
+        return findUserPassword(username)
+                .map(UserPassword::getPass)
+                .orElseThrow(() -> new DAOException(
+                        String.format(
+                                "getPassword: No password for account with username '%s'",
+                                username)));
     }
 
     /**
@@ -178,12 +170,46 @@ public class UserProfileDAOImpl implements UserProfileDAO {
     @Override
     public UserProfile getUserProfile(int userID) throws DAOException{
 
+        return findUserProfile(userID).orElse(null);
+    }
+
+    /**
+     * Returns a filled-out UserProfile object. 
+     * Throws exception if there is a database communication problem. 
+     * Throws exception if the user is not found.
+     * 
+     * @param username
+     * @return
+     * @throws DAOException
+     */
+    @Override
+    public UserProfile getUserProfile(String username) throws DAOException{
+        
+        return findUserProfile(username)
+                .orElseThrow(() -> new DAOException(
+                        String.format(
+                                "getUserProfile: No account with username '%s'", 
+                                username)));
+    }
+
+    /**
+     * Returns the indicated user's profile, or an empty Optional if there is no such
+     * user.
+     * Throws exception if there is a database communication problem.
+     * 
+     * @param userID
+     * @return
+     * @throws DAOException
+     */
+    @Override
+    public Optional<UserProfile> findUserProfile(int userID) throws DAOException{
+
         try{
             Session session = HibernateConnectionUtil.getSession();
             UserProfile up = (UserProfile) session.get(UserProfile.class, userID);
-            session.evict(up);
-            session.close();
-            return up;
+            if (up != null) session.evict(up); // evict(null) throws
+            HibernateConnectionUtil.releaseSession(session);
+            return Optional.ofNullable(up);
         }
         catch(HibernateException e){
             throw new DAOException("HibernateException: " + e.getMessage());
@@ -191,39 +217,109 @@ public class UserProfileDAOImpl implements UserProfileDAO {
     }
 
     /**
-     * Returns a filled-out UserProfile object. 
-     * Throws exception if there is a database communication problem. 
-     * Throws exception if the user is not found.
+     * Returns the indicated user's profile, or an empty Optional if there is no such
+     * user.
+     * Throws exception if there is a database communication problem.
      * 
      * @param username
      * @return
      * @throws DAOException
      */
     @Override
-    @SuppressWarnings("unchecked")
-    public UserProfile getUserProfile(String username) throws DAOException{
-        
+    public Optional<UserProfile> findUserProfile(String username) throws DAOException{
+
         try{
             Session session = HibernateConnectionUtil.getSession();
-    
+
             Criteria crit = session.createCriteria(UserProfile.class);
             crit.add(Restrictions.eq("username", username));
-            List<UserProfile> userList = crit.list();
-            
-            if (userList.isEmpty()) {
-                session.close();
-                throw new DAOException(
-                    String.format(
-                                "getUserProfile: No password for account with username '%s'", 
-                                username));
+            crit.setMaxResults(1); // usernames should be unique anyway
+            UserProfile up = (UserProfile) crit.uniqueResult();
+
+            if (up != null) session.evict(up);
+            HibernateConnectionUtil.releaseSession(session);
+            return Optional.ofNullable(up);
+        }
+        catch(HibernateException e){
+            throw new DAOException("HibernateException: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the indicated user's (encrypted) password, with their profile already
+     * filled in, or an empty Optional if there is no such user.
+     * The profile is joined in, so this is a single SELECT.
+     * Throws exception if there is a database communication problem.
+     * 
+     * @param username
+     * @return
+     * @throws DAOException
+     */
+    @Override
+    public Optional<UserPassword> findUserPassword(String username) throws DAOException{
+
+        try{
+            Session session = HibernateConnectionUtil.getSession();
+
+            // hibernate 3 quietly drops a criteria alias/join on the @Id association
+            // (the SQL has no join at all), so the join is spelled out here instead.
+            // Selecting the profile too puts it in the session, so uPass.getUser() is
+            // already filled in
+            Query query = session.createQuery(FIND_PASSWORD_BY_USERNAME);
+            query.setString("username", username);
+            query.setMaxResults(1);
+            Object[] row = (Object[]) query.uniqueResult();
+            UserPassword uPass = (row == null) ? null : (UserPassword) row[0];
+
+            if (uPass != null){
+                session.evict(uPass);
+                session.evict(uPass.getUser()); // evict doesn't cascade
             }
-            
-            UserProfile up = userList.get(0);
-            session.evict(up);
-            session.close();
-            return up;
+            HibernateConnectionUtil.releaseSession(session);
+            return Optional.ofNullable(uPass);
+        }
+        catch(HibernateException e){
+            throw new DAOException("HibernateException: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Replaces the stored (hashed) password for the indicated user. Returns false if the
+     * user has no password to replace.
+     * Throws exception if there is a database communication problem.
+     * 
+     * @param userID
+     * @param hash
+     * @return
+     * @throws DAOException
+     */
+    @Override
+    public boolean updatePassword(int userID, String hash) throws DAOException{
+
+        Session session = null;
+        try{
+            session = HibernateConnectionUtil.getSession();
+            Transaction tx = session.beginTransaction();
+
+            Criteria crit = session.createCriteria(UserPassword.class);
+            crit.add(Restrictions.eq("user.ID", userID));
+            UserPassword uPass = (UserPassword) crit.uniqueResult();
+            if (uPass == null){
+                tx.rollback();
+                HibernateConnectionUtil.releaseSession(session);
+                return false;
+            }
+
+            uPass.setPass(hash); // flushed on commit
+            tx.commit();
+            session.evict(uPass);
+            session.evict(uPass.getUser());
+            HibernateConnectionUtil.releaseSession(session);
+            return true;
         }
         catch(HibernateException e){
+            HibernateConnectionUtil.rollBack(session);
+            HibernateConnectionUtil.releaseSession(session);
             throw new DAOException("HibernateException: " + e.getMessage());
         }
     }
@@ -245,6 +341,8 @@ public class UserProfileDAOImpl implements UserProfileDAO {
             Criteria crit = session.createCriteria(UserProfile.class);
             // I thought I would have to cast the enum to string, but I don't. Neat.
             crit.add(Restrictions.eq("role", UserProfile.UserRole.EMPLOYEE));
+            // the result is thrown out whenever USER_PROFILE changes
+            crit.setCacheable(true).setCacheRegion(ALL_EMPLOYEES_CACHE_REGION);
             List<UserProfile> userList = crit.list();
             
             // ? is this actually necessary?
@@ -252,7 +350,7 @@ public class UserProfileDAOImpl implements UserProfileDAO {
                 session.evict(user);
             }
     
-            session.close();
+            HibernateConnectionUtil.releaseSession(session);
             return userList;
         }
         catch(HibernateException e){
@@ -278,16 +376,71 @@ public class UserProfileDAOImpl implements UserProfileDAO {
     @Override
     public int saveUserProfile(UserProfile up) throws DAOException{
 
+        Session session = null;
+        Transaction tx = null;
         try{
-            Session session = HibernateConnectionUtil.getSession();
-            Transaction tx = session.beginTransaction();
-            if (up.getID() == -1) session.save(up);
-            else session.saveOrUpdate(up);
+            session = HibernateConnectionUtil.getSession();
+            tx = session.beginTransaction();
+            UserProfile saved = up;
+            if (up.getID() < 1) session.save(up);
+            // unlike saveOrUpdate, ok if session has a copy
+            else saved = (UserProfile)session.merge(up);
             tx.commit();
-            session.evict(up);
-            session.close();
+            session.evict(saved);
+            up.setVersion(saved.getVersion()); // so it can be saved again
+            HibernateConnectionUtil.releaseSession(session);
             return up.getID();
         }
+        catch(StaleStateException e){
+            // the session may be shared with the rest of the request; don't leave the
+            // failed change in it to be flushed later
+            HibernateConnectionUtil.rollBack(session);
+            HibernateConnectionUtil.releaseSession(session);
+            throw new StaleDataException(String.format(
+                    "User profile #%d was changed by someone else.", up.getID()));
+        }
+        catch(HibernateException e){
+            HibernateConnectionUtil.rollBack(session);
+            HibernateConnectionUtil.releaseSession(session);
+            throw new DAOException("HibernateException: " + e.getMessage());
+        }
+    }
+
+    // ---------------------------
+    // other methods
+    // ---------------------------
+
+    /**
+     * Runs each of the queries this DAO uses once, so that Hibernate and the connection
+     * pool have already done their first-time setup before any real requests come in.
+     * Lookups use an ID/name that can't exist, and the employee list is limited to one
+     * row, so this is cheap no matter how many users there are.
+     * Meant to be called once, at start up.
+     * 
+     * @throws DAOException
+     */
+    public void warmUp() throws DAOException{
+
+        checkExists(WARM_UP_ID);
+        checkExists(WARM_UP_NAME);
+        checkExistsEmail(WARM_UP_NAME);
+        findUserPassword(WARM_UP_NAME); // log in
+
+        try{
+            Session session = HibernateConnectionUtil.getSession();
+
+            Criteria crit = session.createCriteria(UserPassword.class);
+            crit.add(Restrictions.eq("user.ID", WARM_UP_ID));
+            crit.list();
+
+            crit = session.createCriteria(UserProfile.class);
+            crit.add(Restrictions.eq("role", UserProfile.UserRole.EMPLOYEE));
+            crit.setMaxResults(1);
+            crit.list();
+
+            session.clear();
+            HibernateConnectionUtil.releaseSession(session);
+        }
         catch(HibernateException e){
             throw new DAOException("HibernateException: " + e.getMessage());
         }
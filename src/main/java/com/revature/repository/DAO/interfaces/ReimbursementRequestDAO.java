@@ -5,9 +5,15 @@
  */
 package com.revature.repository.DAO.interfaces;
 
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 import com.revature.model.ReimbursementRequest;
+import com.revature.model.ReimbursementRequest.ReimbursementStatus;
 import com.revature.repository.DAO.exceptions.DAOException;
 
 public interface ReimbursementRequestDAO {
@@ -20,6 +26,15 @@ public interface ReimbursementRequestDAO {
         ALL, PENDING, RESOLVED;
     }
 
+    /**
+     * Gets each reimb-req from exportReimbursementRequests, one at a time. Whatever it
+     * does with a req, it shouldn't hang on to it.
+     */
+    @FunctionalInterface
+    public interface ExportSink{
+        void accept(ReimbursementRequest reimb) throws IOException;
+    }
+
     /**
      * Returns a list of reimb-reqs matching the given constraints.
      * 
@@ -33,11 +48,90 @@ public interface ReimbursementRequestDAO {
     public List<ReimbursementRequest> getReimbursementRequests(
             int authorID, SearchType searchBy) throws DAOException;
 
+    /**
+     * Returns one page of the reimb-reqs matching the given constraints, in order of ID.
+     * Rather than skipping over some number of rows (which gets slower the further in
+     * the user goes), starts from the given cursor ID, so every page costs the same.
+     * 
+     * @param authorID : same as getReimbursementRequests()
+     * @param searchBy : same as getReimbursementRequests()
+     * @param cursorID : if forward, only reqs with an ID higher than this are considered
+     *      (use 0 for the first page). Otherwise, only reqs with a lower ID.
+     * @param forward : if true, returns the reqs just after the cursor; if false, the
+     *      ones just before it. Either way, the list is in ascending ID order.
+     * @param maxResults : at most this many reqs are returned
+     * @return
+     * @throws DAOException
+     */
+    public List<ReimbursementRequest> getReimbursementRequestPage(
+            int authorID, 
+            SearchType searchBy, 
+            int cursorID, 
+            boolean forward, 
+            int maxResults) throws DAOException;
+
+    /**
+     * Returns the reimb-reqs submitted in the given time range, oldest first. Reqs that
+     * were never submitted (no time) are left out.
+     * 
+     * @param from : inclusive
+     * @param to : exclusive
+     * @return
+     * @throws DAOException
+     */
+    public List<ReimbursementRequest> getReimbursementRequestsSubmittedBetween(
+            LocalDateTime from, LocalDateTime to) throws DAOException;
+
+    /**
+     * Hands every reimb-req matching the given constraints to the sink, in order of ID,
+     * without ever holding more than a handful of them in memory. Meant for exports of
+     * the whole table.
+     * Returns how many reqs were handed over. If the sink throws, the export stops
+     * there and the exception is passed on.
+     * 
+     * @param searchBy : same as getReimbursementRequests()
+     * @param from : if not null, only reqs submitted at or after this time
+     * @param to : if not null, only reqs submitted before this time
+     * @param sink
+     * @return
+     * @throws DAOException
+     * @throws IOException if the sink threw one
+     */
+    public int exportReimbursementRequests(
+            SearchType searchBy, 
+            LocalDateTime from, 
+            LocalDateTime to, 
+            ExportSink sink) throws DAOException, IOException;
+
+    /**
+     * Returns the pending reimb-reqs that have been waiting the longest, oldest first.
+     * 
+     * @param maxResults : at most this many reqs are returned
+     * @return
+     * @throws DAOException
+     */
+    public List<ReimbursementRequest> getOldestPendingRequests(int maxResults) 
+            throws DAOException;
+
+    /**
+     * Returns a count that goes up with every committed write to the reimb-reqs (a save
+     * or a bulk resolve), so if it hasn't moved, no list could have changed. Cheap
+     * enough to call on every page view.
+     * The count is one row that every write updates, so writes to the reimb-reqs take
+     * turns on it: each one holds the row's lock until it commits.
+     * 
+     * @return
+     * @throws DAOException
+     */
+    public long getChangeCount() throws DAOException;
+
     /**
      * Saves/writes the given reimb-req to the database.
      * Returns the ID of the reimb-req.
      * If given a new reimb-req (ID = -1), the system will determine a new, unique ID, and
      * return that.
+     * Throws StaleDataException (and saves nothing) if the req was changed by someone
+     * else since it was read, eg another manager resolved it first.
      * 
      * @param reimb
      * @return ID of the reimb-req
@@ -45,6 +139,27 @@ public interface ReimbursementRequestDAO {
      */
     public int saveReimbursementRequest(ReimbursementRequest reimb) throws DAOException;
 
+    /**
+     * Approves or denies every PENDING reimb-req in the given list, all in one
+     * transaction. The reqs are locked and their statuses read with one query, then the
+     * pending ones are changed with a single UPDATE ... WHERE status = PENDING, so a req
+     * that someone else resolves at the same time is never resolved twice.
+     * Returns the status each req had just before the update; the ones that were
+     * PENDING now have newStatus. IDs that don't exist are left out of the map.
+     * 
+     * @param reimbIDs
+     * @param newStatus : APPROVED or DENIED
+     * @param resolverID : the manager doing it
+     * @param timeResolved
+     * @return
+     * @throws DAOException
+     */
+    public Map<Integer, ReimbursementStatus> resolvePendingRequests(
+            Collection<Integer> reimbIDs, 
+            ReimbursementStatus newStatus,
+            int resolverID, 
+            LocalDateTime timeResolved) throws DAOException;
+
     /**
      * Returns true if there is a reimb-req in the database with the given id, false
      * otherwise.
@@ -56,11 +171,22 @@ public interface ReimbursementRequestDAO {
     public boolean checkExists(int reimbID) throws DAOException;
 
     /**
-     * 
+     * Returns the reimb-req with the given id, or null if there isn't one.
      * 
      * @param reimbID
      * @return
      * @throws DAOException
      */
     public ReimbursementRequest getReimbursementRequest (int reimbID) throws DAOException;
+
+    /**
+     * Returns the reimb-req with the given id, or an empty Optional if there isn't one.
+     * Does the work of checkExists() and getReimbursementRequest() in one lookup.
+     * 
+     * @param reimbID
+     * @return
+     * @throws DAOException
+     */
+    public Optional<ReimbursementRequest> findReimbursementRequest(int reimbID) 
+            throws DAOException;
 }
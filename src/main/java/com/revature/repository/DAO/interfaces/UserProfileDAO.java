@@ -5,7 +5,9 @@
 package com.revature.repository.DAO.interfaces;
 
 import java.util.List;
+import java.util.Optional;
 
+import com.revature.model.UserPassword;
 import com.revature.model.UserProfile;
 import com.revature.repository.DAO.exceptions.DAOException;
 
@@ -67,6 +69,52 @@ public interface UserProfileDAO {
      */
     public UserProfile getUserProfile(String username) throws DAOException;
 
+    /**
+     * Returns the indicated user's profile, or an empty Optional if there is no such
+     * user. Does the work of checkExists() and getUserProfile() in one lookup.
+     * Throws exception if there is a database communication problem.
+     * 
+     * @param userID
+     * @return
+     * @throws DAOException
+     */
+    public Optional<UserProfile> findUserProfile(int userID) throws DAOException;
+
+    /**
+     * Returns the indicated user's profile, or an empty Optional if there is no such
+     * user. Does the work of checkExists() and getUserProfile() in one lookup.
+     * Throws exception if there is a database communication problem.
+     * 
+     * @param username
+     * @return
+     * @throws DAOException
+     */
+    public Optional<UserProfile> findUserProfile(String username) throws DAOException;
+
+    /**
+     * Returns the indicated user's (encrypted) password, with their profile already
+     * filled in (see UserPassword.getUser()), or an empty Optional if there is no such
+     * user. Meant for logging in, where both are needed; only takes one query.
+     * Throws exception if there is a database communication problem.
+     * 
+     * @param username
+     * @return
+     * @throws DAOException
+     */
+    public Optional<UserPassword> findUserPassword(String username) throws DAOException;
+
+    /**
+     * Replaces the stored (hashed) password for the indicated user, eg with a stronger
+     * hash of the same password. Returns false if the user has no password to replace.
+     * Throws exception if there is a database communication problem.
+     * 
+     * @param userID
+     * @param hash : already hashed
+     * @return
+     * @throws DAOException
+     */
+    public boolean updatePassword(int userID, String hash) throws DAOException;
+
     /**
      * Returns a list of all employee profiles in the system.
      * Returns an empty list if there are no employees.
@@ -84,6 +132,8 @@ public interface UserProfileDAO {
      * If saving a new UserProfile, should use ID = -1. The system will automatically
      * generate a new ID and return it.
      * Throws exception if there is a database communication problem. 
+     * Throws StaleDataException (and saves nothing) if the profile was changed by someone
+     * else since it was read.
      * 
      * @param up : profile to save
      * 
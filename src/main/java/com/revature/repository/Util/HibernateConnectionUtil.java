@@ -3,11 +3,21 @@
  */
 package com.revature.repository.Util;
 
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.logging.Level;
 
+import org.hibernate.HibernateException;
+import org.hibernate.JDBCException;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
 import org.hibernate.cfg.Configuration;
+import org.hibernate.jdbc.Work;
+import org.hibernate.stat.Statistics;
 
 public class HibernateConnectionUtil {
 
@@ -15,28 +25,286 @@ public class HibernateConnectionUtil {
 	public static final String CONFIG_FILE_NAME = "hibernate.cfg.xml";
 	public static final String TEST_CONFIG_FILE_NAME = "test_hibernate.cfg.xml";
 
+	public static final String POOL_MIN_SIZE_PROPERTY = "hibernate.c3p0.min_size";
+	public static final String DEFAULT_SCHEMA_PROPERTY = "hibernate.default_schema";
+
 	// class / static variables
-	private static boolean isInitialized = false;
 	private static boolean isTestMode = false;
 
-    private static SessionFactory sf; 
-	
-	//get a Session from the SessionFactory Method
+	// volatile so that threads that skip the lock in getSessionFactory() still see a
+	// fully built factory
+    private static volatile SessionFactory sf;
+	private static int poolMinSize = 1; // read from the config file when sf is built
+	private static String defaultSchema; // same
+
+	// the request scope (if any) that the current thread is inside of
+	private static final ThreadLocal<RequestScope> currentScope
+			= new ThreadLocal<RequestScope>();
+
+	/**
+	 * Tracks the session shared by every DAO call made during one request.
+	 * The session is only opened once something actually asks for it.
+	 */
+	private static class RequestScope {
+
+		private Session session;
+		private int depth; // so that nested begin/end pairs don't close it early
+	}
+
+	/**
+	 * If the current thread is inside a request scope, returns the session shared by that
+	 * scope (opening it if this is the first call). Otherwise, opens a new session.
+	 *
+	 * Sessions gotten from this method should be given back with releaseSession() rather
+	 * than closed directly.
+	 */
 	public static Session getSession(){
 
-		if (!isInitialized){ // figure out what kind to make
+		RequestScope scope = currentScope.get();
+		if (scope == null) return openSession();
+
+		if (scope.session == null || !scope.session.isOpen())
+			scope.session = openSession();
+		return scope.session;
+	}
+
+	/**
+	 * Gives back a session gotten from getSession(). If the session belongs to the current
+	 * request scope, it is left open for the next DAO call; otherwise, it is closed.
+	 *
+	 * @param session
+	 */
+	public static void releaseSession(Session session){
+
+		if (session == null || !session.isOpen()) return;
+
+		RequestScope scope = currentScope.get();
+		if (scope != null && scope.session == session) return;
+
+		session.close();
+	}
+
+	/**
+	 * Rolls back the session's transaction (if one is still open) and drops anything the
+	 * session is holding on to. Meant for the catch blocks of DAO writes: the session may
+	 * be shared with the rest of the request, and shouldn't be left with a broken
+	 * transaction or a failed change that would be flushed later.
+	 * Never throws; the caller is already handling a failure.
+	 *
+	 * @param session : may be null
+	 */
+	public static void rollBack(Session session){
+
+		if (session == null || !session.isOpen()) return;
+		try{
+			Transaction tx = session.getTransaction();
+			if (tx != null && tx.isActive()) tx.rollback();
+			session.clear();
+		}
+		catch(HibernateException e){
+			// the connection itself is probably gone; closing the session will sort it out
+		}
+	}
+
+	/**
+	 * Starts a request scope on the current thread. Until the matching call to
+	 * endRequestScope(), every call to getSession() on this thread returns the same
+	 * session (and so the same pooled connection).
+	 * Scopes can be nested; only the outermost end will close the session.
+	 */
+	public static void beginRequestScope(){
+
+		RequestScope scope = currentScope.get();
+		if (scope == null){
+			scope = new RequestScope();
+			currentScope.set(scope);
+		}
+		scope.depth++;
+	}
+
+	/**
+	 * Ends the request scope started by beginRequestScope(). If this is the outermost
+	 * scope, the shared session (if one was opened) is closed and its connection goes
+	 * back to the pool. A transaction that was left open is rolled back first.
+	 * Does nothing if the current thread is not in a request scope.
+	 */
+	public static void endRequestScope(){
+
+		RequestScope scope = currentScope.get();
+		if (scope == null) return;
+
+		scope.depth--;
+		if (scope.depth > 0) return;
+
+		currentScope.remove();
+		if (scope.session != null && scope.session.isOpen()){
+			rollBack(scope.session);
+			scope.session.close();
+		}
+	}
+
+	/**
+	 * Closes the current request scope's session early (if one is open), so its
+	 * connection goes back to the pool. The scope itself carries on; the next call to
+	 * getSession() opens a new session.
+	 * For requests that are about to do slow work that doesn't need the database (eg
+	 * checking a password), so they don't sit on a connection other requests are
+	 * waiting for. Does nothing if the current thread is not in a request scope.
+	 */
+	public static void releaseRequestSession(){
+
+		RequestScope scope = currentScope.get();
+		if (scope == null || scope.session == null) return;
+
+		if (scope.session.isOpen()){
+			rollBack(scope.session);
+			scope.session.close();
+		}
+		scope.session = null;
+	}
+
+	/**
+	 * Opens a brand new session, initializing the SessionFactory if necessary.
+	 *
+	 * @return
+	 */
+	private static Session openSession(){
+
+		return getSessionFactory().openSession();
+	}
+
+	/**
+	 * Opens a new stateless session, for reading through a lot of rows at once (eg an
+	 * export). It keeps nothing it loads, so memory use doesn't grow with the number of
+	 * rows. It's never part of a request scope; the caller has to close it.
+	 *
+	 * @return
+	 */
+	public static StatelessSession openStatelessSession(){
+
+		return getSessionFactory().openStatelessSession();
+	}
+
+	/**
+	 * Returns the SessionFactory, building it first if necessary. Safe to call from any
+	 * number of threads at once; exactly one factory will be built.
+	 *
+	 * @return
+	 */
+	private static SessionFactory getSessionFactory(){
+
+		SessionFactory factory = sf;
+		if (factory != null) return factory; // the usual case, no locking needed
+
+		synchronized (HibernateConnectionUtil.class){
+			if (sf == null){ // figure out what kind to make
 
-			String fileName;
+				String fileName;
 
-			if (isTestMode) fileName = TEST_CONFIG_FILE_NAME;
-			else fileName = CONFIG_FILE_NAME;
+				if (isTestMode) fileName = TEST_CONFIG_FILE_NAME;
+				else fileName = CONFIG_FILE_NAME;
 
-			java.util.logging.Logger.getLogger("org.hibernate").setLevel(Level.SEVERE);
-			sf = new Configuration().configure(fileName).buildSessionFactory();
-			isInitialized = true;
+				java.util.logging.Logger.getLogger("org.hibernate").setLevel(Level.SEVERE);
+				Configuration config = new Configuration().configure(fileName);
+				String minSize = config.getProperty(POOL_MIN_SIZE_PROPERTY);
+				poolMinSize = (minSize == null) ? 1 : Integer.parseInt(minSize.trim());
+				String schema = config.getProperty(DEFAULT_SCHEMA_PROPERTY);
+				defaultSchema = (schema == null) ? null : schema.trim();
+				sf = config.buildSessionFactory();
+			}
+			return sf;
 		}
+	}
+
+	/**
+	 * Builds the SessionFactory (if it isn't already) and makes sure the connection pool
+	 * has its minimum number of connections actually open, so that the first real
+	 * requests don't have to wait on either.
+	 * Meant to be called once, at application start up.
+	 *
+	 * @throws SQLException if a connection could not be opened
+	 */
+	public static void warmUp() throws SQLException{
+
+		SessionFactory factory = getSessionFactory();
 
-		return sf.openSession();
+		// every session holds its connection until closed, so having poolMinSize of them
+		// open at once forces that many distinct connections
+		List<Session> sessions = new ArrayList<Session>();
+		try{
+			for (int i = 0; i < poolMinSize; i++){
+				Session session = factory.openSession();
+				sessions.add(session);
+				session.doWork(new Work(){
+					@Override
+					public void execute(Connection connection) throws SQLException{
+						connection.isValid(0);
+					}
+				});
+			}
+		}
+		finally{
+			for (Session session : sessions) session.close();
+		}
+	}
+
+	/**
+	 * Runs any schema migration scripts (see SchemaMigrator) that haven't been run on the
+	 * database yet. The real config no longer lets hibernate create/update tables itself,
+	 * so this needs to happen before the app is used.
+	 * Meant to be called once, at application start up.
+	 *
+	 * @return the number of scripts that were run
+	 * @throws SQLException if a script failed
+	 */
+	public static int migrate() throws SQLException{
+
+		SessionFactory factory = getSessionFactory();
+		final SchemaMigrator migrator = new SchemaMigrator(defaultSchema);
+		final int[] applied = new int[1]; // so the Work can hand back a result
+
+		Session session = factory.openSession();
+		try{
+			session.doWork(new Work(){
+				@Override
+				public void execute(Connection connection) throws SQLException{
+					applied[0] = migrator.migrate(connection);
+				}
+			});
+		}
+		catch(JDBCException e){
+			throw e.getSQLException();
+		}
+		finally{
+			session.close();
+		}
+		return applied[0];
+	}
+
+	/**
+	 * Returns the statistics (second level cache hits/misses, query counts, etc) kept by
+	 * the SessionFactory, or null if the factory hasn't been built yet.
+	 * Only filled in if hibernate.generate_statistics is on in the config file.
+	 *
+	 * @return
+	 */
+	public static Statistics getStatistics(){
+
+		SessionFactory factory = sf;
+		return (factory == null) ? null : factory.getStatistics();
+	}
+
+	/**
+	 * Returns the schema the tables live in (hibernate.default_schema), or null if the
+	 * config doesn't set one. Builds the SessionFactory first if necessary, since that's
+	 * when the config file is read.
+	 *
+	 * @return
+	 */
+	public static String getDefaultSchema(){
+
+		getSessionFactory();
+		return defaultSchema;
 	}
 
 	/**
@@ -44,13 +312,9 @@ public class HibernateConnectionUtil {
 	 * is already a SessionFactory initialized, it will be dropped.
 	 * If already in testMode, does nothing.
 	 */
-	public static void enterTestMode(){
+	public static synchronized void enterTestMode(){
 
-		if (!isTestMode && isInitialized){
-			sf.close();
-			sf = null;
-			isInitialized = false;
-		}
+		if (!isTestMode) forceDropSessionFactory();
 		isTestMode = true;
 	}
 
@@ -59,25 +323,20 @@ public class HibernateConnectionUtil {
 	 * is already a SessionFactory initialized, it will be dropped.
 	 * If already in normal mode, does nothing.
 	 */
-	public static void exitTestMode(){
+	public static synchronized void exitTestMode(){
 
-		if (isTestMode && isInitialized){
-			sf.close();
-			sf = null;
-			isInitialized = false;
-		}
+		if (isTestMode) forceDropSessionFactory();
 		isTestMode = false;
 	}
 
 	/**
 	 * De-initializes the session factory. Does nothing if not already initialized.
 	 */
-	public static void forceDropSessionFactory(){
+	public static synchronized void forceDropSessionFactory(){
 
-		if (isInitialized){
+		if (sf != null){
 			sf.close();
 			sf = null;
-			isInitialized = false;
 		}
 	}
 }
@@ -0,0 +1,241 @@
+/**
+ * Brings the database schema up to date by running numbered SQL scripts
+ * (db/migration/V1.sql, V2.sql, ...) that haven't been run yet. Which scripts have
+ * already been run is tracked in the SCHEMA_VERSION table.
+ *
+ * This replaces hibernate's hbm2ddl for the real database: hbm2ddl never makes indexes,
+ * and it's not a good idea to let it change a production schema on its own anyway.
+ *
+ * To change the schema, add the next numbered script; never edit one that has already
+ * been released.
+ *
+ * @author Andrew Curry
+ */
+package com.revature.repository.Util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.log4j.Logger;
+
+public class SchemaMigrator {
+
+    // constants
+    public static final String SCRIPT_PATH = "db/migration/V%d.sql";
+    public static final String SCHEMA_PLACEHOLDER = "${schema}";
+    public static final String VERSION_TABLE = "SCHEMA_VERSION";
+
+    // class / static variables
+    private static final Logger log = Logger.getLogger(SchemaMigrator.class);
+
+    // instance variables
+    private String schema; // null means use the connection's default
+
+    // constructor(s)
+
+    /**
+     * @param schema : replaces ${schema} in the scripts. If null, tables are left
+     *      unqualified.
+     */
+    public SchemaMigrator(String schema){
+
+        this.schema = schema;
+    }
+
+    // methods
+
+    /**
+     * Runs every script newer than the database's current version, in order. Each
+     * script runs in its own transaction, along with the row recording it, so a failed
+     * script leaves the database at the last good version.
+     * If two servers try this at once, the second one's insert into SCHEMA_VERSION
+     * fails and its script is rolled back.
+     *
+     * @param connection
+     * @return the number of scripts that were run
+     * @throws SQLException if a script fails or can't be read
+     */
+    public int migrate(Connection connection) throws SQLException{
+
+        boolean oldAutoCommit = connection.getAutoCommit();
+        try{
+            connection.setAutoCommit(false);
+            createVersionTable(connection);
+
+            int version = getCurrentVersion(connection);
+            int applied = 0;
+            String script;
+            while ((script = readScript(version + 1)) != null){
+                version++;
+                runScript(connection, version, script);
+                applied++;
+                log.info("Applied schema migration V" + version);
+            }
+            return applied;
+        }
+        finally{
+            connection.setAutoCommit(oldAutoCommit);
+        }
+    }
+
+    /**
+     * Returns the version of the newest script that has been run, or 0 if none have.
+     *
+     * @param connection
+     * @return
+     * @throws SQLException
+     */
+    public int getCurrentVersion(Connection connection) throws SQLException{
+
+        try (Statement st = connection.createStatement();
+                ResultSet rs = st.executeQuery(
+                        "SELECT MAX(VERSION) FROM " + qualify(VERSION_TABLE))){
+            rs.next();
+            return rs.getInt(1); // 0 if the table is empty
+        }
+    }
+
+    /**
+     * Splits a script into separate statements: drops the -- comment lines, and splits
+     * on the semicolons at the end of lines. Good enough for the kind of DDL we write;
+     * it does not understand semicolons inside strings or function bodies.
+     *
+     * @param script
+     * @return
+     */
+    public static List<String> splitStatements(String script){
+
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+
+        for (String line : script.split("\r?\n")){
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("--")) continue;
+
+            if (trimmed.endsWith(";")){
+                current.append(trimmed, 0, trimmed.length() - 1);
+                statements.add(current.toString().trim());
+                current.setLength(0);
+            }
+            else current.append(trimmed).append(' ');
+        }
+
+        String last = current.toString().trim(); // in case the last one has no ;
+        if (!last.isEmpty()) statements.add(last);
+        return statements;
+    }
+
+    /**
+     * Fills in the ${schema} placeholders in the given script.
+     *
+     * @param script
+     * @return
+     */
+    public String fillInSchema(String script){
+
+        if (schema == null) return script.replace(SCHEMA_PLACEHOLDER + ".", "")
+                .replace("CREATE SCHEMA IF NOT EXISTS " + SCHEMA_PLACEHOLDER + ";", "");
+        else return script.replace(SCHEMA_PLACEHOLDER, schema);
+    }
+
+    // helpers
+
+    /**
+     * Makes sure the schema and the version table exist.
+     *
+     * @param connection
+     * @throws SQLException
+     */
+    private void createVersionTable(Connection connection) throws SQLException{
+
+        try (Statement st = connection.createStatement()){
+            if (schema != null) st.execute("CREATE SCHEMA IF NOT EXISTS " + schema);
+            st.execute("CREATE TABLE IF NOT EXISTS " + qualify(VERSION_TABLE) + " ("
+                    + "VERSION INTEGER PRIMARY KEY, "
+                    + "APPLIED_AT TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+            connection.commit();
+        }
+        catch(SQLException e){
+            connection.rollback();
+            throw e;
+        }
+    }
+
+    /**
+     * Runs a single script and records it, all in one transaction.
+     *
+     * @param connection
+     * @param version
+     * @param script
+     * @throws SQLException
+     */
+    private void runScript(Connection connection, int version, String script)
+            throws SQLException{
+
+        String insert = "INSERT INTO " + qualify(VERSION_TABLE) + " (VERSION) VALUES (?)";
+        try (Statement st = connection.createStatement();
+                PreparedStatement record = connection.prepareStatement(insert)){
+
+            for (String sql : splitStatements(fillInSchema(script))){
+                st.execute(sql);
+            }
+            record.setInt(1, version);
+            record.executeUpdate();
+            connection.commit();
+        }
+        catch(SQLException e){
+            connection.rollback();
+            throw new SQLException(
+                    "Schema migration V" + version + " failed: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Returns the text of the given version's script, or null if there is no such
+     * script (meaning, the database is up to date).
+     *
+     * @param version
+     * @return
+     * @throws SQLException if the script exists but can't be read
+     */
+    private String readScript(int version) throws SQLException{
+
+        String path = String.format(SCRIPT_PATH, version);
+        InputStream is = SchemaMigrator.class.getClassLoader().getResourceAsStream(path);
+        if (is == null) return null;
+
+        StringBuilder text = new StringBuilder();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(is, StandardCharsets.UTF_8))){
+            String line;
+            while ((line = reader.readLine()) != null){
+                text.append(line).append('\n');
+            }
+        }
+        catch(IOException e){
+            throw new SQLException("Unable to read " + path + ": " + e.getMessage(), e);
+        }
+        return text.toString();
+    }
+
+    /**
+     * Adds the schema name in front of the given table name, if there is one.
+     *
+     * @param table
+     * @return
+     */
+    private String qualify(String table){
+
+        return (schema == null) ? table : schema + "." + table;
+    }
+}
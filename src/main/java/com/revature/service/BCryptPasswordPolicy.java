@@ -0,0 +1,107 @@
+/**
+ * Hashes passwords with bcrypt at a single work factor (cost). Hashes with a lower cost
+ * still match, but need a rehash.
+ *
+ * calibrate() picks a cost for this machine, from how long a check should take.
+ *
+ * @author Andrew Curry
+ */
+package com.revature.service;
+
+import org.mindrot.jbcrypt.BCrypt;
+
+public class BCryptPasswordPolicy implements PasswordPolicy {
+
+    // constants
+    public static final int MIN_WORK_FACTOR = 4; // limits set by bcrypt itself
+    public static final int MAX_WORK_FACTOR = 31;
+    private static final String PREFIX = "$2a$"; // the only version jbcrypt 0.4 makes
+    private static final int HASH_LENGTH = 60; // $2a$NN$ + 53 characters of salt+hash
+    private static final String CALIBRATION_PASSWORD = "calibration";
+
+    // instance variables
+    private final int workFactor;
+
+    // constructor(s)
+
+    public BCryptPasswordPolicy(int workFactor){
+
+        if (workFactor < MIN_WORK_FACTOR || workFactor > MAX_WORK_FACTOR)
+            throw new IllegalArgumentException("bcrypt work factor must be between "
+                    + MIN_WORK_FACTOR + " and " + MAX_WORK_FACTOR + ": " + workFactor);
+        this.workFactor = workFactor;
+    }
+
+    // methods from PasswordPolicy
+
+    @Override
+    public String hash(String plain){
+        return BCrypt.hashpw(plain, BCrypt.gensalt(workFactor));
+    }
+
+    @Override
+    public boolean matches(String plain, String stored){
+
+        if (getWorkFactor(stored) == -1) return false; // checkpw would throw
+        return BCrypt.checkpw(plain, stored);
+    }
+
+    @Override
+    public boolean needsRehash(String stored){
+
+        return getWorkFactor(stored) < workFactor; // includes -1, not a bcrypt hash
+    }
+
+    // other methods
+
+    public int getWorkFactor(){
+        return workFactor;
+    }
+
+    /**
+     * Returns the work factor the given bcrypt hash was made with, or -1 if it isn't a
+     * bcrypt hash this can check.
+     *
+     * @param stored
+     * @return
+     */
+    public static int getWorkFactor(String stored){
+
+        if (stored == null || stored.length() != HASH_LENGTH || !stored.startsWith(PREFIX)
+                || stored.charAt(6) != '$') return -1;
+
+        char tens = stored.charAt(4);
+        char ones = stored.charAt(5);
+        if (!Character.isDigit(tens) || !Character.isDigit(ones)) return -1;
+        int cost = (tens - '0') * 10 + (ones - '0');
+        return (cost < MIN_WORK_FACTOR || cost > MAX_WORK_FACTOR) ? -1 : cost;
+    }
+
+    /**
+     * Returns the highest work factor (between min and max) at which checking a password
+     * should take no more than targetMillis on this machine. Only times the cheapest
+     * cost; every +1 doubles the time, so the rest is worked out from that.
+     * If even min is too slow, returns min.
+     *
+     * @param targetMillis
+     * @param min
+     * @param max
+     * @return
+     */
+    public static int calibrate(long targetMillis, int min, int max){
+
+        String sample = BCrypt.hashpw(CALIBRATION_PASSWORD, BCrypt.gensalt(min));
+        BCrypt.checkpw(CALIBRATION_PASSWORD, sample); // the first one is slower (JIT)
+
+        long start = System.nanoTime();
+        BCrypt.checkpw(CALIBRATION_PASSWORD, sample);
+        double millis = (System.nanoTime() - start) / 1000000.0;
+
+        int cost = min;
+        while (cost < max && millis * 2 <= targetMillis){
+            cost++;
+            millis *= 2;
+        }
+        return cost;
+    }
+}
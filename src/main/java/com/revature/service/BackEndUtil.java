@@ -1,37 +1,109 @@
 /**
  * This class manages the front end's reference to the back end through a
  * singleton pattern.
- * 
+ *
  * @author Andrew Curry
  */
 package com.revature.service;
 
+import java.sql.SQLException;
+
+import com.revature.repository.DAO.exceptions.DAOException;
 import com.revature.repository.DAO.impl.ReimbursementRequestDAOImpl;
 import com.revature.repository.DAO.impl.UserProfileDAOImpl;
 import com.revature.repository.DAO.interfaces.ReimbursementRequestDAO;
 import com.revature.repository.DAO.interfaces.UserProfileDAO;
+import com.revature.repository.Util.HibernateConnectionUtil;
+import com.revature.service.dashboard.DashboardStore;
+import com.revature.service.events.ReimbursementEventBus;
 import com.revature.service.handlers.AuthRequestHandler;
 import com.revature.service.handlers.ModifyRequestHandler;
 import com.revature.service.handlers.ViewRequestHandler;
+import com.revature.service.metrics.Metrics;
 
 public class BackEndUtil {
-    
+
     // class / static variables
-    private static boolean instantiated;
-    private static ServiceFront instance;
+    private static volatile ServiceFront instance; // volatile for the unlocked read
+    private static DashboardStore dashboard; // kept up to date through the event bus
 
     public static ServiceFront getBackEnd(){
-        
-        if (!instantiated){
-            // i'm pretty sure it's fine if all of these handlers use the same DAO objects
-            UserProfileDAO updao = new UserProfileDAOImpl();
-            ReimbursementRequestDAO rrdao = new ReimbursementRequestDAOImpl();
-            AuthRequestHandler arh = new AuthRequestHandler(updao, rrdao);
-            ViewRequestHandler vrh = new ViewRequestHandler(updao, rrdao);
-            ModifyRequestHandler mrh = new ModifyRequestHandler(updao, rrdao);
-            instance = new ServiceFront(arh, vrh, mrh);
-            instantiated = true;
+
+        ServiceFront sf = instance;
+        if (sf != null) return sf;
+
+        synchronized (BackEndUtil.class){
+            if (instance == null){
+                // i'm pretty sure it's fine if all of these handlers use the same DAO
+                // objects
+                // every DAO call is counted and timed, see Metrics
+                Metrics metrics = Metrics.getShared();
+                UserProfileDAO updao 
+                        = metrics.timed(UserProfileDAO.class, new UserProfileDAOImpl());
+                ReimbursementRequestDAO rrdao = metrics.timed(
+                        ReimbursementRequestDAO.class, new ReimbursementRequestDAOImpl());
+                // submits/resolves go out on the bus, to the dashboard and to watchers
+                ReimbursementEventBus events = new ReimbursementEventBus();
+                dashboard = new DashboardStore(rrdao);
+                events.subscribe(dashboard);
+                AuthRequestHandler arh = new AuthRequestHandler(updao, rrdao);
+                ViewRequestHandler vrh 
+                        = new ViewRequestHandler(updao, rrdao, dashboard, events);
+                ModifyRequestHandler mrh 
+                        = new ModifyRequestHandler(updao, rrdao, events);
+                ServiceFront front = new ServiceFront(arh, vrh, mrh);
+                front.addTimingListener(metrics);
+                instance = front;
+            }
+            return instance;
+        }
+    }
+
+    /**
+     * Brings the schema up to date (see SchemaMigrator). Unlike warmUp(), this has to
+     * work: nothing else creates the tables anymore.
+     * Meant to be called once, when the application starts, before warmUp().
+     *
+     * @return the number of migration scripts that were run
+     * @throws DAOException if the database could not be reached, or a migration failed
+     */
+    public static int migrate() throws DAOException{
+
+        try{
+            return HibernateConnectionUtil.migrate();
+        }
+        catch(SQLException e){
+            throw new DAOException("SQLException: " + e.getMessage());
         }
-        return instance;
+    }
+
+    /**
+     * Does all of the slow first-time setup up front: builds the SessionFactory, fills
+     * the connection pool, runs each DAO query once, creates the ServiceFront, and loads
+     * the manager dashboard's totals.
+     * Meant to be called once, when the application starts.
+     *
+     * @throws DAOException if the database could not be reached
+     */
+    public static void warmUp() throws DAOException{
+
+        try{
+            HibernateConnectionUtil.warmUp();
+        }
+        catch(SQLException e){
+            throw new DAOException("SQLException: " + e.getMessage());
+        }
+
+        HibernateConnectionUtil.beginRequestScope();
+        try{
+            new UserProfileDAOImpl().warmUp();
+            new ReimbursementRequestDAOImpl().warmUp();
+        }
+        finally{
+            HibernateConnectionUtil.endRequestScope();
+        }
+
+        getBackEnd();
+        dashboard.load(); // one pass over the reimb-reqs; after this, kept up to date
     }
 }
@@ -0,0 +1,172 @@
+/**
+ * Limits how many log in attempts can be made for a single username from a single
+ * address, and from a single address overall, in a given window of time. Attempts over
+ * the limit are turned away before any database lookup or bcrypt work is done, so a
+ * credential-stuffing burst can't tie up the CPUs.
+ *
+ * The username limit only counts attempts from the same address. Otherwise anyone could
+ * lock someone else out of their account just by sending it bad passwords.
+ *
+ * A successful log in clears the count for that username and address (but not the
+ * address overall, since one address might be trying lots of accounts).
+ *
+ * Can be tuned with system properties:
+ *      ers.login.maxPerUser (default: 10)
+ *      ers.login.maxPerAddress (default: 30)
+ *      ers.login.windowMillis (default: 60000)
+ *
+ * @author Andrew Curry
+ */
+package com.revature.service;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+public class LoginThrottle {
+
+    // constants
+    public static final String MAX_PER_USER_PROPERTY = "ers.login.maxPerUser";
+    public static final String MAX_PER_ADDRESS_PROPERTY = "ers.login.maxPerAddress";
+    public static final String WINDOW_PROPERTY = "ers.login.windowMillis";
+    public static final int DEFAULT_MAX_PER_USER = 10;
+    public static final int DEFAULT_MAX_PER_ADDRESS = 30;
+    public static final long DEFAULT_WINDOW_MILLIS = 60000L;
+    private static final int SWEEP_SIZE = 10000; // clear out old windows past this many
+
+    // instance variables
+    private final int maxPerUser;
+    private final int maxPerAddress;
+    private final long windowMillis;
+    private final LongSupplier clock;
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+
+    /**
+     * The attempts for one username + address, or one address, since the window
+     * started.
+     */
+    private static class Window{
+        final long start;
+        int attempts;
+
+        Window(long start){
+            this.start = start;
+        }
+    }
+
+    // constructor(s)
+
+    /**
+     * Uses the limits from the system properties (or the defaults).
+     */
+    public LoginThrottle(){
+
+        this(Integer.getInteger(MAX_PER_USER_PROPERTY, DEFAULT_MAX_PER_USER),
+                Integer.getInteger(MAX_PER_ADDRESS_PROPERTY, DEFAULT_MAX_PER_ADDRESS),
+                Long.getLong(WINDOW_PROPERTY, DEFAULT_WINDOW_MILLIS),
+                System::currentTimeMillis);
+    }
+
+    /**
+     * @param maxPerUser
+     * @param maxPerAddress
+     * @param windowMillis
+     * @param clock : returns the current time in milliseconds
+     */
+    public LoginThrottle(int maxPerUser, int maxPerAddress, long windowMillis,
+            LongSupplier clock){
+
+        this.maxPerUser = maxPerUser;
+        this.maxPerAddress = maxPerAddress;
+        this.windowMillis = windowMillis;
+        this.clock = clock;
+    }
+
+    // methods
+
+    /**
+     * Records an attempt to log in to the given username from the given address, and
+     * returns true if it's allowed. If either limit has already been reached, returns
+     * false and the attempt isn't counted.
+     *
+     * @param username
+     * @param address : null if unknown, in which case only the username is limited (and
+     *      all unknown addresses share one count)
+     * @return
+     */
+    public boolean tryAttempt(String username, String address){
+
+        long now = clock.getAsLong();
+        if (windows.size() > SWEEP_SIZE) sweep(now);
+
+        Window userWindow = getWindow(userKey(username, address), now);
+        Window addressWindow 
+                = (address == null) ? null : getWindow(addressKey(address), now);
+
+        // lock in a fixed order so two threads can't deadlock
+        synchronized (userWindow){
+            if (addressWindow == null){
+                if (userWindow.attempts >= maxPerUser) return false;
+                userWindow.attempts++;
+                return true;
+            }
+            synchronized (addressWindow){
+                if (userWindow.attempts >= maxPerUser
+                        || addressWindow.attempts >= maxPerAddress) return false;
+                userWindow.attempts++;
+                addressWindow.attempts++;
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Clears the count for the given username from the given address, after a
+     * successful log in.
+     *
+     * @param username
+     * @param address : same as for tryAttempt()
+     */
+    public void recordSuccess(String username, String address){
+        windows.remove(userKey(username, address));
+    }
+
+    // helpers
+
+    /**
+     * Returns the current window for the given key, starting a new one if there isn't
+     * one or it has run out.
+     *
+     * @param key
+     * @param now
+     * @return
+     */
+    private Window getWindow(String key, long now){
+
+        return windows.compute(key, (k, window) ->
+                (window == null || now - window.start >= windowMillis)
+                        ? new Window(now) : window);
+    }
+
+    /**
+     * Throws away every window that has run out, so the map doesn't grow forever.
+     *
+     * @param now
+     */
+    private void sweep(long now){
+
+        Iterator<Window> it = windows.values().iterator();
+        while (it.hasNext()){
+            if (now - it.next().start >= windowMillis) it.remove();
+        }
+    }
+
+    private String userKey(String username, String address){
+        return "user:" + username.toLowerCase() + "@" + (address == null ? "" : address);
+    }
+
+    private String addressKey(String address){
+        return "address:" + address;
+    }
+}
@@ -0,0 +1,17 @@
+/**
+ * Thrown by PasswordChecker when a password couldn't be checked because the server is
+ * too busy (too many checks already waiting, or the check took too long). This says
+ * nothing about whether the password was right.
+ * 
+ * @author Andrew Curry
+ */
+package com.revature.service;
+
+public class PasswordCheckException extends Exception {
+
+    private static final long serialVersionUID = 0L;
+
+    public PasswordCheckException(String message){
+        super(message);
+    }
+}
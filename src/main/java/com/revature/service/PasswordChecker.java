@@ -0,0 +1,185 @@
+/**
+ * Runs bcrypt password checks on a small pool of threads of their own (one per CPU by
+ * default), instead of on whatever thread the web request came in on. A burst of logins
+ * can then only keep that many CPUs busy; the rest of the site keeps working.
+ *
+ * Only a limited number of checks can wait in line. Past that, or if a check waits too
+ * long, the login is turned away right away (PasswordCheckException) instead of piling
+ * up more work.
+ *
+ * Can be tuned with system properties:
+ *      ers.bcrypt.threads (default: number of CPUs)
+ *      ers.bcrypt.queueLimit (default: 64)
+ *      ers.bcrypt.timeoutMillis (default: 5000)
+ *
+ * @author Andrew Curry
+ */
+package com.revature.service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class PasswordChecker {
+
+    // constants
+    public static final String THREADS_PROPERTY = "ers.bcrypt.threads";
+    public static final String QUEUE_LIMIT_PROPERTY = "ers.bcrypt.queueLimit";
+    public static final String TIMEOUT_PROPERTY = "ers.bcrypt.timeoutMillis";
+    public static final int DEFAULT_QUEUE_LIMIT = 64;
+    public static final long DEFAULT_TIMEOUT_MILLIS = 5000L;
+
+    // class / static variables
+    private static PasswordChecker shared; // see getShared()
+
+    // instance variables
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMillis;
+
+    // constructor(s)
+
+    /**
+     * @param threads : how many checks can run at once
+     * @param queueLimit : how many more checks can wait for a thread
+     * @param timeoutMillis : how long a caller waits for its check before giving up
+     */
+    public PasswordChecker(int threads, int queueLimit, long timeoutMillis){
+
+        AtomicInteger count = new AtomicInteger();
+        ThreadFactory factory = task -> {
+            Thread thread = new Thread(task, "bcrypt-" + count.incrementAndGet());
+            thread.setDaemon(true); // don't keep the JVM alive
+            return thread;
+        };
+        // with a bounded queue, submit() throws once it's full (the default AbortPolicy)
+        this.executor = new ThreadPoolExecutor(
+                threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueLimit), factory);
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    // methods
+
+    /**
+     * Returns the checker the back end uses, making it (from the system properties) the
+     * first time this is called.
+     *
+     * @return
+     */
+    public static synchronized PasswordChecker getShared(){
+
+        if (shared == null){
+            int threads = Integer.getInteger(
+                    THREADS_PROPERTY, Runtime.getRuntime().availableProcessors());
+            int queueLimit 
+                    = Integer.getInteger(QUEUE_LIMIT_PROPERTY, DEFAULT_QUEUE_LIMIT);
+            long timeout = Long.getLong(TIMEOUT_PROPERTY, DEFAULT_TIMEOUT_MILLIS);
+            shared = new PasswordChecker(Math.max(1, threads), queueLimit, timeout);
+        }
+        return shared;
+    }
+
+    /**
+     * Stops the shared checker's threads, if it was ever made. Meant for when the
+     * application is stopped.
+     */
+    public static synchronized void shutDownShared(){
+
+        if (shared != null){
+            shared.shutDown();
+            shared = null;
+        }
+    }
+
+    /**
+     * Returns true if the password matches the hash. Blocks until the check is done, but
+     * the hashing itself happens on one of this checker's threads.
+     *
+     * @param plain
+     * @param secure
+     * @return
+     * @throws PasswordCheckException if too many checks are already waiting, or this
+     *      one took too long
+     */
+    public boolean checkPassword(String plain, String secure)
+            throws PasswordCheckException{
+
+        return run(() -> PasswordUtil.checkPassword(plain, secure));
+    }
+
+    /**
+     * Returns PasswordUtil.hash(plain), done on one of this checker's threads (hashing
+     * costs as much as checking).
+     *
+     * @param plain
+     * @return
+     * @throws PasswordCheckException if too many checks are already waiting, or this
+     *      one took too long
+     */
+    public String hash(String plain) throws PasswordCheckException{
+
+        return run(() -> PasswordUtil.hash(plain));
+    }
+
+    /**
+     * Returns how many checks are currently waiting for a thread.
+     *
+     * @return
+     */
+    public int getQueuedCount(){
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Stops the threads. Checks that are already waiting are thrown away.
+     */
+    public void shutDown(){
+        executor.shutdownNow();
+    }
+
+    // helpers
+
+    /**
+     * Runs the given bcrypt work on the pool and waits for the result.
+     *
+     * @param work
+     * @return
+     * @throws PasswordCheckException
+     */
+    private <T> T run(Callable<T> work) throws PasswordCheckException{
+
+        Future<T> result;
+        try{
+            result = executor.submit(work);
+        }
+        catch(RejectedExecutionException e){
+            throw new PasswordCheckException("Too many password checks are waiting.");
+        }
+
+        try{
+            return result.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+        catch(TimeoutException e){
+            result.cancel(true);
+            throw new PasswordCheckException("Password check took too long.");
+        }
+        catch(InterruptedException e){
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PasswordCheckException("Interrupted while checking password.");
+        }
+        catch(ExecutionException e){
+            // eg, a badly formed hash; same as if checkPassword() had been called here
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException)e.getCause();
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,42 @@
+/**
+ * Describes how passwords are hashed and checked. PasswordUtil uses one of these, and it
+ * can be swapped out (PasswordUtil.setPolicy) to change the algorithm or its settings.
+ *
+ * Stored hashes are expected to say what made them (eg, bcrypt's $2a$10$ prefix), so a
+ * policy can tell when a stored hash was made with older/weaker settings than its own,
+ * and needs to be redone the next time the user logs in.
+ *
+ * @author Andrew Curry
+ */
+package com.revature.service;
+
+public interface PasswordPolicy {
+
+    /**
+     * Returns a hashed, secure version of the plaintext password, made with this
+     * policy's current settings.
+     *
+     * @param plain
+     * @return
+     */
+    public String hash(String plain);
+
+    /**
+     * Returns true if the password matches the stored hash. Should also work for hashes
+     * made with older settings; returns false for a hash it can't read at all.
+     *
+     * @param plain
+     * @param stored
+     * @return
+     */
+    public boolean matches(String plain, String stored);
+
+    /**
+     * Returns true if the stored hash was made with weaker settings than this policy's
+     * current ones (or in a format it doesn't use anymore).
+     *
+     * @param stored
+     * @return
+     */
+    public boolean needsRehash(String stored);
+}
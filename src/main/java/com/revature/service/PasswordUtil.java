@@ -1,13 +1,34 @@
 /**
- * This class handles hashing and checking passwords.
+ * This class handles hashing and checking passwords, using whichever PasswordPolicy is
+ * currently set (bcrypt, by default).
  * 
+ * The bcrypt work factor (cost) is picked by calibrate() when the app starts, so that
+ * checking a password takes about ers.bcrypt.targetMillis (default 250) on this machine.
+ * Setting ers.bcrypt.cost, eg -Ders.bcrypt.cost=12, skips that and uses the given cost.
+ * Each +1 doubles the time it takes to hash or check a password.
+ * Existing hashes keep the cost they were made with until the user next logs in, when
+ * they're redone with the current one (see needsRehash()), so changing it is safe.
  */
 
 package com.revature.service;
-import org.mindrot.jbcrypt.BCrypt;
+import org.apache.log4j.Logger;
 
 public class PasswordUtil {
 
+    // constants
+    public static final String WORK_FACTOR_PROPERTY = "ers.bcrypt.cost";
+    public static final String TARGET_MILLIS_PROPERTY = "ers.bcrypt.targetMillis";
+    public static final int DEFAULT_WORK_FACTOR = 10; // same as BCrypt.gensalt()
+    public static final long DEFAULT_TARGET_MILLIS = 250L;
+    // calibrating never goes below the default (that's a floor for security, not speed)
+    // or above the max (so a fast machine doesn't make logins painfully slow elsewhere)
+    public static final int MAX_CALIBRATED_WORK_FACTOR = 16;
+
+    // class / static variables
+    private static final Logger log = Logger.getLogger(PasswordUtil.class);
+    private static volatile PasswordPolicy policy 
+            = new BCryptPasswordPolicy(readWorkFactor());
+
     /**
      * Returns a hashed, secure version of the plaintext password.
      * 
@@ -15,17 +36,80 @@ public class PasswordUtil {
      * @return
      */
     public static String hash(String password) {
-        return BCrypt.hashpw(password, BCrypt.gensalt());
+        return policy.hash(password);
     }
 
     /**
      * Retrurns true if the password matches.
+     * This is slow on purpose (that's the point of bcrypt), so the back end does it
+     * through PasswordChecker instead of calling this directly.
      * 
      * @param plain
      * @param secure
      * @return
      */
     public static boolean checkPassword(String plain, String secure){
-        return BCrypt.checkpw(plain, secure);
+        return policy.matches(plain, secure);
+    }
+
+    /**
+     * Returns true if the stored hash was made with weaker settings than the current
+     * policy, and should be replaced with hash(password) the next time the password is
+     * known (ie, a successful log in).
+     * 
+     * @param secure
+     * @return
+     */
+    public static boolean needsRehash(String secure){
+        return policy.needsRehash(secure);
+    }
+
+    public static PasswordPolicy getPolicy(){
+        return policy;
+    }
+
+    public static void setPolicy(PasswordPolicy newPolicy){
+        policy = newPolicy;
+    }
+
+    /**
+     * Picks the bcrypt work factor for this machine (see the top of this file), unless
+     * one was given with ers.bcrypt.cost. Meant to be called once, at start up.
+     * 
+     * @return the work factor now in use
+     */
+    public static int calibrate(){
+
+        if (System.getProperty(WORK_FACTOR_PROPERTY) != null) return readWorkFactor();
+
+        long target = Long.getLong(TARGET_MILLIS_PROPERTY, DEFAULT_TARGET_MILLIS);
+        int cost = BCryptPasswordPolicy.calibrate(
+                target, DEFAULT_WORK_FACTOR, MAX_CALIBRATED_WORK_FACTOR);
+        setPolicy(new BCryptPasswordPolicy(cost));
+        log.info("Using bcrypt cost " + cost + " for a target of " + target + "ms");
+        return cost;
+    }
+
+    // helpers
+
+    /**
+     * Reads the work factor from the system property, falling back to the default if
+     * it's missing or out of range.
+     * 
+     * @return
+     */
+    private static int readWorkFactor(){
+
+        Integer cost = Integer.getInteger(WORK_FACTOR_PROPERTY);
+        if (cost == null) return DEFAULT_WORK_FACTOR;
+        if (cost < BCryptPasswordPolicy.MIN_WORK_FACTOR 
+                || cost > BCryptPasswordPolicy.MAX_WORK_FACTOR){
+            log.warn(WORK_FACTOR_PROPERTY + " must be between " 
+                    + BCryptPasswordPolicy.MIN_WORK_FACTOR + " and " 
+                    + BCryptPasswordPolicy.MAX_WORK_FACTOR + "; using " 
+                    + DEFAULT_WORK_FACTOR);
+            return DEFAULT_WORK_FACTOR;
+        }
+        return cost;
     }
 }
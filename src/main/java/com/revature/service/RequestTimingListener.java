@@ -0,0 +1,24 @@
+/**
+ * Told about every request the ServiceFront handles, how it turned out, and how long it
+ * took. For metrics, logging slow requests, etc (see ServiceFront.addTimingListener).
+ *
+ * Called on the request's own thread, so it should be quick.
+ *
+ * @author Andrew Curry
+ */
+package com.revature.service;
+
+import com.revature.service.comms.ERSRequest.ERSRequestType;
+import com.revature.service.comms.ERSResponse.ERSResponseType;
+
+@FunctionalInterface
+public interface RequestTimingListener {
+
+    /**
+     * @param type : what kind of request it was
+     * @param result : the type of the response (FORBIDDEN if the user wasn't allowed)
+     * @param elapsedNanos : how long the ServiceFront took to handle it
+     */
+    public void requestHandled(
+            ERSRequestType type, ERSResponseType result, long elapsedNanos);
+}
@@ -12,12 +12,20 @@
  */
 package com.revature.service;
 
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.apache.log4j.Logger;
+
 import com.revature.model.UserProfile.UserRole;
+import com.revature.repository.Util.HibernateConnectionUtil;
 import com.revature.service.comms.ERSRequest;
 import com.revature.service.comms.ERSResponse;
 import com.revature.service.comms.ERSRequest.ERSRequestType;
 import com.revature.service.comms.ERSResponse.ERSResponseType;
 import com.revature.service.handlers.AuthRequestHandler;
+import com.revature.service.handlers.HandlerRegistry;
 import com.revature.service.handlers.ModifyRequestHandler;
 import com.revature.service.handlers.ViewRequestHandler;
 
@@ -25,35 +33,15 @@ public class ServiceFront {
     
     // constants
 
-    // these arrays control what actions each user role can make
-    private static final ERSRequestType[] NONE_TYPES = {};
-    private static final ERSRequestType[] LOGGED_OUT_TYPES = {
-        ERSRequestType.LOG_IN,
-    };
-    private static final ERSRequestType[] EMPLOYEE_TYPES = {
-        ERSRequestType.SUBMIT_REQUEST,
-        ERSRequestType.EMPLOYEE_VIEW_PENDING,
-        ERSRequestType.EMPLOYEE_VIEW_RESOLVED,
-        ERSRequestType.EMPLOYEE_VIEW_SELF,
-        ERSRequestType.EMPLOYEE_UPDATE_SELF,
-        ERSRequestType.LOG_OUT,
-    };
-    private static final ERSRequestType[] MANAGER_TYPES = {
-        ERSRequestType.APPROVE_REQUEST,
-        ERSRequestType.DENY_REQUEST,
-        ERSRequestType.VIEW_ALL_PENDING,
-        ERSRequestType.VIEW_ALL_RESOLVED,
-        ERSRequestType.VIEW_ALL_EMPLOYEES,
-        ERSRequestType.MANAGER_VIEW_BY_EMPLOYEE,
-        ERSRequestType.LOG_OUT,
-    };
-
     // class/static variables
+    private static final Logger log = Logger.getLogger(ServiceFront.class);
 
     // instance variables
-    private AuthRequestHandler arh;
-    private ViewRequestHandler vrh;
-    private ModifyRequestHandler mrh;
+    // which handler method deals with each request type, and what each role can do;
+    // the handlers fill this in themselves (see RequestHandler.registerHandlers)
+    private final HandlerRegistry registry = new HandlerRegistry();
+    private final List<RequestTimingListener> timingListeners 
+            = new CopyOnWriteArrayList<>();
 
     // constructor(s)
 
@@ -65,32 +53,34 @@ public class ServiceFront {
             ViewRequestHandler vrh, 
             ModifyRequestHandler mrh){
 
-        this.arh = arh;
-        this.vrh = vrh;
-        this.mrh = mrh;
+        arh.registerHandlers(registry);
+        vrh.registerHandlers(registry);
+        mrh.registerHandlers(registry);
     }
 
     // method(s)
 
     /**
-     * Returns an array containing the permitted request types for the given role.
+     * Returns the set of request types the given role is permitted to make.
      * EG, if passed MANAGER, returns all of the actions a manager can take.
      * 
      * @param role
      * @return
      */
-    public ERSRequestType[] getPossibleRequestTypes(UserRole role){
+    public EnumSet<ERSRequestType> getPossibleRequestTypes(UserRole role){
         
-        switch (role){
-            case LOGGED_OUT:
-                return LOGGED_OUT_TYPES;
-            case EMPLOYEE:
-                return EMPLOYEE_TYPES;
-            case MANAGER:
-                return MANAGER_TYPES;
-            default:
-                return NONE_TYPES;
-        }
+        return registry.getPermittedTypes(role);
+    }
+
+    /**
+     * Adds a listener that is told about every request this handles, and how long it
+     * took. A listener that throws is logged and skipped.
+     * 
+     * @param listener
+     */
+    public void addTimingListener(RequestTimingListener listener){
+
+        timingListeners.add(listener);
     }
 
     /**
@@ -98,58 +88,60 @@ public class ServiceFront {
      * response.
      * Assumes the req is not null.
      * 
+     * Every DAO call made while handling the req shares one database session (and so one
+     * pooled connection), which is closed before this method returns.
+     * 
      * @param req
      * @return
      */
     public ERSResponse handleERSRequest(ERSRequest req){
+
+        long start = System.nanoTime();
+        ERSResponse res = null;
+        HibernateConnectionUtil.beginRequestScope();
+        try{
+            res = dispatchERSRequest(req);
+            return res;
+        }
+        finally{
+            HibernateConnectionUtil.endRequestScope();
+            long elapsed = System.nanoTime() - start;
+            // no response means the handler threw
+            ERSResponseType result = (res == null) ? ERSResponseType.NONE : res.getType();
+            for (RequestTimingListener listener : timingListeners){
+                // a broken listener mustn't hide the real response (or exception), or
+                // keep the others from hearing about it
+                try{
+                    listener.requestHandled(req.getType(), result, elapsed);
+                }
+                catch(RuntimeException e){
+                    log.error("Request timing listener failed", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Does the actual work of handleERSRequest.
+     * 
+     * @param req
+     * @return
+     */
+    private ERSResponse dispatchERSRequest(ERSRequest req){
         
         ERSRequestType type = req.getType();
 
         // can the current user do this action?
-        ERSRequestType[] permitted = getPossibleRequestTypes(req.getUserRole());
-        boolean found = false;
-        for (ERSRequestType pType : permitted){
-            if (type == pType){
-                found = true;
-                break;
-            }
-        }
-        if (!found) return new ERSResponse(
+        if (!registry.isPermitted(req.getUserRole(), type)) return new ERSResponse(
                 ERSResponseType.FORBIDDEN,
                 "You do not have permission to take that action.");
 
-        switch(type){
-
-            case LOG_IN:
-                return arh.handleLogIn(req);
-            case LOG_OUT:
-                return arh.handleLogOut(req);
-            case SUBMIT_REQUEST:
-                return mrh.handleSubmitRequest(req);
-            case EMPLOYEE_VIEW_PENDING:
-                return vrh.handleEmployeeViewPending(req);
-            case EMPLOYEE_VIEW_RESOLVED:
-                return vrh.handleEmployeeViewResolved(req);
-            case EMPLOYEE_VIEW_SELF:
-                return vrh.handleEmployeeViewSelf(req);
-            case EMPLOYEE_UPDATE_SELF:
-                return mrh.handleEmployeeUpdateSelf(req);
-            case APPROVE_REQUEST:
-                return mrh.handleApproveRequest(req);
-            case DENY_REQUEST:
-                return mrh.handleDenyRequest(req);
-            case VIEW_ALL_PENDING:
-                return vrh.handleViewAllPending(req);
-            case VIEW_ALL_RESOLVED:
-                return vrh.handleViewAllResolved(req);
-            case VIEW_ALL_EMPLOYEES:
-                return vrh.handleViewAllEmployees(req);
-            case MANAGER_VIEW_BY_EMPLOYEE:
-                return vrh.handleManagerViewByEmployee(req);
-            default: // should never happen?
-                return new ERSResponse(
-                        ERSResponseType.MALFORMED_REQUEST,
-                        String.format("Request Type '%s' not recognized", type.name()));
-        }
+        HandlerRegistry.Handler handler = registry.getHandler(type);
+        if (handler == null) // should never happen, if it's permitted?
+            return new ERSResponse(
+                    ERSResponseType.MALFORMED_REQUEST,
+                    String.format("Request Type '%s' not recognized", type.name()));
+        
+        return handler.handle(req);
     }
 }
@@ -11,6 +11,8 @@ import java.util.HashMap;
 import java.util.Map;
 
 import com.revature.model.UserProfile.UserRole;
+import com.revature.repository.DAO.interfaces.ReimbursementRequestDAO.ExportSink;
+import com.revature.service.events.ReimbursementEventListener;
 
 public class ERSRequest {
 
@@ -28,6 +30,27 @@ public class ERSRequest {
     public static final String REIMBURSEMENT_TYPE_KEY = "reimbursementType";
     public static final String MONEY_AMOUNT_KEY = "moneyAmount";
     public static final String REIMBURSEMENT_DESCRIPTION_KEY = "reimbursementDescription";
+    // for approving/denying several reqs at once: the IDs, separated by commas
+    public static final String REIMBURSEMENT_IDS_KEY = "reimbursementIDs";
+
+    // paging through lists of reimb-reqs. If PAGE_SIZE is missing, the whole list is
+    // returned. AFTER_ID/BEFORE_ID are the cursor: the ID of the last/first req on the
+    // page the user was just looking at.
+    public static final String PAGE_SIZE_KEY = "pageSize";
+    public static final String AFTER_ID_KEY = "afterID";
+    public static final String BEFORE_ID_KEY = "beforeID";
+
+    // where the request came from (eg, an IP address), for limiting log in attempts
+    public static final String CLIENT_ADDRESS_KEY = "clientAddress";
+
+    // for exports: ALL, PENDING or RESOLVED (ALL if missing), and the range of days the
+    // reqs were submitted in, as eg 2020-12-31 (both ends included, both optional)
+    public static final String SEARCH_STATUS_KEY = "searchStatus";
+    public static final String SUBMITTED_FROM_KEY = "submittedFrom";
+    public static final String SUBMITTED_TO_KEY = "submittedTo";
+
+    // for WATCH_PENDING: the sequence number of the last event already seen (optional)
+    public static final String EVENTS_SINCE_KEY = "eventsSince";
     
     // enums
 
@@ -50,11 +73,17 @@ public class ERSRequest {
         EMPLOYEE_UPDATE_SELF,
         APPROVE_REQUEST,
         DENY_REQUEST,
+        BULK_APPROVE_REQUEST,
+        BULK_DENY_REQUEST,
         VIEW_ALL_REQUESTS,
         VIEW_ALL_PENDING,
         VIEW_ALL_RESOLVED,
         VIEW_ALL_EMPLOYEES,
-        MANAGER_VIEW_BY_EMPLOYEE
+        MANAGER_VIEW_BY_EMPLOYEE,
+        EXPORT_REQUESTS,
+        VIEW_CHANGE_COUNT,
+        MANAGER_DASHBOARD,
+        WATCH_PENDING
     }
 
     // class/static variables
@@ -65,6 +94,10 @@ public class ERSRequest {
     private UserRole userRole;
 
     private Map<String, String> params;
+    // for EXPORT_REQUESTS: where the reqs go, as they are read
+    private ExportSink exportSink;
+    // for WATCH_PENDING: who to tell about submits and resolves
+    private ReimbursementEventListener eventListener;
 
     // constructor(s)
     
@@ -105,6 +138,22 @@ public class ERSRequest {
         return this.userRole;
     }
 
+    public ExportSink getExportSink() {
+        return this.exportSink;
+    }
+
+    public void setExportSink(ExportSink exportSink) {
+        this.exportSink = exportSink;
+    }
+
+    public ReimbursementEventListener getEventListener() {
+        return this.eventListener;
+    }
+
+    public void setEventListener(ReimbursementEventListener eventListener) {
+        this.eventListener = eventListener;
+    }
+
     // methods for getting and putting params
 
     /**
@@ -8,10 +8,14 @@
 package com.revature.service.comms;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import com.revature.model.ReimbursementRequest;
 import com.revature.model.UserProfile;
+import com.revature.service.dashboard.Dashboard;
+import com.revature.service.events.Subscription;
 
 public class ERSResponse {
     
@@ -28,7 +32,19 @@ public class ERSResponse {
         FORBIDDEN, // if the current user doesn't have permission
         INVALID_PARAMETER, // eg, user not found
         MALFORMED_REQUEST, // eg, missing a parameter for the user ID
-        DATABASE_ERROR // seemingly valid request, but some problem with the database
+        DATABASE_ERROR, // seemingly valid request, but some problem with the database
+        CONFLICT, // someone else changed the same data first (eg resolved the same req)
+        TOO_MANY_REQUESTS // throttled, or the server is too busy; try again later
+    }
+
+    /**
+     * What happened to one of the reimb-reqs in a bulk approve/deny.
+     */
+    public enum BulkOutcome{
+
+        RESOLVED, // approved or denied, as asked
+        NOT_FOUND,
+        NOT_PENDING // already resolved, maybe by someone else just now
     }
 
     // class/static variables -----------------
@@ -38,6 +54,20 @@ public class ERSResponse {
     private List<UserProfile> returnedUserProfiles;
     private List<ReimbursementRequest> returnedReimbursementRequests;
     private String message;
+    // only used when the request asked for a single page of reimb-reqs
+    private boolean hasNextPage;
+    private boolean hasPreviousPage;
+    // only used for bulk approve/deny: reimb ID -> outcome, in the order they were given
+    private Map<Integer, BulkOutcome> bulkOutcomes = new LinkedHashMap<>();
+    // only used for VIEW_CHANGE_COUNT
+    private long changeCount;
+    // only used for MANAGER_DASHBOARD
+    private Dashboard dashboard;
+    // for VIEW_ALL_PENDING and VIEW_CHANGE_COUNT: the last event published before
+    // the data was read (see ReimbursementEventBus)
+    private long eventSequence;
+    // only used for WATCH_PENDING
+    private Subscription subscription;
 
     // error text to explain problem, eg which ID wasn't found
 
@@ -134,4 +164,100 @@ public class ERSResponse {
     public String getMessage() {
         return this.message;
     }
+
+    /**
+     * True if the request asked for a page of reimb-reqs, and there are more after it.
+     * 
+     * @return
+     */
+    public boolean hasNextPage() {
+        return this.hasNextPage;
+    }
+
+    public void setHasNextPage(boolean hasNextPage) {
+        this.hasNextPage = hasNextPage;
+    }
+
+    /**
+     * True if the request asked for a page of reimb-reqs, and there are more before it.
+     * 
+     * @return
+     */
+    public boolean hasPreviousPage() {
+        return this.hasPreviousPage;
+    }
+
+    public void setHasPreviousPage(boolean hasPreviousPage) {
+        this.hasPreviousPage = hasPreviousPage;
+    }
+
+    /**
+     * For a bulk approve/deny, what happened to each reimb-req, in the order the IDs were
+     * given. Empty for every other kind of request. Returns a reference, not a copy.
+     * 
+     * @return
+     */
+    public Map<Integer, BulkOutcome> getBulkOutcomes() {
+        return this.bulkOutcomes;
+    }
+
+    public void setBulkOutcomes(Map<Integer, BulkOutcome> bulkOutcomes) {
+        this.bulkOutcomes = bulkOutcomes;
+    }
+
+    /**
+     * For VIEW_CHANGE_COUNT, how many writes have been made to the reimb-reqs (see
+     * ReimbursementRequestDAO.getChangeCount()). 0 for every other kind of request.
+     * 
+     * @return
+     */
+    public long getChangeCount() {
+        return this.changeCount;
+    }
+
+    public void setChangeCount(long changeCount) {
+        this.changeCount = changeCount;
+    }
+
+    /**
+     * For MANAGER_DASHBOARD, the totals to show. Null for every other kind of request.
+     * 
+     * @return
+     */
+    public Dashboard getDashboard() {
+        return this.dashboard;
+    }
+
+    public void setDashboard(Dashboard dashboard) {
+        this.dashboard = dashboard;
+    }
+
+    /**
+     * For VIEW_ALL_PENDING and VIEW_CHANGE_COUNT, the sequence number of the last
+     * ReimbursementEvent published before the data was read. Watching from there on
+     * (see WATCH_PENDING) won't miss anything.
+     * 
+     * @return
+     */
+    public long getEventSequence() {
+        return this.eventSequence;
+    }
+
+    public void setEventSequence(long eventSequence) {
+        this.eventSequence = eventSequence;
+    }
+
+    /**
+     * For WATCH_PENDING, the listener's subscription; cancel it once the watcher goes
+     * away. Null for every other kind of request.
+     * 
+     * @return
+     */
+    public Subscription getSubscription() {
+        return this.subscription;
+    }
+
+    public void setSubscription(Subscription subscription) {
+        this.subscription = subscription;
+    }
 }
@@ -0,0 +1,49 @@
+/**
+ * What the manager dashboard shows: the totals (count and money amount, by status and
+ * type) for every reimb-req, and the same for each author. A snapshot; it doesn't change
+ * once made, so it can be shared by any number of requests.
+ *
+ * @author Andrew Curry
+ */
+package com.revature.service.dashboard;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedMap;
+
+public class Dashboard {
+
+    // instance variables
+    private final DashboardTotals overall;
+    private final SortedMap<Integer, DashboardTotals> byAuthor; // author ID -> totals
+    private final LocalDateTime loadedAt; // when the store was built from the database
+
+    // constructor(s)
+
+    Dashboard(DashboardTotals overall, SortedMap<Integer, DashboardTotals> byAuthor,
+            LocalDateTime loadedAt){
+
+        this.overall = overall;
+        this.byAuthor = Collections.unmodifiableSortedMap(byAuthor);
+        this.loadedAt = loadedAt;
+    }
+
+    // methods
+
+    public DashboardTotals getOverall(){
+        return overall;
+    }
+
+    /**
+     * @return author ID -> that author's totals, in order of ID. Authors with no reqs
+     * aren't included.
+     */
+    public Map<Integer, DashboardTotals> getByAuthor(){
+        return byAuthor;
+    }
+
+    public LocalDateTime getLoadedAt(){
+        return loadedAt;
+    }
+}
@@ -0,0 +1,245 @@
+/**
+ * Keeps the manager dashboard's totals (see Dashboard) in memory, so showing it doesn't
+ * mean adding up the whole reimb-req table every time. The totals are built from the
+ * database once (at startup, or on first use), and from then on the store listens on
+ * the ReimbursementEventBus for each req that is submitted, approved, or denied.
+ *
+ * Only the pending reqs are remembered one by one: a resolve only knows the req's ID,
+ * and a req can't change once it has been resolved.
+ *
+ * The bus calls onEvent while it is locked, so onEvent never waits on a load: changes
+ * reported while one is going on are held back, and applied once it has finished.
+ *
+ * The store only hears about changes made through this copy of the app. Anything
+ * changed some other way (eg a second server, or by hand in the database) shows up
+ * after the next load().
+ *
+ * @author Andrew Curry
+ */
+package com.revature.service.dashboard;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.revature.model.ReimbursementRequest.ReimbursementStatus;
+import com.revature.model.ReimbursementRequest.ReimbursementType;
+import com.revature.repository.DAO.exceptions.DAOException;
+import com.revature.repository.DAO.interfaces.ReimbursementRequestDAO;
+import com.revature.repository.DAO.interfaces.ReimbursementRequestDAO.SearchType;
+import com.revature.service.events.ReimbursementEvent;
+import com.revature.service.events.ReimbursementEventListener;
+
+public class DashboardStore implements ReimbursementEventListener {
+
+    // instance variables
+    private final ReimbursementRequestDAO rrdao;
+    private final Object loadLock = new Object(); // one load at a time
+
+    // everything below is guarded by this
+    private boolean loaded;
+    private LocalDateTime loadedAt;
+    private DashboardTotals overall = new DashboardTotals();
+    private final Map<Integer, DashboardTotals> byAuthor = new HashMap<>();
+    // reimb ID -> the pending req, so that it can be moved once it is resolved
+    private final Map<Integer, PendingReq> pending = new HashMap<>();
+    // only while a load is going on: the events reported meanwhile, and the IDs of the
+    // reqs the load has counted so far
+    private List<ReimbursementEvent> heldBack;
+    private BitSet loadedIDs;
+
+    // the last snapshot handed out; null once anything has changed since
+    private volatile Dashboard snapshot;
+
+    // constructor(s)
+
+    /**
+     * The store still has to be subscribed to the event bus.
+     *
+     * @param rrdao
+     */
+    public DashboardStore(ReimbursementRequestDAO rrdao){
+        this.rrdao = rrdao;
+    }
+
+    // methods
+
+    /**
+     * (Re)builds the totals from the database, in one pass over the reimb-req table.
+     * The lock is only held for one req at a time, so changes reported while this is
+     * going on don't wait for it; they are applied at the end.
+     *
+     * @throws DAOException
+     */
+    public void load() throws DAOException{
+
+        synchronized (loadLock){
+            synchronized (this){
+                loaded = false;
+                snapshot = null;
+                clear();
+                heldBack = new ArrayList<>();
+                loadedIDs = new BitSet();
+            }
+            try{
+                rrdao.exportReimbursementRequests(SearchType.ALL, null, null, reimb -> {
+                    synchronized (this){
+                        loadedIDs.set(reimb.getID());
+                        count(reimb.getID(), reimb.getAuthor().getID(), 
+                                reimb.getStatus(), reimb.getType(), 
+                                reimb.getMoneyAmount());
+                    }
+                });
+            }
+            catch(IOException e){
+                throw new UncheckedIOException(e); // count() never throws it
+            }
+            catch(DAOException e){
+                synchronized (this){
+                    clear(); // half a load is worse than none; try again on next use
+                    heldBack = null;
+                    loadedIDs = null;
+                }
+                throw e;
+            }
+            synchronized (this){
+                for (ReimbursementEvent event : heldBack) apply(event);
+                heldBack = null;
+                loadedIDs = null;
+                loadedAt = LocalDateTime.now();
+                loaded = true;
+                snapshot = null;
+            }
+        }
+    }
+
+    public synchronized boolean isLoaded(){
+        return loaded;
+    }
+
+    /**
+     * Returns the current totals, loading them from the database first if they haven't
+     * been yet. Unless something has changed since the last call, this is the same
+     * snapshot as last time.
+     *
+     * @return
+     * @throws DAOException
+     */
+    public Dashboard getDashboard() throws DAOException{
+
+        Dashboard current = snapshot;
+        if (current != null) return current;
+
+        while (true){
+            synchronized (loadLock){
+                if (!isLoaded()) load();
+            }
+            synchronized (this){
+                if (!loaded) continue; // someone else started a reload; wait for it
+                if (snapshot == null){
+                    TreeMap<Integer, DashboardTotals> authors = new TreeMap<>();
+                    for (Map.Entry<Integer, DashboardTotals> e : byAuthor.entrySet()){
+                        authors.put(e.getKey(), e.getValue().copy());
+                    }
+                    snapshot = new Dashboard(overall.copy(), authors, loadedAt);
+                }
+                return snapshot;
+            }
+        }
+    }
+
+    /**
+     * Counts a newly submitted req, or moves a pending one over to its new status (see
+     * apply). Ignored if the store hasn't been loaded yet (the load will see the
+     * change), and held back until the end if a load is going on.
+     *
+     * @param event
+     */
+    @Override
+    public synchronized void onEvent(ReimbursementEvent event){
+
+        if (heldBack != null) heldBack.add(event);
+        else if (loaded) apply(event);
+    }
+
+    // helpers
+
+    /**
+     * Does the work of onEvent. Ignored if a submitted req is already counted, or if a
+     * resolved req isn't pending as far as the store knows (eg it was already resolved
+     * and reported). Only called while holding the lock.
+     *
+     * @param event
+     */
+    private void apply(ReimbursementEvent event){
+
+        if (event.isSubmit()){
+            if (pending.containsKey(event.getReimbID())) return;
+            // the load may have already seen it, even resolved
+            if (loadedIDs != null && loadedIDs.get(event.getReimbID())) return;
+            count(event.getReimbID(), event.getAuthorID(), event.getStatus(), 
+                    event.getType(), event.getMoneyAmount());
+        }
+        else{
+            PendingReq req = pending.remove(event.getReimbID());
+            if (req == null) return;
+
+            DashboardTotals author = byAuthor.get(req.authorID);
+            overall.remove(ReimbursementStatus.PENDING, req.type, req.amount);
+            author.remove(ReimbursementStatus.PENDING, req.type, req.amount);
+            overall.add(event.getStatus(), req.type, req.amount);
+            author.add(event.getStatus(), req.type, req.amount);
+        }
+        snapshot = null;
+    }
+
+    /**
+     * Adds one req to the totals (and to the pending reqs, if it is one). Only called
+     * while holding the lock.
+     *
+     * @param reimbID
+     * @param authorID
+     * @param status
+     * @param type
+     * @param amount
+     */
+    private void count(int reimbID, int authorID, ReimbursementStatus status, 
+            ReimbursementType type, long amount){
+
+        overall.add(status, type, amount);
+        byAuthor.computeIfAbsent(authorID, id -> new DashboardTotals())
+                .add(status, type, amount);
+        if (status == ReimbursementStatus.PENDING)
+            pending.put(reimbID, new PendingReq(authorID, type, amount));
+    }
+
+    private void clear(){
+
+        overall = new DashboardTotals();
+        pending.clear();
+        byAuthor.clear();
+    }
+
+    /**
+     * Just enough of a pending req to move it once it is resolved.
+     */
+    private static class PendingReq{
+
+        final int authorID;
+        final ReimbursementType type;
+        final long amount;
+
+        PendingReq(int authorID, ReimbursementType type, long amount){
+
+            this.authorID = authorID;
+            this.type = type;
+            this.amount = amount;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/**
+ * How many reimb-reqs there are, and how much money they add up to, for each status and
+ * type. The DashboardStore keeps one of these for everyone's reqs and one for each
+ * author's.
+ *
+ * Not thread safe by itself: the store only changes these while holding its lock, and
+ * hands out copies.
+ *
+ * @author Andrew Curry
+ */
+package com.revature.service.dashboard;
+
+import com.revature.model.ReimbursementRequest.ReimbursementStatus;
+import com.revature.model.ReimbursementRequest.ReimbursementType;
+
+public class DashboardTotals {
+
+    // constants
+    private static final int STATUSES = ReimbursementStatus.values().length;
+    private static final int TYPES = ReimbursementType.values().length;
+
+    // instance variables
+    // [status ordinal][type ordinal]
+    private final long[][] counts = new long[STATUSES][TYPES];
+    private final long[][] amounts = new long[STATUSES][TYPES]; // cents
+
+    // methods
+
+    public long getCount(ReimbursementStatus status, ReimbursementType type){
+        return counts[status.ordinal()][type.ordinal()];
+    }
+
+    public long getAmount(ReimbursementStatus status, ReimbursementType type){
+        return amounts[status.ordinal()][type.ordinal()];
+    }
+
+    /**
+     * @param status
+     * @return the number of reqs with the given status, of any type
+     */
+    public long getCount(ReimbursementStatus status){
+
+        long total = 0;
+        for (long count : counts[status.ordinal()]) total += count;
+        return total;
+    }
+
+    /**
+     * @param status
+     * @return the money amount (in cents) of every req with the given status
+     */
+    public long getAmount(ReimbursementStatus status){
+
+        long total = 0;
+        for (long amount : amounts[status.ordinal()]) total += amount;
+        return total;
+    }
+
+    /**
+     * Counts one more req.
+     *
+     * @param status
+     * @param type
+     * @param amount : in cents
+     */
+    void add(ReimbursementStatus status, ReimbursementType type, long amount){
+
+        counts[status.ordinal()][type.ordinal()]++;
+        amounts[status.ordinal()][type.ordinal()] += amount;
+    }
+
+    /**
+     * Un-counts a req, eg when it stops being pending.
+     *
+     * @param status
+     * @param type
+     * @param amount : in cents
+     */
+    void remove(ReimbursementStatus status, ReimbursementType type, long amount){
+
+        counts[status.ordinal()][type.ordinal()]--;
+        amounts[status.ordinal()][type.ordinal()] -= amount;
+    }
+
+    DashboardTotals copy(){
+
+        DashboardTotals copy = new DashboardTotals();
+        for (int s = 0; s < STATUSES; s++){
+            System.arraycopy(counts[s], 0, copy.counts[s], 0, TYPES);
+            System.arraycopy(amounts[s], 0, copy.amounts[s], 0, TYPES);
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,81 @@
+/**
+ * Something that happened to a reimb-req: it was submitted, or it was approved/denied.
+ * Published on the ReimbursementEventBus by the ModifyRequestHandler, once the change
+ * has been saved.
+ *
+ * A submit event has everything about the new req. A resolve event only has the ID, the
+ * new status, and who resolved it (a bulk resolve doesn't load the reqs it changes).
+ *
+ * @author Andrew Curry
+ */
+package com.revature.service.events;
+
+import com.revature.model.ReimbursementRequest.ReimbursementStatus;
+import com.revature.model.ReimbursementRequest.ReimbursementType;
+
+public class ReimbursementEvent {
+
+    // instance variables
+    private final long sequence; // 1, 2, 3... in the order they were published
+    private final int reimbID;
+    private final ReimbursementStatus status; // PENDING means it was just submitted
+    private final int authorID; // -1 for resolves
+    private final ReimbursementType type; // null for resolves
+    private final long moneyAmount; // 0 for resolves
+    private final String description; // null for resolves
+    private final int resolverID; // -1 for submits
+
+    // constructor(s)
+
+    ReimbursementEvent(long sequence, int reimbID, ReimbursementStatus status, 
+            int authorID, ReimbursementType type, long moneyAmount, String description,
+            int resolverID){
+
+        this.sequence = sequence;
+        this.reimbID = reimbID;
+        this.status = status;
+        this.authorID = authorID;
+        this.type = type;
+        this.moneyAmount = moneyAmount;
+        this.description = description;
+        this.resolverID = resolverID;
+    }
+
+    // methods
+
+    public boolean isSubmit(){
+        return status == ReimbursementStatus.PENDING;
+    }
+
+    public long getSequence(){
+        return sequence;
+    }
+
+    public int getReimbID(){
+        return reimbID;
+    }
+
+    public ReimbursementStatus getStatus(){
+        return status;
+    }
+
+    public int getAuthorID(){
+        return authorID;
+    }
+
+    public ReimbursementType getType(){
+        return type;
+    }
+
+    public long getMoneyAmount(){
+        return moneyAmount;
+    }
+
+    public String getDescription(){
+        return description;
+    }
+
+    public int getResolverID(){
+        return resolverID;
+    }
+}
@@ -0,0 +1,141 @@
+/**
+ * Passes ReimbursementEvents from whatever publishes them (the ModifyRequestHandler) to
+ * whoever is listening (eg the DashboardStore, and managers watching the pending queue),
+ * all in the same process.
+ *
+ * Each event gets the next sequence number, and the last HISTORY_SIZE events are kept,
+ * so a listener that missed a few (eg a browser that lost its connection for a moment)
+ * can catch up when it subscribes again.
+ *
+ * @author Andrew Curry
+ */
+package com.revature.service.events;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.apache.log4j.Logger;
+
+import com.revature.model.ReimbursementRequest;
+import com.revature.model.ReimbursementRequest.ReimbursementStatus;
+
+public class ReimbursementEventBus {
+
+    // constants
+    public static final int HISTORY_SIZE = 256;
+
+    // class / static variables
+    private static final Logger log = Logger.getLogger(ReimbursementEventBus.class);
+
+    // instance variables
+    private final List<ReimbursementEventListener> listeners 
+            = new CopyOnWriteArrayList<>();
+    // the sequence and the history are guarded by this
+    private long sequence; // of the last event published
+    private final Deque<ReimbursementEvent> history = new ArrayDeque<>(HISTORY_SIZE);
+
+    // methods
+
+    /**
+     * Tells every listener that the given req was submitted. The req must already have
+     * been saved (and so have an ID).
+     *
+     * @param reimb
+     */
+    public void publishSubmitted(ReimbursementRequest reimb){
+
+        synchronized (this){
+            publish(new ReimbursementEvent(++sequence, reimb.getID(), 
+                    ReimbursementStatus.PENDING, reimb.getAuthor().getID(), 
+                    reimb.getType(), reimb.getMoneyAmount(), reimb.getDescription(), -1));
+        }
+    }
+
+    /**
+     * Tells every listener that the given req was approved or denied.
+     *
+     * @param reimbID
+     * @param newStatus
+     * @param resolverID
+     */
+    public void publishResolved(
+            int reimbID, ReimbursementStatus newStatus, int resolverID){
+
+        synchronized (this){
+            publish(new ReimbursementEvent(
+                    ++sequence, reimbID, newStatus, -1, null, 0, null, resolverID));
+        }
+    }
+
+    /**
+     * @return the sequence number of the last event published (0 if there hasn't been
+     * one yet)
+     */
+    public synchronized long getLastSequence(){
+        return sequence;
+    }
+
+    /**
+     * Starts telling the given listener about every event published from now on.
+     *
+     * @param listener
+     * @return the subscription, to cancel once done listening
+     */
+    public Subscription subscribe(ReimbursementEventListener listener){
+        return subscribe(listener, -1);
+    }
+
+    /**
+     * Like subscribe(listener), but first replays every event after the given sequence
+     * number (eg the last one the listener saw). If some of those aren't remembered any
+     * more, or the sequence number is from before a restart, the listener's
+     * eventsMissed() is called instead.
+     *
+     * @param listener
+     * @param since : a sequence number, or -1 to skip the replay
+     * @return
+     */
+    public synchronized Subscription subscribe(
+            ReimbursementEventListener listener, long since){
+
+        if (since >= 0){
+            long oldest = history.isEmpty() 
+                    ? sequence + 1 
+                    : history.peekFirst().getSequence();
+            if (since > sequence || since < oldest - 1) listener.eventsMissed();
+            else{
+                for (ReimbursementEvent event : history){
+                    if (event.getSequence() > since) listener.onEvent(event);
+                }
+            }
+        }
+        listeners.add(listener);
+        return () -> listeners.remove(listener);
+    }
+
+    // helpers
+
+    /**
+     * Remembers the event and hands it to each listener. Only called while holding the
+     * lock, so every listener sees the events in order; it's also why a listener must
+     * never block (see ReimbursementEventListener).
+     *
+     * @param event
+     */
+    private void publish(ReimbursementEvent event){
+
+        if (history.size() == HISTORY_SIZE) history.removeFirst();
+        history.addLast(event);
+        for (ReimbursementEventListener listener : listeners){
+            try{
+                listener.onEvent(event);
+            }
+            catch(RuntimeException e){
+                // the change is already saved; one broken listener shouldn't undo that
+                log.error("Event listener failed: " + e);
+            }
+        }
+    }
+}
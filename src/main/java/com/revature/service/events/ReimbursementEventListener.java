@@ -0,0 +1,30 @@
+/**
+ * Told about each ReimbursementEvent (see ReimbursementEventBus.subscribe).
+ *
+ * Called on the thread that published the event (a request's own thread), while the bus
+ * is locked, so onEvent and eventsMissed must not block: no I/O, and no waiting on a lock
+ * that might be held for long. Every submit, approve, and deny (and every other
+ * listener) waits until they return. Put the event in a queue for another thread
+ * instead, as EventStream does.
+ *
+ * @author Andrew Curry
+ */
+package com.revature.service.events;
+
+@FunctionalInterface
+public interface ReimbursementEventListener {
+
+    /**
+     * @param event
+     */
+    public void onEvent(ReimbursementEvent event);
+
+    /**
+     * Called instead of replaying events that the bus no longer remembers (see
+     * ReimbursementEventBus.subscribe). Whatever the listener built from earlier events
+     * may be out of date.
+     */
+    public default void eventsMissed(){
+        // nothing by default
+    }
+}
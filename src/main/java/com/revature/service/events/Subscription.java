@@ -0,0 +1,16 @@
+/**
+ * Returned by ReimbursementEventBus.subscribe; cancel it to stop hearing about events.
+ *
+ * @author Andrew Curry
+ */
+package com.revature.service.events;
+
+@FunctionalInterface
+public interface Subscription {
+
+    /**
+     * Stops the listener from being told about any more events. Safe to call more than
+     * once.
+     */
+    public void cancel();
+}
@@ -7,30 +7,77 @@
 package com.revature.service.handlers;
 
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Optional;
+
+import org.apache.log4j.Logger;
+
+import com.revature.model.UserPassword;
 
 import com.revature.model.UserProfile;
 import com.revature.model.UserProfile.UserRole;
 import com.revature.repository.DAO.exceptions.DAOException;
 import com.revature.repository.DAO.interfaces.ReimbursementRequestDAO;
 import com.revature.repository.DAO.interfaces.UserProfileDAO;
+import com.revature.repository.Util.HibernateConnectionUtil;
+import com.revature.service.LoginThrottle;
+import com.revature.service.PasswordCheckException;
+import com.revature.service.PasswordChecker;
 import com.revature.service.PasswordUtil;
 import com.revature.service.comms.ERSRequest;
+import com.revature.service.comms.ERSRequest.ERSRequestType;
 import com.revature.service.comms.ERSResponse;
 import com.revature.service.comms.ERSResponse.ERSResponseType;
 
 public class AuthRequestHandler extends RequestHandler {
+
+    // class / static variables ------------
+    private static final Logger log = Logger.getLogger(AuthRequestHandler.class);
     
     // instance variables ------------------
     private UserProfileDAO updao;
     //private ReimbursementRequestDAO rrdao; // never needs this
+    private PasswordChecker checker;
+    private LoginThrottle throttle;
 
     // constructor(s) ----------------------
 
+    /**
+     * Uses the shared PasswordChecker, and a LoginThrottle with the default limits.
+     * 
+     * @param updao
+     * @param rrdao
+     */
     public AuthRequestHandler(UserProfileDAO updao, ReimbursementRequestDAO rrdao){
 
+        this(updao, rrdao, PasswordChecker.getShared(), new LoginThrottle());
+    }
+
+    public AuthRequestHandler(
+            UserProfileDAO updao, 
+            ReimbursementRequestDAO rrdao,
+            PasswordChecker checker,
+            LoginThrottle throttle){
+
         this.updao = updao;
         //this.rrdao = rrdao;
+        this.checker = checker;
+        this.throttle = throttle;
+    }
+
+    /**
+     * LOG_IN is only for logged out users; LOG_OUT is for anyone logged in.
+     * 
+     * @param registry
+     */
+    @Override
+    public void registerHandlers(HandlerRegistry registry){
+
+        registry.register(ERSRequestType.LOG_IN, 
+                EnumSet.of(UserRole.LOGGED_OUT), this::handleLogIn);
+        registry.register(ERSRequestType.LOG_OUT, 
+                EnumSet.of(UserRole.EMPLOYEE, UserRole.MANAGER), this::handleLogOut);
     }
 
     // handler methods
@@ -40,6 +87,10 @@ public class AuthRequestHandler extends RequestHandler {
      * Succeeds if the username matches an existing account, and the given password
      * matches the password for the given account.
      * Fails if the user is not found, or if user is already logged in.
+     * Also fails (TOO_MANY_REQUESTS) if there have been too many attempts for the
+     * username from the client address, or from the address overall, lately, or if the
+     * server is too busy checking other passwords; in those cases the password isn't
+     * checked at all.
      * 
      * @param req
      * @return
@@ -57,18 +108,34 @@ public class AuthRequestHandler extends RequestHandler {
                             String.format(
                                 "Unable to log in: there is already a user logged in."));
 
+            // before doing any real work
             String username = req.getParameter(ERSRequest.USERNAME_KEY);
-            if (!updao.checkExists(username)) 
-            return getUserDoesNotExistResponse(username);
+            String address = req.getParameter(ERSRequest.CLIENT_ADDRESS_KEY); // or null
+            if (!throttle.tryAttempt(username, address))
+                return getTooManyRequestsResponse(
+                        "Too many log in attempts. Please wait a minute and try again.");
+
+            // one query gets both the stored hash and the profile
+            Optional<UserPassword> account = updao.findUserPassword(username);
+            // that's all this needs from the database (unless the hash gets upgraded),
+            // so give the connection back instead of holding it through bcrypt
+            HibernateConnectionUtil.releaseRequestSession();
+            if (!account.isPresent()) return getUserDoesNotExistResponse(username);
             
             String password = req.getParameter(ERSRequest.PASSWORD_KEY);
-            if (!checkPassword(username, password)) // helper handles encryption
+            String stored = account.get().getPass();
+            if (!checker.checkPassword(password, stored))
                 return getIncorrectPasswordResponse(username);
+            throttle.recordSuccess(username, address);
+
+            // the only time the plain password is known, so upgrade old/weak hashes now
+            if (PasswordUtil.needsRehash(stored))
+                upgradePassword(account.get().getUser().getID(), password);
 
             // return the UP object to let the front end know information like ID
             ERSResponse res = new ERSResponse(ERSResponseType.SUCCESS);
             List<UserProfile> returnedUsers = new ArrayList<>();
-            returnedUsers.add(updao.getUserProfile(username));
+            returnedUsers.add(account.get().getUser());
             res.setReturnedUserProfiles(returnedUsers);
 
             return res;
@@ -76,6 +143,10 @@ public class AuthRequestHandler extends RequestHandler {
         catch(DAOException e){
             return getGenericDAOExceptionResponse();
         }
+        catch(PasswordCheckException e){
+            return getTooManyRequestsResponse(
+                    "The server is busy right now. Please try logging in again.");
+        }
     }
 
     /**
@@ -98,23 +169,6 @@ public class AuthRequestHandler extends RequestHandler {
 
     // helpers
 
-    /**
-     * Checks to see if the given password is valid for the account indicated by the
-     * given username.
-     * 
-     * NOTE: currently, encryption is not implemented.
-     * TODO: encryption
-     * 
-     * @param username
-     * @param password
-     * @return
-     */
-    private boolean checkPassword(String username, String password) throws DAOException{
-        
-        String truePassword = updao.getPassword(username);
-        return PasswordUtil.checkPassword(password, truePassword);
-    }
-
     /**
      * Returns a standardized response indicating the user was trying to log in with an
      * incorrect password.
@@ -131,4 +185,40 @@ public class AuthRequestHandler extends RequestHandler {
                 ERSResponseType.INVALID_PARAMETER,
                 String.format("Invalid password for account '%s'", username));
     }
+
+    /**
+     * Re-hashes the password with the current policy and saves it. If that can't be done
+     * right now (busy, or a database problem), the old hash is kept and this is tried
+     * again next time; the log in still succeeds either way.
+     * Called after the read's connection has been given back, so the (slow) hash is
+     * worked out without holding one; only the write checks one out again.
+     * 
+     * @param userID
+     * @param password
+     */
+    private void upgradePassword(int userID, String password) {
+
+        try{
+            String hash = checker.hash(password);
+            updao.updatePassword(userID, hash);
+        }
+        catch(PasswordCheckException | DAOException e){
+            // not worth failing the log in over, but if it fails every time, someone
+            // should know
+            log.warn("Unable to upgrade the password hash for user #" + userID + ": " 
+                    + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns a standardized response indicating the log in was turned away without
+     * checking the password, and the user should try again later.
+     * 
+     * @param message
+     * @return
+     */
+    private ERSResponse getTooManyRequestsResponse(String message) {
+
+        return new ERSResponse(ERSResponseType.TOO_MANY_REQUESTS, message);
+    }
 }
@@ -0,0 +1,99 @@
+/**
+ * Keeps track of which handler method deals with each type of request, and which user
+ * roles are allowed to make each type of request. Each RequestHandler registers its own
+ * methods (see RequestHandler.registerHandlers), so adding a new request type only means
+ * registering it in the handler that deals with it.
+ *
+ * Filled in once, when the ServiceFront is made; after that it's only read.
+ *
+ * @author Andrew Curry
+ */
+package com.revature.service.handlers;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+import com.revature.model.UserProfile.UserRole;
+import com.revature.service.comms.ERSRequest;
+import com.revature.service.comms.ERSResponse;
+import com.revature.service.comms.ERSRequest.ERSRequestType;
+
+public class HandlerRegistry {
+
+    /**
+     * One of the handle___ methods, eg AuthRequestHandler::handleLogIn
+     */
+    @FunctionalInterface
+    public interface Handler{
+        public ERSResponse handle(ERSRequest req);
+    }
+
+    // instance variables
+    private final Map<ERSRequestType, Handler> handlers
+            = new EnumMap<>(ERSRequestType.class);
+    private final Map<UserRole, EnumSet<ERSRequestType>> permissions
+            = new EnumMap<>(UserRole.class);
+
+    // constructor(s)
+
+    public HandlerRegistry(){
+
+        for (UserRole role : UserRole.values()){
+            permissions.put(role, EnumSet.noneOf(ERSRequestType.class));
+        }
+    }
+
+    // methods
+
+    /**
+     * Registers the handler for the given type of request, and which roles can make it.
+     *
+     * @param type
+     * @param roles : the user roles allowed to make this type of request
+     * @param handler
+     * @throws IllegalStateException if the type already has a handler
+     */
+    public void register(ERSRequestType type, Set<UserRole> roles, Handler handler){
+
+        if (handlers.containsKey(type))
+            throw new IllegalStateException("Request type " + type + " registered twice");
+
+        handlers.put(type, handler);
+        for (UserRole role : roles){
+            permissions.get(role).add(type);
+        }
+    }
+
+    /**
+     * Returns the handler for the given type of request, or null if there isn't one.
+     *
+     * @param type
+     * @return
+     */
+    public Handler getHandler(ERSRequestType type){
+        return handlers.get(type);
+    }
+
+    /**
+     * Returns true if a user with the given role can make the given type of request.
+     *
+     * @param role
+     * @param type
+     * @return
+     */
+    public boolean isPermitted(UserRole role, ERSRequestType type){
+        return permissions.get(role).contains(type);
+    }
+
+    /**
+     * Returns (a copy of) the set of request types the given role can make.
+     *
+     * @param role
+     * @return
+     */
+    public EnumSet<ERSRequestType> getPermittedTypes(UserRole role){
+        return EnumSet.copyOf(permissions.get(role));
+    }
+}
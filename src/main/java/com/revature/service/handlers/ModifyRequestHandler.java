@@ -6,30 +6,91 @@
  */
 package com.revature.service.handlers;
 
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
 import com.revature.repository.DAO.exceptions.DAOException;
+import com.revature.repository.DAO.exceptions.StaleDataException;
 import com.revature.repository.DAO.interfaces.ReimbursementRequestDAO;
 import com.revature.repository.DAO.interfaces.UserProfileDAO;
 import com.revature.service.comms.ERSRequest;
+import com.revature.service.comms.ERSRequest.ERSRequestType;
 import com.revature.service.comms.ERSResponse;
+import com.revature.service.comms.ERSResponse.BulkOutcome;
 import com.revature.service.comms.ERSResponse.ERSResponseType;
+import com.revature.service.events.ReimbursementEventBus;
 
 import com.revature.model.ReimbursementRequest;
 import com.revature.model.UserProfile;
+import com.revature.model.UserProfile.UserRole;
 import com.revature.model.ReimbursementRequest.ReimbursementStatus;
 import com.revature.model.ReimbursementRequest.ReimbursementType;
 
 public class ModifyRequestHandler extends RequestHandler {
 
+    // constants ---------------------------
+    // keeps the IN (...) lists well under what any database will take
+    public static final int MAX_BULK_IDS = 500;
+
     // instance variables ------------------
     private UserProfileDAO updao;
     private ReimbursementRequestDAO rrdao;
+    private ReimbursementEventBus events; // told about every submit/approve/deny
 
     // constructor(s) ----------------------
 
+    /**
+     * For when nothing is listening for changes: events go to a bus of this handler's
+     * own.
+     */
     public ModifyRequestHandler(UserProfileDAO updao, ReimbursementRequestDAO rrdao) {
 
+        this(updao, rrdao, new ReimbursementEventBus());
+    }
+
+    /**
+     * @param updao
+     * @param rrdao
+     * @param events : where to publish each change, once it has been saved
+     */
+    public ModifyRequestHandler(
+            UserProfileDAO updao, 
+            ReimbursementRequestDAO rrdao, 
+            ReimbursementEventBus events) {
+
         this.updao = updao;
         this.rrdao = rrdao;
+        this.events = events;
+    }
+
+    /**
+     * Employees submit and update themselves; managers approve and deny.
+     * 
+     * @param registry
+     */
+    @Override
+    public void registerHandlers(HandlerRegistry registry){
+
+        Set<UserRole> employee = EnumSet.of(UserRole.EMPLOYEE);
+        Set<UserRole> manager = EnumSet.of(UserRole.MANAGER);
+
+        registry.register(ERSRequestType.SUBMIT_REQUEST, 
+                employee, this::handleSubmitRequest);
+        registry.register(ERSRequestType.EMPLOYEE_UPDATE_SELF, 
+                employee, this::handleEmployeeUpdateSelf);
+        registry.register(ERSRequestType.APPROVE_REQUEST, 
+                manager, this::handleApproveRequest);
+        registry.register(ERSRequestType.DENY_REQUEST, 
+                manager, this::handleDenyRequest);
+        registry.register(ERSRequestType.BULK_APPROVE_REQUEST, 
+                manager, this::handleBulkApproveRequest);
+        registry.register(ERSRequestType.BULK_DENY_REQUEST, 
+                manager, this::handleBulkDenyRequest);
     }
 
     // handler methods ---------------------------
@@ -41,7 +102,9 @@ public class ModifyRequestHandler extends RequestHandler {
      * Can optionally have parameter(s) : (description) Fails if the logged-in user cannot
      * be found.
      * Fails if there is a DAO exception. 
-     * Fails if the moneyAmount parameter cannot be converted to a long.
+     * Fails if the moneyAmount parameter cannot be converted to a long, or is negative.
+     * Fails if the description is longer than MAX_DESCRIPTION_LENGTH (see
+     * ReimbursementRequest).
      * 
      * @param req
      * @return
@@ -53,15 +116,30 @@ public class ModifyRequestHandler extends RequestHandler {
             return getMalformedRequestResponse();
 
         try {
+            // checked here rather than in each front end, so the html pages and the API
+            // both get them
+            long moneyAmount 
+                    = Long.parseLong(req.getParameter(ERSRequest.MONEY_AMOUNT_KEY));
+            if (moneyAmount < 0)
+                return new ERSResponse(
+                        ERSResponseType.INVALID_PARAMETER, 
+                        "Money amount can't be negative.");
+            String description 
+                    = req.getParameter(ERSRequest.REIMBURSEMENT_DESCRIPTION_KEY);
+            if (description != null 
+                    && description.length() > ReimbursementRequest.MAX_DESCRIPTION_LENGTH)
+                return new ERSResponse(
+                        ERSResponseType.INVALID_PARAMETER, 
+                        "Description can be at most " 
+                                + ReimbursementRequest.MAX_DESCRIPTION_LENGTH 
+                                + " characters.");
+
             int authorID = req.getUserID();
 
-            if (!updao.checkExists(authorID))
-                return getUserDoesNotExistResponse(authorID);
-            UserProfile author = updao.getUserProfile(authorID);
+            Optional<UserProfile> author = updao.findUserProfile(authorID);
+            if (!author.isPresent()) return getUserDoesNotExistResponse(authorID);
 
             // good to go ahead and build the reimb-req
-            long moneyAmount 
-                    = Long.parseLong(req.getParameter(ERSRequest.MONEY_AMOUNT_KEY));
             ReimbursementType type = ReimbursementType.fromString(
                         req.getParameter(ERSRequest.REIMBURSEMENT_TYPE_KEY));
             if (type == ReimbursementType.NONE)
@@ -70,13 +148,12 @@ public class ModifyRequestHandler extends RequestHandler {
                         "Invalid input for expense type.");
 
             ReimbursementRequest reimb 
-                    = new ReimbursementRequest(author, moneyAmount, type);
-            reimb.setTimeSubmitted(java.time.LocalDateTime.now().toString()); 
-            if (req.hasParameter(ERSRequest.REIMBURSEMENT_DESCRIPTION_KEY))
-                reimb.setDescription(
-                        req.getParameter(ERSRequest.REIMBURSEMENT_DESCRIPTION_KEY));
+                    = new ReimbursementRequest(author.get(), moneyAmount, type);
+            reimb.setTimeSubmitted(java.time.LocalDateTime.now()); 
+            if (description != null) reimb.setDescription(description);
 
             int reimbID = rrdao.saveReimbursementRequest(reimb);
+            events.publishSubmitted(reimb);
             ERSResponse res = new ERSResponse(ERSResponseType.SUCCESS,
                     String.format(
                             "Successfully submitted new reimbursement request with ID %d", 
@@ -116,10 +193,11 @@ public class ModifyRequestHandler extends RequestHandler {
 
             int userID = req.getUserID();
 
-            if (!updao.checkExists(userID)) return getUserDoesNotExistResponse(userID);
+            Optional<UserProfile> found = updao.findUserProfile(userID);
+            if (!found.isPresent()) return getUserDoesNotExistResponse(userID);
             
             // this is a clumsy way of checking to see if there are duplicate values
-            UserProfile up = updao.getUserProfile(userID);
+            UserProfile up = found.get();
 
             String newUsername = req.getParameter(ERSRequest.USERNAME_KEY);
             String newFirst = req.getParameter(ERSRequest.FIRST_NAME_KEY);
@@ -140,7 +218,7 @@ public class ModifyRequestHandler extends RequestHandler {
             // same with email
             if (!up.getEmailAddress().equals(newEmail)){
                 
-                if (updao.checkExists(newEmail))
+                if (updao.checkExistsEmail(newEmail))
                     return new ERSResponse(
                             ERSResponseType.INVALID_PARAMETER,
                             String.format(
@@ -155,6 +233,10 @@ public class ModifyRequestHandler extends RequestHandler {
             updao.saveUserProfile(up);
             return new ERSResponse(ERSResponseType.SUCCESS);
         }
+        catch (StaleDataException e) {
+            return getConflictResponse(
+                    "Your profile was changed by someone else. Please try again.");
+        }
         catch (DAOException e) {
             return getGenericDAOExceptionResponse();
         }
@@ -165,6 +247,7 @@ public class ModifyRequestHandler extends RequestHandler {
      * Fails if the (currently logged in) manager's account does not exist.
      * Fails if the req does not exist.
      * Fails if the req is not PENDING.
+     * Fails (with CONFLICT) if someone else resolves the req while this is going on.
      * Fails if the reimbID paramater is missing.
      * Fails if there is a DAOException
      * 
@@ -182,10 +265,12 @@ public class ModifyRequestHandler extends RequestHandler {
 
             int reimbID = Integer.parseInt(
                     req.getParameter(ERSRequest.REIMBURSEMENT_ID_KEY));
-            if (!rrdao.checkExists(reimbID)) 
+            Optional<ReimbursementRequest> found 
+                    = rrdao.findReimbursementRequest(reimbID);
+            if (!found.isPresent()) 
                 return getReimbursementRequestDoesNotExistResponse(reimbID);
             
-            ReimbursementRequest reimb = rrdao.getReimbursementRequest(reimbID);
+            ReimbursementRequest reimb = found.get();
             if (reimb.getStatus() != ReimbursementStatus.PENDING)
                 return new ERSResponse(
                         ERSResponseType.INVALID_PARAMETER,
@@ -195,11 +280,15 @@ public class ModifyRequestHandler extends RequestHandler {
             
             // finally, we can do it
             reimb.setStatus(ReimbursementStatus.APPROVED);
-            reimb.setTimeResolved(java.time.LocalDateTime.now().toString()); 
+            reimb.setTimeResolved(java.time.LocalDateTime.now()); 
             reimb.setResolverID(userID);
             rrdao.saveReimbursementRequest(reimb);
+            events.publishResolved(reimbID, ReimbursementStatus.APPROVED, userID);
             return new ERSResponse(ERSResponseType.SUCCESS);
         }
+        catch (StaleDataException e) {
+            return getReimbursementRequestConflictResponse(req);
+        }
         catch (DAOException e) {
             return getGenericDAOExceptionResponse();
         }
@@ -210,6 +299,7 @@ public class ModifyRequestHandler extends RequestHandler {
      * Fails if the (currently logged in) manager's account does not exist.
      * Fails if the req does not exist.
      * Fails if the req is not PENDING.
+     * Fails (with CONFLICT) if someone else resolves the req while this is going on.
      * Fails if the reimbID paramater is missing.
      * Fails if there is a DAOException
      * 
@@ -227,10 +317,12 @@ public class ModifyRequestHandler extends RequestHandler {
 
             int reimbID = Integer.parseInt(
                     req.getParameter(ERSRequest.REIMBURSEMENT_ID_KEY));
-            if (!rrdao.checkExists(reimbID)) 
+            Optional<ReimbursementRequest> found 
+                    = rrdao.findReimbursementRequest(reimbID);
+            if (!found.isPresent()) 
                 return getReimbursementRequestDoesNotExistResponse(reimbID);
             
-            ReimbursementRequest reimb = rrdao.getReimbursementRequest(reimbID);
+            ReimbursementRequest reimb = found.get();
             if (reimb.getStatus() != ReimbursementStatus.PENDING)
                 return new ERSResponse(
                         ERSResponseType.INVALID_PARAMETER,
@@ -240,13 +332,160 @@ public class ModifyRequestHandler extends RequestHandler {
             
             // finally, we can do it
             reimb.setStatus(ReimbursementStatus.DENIED);
-            reimb.setTimeResolved(java.time.LocalDateTime.now().toString()); 
+            reimb.setTimeResolved(java.time.LocalDateTime.now()); 
             reimb.setResolverID(userID);
             rrdao.saveReimbursementRequest(reimb);
+            events.publishResolved(reimbID, ReimbursementStatus.DENIED, userID);
             return new ERSResponse(ERSResponseType.SUCCESS);
         }
+        catch (StaleDataException e) {
+            return getReimbursementRequestConflictResponse(req);
+        }
         catch (DAOException e) {
             return getGenericDAOExceptionResponse();
         }
     }
+
+    /**
+     * A manager approves several reimb-reqs at once. The reimbursementIDs parameter is a
+     * comma separated list of IDs. Every req that is still PENDING gets approved, in one
+     * transaction; the rest are skipped. Either way, the response's bulk outcomes say
+     * what happened to each ID, and the message sums it up.
+     * Fails if the (currently logged in) manager's account does not exist.
+     * Fails if the reimbursementIDs parameter is missing, empty, or badly formatted.
+     * Fails if there are more than MAX_BULK_IDS IDs.
+     * Fails if there is a DAOException.
+     * 
+     * @param req
+     * @return
+     */
+    public ERSResponse handleBulkApproveRequest(ERSRequest req) {
+        return handleBulkResolve(req, ReimbursementStatus.APPROVED);
+    }
+
+    /**
+     * A manager denies several reimb-reqs at once. See handleBulkApproveRequest().
+     * 
+     * @param req
+     * @return
+     */
+    public ERSResponse handleBulkDenyRequest(ERSRequest req) {
+        return handleBulkResolve(req, ReimbursementStatus.DENIED);
+    }
+
+    // helpers -----------------------------
+
+    /**
+     * For when another manager resolved the same req first (see StaleDataException).
+     * 
+     * @param req : an approve/deny request
+     * @return
+     */
+    private ERSResponse getReimbursementRequestConflictResponse(ERSRequest req){
+
+        return getConflictResponse(String.format(
+                "Reimbursement Request #%s was resolved by someone else first.",
+                req.getParameter(ERSRequest.REIMBURSEMENT_ID_KEY)));
+    }
+
+    /**
+     * Does the actual work for the bulk approve/deny handlers.
+     * 
+     * @param req
+     * @param newStatus
+     * @return
+     */
+    private ERSResponse handleBulkResolve(ERSRequest req, ReimbursementStatus newStatus){
+
+        if (!req.hasParameter(ERSRequest.REIMBURSEMENT_IDS_KEY))
+            return getMalformedRequestResponse();
+
+        // a set, so the same ID twice doesn't get counted twice
+        Set<Integer> reimbIDs = new LinkedHashSet<>();
+        try{
+            for (String idString 
+                    : req.getParameter(ERSRequest.REIMBURSEMENT_IDS_KEY).split(",")){
+                if (!idString.trim().isEmpty()) 
+                    reimbIDs.add(Integer.parseInt(idString.trim()));
+            }
+        }
+        catch (NumberFormatException e){
+            return new ERSResponse(
+                    ERSResponseType.INVALID_PARAMETER, 
+                    "Invalid input format for reimbursement request ID list.");
+        }
+        if (reimbIDs.isEmpty()) return getMalformedRequestResponse();
+        if (reimbIDs.size() > MAX_BULK_IDS)
+            return new ERSResponse(
+                    ERSResponseType.INVALID_PARAMETER,
+                    String.format(
+                            "Can't resolve more than %d requests at once.", 
+                            MAX_BULK_IDS));
+
+        try{
+            int userID = req.getUserID();
+            if (!updao.checkExists(userID)) return getUserDoesNotExistResponse(userID);
+
+            Map<Integer, ReimbursementStatus> before = rrdao.resolvePendingRequests(
+                    reimbIDs, newStatus, userID, LocalDateTime.now());
+
+            Map<Integer, BulkOutcome> outcomes = new LinkedHashMap<>();
+            int resolved = 0;
+            for (int reimbID : reimbIDs){
+                ReimbursementStatus status = before.get(reimbID);
+                if (status == null) outcomes.put(reimbID, BulkOutcome.NOT_FOUND);
+                else if (status != ReimbursementStatus.PENDING) 
+                    outcomes.put(reimbID, BulkOutcome.NOT_PENDING);
+                else{
+                    outcomes.put(reimbID, BulkOutcome.RESOLVED);
+                    events.publishResolved(reimbID, newStatus, userID);
+                    resolved++;
+                }
+            }
+
+            ERSResponse res = new ERSResponse(ERSResponseType.SUCCESS,
+                    makeBulkMessage(outcomes, resolved, newStatus));
+            res.setBulkOutcomes(outcomes);
+            return res;
+        }
+        catch (DAOException e) {
+            return getGenericDAOExceptionResponse();
+        }
+    }
+
+    /**
+     * Sums up a bulk approve/deny, eg
+     * "Approved 3 of 5 reimbursement requests. Not found: #9. Not pending: #4."
+     * 
+     * @param outcomes
+     * @param resolved
+     * @param newStatus
+     * @return
+     */
+    private String makeBulkMessage(
+            Map<Integer, BulkOutcome> outcomes, 
+            int resolved, 
+            ReimbursementStatus newStatus){
+
+        StringBuilder notFound = new StringBuilder();
+        StringBuilder notPending = new StringBuilder();
+        for (Map.Entry<Integer, BulkOutcome> e : outcomes.entrySet()){
+            if (e.getValue() == BulkOutcome.NOT_FOUND) 
+                notFound.append(notFound.length() == 0 ? " " : ", ")
+                        .append('#').append(e.getKey());
+            else if (e.getValue() == BulkOutcome.NOT_PENDING) 
+                notPending.append(notPending.length() == 0 ? " " : ", ")
+                        .append('#').append(e.getKey());
+        }
+
+        StringBuilder message = new StringBuilder(String.format(
+                "%s %d of %d reimbursement requests.", 
+                newStatus == ReimbursementStatus.APPROVED ? "Approved" : "Denied",
+                resolved, outcomes.size()));
+        if (notFound.length() > 0) 
+            message.append(" Not found:").append(notFound).append('.');
+        if (notPending.length() > 0) 
+            message.append(" Not pending:").append(notPending).append('.');
+        return message.toString();
+    }
 }
@@ -11,6 +11,15 @@ import com.revature.service.comms.ERSResponse.ERSResponseType;
 
 public abstract class RequestHandler {
 
+    /**
+     * Registers each of this handler's handle___ methods with the given registry, along
+     * with which user roles are allowed to make that type of request.
+     * Called once, by the ServiceFront.
+     * 
+     * @param registry
+     */
+    public abstract void registerHandlers(HandlerRegistry registry);
+
     /**
      * Returns a response indicating that a user was not found.
      * 
@@ -47,6 +56,18 @@ public abstract class RequestHandler {
                 "There was a problem communicating with the database.");
     }
 
+    /**
+     * Returns a response indicating that what the user was trying to change was changed
+     * by someone else first (see StaleDataException), so nothing was saved.
+     * 
+     * @param message
+     * @return
+     */
+    protected ERSResponse getConflictResponse(String message) {
+
+        return new ERSResponse(ERSResponseType.CONFLICT, message);
+    }
+
     /**
      * Returns a response indicating that the front end sent a malformed request to the
      * service layer.
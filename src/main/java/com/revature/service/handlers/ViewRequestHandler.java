@@ -12,36 +12,110 @@
  */
 package com.revature.service.handlers;
 
+import com.revature.model.ReimbursementRequest;
 import com.revature.model.UserProfile;
+import com.revature.model.UserProfile.UserRole;
 import com.revature.repository.DAO.exceptions.DAOException;
 import com.revature.repository.DAO.interfaces.ReimbursementRequestDAO;
 import com.revature.repository.DAO.interfaces.UserProfileDAO;
 import com.revature.repository.DAO.interfaces.ReimbursementRequestDAO.SearchType;
 import com.revature.service.comms.ERSRequest;
+import com.revature.service.comms.ERSRequest.ERSRequestType;
 import com.revature.service.comms.ERSResponse;
 import com.revature.service.comms.ERSResponse.ERSResponseType;
+import com.revature.service.dashboard.DashboardStore;
+import com.revature.service.events.ReimbursementEventBus;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 public class ViewRequestHandler extends RequestHandler {
     
     // enums -------------------------------
 
     // constants ---------------------------
+    public static final int MAX_PAGE_SIZE = 500; // no matter what the front end asks for
 
     // static / class variables ------------
 
     // instance variables ------------------
     private UserProfileDAO updao;
     private ReimbursementRequestDAO rrdao;
+    private DashboardStore dashboard;
+    private ReimbursementEventBus events;
 
     // constructor(s) ----------------------
 
+    /**
+     * The dashboard will have its own store, loaded on first use, and watchers will have
+     * a bus of this handler's own (so they won't hear about anything).
+     */
     public ViewRequestHandler(UserProfileDAO updao, ReimbursementRequestDAO rrdao){
 
+        this(updao, rrdao, new DashboardStore(rrdao), new ReimbursementEventBus());
+    }
+
+    /**
+     * @param updao
+     * @param rrdao
+     * @param dashboard : should be subscribed to the events bus
+     * @param events : the bus the ModifyRequestHandler publishes to
+     */
+    public ViewRequestHandler(
+            UserProfileDAO updao, 
+            ReimbursementRequestDAO rrdao, 
+            DashboardStore dashboard,
+            ReimbursementEventBus events){
+
         this.updao = updao;
         this.rrdao = rrdao;
+        this.dashboard = dashboard;
+        this.events = events;
+    }
+
+    /**
+     * The EMPLOYEE_ types are for employees looking at their own stuff; the rest are for
+     * managers.
+     * 
+     * @param registry
+     */
+    @Override
+    public void registerHandlers(HandlerRegistry registry){
+
+        Set<UserRole> employee = EnumSet.of(UserRole.EMPLOYEE);
+        Set<UserRole> manager = EnumSet.of(UserRole.MANAGER);
+
+        registry.register(ERSRequestType.EMPLOYEE_VIEW_PENDING, 
+                employee, this::handleEmployeeViewPending);
+        registry.register(ERSRequestType.EMPLOYEE_VIEW_RESOLVED, 
+                employee, this::handleEmployeeViewResolved);
+        registry.register(ERSRequestType.EMPLOYEE_VIEW_SELF, 
+                employee, this::handleEmployeeViewSelf);
+        registry.register(ERSRequestType.VIEW_ALL_PENDING, 
+                manager, this::handleViewAllPending);
+        registry.register(ERSRequestType.VIEW_ALL_RESOLVED, 
+                manager, this::handleViewAllResolved);
+        registry.register(ERSRequestType.VIEW_ALL_EMPLOYEES, 
+                manager, this::handleViewAllEmployees);
+        registry.register(ERSRequestType.MANAGER_VIEW_BY_EMPLOYEE, 
+                manager, this::handleManagerViewByEmployee);
+        registry.register(ERSRequestType.EXPORT_REQUESTS, 
+                manager, this::handleExportRequests);
+        registry.register(ERSRequestType.VIEW_CHANGE_COUNT, 
+                EnumSet.of(UserRole.EMPLOYEE, UserRole.MANAGER), 
+                this::handleViewChangeCount);
+        registry.register(ERSRequestType.MANAGER_DASHBOARD, 
+                manager, this::handleManagerDashboard);
+        registry.register(ERSRequestType.WATCH_PENDING, 
+                manager, this::handleWatchPending);
     }
 
     // handler methods ---------------------------------------------
@@ -60,16 +134,20 @@ public class ViewRequestHandler extends RequestHandler {
         int userID = req.getUserID();
 
         try{
-            if (!updao.checkExists(userID)) return getUserDoesNotExistResponse(userID);
-            
-            ERSResponse res = new ERSResponse(ERSResponseType.SUCCESS);
-            res.setReturnedReimbursementRequests(
-                    rrdao.getReimbursementRequests(userID, SearchType.PENDING));
+            ERSResponse res 
+                    = getReimbursementListResponse(req, userID, SearchType.PENDING);
+            // only need to look the user up if they have nothing to show
+            if (res.getReturnedReimbursementRequests().isEmpty() 
+                    && !updao.checkExists(userID)) 
+                return getUserDoesNotExistResponse(userID);
             return res;
         }
         catch(DAOException e){
             return getGenericDAOExceptionResponse();
         }
+        catch(NumberFormatException e){
+            return getMalformedRequestResponse();
+        }
 
     }
 
@@ -87,16 +165,20 @@ public class ViewRequestHandler extends RequestHandler {
         int userID = req.getUserID();
 
         try{
-            if (!updao.checkExists(userID)) return getUserDoesNotExistResponse(userID);
-            
-            ERSResponse res = new ERSResponse(ERSResponseType.SUCCESS);
-            res.setReturnedReimbursementRequests(
-                    rrdao.getReimbursementRequests(userID, SearchType.RESOLVED));
+            ERSResponse res 
+                    = getReimbursementListResponse(req, userID, SearchType.RESOLVED);
+            // only need to look the user up if they have nothing to show
+            if (res.getReturnedReimbursementRequests().isEmpty() 
+                    && !updao.checkExists(userID)) 
+                return getUserDoesNotExistResponse(userID);
             return res;
         }
         catch(DAOException e){
             return getGenericDAOExceptionResponse();
         }
+        catch(NumberFormatException e){
+            return getMalformedRequestResponse();
+        }
     }
 
     /**
@@ -112,10 +194,11 @@ public class ViewRequestHandler extends RequestHandler {
         int userID = req.getUserID();
 
         try{
-            if (!updao.checkExists(userID)) return getUserDoesNotExistResponse(userID);
+            Optional<UserProfile> up = updao.findUserProfile(userID);
+            if (!up.isPresent()) return getUserDoesNotExistResponse(userID);
 
             List<UserProfile> uplist = new ArrayList<>();
-            uplist.add(updao.getUserProfile(userID));
+            uplist.add(up.get());
             ERSResponse res = new ERSResponse(ERSResponseType.SUCCESS);
             res.setReturnedUserProfiles(uplist);
 
@@ -128,6 +211,7 @@ public class ViewRequestHandler extends RequestHandler {
 
     /**
      * Only called by managers, returns an response with every pending reimb-req.
+     * If the request has a PAGE_SIZE parameter, only returns one page of them.
      * The response's list is empty if there are no pending reqs.
      * Fails if there is a DAOException.
      * 
@@ -139,18 +223,23 @@ public class ViewRequestHandler extends RequestHandler {
         // ? no need to check if the manager actually exists
 
         try{
-            ERSResponse res = new ERSResponse(ERSResponseType.SUCCESS);
-            res.setReturnedReimbursementRequests(
-                    rrdao.getReimbursementRequests(-1, SearchType.PENDING));
+            // before the list is read, so that watching from here misses nothing
+            long sequence = events.getLastSequence();
+            ERSResponse res = getReimbursementListResponse(req, -1, SearchType.PENDING);
+            res.setEventSequence(sequence);
             return res;
         }
         catch (DAOException e){
             return getGenericDAOExceptionResponse();
         }
+        catch (NumberFormatException e){
+            return getMalformedRequestResponse();
+        }
     }
 
     /**
      * Only called by managers, returns an response with every resolved reimb-req.
+     * If the request has a PAGE_SIZE parameter, only returns one page of them.
      * The response's list is empty if there are no pending reqs.
      * Fails if there is a DAOException.
      * 
@@ -162,14 +251,14 @@ public class ViewRequestHandler extends RequestHandler {
         // ? no need to check if the manager actually exists
 
         try{
-            ERSResponse res = new ERSResponse(ERSResponseType.SUCCESS);
-            res.setReturnedReimbursementRequests(
-                    rrdao.getReimbursementRequests(-1, SearchType.RESOLVED));
-            return res;
+            return getReimbursementListResponse(req, -1, SearchType.RESOLVED);
         }
         catch (DAOException e){
             return getGenericDAOExceptionResponse();
         }
+        catch (NumberFormatException e){
+            return getMalformedRequestResponse();
+        }
     }
 
     /**
@@ -198,6 +287,7 @@ public class ViewRequestHandler extends RequestHandler {
      * Only called by managers, returns an response with all of the reimb-reqs authored
      * by a single particular employee.
      * The response's list is empty if there are no such requests.
+     * If the request has a PAGE_SIZE parameter, only returns one page of them.
      * Fails if the employee does not exist.
      * Fails if there is a DAOException.
      * 
@@ -217,15 +307,228 @@ public class ViewRequestHandler extends RequestHandler {
                 return getMalformedRequestResponse();
 
             int empID = Integer.parseInt(req.getParameter(ERSRequest.EMPLOYEE_ID_KEY));
-            if (!updao.checkExists(empID)) return getUserDoesNotExistResponse(empID);
+            ERSResponse res = getReimbursementListResponse(req, empID, SearchType.ALL);
+            if (res.getReturnedReimbursementRequests().isEmpty() 
+                    && !updao.checkExists(empID)) 
+                return getUserDoesNotExistResponse(empID);
+            return res;
+        }
+        catch (DAOException e){
+            return getGenericDAOExceptionResponse();
+        }
+        catch (NumberFormatException e){
+            return getMalformedRequestResponse();
+        }
+    }
+
+    /**
+     * Only called by managers. Hands every reimb-req matching the SEARCH_STATUS and
+     * SUBMITTED_FROM/TO parameters (all optional) to the req's export sink, in order of
+     * ID, as they are read from the database. Nothing is returned in the response's
+     * lists; the message says how many reqs were exported.
+     * Fails if there is no sink, or if any of the parameters are badly formatted.
+     * Fails if there is a DAOException.
+     * If the sink throws an IOException (eg the client went away), there's nobody left
+     * to respond to, so it's thrown again as an UncheckedIOException.
+     * 
+     * @param req
+     * @return
+     */
+    public ERSResponse handleExportRequests(ERSRequest req) {
+
+        if (req.getExportSink() == null) return getMalformedRequestResponse();
+
+        SearchType searchBy = SearchType.ALL;
+        LocalDateTime from = null;
+        LocalDateTime to = null;
+        try{
+            if (req.hasParameter(ERSRequest.SEARCH_STATUS_KEY))
+                searchBy = SearchType.valueOf(
+                        req.getParameter(ERSRequest.SEARCH_STATUS_KEY).toUpperCase());
+            if (req.hasParameter(ERSRequest.SUBMITTED_FROM_KEY))
+                from = LocalDate.parse(req.getParameter(ERSRequest.SUBMITTED_FROM_KEY))
+                        .atStartOfDay();
+            if (req.hasParameter(ERSRequest.SUBMITTED_TO_KEY)) // the whole last day
+                to = LocalDate.parse(req.getParameter(ERSRequest.SUBMITTED_TO_KEY))
+                        .plusDays(1).atStartOfDay();
+        }
+        catch (IllegalArgumentException | DateTimeParseException e){
+            return new ERSResponse(ERSResponseType.INVALID_PARAMETER, 
+                    "Invalid status or date (dates look like 2020-12-31).");
+        }
 
+        try{
+            int count = rrdao.exportReimbursementRequests(
+                    searchBy, from, to, req.getExportSink());
+            return new ERSResponse(ERSResponseType.SUCCESS, 
+                    String.format("Exported %d reimbursement requests.", count));
+        }
+        catch (DAOException e){
+            return getGenericDAOExceptionResponse();
+        }
+        catch (IOException e){
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns a response with the reimb-req change count. The front end uses it to tell a
+     * browser that a list page it already has is still up to date, without loading the
+     * list again.
+     * Fails if there is a DAOException.
+     * 
+     * @param req
+     * @return
+     */
+    public ERSResponse handleViewChangeCount(ERSRequest req) {
+
+        try{
             ERSResponse res = new ERSResponse(ERSResponseType.SUCCESS);
-            res.setReturnedReimbursementRequests(
-                    rrdao.getReimbursementRequests(empID, SearchType.ALL));
+            res.setEventSequence(events.getLastSequence());
+            res.setChangeCount(rrdao.getChangeCount());
+            return res;
+        }
+        catch (DAOException e){
+            return getGenericDAOExceptionResponse();
+        }
+    }
+
+    /**
+     * Only called by managers. Returns a response with the dashboard totals: how many
+     * reimb-reqs there are and how much they add up to, by status, type, and author.
+     * These come from memory (see DashboardStore), so this doesn't touch the database
+     * unless the totals haven't been loaded yet.
+     * Fails if there is a DAOException.
+     * 
+     * @param req
+     * @return
+     */
+    public ERSResponse handleManagerDashboard(ERSRequest req) {
+
+        try{
+            ERSResponse res = new ERSResponse(ERSResponseType.SUCCESS);
+            res.setDashboard(dashboard.getDashboard());
             return res;
         }
         catch (DAOException e){
             return getGenericDAOExceptionResponse();
         }
     }
+
+    /**
+     * Only called by managers. Subscribes the req's event listener to the submits and
+     * resolves published by the ModifyRequestHandler, starting after the EVENTS_SINCE
+     * sequence number if there is one (see ReimbursementEventBus.subscribe). The
+     * response carries the subscription, which the caller has to cancel once done.
+     * Fails if there is no listener, or if EVENTS_SINCE isn't a number.
+     * 
+     * @param req
+     * @return
+     */
+    public ERSResponse handleWatchPending(ERSRequest req) {
+
+        if (req.getEventListener() == null) return getMalformedRequestResponse();
+
+        long since = -1;
+        try{
+            if (req.hasParameter(ERSRequest.EVENTS_SINCE_KEY))
+                since = Long.parseLong(req.getParameter(ERSRequest.EVENTS_SINCE_KEY));
+        }
+        catch (NumberFormatException e){
+            return getMalformedRequestResponse();
+        }
+
+        ERSResponse res = new ERSResponse(ERSResponseType.SUCCESS);
+        res.setSubscription(events.subscribe(req.getEventListener(), since));
+        return res;
+    }
+
+    // helpers -----------------------------------------------------
+
+    /**
+     * Makes a successful response holding the reimb-reqs that match the given
+     * constraints. If the request has a PAGE_SIZE parameter, only one page is returned,
+     * starting from the AFTER_ID or BEFORE_ID cursor (if any), and the response says
+     * whether there are more pages in either direction. Otherwise, every match is
+     * returned.
+     * 
+     * @param req
+     * @param authorID : -1 for any author
+     * @param searchBy
+     * @return
+     * @throws DAOException
+     * @throws NumberFormatException if one of the paging parameters isn't a number
+     */
+    private ERSResponse getReimbursementListResponse(
+            ERSRequest req, 
+            int authorID, 
+            SearchType searchBy) throws DAOException {
+
+        ERSResponse res = new ERSResponse(ERSResponseType.SUCCESS);
+
+        if (!req.hasParameter(ERSRequest.PAGE_SIZE_KEY)){
+            res.setReturnedReimbursementRequests(
+                    rrdao.getReimbursementRequests(authorID, searchBy));
+            return res;
+        }
+
+        int pageSize = Integer.parseInt(req.getParameter(ERSRequest.PAGE_SIZE_KEY));
+        pageSize = Math.max(1, Math.min(pageSize, MAX_PAGE_SIZE));
+
+        boolean forward = !req.hasParameter(ERSRequest.BEFORE_ID_KEY);
+        int cursorID;
+        if (!forward) 
+            cursorID = Integer.parseInt(req.getParameter(ERSRequest.BEFORE_ID_KEY));
+        else if (req.hasParameter(ERSRequest.AFTER_ID_KEY)) 
+            cursorID = Integer.parseInt(req.getParameter(ERSRequest.AFTER_ID_KEY));
+        else cursorID = 0; // first page
+
+        // ask for one extra, to find out if there is anything past this page
+        List<ReimbursementRequest> page = rrdao.getReimbursementRequestPage(
+                authorID, searchBy, cursorID, forward, pageSize + 1);
+        boolean hasMore = page.size() > pageSize;
+        if (hasMore){
+            // the extra one is the furthest from the cursor
+            if (forward) page = new ArrayList<>(page.subList(0, pageSize));
+            else page = new ArrayList<>(page.subList(1, page.size()));
+        }
+
+        res.setReturnedReimbursementRequests(page);
+        // the other direction needs its own look-ahead: the reqs the user came from may
+        // have been resolved since, or the cursor may be past the end
+        if (forward){
+            res.setHasNextPage(hasMore);
+            int edgeID = page.isEmpty() ? cursorID + 1 : page.get(0).getID();
+            res.setHasPreviousPage(
+                    cursorID > 0 && hasAnyPast(authorID, searchBy, edgeID, false));
+        }
+        else{
+            int edgeID = page.isEmpty() 
+                    ? cursorID - 1 : page.get(page.size() - 1).getID();
+            res.setHasNextPage(hasAnyPast(authorID, searchBy, edgeID, true));
+            res.setHasPreviousPage(hasMore);
+        }
+        return res;
+    }
+
+    /**
+     * Returns true if there is at least one matching reimb-req past the given ID, in the
+     * given direction.
+     * 
+     * @param authorID : -1 for any author
+     * @param searchBy
+     * @param edgeID
+     * @param forward : true to look at higher IDs, false for lower ones
+     * @return
+     * @throws DAOException
+     */
+    private boolean hasAnyPast(
+            int authorID, 
+            SearchType searchBy, 
+            int edgeID, 
+            boolean forward) throws DAOException {
+
+        return !rrdao.getReimbursementRequestPage(authorID, searchBy, edgeID, forward, 1)
+                .isEmpty();
+    }
 }
@@ -0,0 +1,144 @@
+/**
+ * A lock-free histogram of durations in nanoseconds, bucketed the same way HdrHistogram
+ * does it: every power of two is split into 8 equal sub-buckets, so any recorded value is
+ * known to within 12.5%, from 1ns up to Long.MAX_VALUE, in under 500 counters.
+ *
+ * Recording is one atomic increment plus a couple of adds, so it's fine to do on every
+ * request. Reads (percentiles, counts) aren't an atomic snapshot; a value recorded at
+ * the same time might show up in some numbers and not others.
+ *
+ * @author Andrew Curry
+ */
+package com.revature.service.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+public class LatencyHistogram {
+
+    // constants
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS; // 8
+    // values below SUB_BUCKETS get a bucket each; then 8 per power of two up to 2^63
+    private static final int BUCKET_COUNT
+            = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    // instance variables
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder total = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    // methods
+
+    /**
+     * Records one duration. Negative values are counted as 0.
+     *
+     * @param nanos
+     */
+    public void record(long nanos){
+
+        long value = Math.max(0L, nanos);
+        counts.incrementAndGet(indexFor(value));
+        total.increment();
+        sum.add(value);
+        if (value > max.get()) max.accumulateAndGet(value, Math::max);
+    }
+
+    /**
+     * @return how many durations have been recorded
+     */
+    public long getCount(){
+        return total.sum();
+    }
+
+    /**
+     * @return the total of every recorded duration, in nanoseconds
+     */
+    public long getSum(){
+        return sum.sum();
+    }
+
+    /**
+     * @return the longest recorded duration, in nanoseconds
+     */
+    public long getMax(){
+        return max.get();
+    }
+
+    /**
+     * Returns how many recorded durations were less than the given bound. Exact if the
+     * bound is a power of two (or less than 8); otherwise rounded down to the start of
+     * the bound's sub-bucket.
+     *
+     * @param boundNanos
+     * @return
+     */
+    public long getCountBelow(long boundNanos){
+
+        if (boundNanos <= 0) return 0;
+        int end = indexFor(boundNanos);
+        long count = 0;
+        for (int i = 0; i < end; i++){
+            count += counts.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * Returns (roughly) the duration that the given percent of recorded durations were at
+     * or under, eg getValueAtPercentile(99.0) is the p99. The answer is the top of the
+     * sub-bucket the percentile falls in, but never more than the max.
+     *
+     * @param percentile : 0 to 100
+     * @return 0 if nothing has been recorded
+     */
+    public long getValueAtPercentile(double percentile){
+
+        long count = getCount();
+        if (count == 0) return 0;
+
+        double fraction = Math.min(100.0, Math.max(0.0, percentile)) / 100.0;
+        long target = Math.max(1L, (long)Math.ceil(fraction * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++){
+            seen += counts.get(i);
+            if (seen >= target) return Math.min(upperBoundOf(i) - 1, getMax());
+        }
+        return getMax(); // something was recorded while we were counting
+    }
+
+    // helpers
+
+    /**
+     * Returns which bucket the given (non-negative) value goes in.
+     *
+     * @param value
+     * @return
+     */
+    static int indexFor(long value){
+
+        if (value < SUB_BUCKETS) return (int)value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value); // at least SUB_BUCKET_BITS
+        int sub = (int)(value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * Returns the smallest value that is too big for the given bucket.
+     *
+     * @param index
+     * @return
+     */
+    static long upperBoundOf(int index){
+
+        if (index < SUB_BUCKETS) return index + 1;
+        int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        int sub = index % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        long lower = (SUB_BUCKETS + sub) * width;
+        // the very last bucket runs to Long.MAX_VALUE
+        return (lower + width < 0) ? Long.MAX_VALUE : lower + width;
+    }
+}
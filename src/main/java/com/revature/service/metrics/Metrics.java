@@ -0,0 +1,334 @@
+/**
+ * Collects how the back end is doing: how many requests of each type were handled, how
+ * they turned out, and how long they took, plus how often (and how slowly) each DAO
+ * method was called. Everything is lock-free, so it's cheap enough to leave on all the
+ * time. Exported in the Prometheus text format by writePrometheus (see MetricsServlet).
+ *
+ * Request timings come in as a RequestTimingListener (see ServiceFront.addTimingListener)
+ * and DAO timings through the proxies made by timed().
+ *
+ * @author Andrew Curry
+ */
+package com.revature.service.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.hibernate.stat.Statistics;
+
+import com.revature.repository.Util.HibernateConnectionUtil;
+import com.revature.service.RequestTimingListener;
+import com.revature.service.comms.ERSRequest.ERSRequestType;
+import com.revature.service.comms.ERSResponse.ERSResponseType;
+
+public class Metrics implements RequestTimingListener {
+
+    // constants
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    // histograms are exported with buckets at 2^14ns (~16us), 2^15ns, ... 2^34ns (~17s)
+    private static final int FIRST_BUCKET_POWER = 14;
+    private static final int LAST_BUCKET_POWER = 34;
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    // class / static variables
+    private static final Metrics shared = new Metrics();
+
+    // instance variables
+    // the enum maps are filled in up front and never changed, so they're safe to share
+    private final Map<ERSRequestType, LatencyHistogram> byRequestType
+            = new EnumMap<>(ERSRequestType.class);
+    private final Map<ERSResponseType, LatencyHistogram> byResponseType
+            = new EnumMap<>(ERSResponseType.class);
+    private final LongAdder[][] outcomes = new LongAdder // [request type][response type]
+            [ERSRequestType.values().length][ERSResponseType.values().length];
+    // keyed by eg "UserProfileDAO.getUserProfile"
+    private final Map<String, LatencyHistogram> daoCalls = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> daoErrors = new ConcurrentHashMap<>();
+
+    // constructor(s)
+
+    public Metrics(){
+
+        for (ERSRequestType type : ERSRequestType.values()){
+            byRequestType.put(type, new LatencyHistogram());
+            for (ERSResponseType result : ERSResponseType.values()){
+                outcomes[type.ordinal()][result.ordinal()] = new LongAdder();
+            }
+        }
+        for (ERSResponseType result : ERSResponseType.values()){
+            byResponseType.put(result, new LatencyHistogram());
+        }
+    }
+
+    // methods
+
+    /**
+     * @return the metrics the back end reports to
+     */
+    public static Metrics getShared(){
+        return shared;
+    }
+
+    /**
+     * Records one request handled by the ServiceFront.
+     *
+     * @param type
+     * @param result
+     * @param elapsedNanos
+     */
+    @Override
+    public void requestHandled(
+            ERSRequestType type, ERSResponseType result, long elapsedNanos){
+
+        byRequestType.get(type).record(elapsedNanos);
+        byResponseType.get(result).record(elapsedNanos);
+        outcomes[type.ordinal()][result.ordinal()].increment();
+    }
+
+    /**
+     * Records one call to a DAO method.
+     *
+     * @param method : eg "UserProfileDAO.getUserProfile"
+     * @param elapsedNanos
+     * @param failed : true if it threw
+     */
+    public void daoCalled(String method, long elapsedNanos, boolean failed){
+
+        daoCalls.computeIfAbsent(method, k -> new LatencyHistogram())
+                .record(elapsedNanos);
+        if (failed) daoErrors.computeIfAbsent(method, k -> new LongAdder()).increment();
+    }
+
+    /**
+     * Wraps the given DAO so that every call made through the returned object is counted
+     * and timed (under "InterfaceName.methodName"). Exceptions are passed through as-is.
+     *
+     * @param type : the DAO interface, eg UserProfileDAO.class
+     * @param target : the real DAO
+     * @return
+     */
+    public <T> T timed(Class<T> type, T target){
+
+        String prefix = type.getSimpleName() + ".";
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (method.getDeclaringClass() == Object.class)
+                return method.invoke(target, args); // toString etc, not worth timing
+
+            long start = System.nanoTime();
+            boolean failed = true;
+            try{
+                Object result = method.invoke(target, args);
+                failed = false;
+                return result;
+            }
+            catch(InvocationTargetException e){
+                throw e.getCause();
+            }
+            finally{
+                daoCalled(prefix + method.getName(), System.nanoTime() - start, failed);
+            }
+        };
+        return type.cast(Proxy.newProxyInstance(
+                type.getClassLoader(), new Class<?>[] {type}, handler));
+    }
+
+    /**
+     * Returns the histogram for the given request type, eg for tests.
+     *
+     * @param type
+     * @return
+     */
+    public LatencyHistogram getRequestLatency(ERSRequestType type){
+        return byRequestType.get(type);
+    }
+
+    /**
+     * Returns the histogram for the given DAO method, or null if it was never called.
+     *
+     * @param method : eg "UserProfileDAO.getUserProfile"
+     * @return
+     */
+    public LatencyHistogram getDAOLatency(String method){
+        return daoCalls.get(method);
+    }
+
+    /**
+     * Writes everything out in the Prometheus text format (version 0.0.4). Request types,
+     * response types, and DAO methods that have never been seen are left out.
+     *
+     * @param out
+     * @throws IOException
+     */
+    public void writePrometheus(Writer out) throws IOException{
+
+        writeHeader(out, "ers_requests_total", "counter",
+                "Requests handled by the service layer, by type and result.");
+        for (ERSRequestType type : ERSRequestType.values()){
+            for (ERSResponseType result : ERSResponseType.values()){
+                long count = outcomes[type.ordinal()][result.ordinal()].sum();
+                if (count == 0) continue;
+                writeSample(out, "ers_requests_total",
+                        "type=\"" + type.name() + "\",result=\"" + result.name() + "\"",
+                        Long.toString(count));
+            }
+        }
+
+        writeHeader(out, "ers_request_duration_seconds", "histogram",
+                "Time taken to handle each type of request.");
+        for (Map.Entry<ERSRequestType, LatencyHistogram> e : byRequestType.entrySet()){
+            writeHistogram(out, "ers_request_duration_seconds",
+                    "type=\"" + e.getKey().name() + "\"", e.getValue());
+        }
+
+        writeHeader(out, "ers_request_latency_seconds", "summary",
+                "Percentiles of the time taken to handle each type of request.");
+        for (Map.Entry<ERSRequestType, LatencyHistogram> e : byRequestType.entrySet()){
+            writeSummary(out, "ers_request_latency_seconds",
+                    "type=\"" + e.getKey().name() + "\"", e.getValue());
+        }
+
+        writeHeader(out, "ers_response_duration_seconds", "histogram",
+                "Time taken to handle requests, by result.");
+        for (Map.Entry<ERSResponseType, LatencyHistogram> e : byResponseType.entrySet()){
+            writeHistogram(out, "ers_response_duration_seconds",
+                    "result=\"" + e.getKey().name() + "\"", e.getValue());
+        }
+
+        writeHeader(out, "ers_dao_call_duration_seconds", "histogram",
+                "Time taken by each DAO method.");
+        for (Map.Entry<String, LatencyHistogram> e : daoCalls.entrySet()){
+            writeHistogram(out, "ers_dao_call_duration_seconds",
+                    "method=\"" + e.getKey() + "\"", e.getValue());
+        }
+
+        writeHeader(out, "ers_dao_errors_total", "counter",
+                "DAO method calls that threw an exception.");
+        for (Map.Entry<String, LongAdder> e : daoErrors.entrySet()){
+            writeSample(out, "ers_dao_errors_total",
+                    "method=\"" + e.getKey() + "\"", Long.toString(e.getValue().sum()));
+        }
+
+        writeHibernateStatistics(out);
+        out.flush();
+    }
+
+    // helpers
+
+    private void writeHeader(Writer out, String name, String type, String help)
+            throws IOException{
+
+        out.write("# HELP " + name + " " + help + "\n");
+        out.write("# TYPE " + name + " " + type + "\n");
+    }
+
+    private void writeSample(Writer out, String name, String labels, String value)
+            throws IOException{
+
+        out.write(name);
+        if (!labels.isEmpty()) out.write("{" + labels + "}");
+        out.write(" " + value + "\n");
+    }
+
+    /**
+     * Writes the _bucket, _sum and _count lines for one histogram, if it isn't empty.
+     *
+     * @param out
+     * @param name
+     * @param labels
+     * @param histogram
+     * @throws IOException
+     */
+    private void writeHistogram(
+            Writer out, String name, String labels, LatencyHistogram histogram)
+            throws IOException{
+
+        long count = histogram.getCount();
+        if (count == 0) return;
+
+        for (int power = FIRST_BUCKET_POWER; power <= LAST_BUCKET_POWER; power++){
+            long bound = 1L << power;
+            writeSample(out, name + "_bucket",
+                    labels + ",le=\"" + toSeconds(bound) + "\"",
+                    Long.toString(histogram.getCountBelow(bound)));
+        }
+        writeSample(out, name + "_bucket", labels + ",le=\"+Inf\"", Long.toString(count));
+        writeSample(out, name + "_sum", labels, toSeconds(histogram.getSum()));
+        writeSample(out, name + "_count", labels, Long.toString(count));
+    }
+
+    /**
+     * Writes the quantile, _sum and _count lines for one histogram, if it isn't empty.
+     *
+     * @param out
+     * @param name
+     * @param labels
+     * @param histogram
+     * @throws IOException
+     */
+    private void writeSummary(
+            Writer out, String name, String labels, LatencyHistogram histogram)
+            throws IOException{
+
+        long count = histogram.getCount();
+        if (count == 0) return;
+
+        for (double quantile : QUANTILES){
+            writeSample(out, name, labels + ",quantile=\"" + quantile + "\"",
+                    toSeconds(histogram.getValueAtPercentile(quantile * 100)));
+        }
+        writeSample(out, name, labels + ",quantile=\"1.0\"",
+                toSeconds(histogram.getMax()));
+        writeSample(out, name + "_sum", labels, toSeconds(histogram.getSum()));
+        writeSample(out, name + "_count", labels, Long.toString(count));
+    }
+
+    /**
+     * Writes a few of Hibernate's own counters, if there is a SessionFactory yet.
+     *
+     * @param out
+     * @throws IOException
+     */
+    private void writeHibernateStatistics(Writer out) throws IOException{
+
+        Statistics stats = HibernateConnectionUtil.getStatistics();
+        if (stats == null || !stats.isStatisticsEnabled()) return;
+
+        writeCounter(out, "ers_hibernate_sessions_opened_total",
+                "Hibernate sessions opened.", stats.getSessionOpenCount());
+        writeCounter(out, "ers_hibernate_transactions_total",
+                "Hibernate transactions completed.", stats.getTransactionCount());
+        writeCounter(out, "ers_hibernate_queries_executed_total",
+                "Queries executed against the database.", stats.getQueryExecutionCount());
+        writeCounter(out, "ers_hibernate_entities_loaded_total",
+                "Entities loaded.", stats.getEntityLoadCount());
+        writeCounter(out, "ers_hibernate_second_level_cache_hits_total",
+                "Second level cache hits.", stats.getSecondLevelCacheHitCount());
+        writeCounter(out, "ers_hibernate_second_level_cache_misses_total",
+                "Second level cache misses.", stats.getSecondLevelCacheMissCount());
+        writeCounter(out, "ers_hibernate_query_cache_hits_total",
+                "Query cache hits.", stats.getQueryCacheHitCount());
+        writeCounter(out, "ers_hibernate_query_cache_misses_total",
+                "Query cache misses.", stats.getQueryCacheMissCount());
+        writeCounter(out, "ers_hibernate_connections_obtained_total",
+                "JDBC connections handed out by the pool.", stats.getConnectCount());
+    }
+
+    private void writeCounter(Writer out, String name, String help, long value)
+            throws IOException{
+
+        writeHeader(out, name, "counter", help);
+        writeSample(out, name, "", Long.toString(value));
+    }
+
+    private String toSeconds(long nanos){
+        return Double.toString(nanos / NANOS_PER_SECOND);
+    }
+}
@@ -0,0 +1,69 @@
+/**
+ * Identifies the build of the app that is running, from build.properties (filled in by
+ * maven). Anything the pages get from code rather than from a file, eg the list
+ * markup, can only change with a new build, so this can go in an ETag alongside the
+ * data: every node running the same war agrees on it, and it only changes when a new
+ * war is deployed.
+ *
+ * @author Andrew Curry
+ */
+package com.revature.servlets;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+import org.apache.log4j.Logger;
+
+public class BuildInfo {
+
+    // constants
+    public static final String RESOURCE = "build.properties";
+
+    // class / static variables
+    private static final Logger log = Logger.getLogger(BuildInfo.class);
+    private static final String BUILD_ID = loadBuildID();
+
+    // constructor(s)
+
+    private BuildInfo(){
+        // just static methods
+    }
+
+    // methods
+
+    /**
+     * @return eg "0.0.1-SNAPSHOT-20210104090000"
+     */
+    public static String getBuildID(){
+        return BUILD_ID;
+    }
+
+    // helpers
+
+    /**
+     * Reads the build ID. If build.properties is missing or wasn't filled in (eg run
+     * straight from an IDE), falls back to when this class was loaded: that can't be
+     * shared between nodes, but at least a stale page is never passed off as current.
+     *
+     * @return
+     */
+    private static String loadBuildID(){
+
+        Properties props = new Properties();
+        try (InputStream is 
+                = BuildInfo.class.getClassLoader().getResourceAsStream(RESOURCE)){
+            if (is != null) props.load(is);
+        }
+        catch(IOException e){
+            log.warn("Couldn't read " + RESOURCE + ": " + e);
+        }
+        String version = props.getProperty("build.version", "");
+        String time = props.getProperty("build.time", "");
+        if (version.isEmpty() || time.isEmpty() || (version + time).contains("${")){
+            log.warn(RESOURCE + " wasn't filled in; using the start time as the build");
+            return "unbuilt-" + System.currentTimeMillis();
+        }
+        return version + "-" + time;
+    }
+}
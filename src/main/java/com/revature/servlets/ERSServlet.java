@@ -3,19 +3,23 @@
  */
 package com.revature.servlets;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.io.Writer;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
-import javax.servlet.ServletContext;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpSession;
 
 import com.revature.model.ReimbursementRequest;
+import com.revature.model.ReimbursementRequest.ReimbursementStatus;
+import com.revature.model.ReimbursementRequest.ReimbursementType;
 import com.revature.model.UserProfile;
 import com.revature.model.UserProfile.UserRole;
 import com.revature.service.BackEndUtil;
@@ -24,6 +28,8 @@ import com.revature.service.comms.ERSRequest;
 import com.revature.service.comms.ERSResponse;
 import com.revature.service.comms.ERSResponse.ERSResponseType;
 import com.revature.service.comms.ERSRequest.ERSRequestType;
+import com.revature.service.dashboard.Dashboard;
+import com.revature.service.dashboard.DashboardTotals;
 
   
 public abstract class ERSServlet extends HttpServlet{
@@ -35,6 +41,15 @@ public abstract class ERSServlet extends HttpServlet{
             = "Invalid Username: Must have at least 1 character and no spaces.";
     protected static final String INVALID_PASSWORD_MESSAGE
             = "Invalid Password: Must have at least 1 character and no spaces.";
+    protected static final int DEFAULT_PAGE_SIZE = 50; // reimb-reqs per page
+    protected static final DateTimeFormatter TIME_FORMAT
+            = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    protected static final String RESULT_TEMPLATE = "result.html";
+    protected static final String MESSAGE_SLOT = "MESSAGE"; // %MESSAGE% in result.html
+    protected static final String DESTINATION_SLOT = "DEST";
+    protected static final String HTML_CONTENT_TYPE = "text/html; charset=ISO-8859-1";
+    // pages can be kept by the browser, but it has to check they're current each time
+    protected static final String REVALIDATE = "private, no-cache";
     
     // methods
 
@@ -229,35 +244,15 @@ public abstract class ERSServlet extends HttpServlet{
     }
 
     /**
-     * Redirects the given response to the problem page, with the given message and
-     * destination.
+     * Shows the problem message to the user, in this same request. Nothing has been
+     * changed when there's a problem, so there's no need to redirect (and nothing goes
+     * in the session).
      * 
      * @param response
-     * @param session
-     * @param message
-     * @param destination
-     * @returns
-     */
-    protected void handleProblem (
-            HttpServletResponse response,
-            HttpSession session, 
-            String message, 
-            String destination) throws IOException {
-        
-        session.setAttribute("resultMessage", message);
-        session.setAttribute("resultDestination", destination);
-        response.sendRedirect("problem");
-    }
-
-    /**
-     * Redirects the given response to the problem page, with the given message and
-     * destination.
-     * 
-     * @param response
-     * @param session
+     * @param request
      * @param message
      * @param destination
-     * @returns
+     * @throws IOException
      */
     protected void handleProblem (
             HttpServletResponse response,
@@ -265,12 +260,18 @@ public abstract class ERSServlet extends HttpServlet{
             String message, 
             String destination) throws IOException {
         
-        handleProblem(response, request.getSession(), message, destination);
+        // a list page may already have set its ETag; the browser shouldn't keep this
+        response.setHeader("Cache-Control", "no-store");
+        renderResult(response, out -> out.write(message), destination);
     }
 
     /**
      * Redirects the given response to the success page, with the given message and
-     * destination.
+     * destination. Only meant for actions that changed something (post-redirect-get, so
+     * a refresh doesn't redo the action); pages that just show data should use
+     * renderResult() instead.
+     * The message is a 'flash' message: ResultServlet removes it from the session once
+     * it has been shown, so keep it short.
      * 
      * @param response
      * @param session
@@ -291,10 +292,10 @@ public abstract class ERSServlet extends HttpServlet{
 
     /**
      * Redirects the given response to the success page, with the given message and
-     * destination.
+     * destination. See above.
      * 
      * @param response
-     * @param session
+     * @param request
      * @param message
      * @param destination
      * @throws IOException
@@ -319,70 +320,250 @@ public abstract class ERSServlet extends HttpServlet{
     }
 
     /**
-     * Returns the entire contents of the given text file as a single, unedited String.
-     * This is so that I can have tempalte html files that servlets modify based on data.
+     * Shows the result page (result.html) as the response to this same request, with
+     * whatever the given body writes in place of the message. Meant for pages that only
+     * display data: nothing is put in the session and there's no redirect, and big
+     * tables go straight out to the client instead of being built up as one String.
      * 
-     * Based on this guide I found: 
-     *      https://kodejava.org/how-do-i-read-text-file-in-servlet/
+     * @param response
+     * @param body : writes the contents of the page, eg a table
+     * @param destination : where the Okay button goes
+     * @throws IOException
+     */
+    protected void renderResult(
+            HttpServletResponse response, 
+            PageWriter body,
+            String destination) throws IOException {
+
+        Map<String, PageWriter> values = new HashMap<>();
+        values.put(MESSAGE_SLOT, body);
+        values.put(DESTINATION_SLOT, out -> out.write(destination));
+
+        response.setContentType(HTML_CONTENT_TYPE);
+        TemplateCache.get(getServletContext(), RESULT_TEMPLATE)
+                .render(response.getWriter(), values);
+    }
+
+    /**
+     * Sends one of the fixed html pages (eg "manager_menu.html"). The page comes from the
+     * TemplateCache, so its links to static files have their fingerprints (see
+     * StaticAssets). Answers 304 if the browser already has this version of the page.
      * 
+     * @param request
+     * @param response
      * @param filename
+     * @throws IOException
+     */
+    protected void servePage(
+            HttpServletRequest request, 
+            HttpServletResponse response, 
+            String filename) throws IOException {
+
+        PageTemplate page = TemplateCache.get(getServletContext(), filename);
+        if (isNotModified(request, response, "W/\"" + page.getFingerprint() + "\"")) 
+            return;
+
+        response.setContentType(HTML_CONTENT_TYPE);
+        page.render(response.getWriter(), new HashMap<>());
+    }
+
+    /**
+     * For the pages that show a list of reimb-reqs. Asks the service layer for the
+     * reimb-req change count (a single row lookup), and makes an ETag out of that plus
+     * the page template, the build (some of the markup comes from code; see BuildInfo),
+     * who is asking and exactly what they asked for. If the browser already has that
+     * version of the page, answers 304 Not Modified and returns true; the caller should
+     * stop there, without loading the list. Otherwise returns false, with the ETag set.
+     * 
+     * @param request
+     * @param response
      * @return
+     * @throws IOException
      */
-    protected String readTextFile(String filename) throws IOException {
-        
-        ServletContext context = getServletContext();
-        InputStream is = context.getResourceAsStream(filename);
-        String text = "";
-        if (is != null) {
-            InputStreamReader isr = new InputStreamReader(is);
-            BufferedReader reader = new BufferedReader(isr);
-            String line;
-
-            // We read the file line by line and later will be displayed on the
-            // browser page.
-            while ((line = reader.readLine()) != null) {
-                text = text + line;
+    protected boolean isListNotModified(
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+
+        ERSRequest ereq = makeERSRequest(ERSRequestType.VIEW_CHANGE_COUNT, request);
+        ERSResponse eres = getResponse(ereq);
+        if (isFailure(eres)) return false; // the list request will report the problem
+
+        // the event sequence too: the pending list links to the events after it
+        String version = eres.getChangeCount() + "|" + eres.getEventSequence() + "|"
+                + TemplateCache.get(getServletContext(), RESULT_TEMPLATE).getFingerprint()
+                + "|" + BuildInfo.getBuildID() + "|" + ereq.getUserID() + "|" 
+                + ereq.getUserRole() + "|" + request.getServletPath() + "?" 
+                + request.getQueryString();
+        return isNotModified(
+                request, response, "W/\"" + StaticAssets.fingerprint(version) + "\"");
+    }
+
+    /**
+     * Sets the given ETag (and makes the browser check it every time). If the request's
+     * If-None-Match already has it, answers 304 Not Modified and returns true.
+     * 
+     * @param request
+     * @param response
+     * @param etag : eg W/"3f2a9c1b"
+     * @return
+     */
+    protected boolean isNotModified(
+            HttpServletRequest request, HttpServletResponse response, String etag) {
+
+        response.setHeader("ETag", etag);
+        response.setHeader("Cache-Control", REVALIDATE);
+
+        String ifNoneMatch = request.getHeader("If-None-Match");
+        if (ifNoneMatch == null) return false;
+        String bare = etag.startsWith("W/") ? etag.substring(2) : etag;
+        for (String candidate : ifNoneMatch.split(",")){
+            candidate = candidate.trim();
+            if (candidate.startsWith("W/")) candidate = candidate.substring(2);
+            if (candidate.equals(bare) || candidate.equals("*")){
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return true;
             }
         }
-        is.close();
-        return text;
+        return false;
     }
 
     /**
-     * Creates an html table based on the given list of reimb-reqs.
-     * If the list is empty, returns a text string indicating there were no matching
-     * results.
+     * Writes an html table based on the given list of reimb-reqs, one row at a time.
+     * If the list is empty, writes a text string indicating there were no matching
+     * results instead.
      * 
+     * @param out
      * @param reimbs
-     * @return
+     * @throws IOException
+     */
+    protected void writeTableFromReimbursementRequests(
+            Writer out, List<ReimbursementRequest> reimbs) throws IOException {
+        
+        writeTableFromReimbursementRequests(out, reimbs, false);
+    }
+
+    /**
+     * Same as above, but if selectable, each row starts with a checkbox named reimbID
+     * (whose value is the req's ID), so the table can go inside a form, eg for bulk
+     * approve/deny.
+     * 
+     * @param out
+     * @param reimbs
+     * @param selectable
+     * @throws IOException
      */
-    protected String makeTableFromReimbursementRequests(List<ReimbursementRequest> reimbs) {
+    protected void writeTableFromReimbursementRequests(
+            Writer out, 
+            List<ReimbursementRequest> reimbs, 
+            boolean selectable) throws IOException {
         
-        if (reimbs.isEmpty()) return "No matching reimbursement requests were found.";
+        if (reimbs.isEmpty()){
+            out.write("No matching reimbursement requests were found.");
+            return;
+        }
 
         // start with opening the table and labeling the columns
         // ID, Author ID, Type, $Amount, Status, Desc., Time Sub., Resolver ID, Time R.
-        String html = "<table><tr><th>ID</th><th>Author ID</th><th>Type</th>"
+        out.write("<table><tr>");
+        if (selectable) out.write("<th>Select</th>");
+        out.write("<th>ID</th><th>Author ID</th><th>Type</th>"
                 + "<th>Money Amount</th><th>Status</th><th>Description</th>" 
                 + "<th>Time Submitted</th><th>Resolver ID</th><th>Time Resolved</th>"
-                + "</tr>";
+                + "</tr>");
 
         for (ReimbursementRequest rr : reimbs){
-            String row = "<tr>";
-            row = row + "<td>" + cleanUpID(rr.getID()) + "</td>";
-            row = row + "<td>" + cleanUpID(rr.getAuthorID()) + "</td>";
-            row = row + "<td>" + cleanUpEnum("" + rr.getType()) + "</td>";
-            row = row + "<td>" + longToMoneyString(rr.getMoneyAmount()) + "</td>";
-            row = row + "<td>" + cleanUpEnum("" + rr.getStatus()) + "</td>";
-            row = row + "<td>" + cleanUpString(rr.getDescription()) + "</td>";
-            row = row + "<td>" + cleanUpString(rr.getTimeSubmitted()) + "</td>";
-            row = row + "<td>" + cleanUpID(rr.getResolverID()) + "</td>";
-            row = row + "<td>" + cleanUpString(rr.getTimeResolved()) + "</td>";
-            html = html + row + "</tr>";
+            out.write("<tr>");
+            if (selectable) 
+                writeCell(out, "<input type=\"checkbox\" name=\"reimbID\" value=\"" 
+                        + rr.getID() + "\">");
+            writeCell(out, cleanUpID(rr.getID()));
+            writeCell(out, cleanUpID(rr.getAuthorID()));
+            writeCell(out, cleanUpEnum("" + rr.getType()));
+            writeCell(out, longToMoneyString(rr.getMoneyAmount()));
+            writeCell(out, cleanUpEnum("" + rr.getStatus()));
+            writeCell(out, cleanUpString(rr.getDescription()));
+            writeCell(out, cleanUpTime(rr.getTimeSubmitted()));
+            writeCell(out, cleanUpID(rr.getResolverID()));
+            writeCell(out, cleanUpTime(rr.getTimeResolved()));
+            out.write("</tr>");
         }
-        html = html + "</table>";
+        out.write("</table>");
+    }
+
+    /**
+     * Copies the paging parameters (pageSize, afterID, beforeID) from the http request
+     * into the ERSRequest, so that the service layer only returns one page of results.
+     * Missing or badly formatted parameters are left out; if there's no usable page
+     * size, DEFAULT_PAGE_SIZE is used.
+     * 
+     * @param ereq
+     * @param request
+     */
+    protected void putPageParameters(ERSRequest ereq, HttpServletRequest request){
+
+        String pageSize = request.getParameter(ERSRequest.PAGE_SIZE_KEY);
+        if (isStringBlank(pageSize) || !isIDStringValid(pageSize)) 
+            pageSize = "" + DEFAULT_PAGE_SIZE;
+        ereq.putParameter(ERSRequest.PAGE_SIZE_KEY, cleanIDString(pageSize));
+
+        String afterID = request.getParameter(ERSRequest.AFTER_ID_KEY);
+        String beforeID = request.getParameter(ERSRequest.BEFORE_ID_KEY);
+        if (!isStringBlank(beforeID) && isIDStringValid(beforeID))
+            ereq.putParameter(ERSRequest.BEFORE_ID_KEY, cleanIDString(beforeID));
+        else if (!isStringBlank(afterID) && isIDStringValid(afterID))
+            ereq.putParameter(ERSRequest.AFTER_ID_KEY, cleanIDString(afterID));
+    }
 
-        return html;
+    /**
+     * Makes the Previous/Next links for a page of reimb-reqs returned by the service
+     * layer. Each link points back at the same page, with the cursor set to the first or
+     * last req currently shown. If the request had a cursor, there's also a link to the
+     * first page. Returns the empty string if there's only the one page.
+     * 
+     * @param eres
+     * @param request : used for the page size and any other parameters to carry over
+     * @param baseURL : the page to link to, eg "view_all_resolved" or
+     *      "manager_view_by_employee?employeeID=3"
+     * @return
+     */
+    protected String makePageLinks(ERSResponse eres, HttpServletRequest request, 
+            String baseURL) {
+
+        List<ReimbursementRequest> reimbs = eres.getReturnedReimbursementRequests();
+        // somewhere past the first page, there's always a way back to the start (even if
+        // this page turned out empty)
+        boolean pastFirst = request.getParameter(ERSRequest.AFTER_ID_KEY) != null
+                || request.getParameter(ERSRequest.BEFORE_ID_KEY) != null;
+        if (!pastFirst 
+                && (reimbs.isEmpty() || !(eres.hasPreviousPage() || eres.hasNextPage())))
+            return "";
+
+        String pageSize = request.getParameter(ERSRequest.PAGE_SIZE_KEY);
+        if (isStringBlank(pageSize) || !isIDStringValid(pageSize)) 
+            pageSize = "" + DEFAULT_PAGE_SIZE;
+        String first = baseURL + (baseURL.contains("?") ? "&" : "?") 
+                + ERSRequest.PAGE_SIZE_KEY + "=" + cleanIDString(pageSize);
+        String base = first + "&";
+
+        StringBuilder links = new StringBuilder("<p>");
+        if (pastFirst){
+            links.append("<a class=\"button\" href=\"").append(first)
+                    .append("\">&laquo; First page</a> ");
+        }
+        if (reimbs.isEmpty()) return links.append("</p>").toString();
+
+        int firstID = reimbs.get(0).getID();
+        int lastID = reimbs.get(reimbs.size() - 1).getID();
+        if (eres.hasPreviousPage()){
+            links.append("<a class=\"button\" href=\"").append(base)
+                    .append(ERSRequest.BEFORE_ID_KEY).append("=").append(firstID)
+                    .append("\">&laquo; Previous</a> ");
+        }
+        if (eres.hasNextPage()){
+            links.append("<a class=\"button\" href=\"").append(base)
+                    .append(ERSRequest.AFTER_ID_KEY).append("=").append(lastID)
+                    .append("\">Next &raquo;</a>");
+        }
+        return links.append("</p>").toString();
     }
 
     /**
@@ -435,6 +616,18 @@ public abstract class ERSServlet extends HttpServlet{
         else return s;
     }
 
+    /**
+     * Formats a timestamp for the tables. Unset (null) times are shown as --
+     * 
+     * @param time
+     * @return
+     */
+    private String cleanUpTime(LocalDateTime time){
+
+        if (time == null) return "--";
+        else return time.format(TIME_FORMAT);
+    }
+
     /**
      * 123456L -> $1234.56
      * Assumes money is at least 0.
@@ -532,35 +725,114 @@ public abstract class ERSServlet extends HttpServlet{
     }
 
     /**
-     * Creates an html table based on the given list of user profiles.
-     * If the list is empty, returns a text string indicating there were no matching
-     * results.
+     * Writes an html table based on the given list of user profiles, one row at a time.
+     * If the list is empty, writes a text string indicating there were no matching
+     * results instead.
      * 
+     * @param out
      * @param users
-     * @return
+     * @throws IOException
      */
-    protected String makeTableFromUserProfiles(List<UserProfile> users) {
+    protected void writeTableFromUserProfiles(Writer out, List<UserProfile> users) 
+            throws IOException {
         
-        if (users.isEmpty()) return "No matching user profiles were found.";
+        if (users.isEmpty()){
+            out.write("No matching user profiles were found.");
+            return;
+        }
 
         // start with opening the table and labeling the columns
         // ID, username, first name, last name, email    
-        String html = "<table><tr><th>ID</th><th>Username</th><th>First Name</th>"
-                + "<th>Last Name</th><th>Email Address</th></tr>";
+        out.write("<table><tr><th>ID</th><th>Username</th><th>First Name</th>"
+                + "<th>Last Name</th><th>Email Address</th></tr>");
 
         for (UserProfile up : users){
+            out.write("<tr>");
+            writeCell(out, cleanUpID(up.getID()));
+            writeCell(out, cleanUpString(up.getUsername()));
+            writeCell(out, cleanUpString(up.getFirstName()));
+            writeCell(out, cleanUpString(up.getLastName()));
+            writeCell(out, cleanUpString(up.getEmailAddress()));
+            out.write("</tr>");
+        }
+        out.write("</table>");
+    }
+
+    /**
+     * Writes the manager dashboard: a table of how many reimb-reqs there are (and how
+     * much they add up to) by type and status, then the employees with pending reqs,
+     * most money first.
+     * 
+     * @param out
+     * @param dashboard
+     * @throws IOException
+     */
+    protected void writeDashboard(Writer out, Dashboard dashboard) throws IOException {
 
-            String row = "<tr>";
-            row = row + "<td>" + cleanUpID(up.getID()) + "</td>";
-            row = row + "<td>" + cleanUpString(up.getUsername()) + "</td>";
-            row = row + "<td>" + cleanUpString(up.getFirstName()) + "</td>";
-            row = row + "<td>" + cleanUpString(up.getLastName()) + "</td>";
-            row = row + "<td>" + cleanUpString(up.getEmailAddress()) + "</td>";
-            html = html + row + "</tr>";
+        ReimbursementStatus[] statuses = {ReimbursementStatus.PENDING, 
+                ReimbursementStatus.APPROVED, ReimbursementStatus.DENIED};
+        DashboardTotals overall = dashboard.getOverall();
+
+        out.write("<table><tr><th>Type</th>");
+        for (ReimbursementStatus status : statuses){
+            out.write("<th>" + cleanUpEnum(status.getName()) + "</th>");
+        }
+        out.write("</tr>");
+        for (ReimbursementType type : ReimbursementType.values()){
+            if (type == ReimbursementType.NONE) continue;
+            out.write("<tr>");
+            writeCell(out, cleanUpEnum(type.getName()));
+            for (ReimbursementStatus status : statuses){
+                writeCell(out, overall.getCount(status, type) + " / " 
+                        + longToMoneyString(overall.getAmount(status, type)));
+            }
+            out.write("</tr>");
+        }
+        out.write("<tr>");
+        writeCell(out, "Total");
+        for (ReimbursementStatus status : statuses){
+            writeCell(out, overall.getCount(status) + " / " 
+                    + longToMoneyString(overall.getAmount(status)));
+        }
+        out.write("</tr></table>");
+
+        List<Map.Entry<Integer, DashboardTotals>> waiting = new ArrayList<>();
+        for (Map.Entry<Integer, DashboardTotals> e : dashboard.getByAuthor().entrySet()){
+            if (e.getValue().getCount(ReimbursementStatus.PENDING) > 0) waiting.add(e);
+        }
+        waiting.sort((a, b) -> Long.compare(
+                b.getValue().getAmount(ReimbursementStatus.PENDING), 
+                a.getValue().getAmount(ReimbursementStatus.PENDING)));
+
+        out.write("<h3>Pending, by employee</h3>");
+        if (waiting.isEmpty()){
+            out.write("Nothing is pending.");
+            return;
         }
-        html = html + "</table>";
+        out.write("<table><tr><th>Employee ID</th><th>Requests</th><th>Amount</th></tr>");
+        for (Map.Entry<Integer, DashboardTotals> e : waiting){
+            out.write("<tr>");
+            writeCell(out, cleanUpID(e.getKey()));
+            writeCell(out, "" + e.getValue().getCount(ReimbursementStatus.PENDING));
+            writeCell(out, longToMoneyString(
+                    e.getValue().getAmount(ReimbursementStatus.PENDING)));
+            out.write("</tr>");
+        }
+        out.write("</table>");
+    }
+
+    /**
+     * Writes a single <td> cell.
+     * 
+     * @param out
+     * @param contents
+     * @throws IOException
+     */
+    private void writeCell(Writer out, String contents) throws IOException {
 
-        return html;
+        out.write("<td>");
+        out.write(contents);
+        out.write("</td>");
     }
 
     /**
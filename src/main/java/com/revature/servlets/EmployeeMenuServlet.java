@@ -38,7 +38,7 @@ public class EmployeeMenuServlet extends ERSServlet {
         }
         
         //response.getWriter().write("DEBUG: is this changing?");
-        request.getRequestDispatcher("employee_menu.html").forward(request, response);
+        servePage(request, response, "employee_menu.html");
     }
 
 }
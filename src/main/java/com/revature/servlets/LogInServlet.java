@@ -42,7 +42,7 @@ public class LogInServlet extends ERSServlet {
             return;
         }
         
-        request.getRequestDispatcher("log_in.html").forward(request, response);
+        servePage(request, response, "log_in.html");
     }
     
     /**
@@ -66,12 +66,12 @@ public class LogInServlet extends ERSServlet {
         String password = request.getParameter("password");
 
         if (!isUsernameValid(username)){
-            handleProblem(response, session, INVALID_USERNAME_MESSAGE, "log_in");
+            handleProblem(response, request, INVALID_USERNAME_MESSAGE, "log_in");
             return;
         }
 
         if (!isUsernameValid(password)){
-            handleProblem(response, session, INVALID_PASSWORD_MESSAGE, "log_in");
+            handleProblem(response, request, INVALID_PASSWORD_MESSAGE, "log_in");
             return;
         }
 
@@ -79,11 +79,12 @@ public class LogInServlet extends ERSServlet {
         ERSRequest ereq = makeERSRequest(ERSRequestType.LOG_IN, session);
         ereq.putParameter(ERSRequest.USERNAME_KEY, username);
         ereq.putParameter(ERSRequest.PASSWORD_KEY, password);
+        ereq.putParameter(ERSRequest.CLIENT_ADDRESS_KEY, request.getRemoteAddr());
         ERSResponse eres = getResponse(ereq);
 
         // was there a problem?
         if (isFailure(eres)){
-            handleProblem(response, session, eres.getMessage(), "log_in");
+            handleProblem(response, request, eres.getMessage(), "log_in");
             return;
         } 
 
@@ -47,7 +47,7 @@ public class LogOutServlet extends ERSServlet {
         ERSResponse eres = getResponse(ereq);
 
         if (isFailure(eres)){
-            handleProblem(response, session, "eres type is: " + eres.getType(), "menu");
+            handleProblem(response, request, "eres type is: " + eres.getType(), "menu");
             return;
         }
 
@@ -37,6 +37,6 @@ public class ManagerMenuServlet extends ERSServlet {
             return;
         }
 
-        request.getRequestDispatcher("manager_menu.html").forward(request, response);
+        servePage(request, response, "manager_menu.html");
     }
 }
@@ -28,6 +28,6 @@ public class NoUserMenuServlet extends ERSServlet {
     protected void doGet(HttpServletRequest request, HttpServletResponse response) 
             throws ServletException, IOException {
         
-        request.getRequestDispatcher("no_user_menu.html").forward(request, response);
+        servePage(request, response, "no_user_menu.html");
     }
 }
@@ -0,0 +1,106 @@
+/**
+ * An html template that has already been split up into its literal text and its
+ * placeholders (eg %MESSAGE%), so rendering it is just writing the pieces out in order;
+ * no searching or copying of the whole page on every request.
+ *
+ * Templates don't change once compiled, so one can be shared by every request.
+ *
+ * @author Andrew Curry
+ */
+package com.revature.servlets;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class PageTemplate {
+
+    // constants
+    // %NAME%, where the name is capital letters and underscores. A lone % is left alone.
+    private static final Pattern PLACEHOLDER = Pattern.compile("%([A-Z_]+)%");
+
+    // instance variables
+    private final String[] literals; // always one more literal than slots
+    private final String[] slots;
+    private final String fingerprint; // of the whole text, eg for an ETag
+
+    // constructor(s)
+
+    private PageTemplate(List<String> literals, List<String> slots, String fingerprint){
+
+        this.literals = literals.toArray(new String[literals.size()]);
+        this.slots = slots.toArray(new String[slots.size()]);
+        this.fingerprint = fingerprint;
+    }
+
+    // methods
+
+    /**
+     * Splits the given text into literal segments and placeholder slots.
+     *
+     * @param text
+     * @return
+     */
+    public static PageTemplate compile(String text){
+
+        List<String> literals = new ArrayList<>();
+        List<String> slots = new ArrayList<>();
+
+        Matcher matcher = PLACEHOLDER.matcher(text);
+        int literalStart = 0;
+        while (matcher.find()){
+            literals.add(text.substring(literalStart, matcher.start()));
+            slots.add(matcher.group(1));
+            literalStart = matcher.end();
+        }
+        literals.add(text.substring(literalStart));
+
+        return new PageTemplate(literals, slots, StaticAssets.fingerprint(text));
+    }
+
+    /**
+     * Writes the page to the given writer, filling in each slot with the matching
+     * PageWriter. Slots with no matching PageWriter are left blank.
+     *
+     * @param out
+     * @param values : slot name (without the %s) -> what to write there
+     * @throws IOException
+     */
+    public void render(Writer out, Map<String, PageWriter> values) throws IOException{
+
+        for (int i = 0; i < slots.length; i++){
+            out.write(literals[i]);
+            PageWriter value = values.get(slots[i]);
+            if (value != null) value.writeTo(out);
+        }
+        out.write(literals[slots.length]);
+    }
+
+    /**
+     * Returns the names of the slots, in the order they appear in the page. A slot that
+     * appears more than once is listed more than once.
+     *
+     * @return
+     */
+    public List<String> getSlots(){
+
+        List<String> slotList = new ArrayList<>();
+        Collections.addAll(slotList, slots);
+        return slotList;
+    }
+
+    /**
+     * Returns a short hash of the template's text. Two templates with the same text have
+     * the same fingerprint.
+     *
+     * @return
+     */
+    public String getFingerprint(){
+        return fingerprint;
+    }
+}
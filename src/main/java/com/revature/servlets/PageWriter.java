@@ -0,0 +1,16 @@
+/**
+ * Writes (part of) a page straight to the response, eg a table or a message. Used to fill
+ * in the slots of a PageTemplate (see ERSServlet.renderResult).
+ *
+ * @author Andrew Curry
+ */
+package com.revature.servlets;
+
+import java.io.IOException;
+import java.io.Writer;
+
+@FunctionalInterface
+public interface PageWriter {
+
+    public void writeTo(Writer out) throws IOException;
+}
@@ -1,6 +1,8 @@
 /**
- * This servlet displays result messages (problem or success) to the user and then directs
- * them to the appropriate page.
+ * This servlet displays result messages to the user and then directs them to the
+ * appropriate page. Since the pages that only show data render their results directly,
+ * this is only used after an action that changed something (see
+ * ERSServlet.handleSuccess).
  * 
  * I didn't call it an error page to distinguish between Http errors and things like
  * invalid user IDs.
@@ -26,6 +28,8 @@ public class ResultServlet extends ERSServlet {
 
     /**
      * Display the message and the okay button.
+     * The message is only shown once: it's removed from the session here, so sessions
+     * don't keep carrying it around (see ERSServlet.handleSuccess).
      * 
      * @param request
      * @param response
@@ -36,17 +40,19 @@ public class ResultServlet extends ERSServlet {
             throws ServletException, IOException {
         
         // get the parameters/attributes from the page that sent the user here
-        HttpSession session = request.getSession();
-        String message = (String)session.getAttribute("resultMessage");
+        HttpSession session = request.getSession(false);
+        String message = null;
+        String destination = null;
+        if (session != null){
+            message = (String)session.getAttribute("resultMessage");
+            destination = (String)session.getAttribute("resultDestination");
+            session.removeAttribute("resultMessage");
+            session.removeAttribute("resultDestination");
+        }
         if (message == null) message = "";
-        String destination = (String)session.getAttribute("resultDestination");
         if (destination == null) destination = "menu";
 
-        String html = readTextFile("result.html");
-
-        html = html.replace("%MESSAGE%", message);
-        html = html.replace("%DEST%", destination);
-
-        response.getWriter().write(html);
+        String flash = message; // lambdas need (effectively) final
+        renderResult(response, out -> out.write(flash), destination);
     }
 }
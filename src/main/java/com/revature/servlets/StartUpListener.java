@@ -0,0 +1,97 @@
+/**
+ * Brings the schema up to date, does the back end's slow first-time setup, picks the
+ * bcrypt cost, and loads the page templates when the application is deployed, instead
+ * of making the first users after a restart wait for it. Also shuts the connection pool
+ * and the password checking threads down when the application is stopped.
+ *
+ * @author Andrew Curry
+ */
+package com.revature.servlets;
+
+import java.io.IOException;
+
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+
+import org.apache.log4j.Logger;
+import org.hibernate.stat.Statistics;
+
+import com.revature.repository.DAO.exceptions.DAOException;
+import com.revature.repository.Util.HibernateConnectionUtil;
+import com.revature.service.BackEndUtil;
+import com.revature.service.PasswordChecker;
+import com.revature.service.PasswordUtil;
+
+public class StartUpListener implements ServletContextListener {
+
+    // class / static variables
+    private static final Logger log = Logger.getLogger(StartUpListener.class);
+
+    /**
+     * Migrates the schema and warms up the back end. If a migration fails (or the
+     * database can't be reached to run them), the deployment fails: the app would only
+     * be running on a missing or half-migrated schema. If just the warm up fails, the
+     * app still starts; the rest of the setup will happen on the first request instead.
+     *
+     * @param event
+     * @throws IllegalStateException if the schema couldn't be brought up to date
+     */
+    @Override
+    public void contextInitialized(ServletContextEvent event){
+
+        try{
+            int applied = BackEndUtil.migrate();
+            log.info("Applied " + applied + " schema migrations");
+        }
+        catch(DAOException | RuntimeException e){
+            log.fatal("Unable to migrate the schema, not starting: " + e.getMessage());
+            throw new IllegalStateException("Schema migration failed", e);
+        }
+
+        PasswordUtil.calibrate(); // doesn't need the database
+
+        long start = System.currentTimeMillis();
+        try{
+            BackEndUtil.warmUp();
+            long elapsed = System.currentTimeMillis() - start;
+            log.info("Back end warmed up in " + elapsed + "ms");
+        }
+        catch(DAOException | RuntimeException e){
+            log.error("Unable to warm up the back end: " + e.getMessage());
+        }
+
+        try{
+            // before the templates, which link to them
+            int assets = StaticAssets.loadAll(event.getServletContext());
+            int count = TemplateCache.loadAll(event.getServletContext());
+            log.info("Loaded " + count + " page templates and " 
+                    + assets + " static files");
+        }
+        catch(IOException e){
+            // they'll be loaded on first use instead
+            log.error("Unable to load the page templates: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Logs how well the second level cache did, then closes the SessionFactory, which
+     * also closes the connection pool.
+     *
+     * @param event
+     */
+    @Override
+    public void contextDestroyed(ServletContextEvent event){
+
+        Statistics stats = HibernateConnectionUtil.getStatistics();
+        if (stats != null){
+            log.info("Second level cache: " 
+                    + stats.getSecondLevelCacheHitCount() + " hits, "
+                    + stats.getSecondLevelCacheMissCount() + " misses; query cache: "
+                    + stats.getQueryCacheHitCount() + " hits, "
+                    + stats.getQueryCacheMissCount() + " misses");
+        }
+        HibernateConnectionUtil.forceDropSessionFactory();
+        TemplateCache.shutDown();
+        PasswordChecker.shutDownShared();
+    }
+}
@@ -0,0 +1,179 @@
+/**
+ * Content fingerprints for the static files the pages link to (eg css/styles.css).
+ * When a template is loaded, each link to one of them gets ?v=<fingerprint> added, so
+ * the browser can keep the file forever (see StaticAssetFilter): if the file changes,
+ * so does its fingerprint, and so does the link.
+ *
+ * Fingerprints are worked out once per file and kept, like the templates themselves.
+ *
+ * @author Andrew Curry
+ */
+package com.revature.servlets;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.servlet.ServletContext;
+
+public class StaticAssets {
+
+    // constants
+    public static final String VERSION_PARAM = "v";
+    public static final String ASSET_FOLDER = "/css/";
+    // href="css/..." or src="css/...", without a query string already
+    private static final Pattern ASSET_LINK
+            = Pattern.compile("(href|src)=\"(css/[^\"?#]+)\"");
+    private static final int FINGERPRINT_BYTES = 8; // 16 hex digits
+
+    // class / static variables
+    // eg "css/styles.css" -> "3f2a9c1b0d4e5f60"; "" if the file doesn't exist
+    private static final ConcurrentMap<String, String> fingerprints
+            = new ConcurrentHashMap<>();
+
+    // constructor(s)
+
+    private StaticAssets(){
+        // just static methods
+    }
+
+    // methods
+
+    /**
+     * Works out the fingerprint of every file in the asset folder.
+     *
+     * @param context
+     * @return the number of files
+     * @throws IOException
+     */
+    public static int loadAll(ServletContext context) throws IOException{
+
+        int loaded = 0;
+        Set<String> paths = context.getResourcePaths(ASSET_FOLDER);
+        if (paths != null){
+            for (String path : paths){
+                if (path.endsWith("/")) continue; // a sub-folder
+                getFingerprint(context, path.substring(1));
+                loaded++;
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Returns the fingerprint of the given file (eg "css/styles.css"), or null if there
+     * is no such file.
+     *
+     * @param context
+     * @param path : relative to the webapp folder, without a leading /
+     * @return
+     * @throws IOException
+     */
+    public static String getFingerprint(ServletContext context, String path)
+            throws IOException{
+
+        String fingerprint = fingerprints.get(path);
+        if (fingerprint == null){
+            fingerprint = read(context, path);
+            fingerprints.putIfAbsent(path, fingerprint); // same answer either way
+        }
+        return fingerprint.isEmpty() ? null : fingerprint;
+    }
+
+    /**
+     * Returns the given html with ?v=<fingerprint> added to each link to an asset.
+     * Links to files that don't exist are left alone.
+     *
+     * @param context
+     * @param html
+     * @return
+     * @throws IOException
+     */
+    public static String addVersions(ServletContext context, String html)
+            throws IOException{
+
+        Matcher matcher = ASSET_LINK.matcher(html);
+        StringBuffer result = new StringBuffer(html.length() + 64);
+        while (matcher.find()){
+            String fingerprint = getFingerprint(context, matcher.group(2));
+            String link = (fingerprint == null) ? matcher.group()
+                    : matcher.group(1) + "=\"" + matcher.group(2)
+                        + "?" + VERSION_PARAM + "=" + fingerprint + "\"";
+            matcher.appendReplacement(result, Matcher.quoteReplacement(link));
+        }
+        matcher.appendTail(result);
+        return result.toString();
+    }
+
+    /**
+     * Returns a short fingerprint (hex) of the given text, eg for an ETag.
+     *
+     * @param text
+     * @return
+     */
+    public static String fingerprint(String text){
+        return fingerprint(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns a short fingerprint (hex) of the given bytes: the start of their SHA-256.
+     *
+     * @param bytes
+     * @return
+     */
+    public static String fingerprint(byte[] bytes){
+
+        try{
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(bytes);
+            StringBuilder hex = new StringBuilder(FINGERPRINT_BYTES * 2);
+            for (int i = 0; i < FINGERPRINT_BYTES; i++){
+                hex.append(Character.forDigit((hash[i] >> 4) & 0xF, 16))
+                        .append(Character.forDigit(hash[i] & 0xF, 16));
+            }
+            return hex.toString();
+        }
+        catch(NoSuchAlgorithmException e){
+            throw new IllegalStateException(e); // every JVM has SHA-256
+        }
+    }
+
+    /**
+     * Forgets every fingerprint, eg when templates are being reloaded during
+     * development.
+     */
+    public static void clear(){
+        fingerprints.clear();
+    }
+
+    // helpers
+
+    /**
+     * Reads the whole file and fingerprints it. Returns "" if it doesn't exist.
+     *
+     * @param context
+     * @param path
+     * @return
+     * @throws IOException
+     */
+    private static String read(ServletContext context, String path) throws IOException{
+
+        InputStream is = context.getResourceAsStream("/" + path);
+        if (is == null) return "";
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (InputStream in = is){
+            byte[] buffer = new byte[8192];
+            int count;
+            while ((count = in.read(buffer)) != -1) bytes.write(buffer, 0, count);
+        }
+        return fingerprint(bytes.toByteArray());
+    }
+}
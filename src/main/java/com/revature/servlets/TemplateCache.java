@@ -0,0 +1,212 @@
+/**
+ * Keeps the compiled html templates (see PageTemplate) so each file is only read and
+ * parsed once, instead of on every request. Everything is loaded at start up by
+ * StartUpListener; anything missed is loaded the first time it's asked for.
+ *
+ * For working on the html, setting the templateReload context-param to true (in web.xml)
+ * watches the webapp folder and drops a template from the cache whenever its file
+ * changes, so it's re-read on the next request. Only works when the app is deployed as
+ * an unpacked folder.
+ *
+ * Links to static files get their fingerprint added as they're loaded (see
+ * StaticAssets).
+ *
+ * @author Andrew Curry
+ */
+package com.revature.servlets;
+
+import java.io.BufferedReader;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.servlet.ServletContext;
+
+import org.apache.log4j.Logger;
+
+public class TemplateCache {
+
+    // constants
+    public static final String RELOAD_PARAM = "templateReload";
+    private static final String TEMPLATE_SUFFIX = ".html";
+
+    // class / static variables
+    private static final Logger log = Logger.getLogger(TemplateCache.class);
+    private static final ConcurrentMap<String, PageTemplate> templates
+            = new ConcurrentHashMap<>();
+    private static WatchService watchService; // null unless reloading is on
+
+    // constructor(s)
+
+    private TemplateCache(){
+        // just static methods
+    }
+
+    // methods
+
+    /**
+     * Compiles every html file at the top level of the webapp, and starts watching for
+     * changes if the templateReload context-param is true.
+     *
+     * @param context
+     * @return the number of templates loaded
+     * @throws IOException
+     */
+    public static int loadAll(ServletContext context) throws IOException{
+
+        int loaded = 0;
+        Set<String> paths = context.getResourcePaths("/");
+        if (paths != null){
+            for (String path : paths){
+                if (!path.endsWith(TEMPLATE_SUFFIX)) continue;
+                String filename = path.substring(1); // drop the leading /
+                templates.put(filename, load(context, filename));
+                loaded++;
+            }
+        }
+
+        if (Boolean.parseBoolean(context.getInitParameter(RELOAD_PARAM)))
+            startWatching(context);
+        return loaded;
+    }
+
+    /**
+     * Returns the compiled template for the given file, eg "result.html". Reads and
+     * compiles the file if it isn't in the cache yet.
+     *
+     * @param context
+     * @param filename
+     * @return
+     * @throws IOException if the file doesn't exist or can't be read
+     */
+    public static PageTemplate get(ServletContext context, String filename)
+            throws IOException{
+
+        PageTemplate template = templates.get(filename);
+        if (template == null){
+            // two threads might both load it; that's harmless, they get the same thing
+            template = load(context, filename);
+            PageTemplate existing = templates.putIfAbsent(filename, template);
+            if (existing != null) template = existing;
+        }
+        return template;
+    }
+
+    /**
+     * Stops watching for changes (if it was) and empties the cache.
+     */
+    public static synchronized void shutDown(){
+
+        if (watchService != null){
+            try{
+                watchService.close(); // also ends the watching thread
+            }
+            catch(IOException e){
+                log.warn("Unable to close the template watcher: " + e.getMessage());
+            }
+            watchService = null;
+        }
+        templates.clear();
+        StaticAssets.clear();
+    }
+
+    // helpers
+
+    /**
+     * Reads and compiles the given file.
+     *
+     * @param context
+     * @param filename
+     * @return
+     * @throws IOException
+     */
+    private static PageTemplate load(ServletContext context, String filename)
+            throws IOException{
+
+        InputStream is = context.getResourceAsStream("/" + filename);
+        if (is == null) throw new FileNotFoundException("No such template: " + filename);
+
+        StringBuilder text = new StringBuilder();
+        // same charset the pages say they're in
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(is, StandardCharsets.ISO_8859_1))){
+            String line;
+            while ((line = reader.readLine()) != null){
+                text.append(line).append('\n');
+            }
+        }
+        return PageTemplate.compile(StaticAssets.addVersions(context, text.toString()));
+    }
+
+    /**
+     * Starts a background thread that drops templates from the cache when their files
+     * change.
+     *
+     * @param context
+     */
+    private static synchronized void startWatching(ServletContext context){
+
+        if (watchService != null) return; // already watching
+
+        String realPath = context.getRealPath("/");
+        if (realPath == null){
+            log.warn(RELOAD_PARAM + " is set, but the webapp isn't an unpacked folder");
+            return;
+        }
+
+        try{
+            Path folder = Paths.get(realPath);
+            WatchService service = FileSystems.getDefault().newWatchService();
+            folder.register(service,
+                    StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY,
+                    StandardWatchEventKinds.ENTRY_DELETE);
+            watchService = service;
+
+            Thread watcher = new Thread(() -> watch(service), "template-watcher");
+            watcher.setDaemon(true);
+            watcher.start();
+            log.info("Watching " + folder + " for template changes");
+        }
+        catch(IOException e){
+            log.warn("Unable to watch for template changes: " + e.getMessage());
+        }
+    }
+
+    /**
+     * The body of the watching thread. Runs until the WatchService is closed.
+     *
+     * @param service
+     */
+    private static void watch(WatchService service){
+
+        try{
+            while (true){
+                WatchKey key = service.take();
+                for (WatchEvent<?> event : key.pollEvents()){
+                    Object changed = event.context(); // null if events were lost
+                    if (changed == null) templates.clear();
+                    else if (templates.remove(changed.toString()) != null)
+                        log.info("Reloading template " + changed);
+                }
+                key.reset();
+            }
+        }
+        catch(ClosedWatchServiceException | InterruptedException e){
+            // shut down
+        }
+    }
+}
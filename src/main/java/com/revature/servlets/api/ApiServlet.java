@@ -0,0 +1,681 @@
+/**
+ * The JSON API (version 1), for programs that would otherwise have to scrape the html
+ * pages. Each route turns into the same ERSRequest the matching html page would make,
+ * so permissions and validation in the service layer are exactly the same. Log in works
+ * the same way too (a session cookie).
+ *
+ *   POST   /api/v1/session                  log in: {"username", "password"}
+ *   DELETE /api/v1/session                  log out
+ *   GET    /api/v1/me                       your own profile (employees)
+ *   PUT    /api/v1/me                       {"username", "firstName", "lastName",
+ *                                           "emailAddress"}
+ *   GET    /api/v1/me/requests              ?status=pending (default) or resolved
+ *   POST   /api/v1/me/requests              {"type", "moneyAmount" (cents),
+ *                                           "description"}
+ *   GET    /api/v1/requests                 ?status=pending (default) or resolved
+ *   POST   /api/v1/requests/{id}/approve    (or /deny)
+ *   POST   /api/v1/requests/approve         {"ids": [1, 2, 3]} (or /deny)
+ *   GET    /api/v1/employees
+ *   GET    /api/v1/employees/{id}/requests
+ *   GET    /api/v1/dashboard                counts and amounts by status, type, author
+ *
+ * Lists are always paged, with the same pageSize/afterID/beforeID parameters as the
+ * html pages: without a pageSize, a page is DEFAULT_PAGE_SIZE reqs (and never more than
+ * ViewRequestHandler.MAX_PAGE_SIZE), so no list loads the whole table. For the next
+ * page, pass the last req's id as afterID while hasNextPage is true.
+ * Failures come back as {"error": ERSResponseType, "message": "..."} with a matching
+ * http status code.
+ */
+package com.revature.servlets.api;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.revature.model.ReimbursementRequest;
+import com.revature.model.ReimbursementRequest.ReimbursementStatus;
+import com.revature.model.ReimbursementRequest.ReimbursementType;
+import com.revature.model.UserProfile;
+import com.revature.model.UserProfile.UserRole;
+import com.revature.service.comms.ERSRequest;
+import com.revature.service.comms.ERSResponse;
+import com.revature.service.comms.ERSRequest.ERSRequestType;
+import com.revature.service.comms.ERSResponse.BulkOutcome;
+import com.revature.service.comms.ERSResponse.ERSResponseType;
+import com.revature.service.dashboard.Dashboard;
+import com.revature.service.dashboard.DashboardTotals;
+import com.revature.servlets.ERSServlet;
+
+public class ApiServlet extends ERSServlet {
+
+    private static final long serialVersionUID = 0L;
+
+    // constants
+    private static final String STATUS_PARAM = "status";
+    private static final int SC_TOO_MANY_REQUESTS = 429; // not in HttpServletResponse
+
+    /**
+     * Writes the body of a successful response.
+     */
+    @FunctionalInterface
+    interface BodyWriter {
+        void write(JsonGenerator gen, ERSResponse eres) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface GeneratorConsumer {
+        void accept(JsonGenerator gen) throws IOException;
+    }
+
+    public ApiServlet() {
+        super();
+    }
+
+    // ---------------------------
+    // routes
+    // ---------------------------
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+
+        String[] path = splitPath(request.getPathInfo());
+
+        if (matches(path, "me")){
+            respond(request, response,
+                    makeERSRequest(ERSRequestType.EMPLOYEE_VIEW_SELF, request),
+                    this::writeFirstUserProfile);
+        }
+        else if (matches(path, "me", "requests")){
+            ERSRequestType type = pickByStatus(request,
+                    ERSRequestType.EMPLOYEE_VIEW_PENDING,
+                    ERSRequestType.EMPLOYEE_VIEW_RESOLVED);
+            if (type == null) writeBadStatus(response);
+            else respond(request, response, makeListRequest(type, request),
+                    this::writeReimbursementRequests);
+        }
+        else if (matches(path, "requests")){
+            ERSRequestType type = pickByStatus(request,
+                    ERSRequestType.VIEW_ALL_PENDING,
+                    ERSRequestType.VIEW_ALL_RESOLVED);
+            if (type == null) writeBadStatus(response);
+            else respond(request, response, makeListRequest(type, request),
+                    this::writeReimbursementRequests);
+        }
+        else if (matches(path, "employees")){
+            respond(request, response,
+                    makeERSRequest(ERSRequestType.VIEW_ALL_EMPLOYEES, request),
+                    this::writeUserProfiles);
+        }
+        else if (matches(path, "employees", null, "requests") && isID(path[1])){
+            ERSRequest ereq
+                    = makeListRequest(ERSRequestType.MANAGER_VIEW_BY_EMPLOYEE, request);
+            ereq.putParameter(ERSRequest.EMPLOYEE_ID_KEY, path[1]);
+            respond(request, response, ereq, this::writeReimbursementRequests);
+        }
+        else if (matches(path, "dashboard")){
+            respond(request, response,
+                    makeERSRequest(ERSRequestType.MANAGER_DASHBOARD, request),
+                    this::writeDashboardTotals);
+        }
+        else writeNotFound(response);
+    }
+
+    @Override
+    protected void doPost(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+
+        String[] path = splitPath(request.getPathInfo());
+
+        if (matches(path, "session")) logIn(request, response);
+        else if (matches(path, "me", "requests")) submitRequest(request, response);
+        else if (matches(path, "requests", null, "approve") && isID(path[1]))
+            resolve(request, response, ERSRequestType.APPROVE_REQUEST, path[1]);
+        else if (matches(path, "requests", null, "deny") && isID(path[1]))
+            resolve(request, response, ERSRequestType.DENY_REQUEST, path[1]);
+        else if (matches(path, "requests", "approve"))
+            bulkResolve(request, response, ERSRequestType.BULK_APPROVE_REQUEST);
+        else if (matches(path, "requests", "deny"))
+            bulkResolve(request, response, ERSRequestType.BULK_DENY_REQUEST);
+        else writeNotFound(response);
+    }
+
+    @Override
+    protected void doPut(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+
+        String[] path = splitPath(request.getPathInfo());
+
+        if (matches(path, "me")) updateSelf(request, response);
+        else writeNotFound(response);
+    }
+
+    @Override
+    protected void doDelete(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+
+        String[] path = splitPath(request.getPathInfo());
+
+        if (matches(path, "session")) logOut(request, response);
+        else writeNotFound(response);
+    }
+
+    // ---------------------------
+    // actions with a body
+    // ---------------------------
+
+    private void logIn(HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+
+        JsonNode body = readBody(request, response);
+        if (body == null) return;
+
+        String username = getText(body, "username");
+        String password = getText(body, "password");
+        if (!isUsernameValid(username) || isStringBlank(password)){
+            writeError(response, ERSResponseType.INVALID_PARAMETER,
+                    INVALID_USERNAME_MESSAGE);
+            return;
+        }
+
+        HttpSession session = request.getSession();
+        ERSRequest ereq = makeERSRequest(ERSRequestType.LOG_IN, session);
+        ereq.putParameter(ERSRequest.USERNAME_KEY, username);
+        ereq.putParameter(ERSRequest.PASSWORD_KEY, password);
+        ereq.putParameter(ERSRequest.CLIENT_ADDRESS_KEY, request.getRemoteAddr());
+
+        respond(request, response, ereq, (gen, eres) -> {
+            // same as LogInServlet
+            UserProfile up = eres.getReturnedUserProfiles().get(0);
+            session.setAttribute("userID", up.getID());
+            session.setAttribute("role", up.getRole());
+            writeFirstUserProfile(gen, eres);
+        });
+    }
+
+    private void logOut(HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+
+        HttpSession session = request.getSession(false);
+        if (session == null){
+            writeError(response, ERSResponseType.FORBIDDEN, "Not logged in.");
+            return;
+        }
+
+        respond(request, response, makeERSRequest(ERSRequestType.LOG_OUT, session),
+                (gen, eres) -> {
+                    session.setAttribute("userID", -1);
+                    session.setAttribute("role", UserRole.LOGGED_OUT);
+                    writeMessage(gen, eres);
+                });
+    }
+
+    private void updateSelf(HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+
+        JsonNode body = readBody(request, response);
+        if (body == null) return;
+
+        String username = getText(body, "username");
+        String firstName = getText(body, "firstName");
+        String lastName = getText(body, "lastName");
+        String emailAddress = getText(body, "emailAddress");
+
+        String problem = null;
+        if (!isUsernameValid(username)) problem = "Invalid username.";
+        else if (!isPersonalNameValid(firstName)) problem = "Invalid first name.";
+        else if (!isPersonalNameValid(lastName)) problem = "Invalid last name.";
+        else if (!isEmailAddressValid(emailAddress)) problem = "Invalid email address.";
+        if (problem != null){
+            writeError(response, ERSResponseType.INVALID_PARAMETER, problem);
+            return;
+        }
+
+        ERSRequest ereq = makeERSRequest(ERSRequestType.EMPLOYEE_UPDATE_SELF, request);
+        ereq.putParameter(ERSRequest.USERNAME_KEY, username);
+        ereq.putParameter(ERSRequest.FIRST_NAME_KEY, firstName);
+        ereq.putParameter(ERSRequest.LAST_NAME_KEY, lastName);
+        ereq.putParameter(ERSRequest.EMAIL_ADDRESS_KEY, emailAddress);
+        respond(request, response, ereq, this::writeMessage);
+    }
+
+    private void submitRequest(HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+
+        JsonNode body = readBody(request, response);
+        if (body == null) return;
+
+        JsonNode amount = body.get("moneyAmount");
+        String type = getText(body, "type");
+        String description = getText(body, "description");
+        String problem = checkSubmission(amount, type);
+        if (problem != null){
+            writeError(response, ERSResponseType.INVALID_PARAMETER, problem);
+            return;
+        }
+
+        ERSRequest ereq = makeERSRequest(ERSRequestType.SUBMIT_REQUEST, request);
+        ereq.putParameter(ERSRequest.REIMBURSEMENT_TYPE_KEY, type);
+        ereq.putParameter(ERSRequest.MONEY_AMOUNT_KEY, Long.toString(amount.asLong()));
+        if (!isStringBlank(description))
+            ereq.putParameter(ERSRequest.REIMBURSEMENT_DESCRIPTION_KEY, description);
+        respond(request, response, ereq, this::writeMessage);
+    }
+
+    /**
+     * Returns what's wrong with a submitted reimb-req's JSON, or null if nothing is. The
+     * amount has to be a whole number of cents: 12.99 would otherwise be quietly cut
+     * down to 12 on the way to the service layer. Everything else (eg a negative amount,
+     * or a description too long for its column) is checked by the service layer, the
+     * same as for the html pages.
+     *
+     * @param amount : may be null
+     * @param type : may be null
+     * @return
+     */
+    String checkSubmission(JsonNode amount, String type){
+
+        if (amount == null || !amount.isIntegralNumber() || !amount.canConvertToLong()
+                || isStringBlank(type))
+            return "moneyAmount (a whole number of cents) and type are required.";
+        return null;
+    }
+
+    private void resolve(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            ERSRequestType type,
+            String reimbID) throws IOException {
+
+        ERSRequest ereq = makeERSRequest(type, request);
+        ereq.putParameter(ERSRequest.REIMBURSEMENT_ID_KEY, reimbID);
+        respond(request, response, ereq, this::writeMessage);
+    }
+
+    private void bulkResolve(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            ERSRequestType type) throws IOException {
+
+        JsonNode body = readBody(request, response);
+        if (body == null) return;
+
+        JsonNode idList = body.get("ids");
+        StringJoiner ids = new StringJoiner(",");
+        if (idList != null && idList.isArray()){
+            for (JsonNode id : idList){
+                if (!id.canConvertToInt()){
+                    ids = new StringJoiner(",");
+                    break;
+                }
+                ids.add(Integer.toString(id.asInt()));
+            }
+        }
+        if (ids.length() == 0){
+            writeError(response, ERSResponseType.INVALID_PARAMETER,
+                    "ids must be a non-empty list of reimbursement request IDs.");
+            return;
+        }
+
+        ERSRequest ereq = makeERSRequest(type, request);
+        ereq.putParameter(ERSRequest.REIMBURSEMENT_IDS_KEY, ids.toString());
+        respond(request, response, ereq, this::writeBulkOutcomes);
+    }
+
+    // ---------------------------
+    // writing responses
+    // ---------------------------
+
+    /**
+     * Hands the request to the service layer. If it worked, writes a 200 with whatever
+     * body writes; otherwise, writes the error.
+     *
+     * @param request
+     * @param response
+     * @param ereq
+     * @param body
+     * @throws IOException
+     */
+    private void respond(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            ERSRequest ereq,
+            BodyWriter body) throws IOException {
+
+        ERSResponse eres = getResponse(ereq);
+        if (isFailure(eres)){
+            // not logged in at all is a 401, rather than a 403
+            ERSResponseType type = eres.getType();
+            if (type == ERSResponseType.FORBIDDEN
+                    && ereq.getUserRole() == UserRole.LOGGED_OUT
+                    && ereq.getType() != ERSRequestType.LOG_IN)
+                writeJson(response, HttpServletResponse.SC_UNAUTHORIZED,
+                        gen -> writeErrorBody(gen, type, "Not logged in."));
+            else writeError(response, type, eres.getMessage());
+            return;
+        }
+        writeJson(response, HttpServletResponse.SC_OK, gen -> body.write(gen, eres));
+    }
+
+    /**
+     * Writes {"requests": [...], "hasNextPage": ..., "hasPreviousPage": ...}, one row at
+     * a time.
+     *
+     * @param gen
+     * @param eres
+     * @throws IOException
+     */
+    void writeReimbursementRequests(JsonGenerator gen, ERSResponse eres)
+            throws IOException {
+
+        gen.writeStartObject();
+        gen.writeArrayFieldStart("requests");
+        for (ReimbursementRequest rr : eres.getReturnedReimbursementRequests()){
+            JsonUtil.getReimbursementWriter()
+                    .writeValue(gen, new ReimbursementRequestDTO(rr));
+        }
+        gen.writeEndArray();
+        gen.writeBooleanField("hasNextPage", eres.hasNextPage());
+        gen.writeBooleanField("hasPreviousPage", eres.hasPreviousPage());
+        gen.writeEndObject();
+    }
+
+    /**
+     * Writes {"employees": [...]}, one row at a time.
+     *
+     * @param gen
+     * @param eres
+     * @throws IOException
+     */
+    void writeUserProfiles(JsonGenerator gen, ERSResponse eres) throws IOException {
+
+        gen.writeStartObject();
+        gen.writeArrayFieldStart("employees");
+        for (UserProfile up : eres.getReturnedUserProfiles()){
+            JsonUtil.getUserWriter().writeValue(gen, new UserProfileDTO(up));
+        }
+        gen.writeEndArray();
+        gen.writeEndObject();
+    }
+
+    void writeFirstUserProfile(JsonGenerator gen, ERSResponse eres) throws IOException {
+
+        List<UserProfile> ups = eres.getReturnedUserProfiles();
+        if (ups.isEmpty()) writeMessage(gen, eres);
+        else JsonUtil.getUserWriter().writeValue(gen, new UserProfileDTO(ups.get(0)));
+    }
+
+    /**
+     * Writes {"message": ..., "outcomes": {"7": "RESOLVED", "9": "NOT_FOUND", ...}}
+     *
+     * @param gen
+     * @param eres
+     * @throws IOException
+     */
+    void writeBulkOutcomes(JsonGenerator gen, ERSResponse eres) throws IOException {
+
+        gen.writeStartObject();
+        gen.writeStringField("message", eres.getMessage());
+        gen.writeObjectFieldStart("outcomes");
+        for (Map.Entry<Integer, BulkOutcome> e : eres.getBulkOutcomes().entrySet()){
+            gen.writeStringField(e.getKey().toString(), e.getValue().name());
+        }
+        gen.writeEndObject();
+        gen.writeEndObject();
+    }
+
+    /**
+     * Writes {"loadedAt": ..., "totals": {...}, "byAuthor": {"3": {...}, ...}}, where
+     * each set of totals looks like
+     * {"PENDING": {"FOOD": {"count": 2, "moneyAmount": 1250}, ...}, ...}
+     *
+     * @param gen
+     * @param eres
+     * @throws IOException
+     */
+    void writeDashboardTotals(JsonGenerator gen, ERSResponse eres) throws IOException {
+
+        Dashboard dashboard = eres.getDashboard();
+        gen.writeStartObject();
+        gen.writeStringField("loadedAt", dashboard.getLoadedAt().toString());
+        gen.writeFieldName("totals");
+        writeTotals(gen, dashboard.getOverall());
+        gen.writeObjectFieldStart("byAuthor");
+        for (Map.Entry<Integer, DashboardTotals> e : dashboard.getByAuthor().entrySet()){
+            gen.writeFieldName(e.getKey().toString());
+            writeTotals(gen, e.getValue());
+        }
+        gen.writeEndObject();
+        gen.writeEndObject();
+    }
+
+    void writeMessage(JsonGenerator gen, ERSResponse eres) throws IOException {
+
+        gen.writeStartObject();
+        gen.writeStringField("message", eres.getMessage());
+        gen.writeEndObject();
+    }
+
+    private void writeError(
+            HttpServletResponse response, ERSResponseType type, String message)
+            throws IOException {
+
+        writeJson(response, toHttpStatus(type),
+                gen -> writeErrorBody(gen, type, message));
+    }
+
+    private void writeErrorBody(JsonGenerator gen, ERSResponseType type, String message)
+            throws IOException {
+
+        gen.writeStartObject();
+        gen.writeStringField("error", type.name());
+        gen.writeStringField("message", message);
+        gen.writeEndObject();
+    }
+
+    private void writeTotals(JsonGenerator gen, DashboardTotals totals)
+            throws IOException {
+
+        gen.writeStartObject();
+        for (ReimbursementStatus status : ReimbursementStatus.values()){
+            if (status == ReimbursementStatus.NONE) continue;
+            gen.writeObjectFieldStart(status.name());
+            for (ReimbursementType type : ReimbursementType.values()){
+                if (type == ReimbursementType.NONE) continue;
+                gen.writeObjectFieldStart(type.name());
+                gen.writeNumberField("count", totals.getCount(status, type));
+                gen.writeNumberField("moneyAmount", totals.getAmount(status, type));
+                gen.writeEndObject();
+            }
+            gen.writeEndObject();
+        }
+        gen.writeEndObject();
+    }
+
+    private void writeNotFound(HttpServletResponse response) throws IOException {
+
+        writeJson(response, HttpServletResponse.SC_NOT_FOUND,
+                gen -> writeErrorBody(gen, ERSResponseType.NONE, "No such endpoint."));
+    }
+
+    private void writeBadStatus(HttpServletResponse response) throws IOException {
+
+        writeError(response, ERSResponseType.INVALID_PARAMETER,
+                "status must be 'pending' or 'resolved'.");
+    }
+
+    /**
+     * Sets the status and content type, then lets body write to a generator that goes
+     * straight to the response.
+     *
+     * @param response
+     * @param status
+     * @param body
+     * @throws IOException
+     */
+    private void writeJson(
+            HttpServletResponse response,
+            int status,
+            GeneratorConsumer body) throws IOException {
+
+        response.setStatus(status);
+        response.setContentType(JsonUtil.CONTENT_TYPE);
+        response.setHeader("Cache-Control", "no-store");
+        try (JsonGenerator gen = JsonUtil.getMapper().getFactory()
+                .createGenerator(response.getWriter())){
+            body.accept(gen);
+        }
+    }
+
+    /**
+     * Maps each failure type to the closest http status code. ExportServlet uses it too.
+     *
+     * @param type
+     * @return
+     */
+    public static int toHttpStatus(ERSResponseType type){
+
+        switch (type){
+            case SUCCESS:
+                return HttpServletResponse.SC_OK;
+            case FORBIDDEN:
+                return HttpServletResponse.SC_FORBIDDEN;
+            case INVALID_PARAMETER:
+            case MALFORMED_REQUEST:
+                return HttpServletResponse.SC_BAD_REQUEST;
+            case CONFLICT:
+                return HttpServletResponse.SC_CONFLICT;
+            case TOO_MANY_REQUESTS:
+                return SC_TOO_MANY_REQUESTS;
+            case DATABASE_ERROR:
+            default:
+                return HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+        }
+    }
+
+    // ---------------------------
+    // helpers
+    // ---------------------------
+
+    /**
+     * Makes a request of the given type, with the paging parameters copied over. Like
+     * the html pages, a list without a page size gets DEFAULT_PAGE_SIZE.
+     *
+     * @param type
+     * @param request
+     * @return
+     */
+    ERSRequest makeListRequest(ERSRequestType type, HttpServletRequest request){
+
+        ERSRequest ereq = makeERSRequest(type, request);
+        putPageParameters(ereq, request);
+        return ereq;
+    }
+
+    /**
+     * Picks the pending or resolved type, based on the status parameter (pending if it's
+     * missing). Returns null if it's something else.
+     *
+     * @param request
+     * @param pending
+     * @param resolved
+     * @return
+     */
+    private ERSRequestType pickByStatus(
+            HttpServletRequest request,
+            ERSRequestType pending,
+            ERSRequestType resolved){
+
+        String status = request.getParameter(STATUS_PARAM);
+        if (isStringBlank(status) || status.equalsIgnoreCase("pending")) return pending;
+        if (status.equalsIgnoreCase("resolved")) return resolved;
+        return null;
+    }
+
+    /**
+     * Parses the request body as a JSON object. If it isn't one, writes a 400 and returns
+     * null.
+     *
+     * @param request
+     * @param response
+     * @return
+     * @throws IOException
+     */
+    private JsonNode readBody(HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+
+        JsonNode body = null;
+        try{
+            body = JsonUtil.getMapper().readTree(request.getReader());
+        }
+        catch (JsonProcessingException e){
+            // handled below
+        }
+        if (body == null || !body.isObject()){
+            writeError(response, ERSResponseType.MALFORMED_REQUEST,
+                    "The request body must be a JSON object.");
+            return null;
+        }
+        return body;
+    }
+
+    /**
+     * Returns the given field as a String, or null if it's missing or not a plain value.
+     *
+     * @param body
+     * @param field
+     * @return
+     */
+    private String getText(JsonNode body, String field){
+
+        JsonNode node = body.get(field);
+        return (node == null || !node.isValueNode() || node.isNull())
+                ? null : node.asText();
+    }
+
+    /**
+     * Splits eg "/requests/12/approve" into {"requests", "12", "approve"}. Empty parts
+     * (from a trailing slash, say) are dropped.
+     *
+     * @param pathInfo
+     * @return
+     */
+    static String[] splitPath(String pathInfo){
+
+        if (pathInfo == null) return new String[0];
+        return Arrays.stream(pathInfo.split("/"))
+                .filter(part -> !part.isEmpty())
+                .toArray(String[]::new);
+    }
+
+    /**
+     * True if the path is exactly the given parts; a null part matches anything.
+     *
+     * @param path
+     * @param parts
+     * @return
+     */
+    static boolean matches(String[] path, String... parts){
+
+        if (path.length != parts.length) return false;
+        for (int i = 0; i < parts.length; i++){
+            if (parts[i] != null && !parts[i].equals(path[i])) return false;
+        }
+        return true;
+    }
+
+    private boolean isID(String s){
+        return !isStringBlank(s) && s.length() < 10
+                && s.chars().allMatch(Character::isDigit);
+    }
+}
@@ -0,0 +1,61 @@
+/**
+ * Holds the one ObjectMapper the JSON API uses. An ObjectMapper is thread safe once it's
+ * configured, and it caches what it learns about each class, so making a new one per
+ * request would throw that work away every time.
+ *
+ * @author Andrew Curry
+ */
+package com.revature.servlets.api;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+public class JsonUtil {
+
+    // constants
+    public static final String CONTENT_TYPE = "application/json; charset=utf-8";
+
+    // class / static variables
+    private static final ObjectMapper mapper = new ObjectMapper()
+            // eg a req that hasn't been resolved just has no timeResolved
+            .setSerializationInclusion(JsonInclude.Include.NON_NULL)
+            // list endpoints write many values to one generator; flushing after each
+            // one would mean a tiny network write per row
+            .disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+            // the servlet container closes the response, not us
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+            // newer clients can send fields we don't know about yet
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    private static final ObjectWriter reimbursementWriter 
+            = mapper.writerFor(ReimbursementRequestDTO.class);
+    private static final ObjectWriter userWriter 
+            = mapper.writerFor(UserProfileDTO.class);
+
+    // methods
+
+    /**
+     * @return the shared, already configured mapper
+     */
+    public static ObjectMapper getMapper(){
+        return mapper;
+    }
+
+    /**
+     * @return a writer for ReimbursementRequestDTOs, serializer already looked up
+     */
+    public static ObjectWriter getReimbursementWriter(){
+        return reimbursementWriter;
+    }
+
+    /**
+     * @return a writer for UserProfileDTOs, serializer already looked up
+     */
+    public static ObjectWriter getUserWriter(){
+        return userWriter;
+    }
+}
@@ -0,0 +1,84 @@
+/**
+ * What the JSON API sends for one reimb-req: just the values, flattened (the author is
+ * only an ID), with times as ISO-8601 strings and the money amount in cents.
+ *
+ * @author Andrew Curry
+ */
+package com.revature.servlets.api;
+
+import java.time.LocalDateTime;
+
+import com.revature.model.ReimbursementRequest;
+
+public class ReimbursementRequestDTO {
+
+    // instance variables
+    private final int id;
+    private final int authorId;
+    private final String type;
+    private final long moneyAmount; // cents
+    private final String status;
+    private final String description;
+    private final String timeSubmitted;
+    private final Integer resolverId; // null until resolved
+    private final String timeResolved; // same
+
+    // constructor(s)
+
+    public ReimbursementRequestDTO(ReimbursementRequest rr){
+
+        this.id = rr.getID();
+        this.authorId = rr.getAuthorID();
+        this.type = String.valueOf(rr.getType());
+        this.moneyAmount = rr.getMoneyAmount();
+        this.status = String.valueOf(rr.getStatus());
+        this.description = rr.getDescription();
+        this.timeSubmitted = toString(rr.getTimeSubmitted());
+        this.resolverId = (rr.getResolverID() > 0) ? rr.getResolverID() : null;
+        this.timeResolved = toString(rr.getTimeResolved());
+    }
+
+    // getters (used by jackson)
+
+    public int getId() {
+        return this.id;
+    }
+
+    public int getAuthorId() {
+        return this.authorId;
+    }
+
+    public String getType() {
+        return this.type;
+    }
+
+    public long getMoneyAmount() {
+        return this.moneyAmount;
+    }
+
+    public String getStatus() {
+        return this.status;
+    }
+
+    public String getDescription() {
+        return this.description;
+    }
+
+    public String getTimeSubmitted() {
+        return this.timeSubmitted;
+    }
+
+    public Integer getResolverId() {
+        return this.resolverId;
+    }
+
+    public String getTimeResolved() {
+        return this.timeResolved;
+    }
+
+    // helpers
+
+    private static String toString(LocalDateTime time){
+        return (time == null) ? null : time.toString();
+    }
+}
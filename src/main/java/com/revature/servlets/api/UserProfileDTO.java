@@ -0,0 +1,58 @@
+/**
+ * What the JSON API sends for one user profile. Leaves out anything to do with
+ * passwords or the version number.
+ *
+ * @author Andrew Curry
+ */
+package com.revature.servlets.api;
+
+import com.revature.model.UserProfile;
+
+public class UserProfileDTO {
+
+    // instance variables
+    private final int id;
+    private final String role;
+    private final String username;
+    private final String firstName;
+    private final String lastName;
+    private final String emailAddress;
+
+    // constructor(s)
+
+    public UserProfileDTO(UserProfile up){
+
+        this.id = up.getID();
+        this.role = String.valueOf(up.getRole());
+        this.username = up.getUsername();
+        this.firstName = up.getFirstName();
+        this.lastName = up.getLastName();
+        this.emailAddress = up.getEmailAddress();
+    }
+
+    // getters (used by jackson)
+
+    public int getId() {
+        return this.id;
+    }
+
+    public String getRole() {
+        return this.role;
+    }
+
+    public String getUsername() {
+        return this.username;
+    }
+
+    public String getFirstName() {
+        return this.firstName;
+    }
+
+    public String getLastName() {
+        return this.lastName;
+    }
+
+    public String getEmailAddress() {
+        return this.emailAddress;
+    }
+}
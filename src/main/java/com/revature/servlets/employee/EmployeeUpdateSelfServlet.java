@@ -40,9 +40,7 @@ public class EmployeeUpdateSelfServlet extends ERSServlet {
             return;
         }
 
-        request.getRequestDispatcher("employee_update_self.html").forward(
-                request, 
-                response);
+        servePage(request, response, "employee_update_self.html");
     }
 
     /**
@@ -40,18 +40,19 @@ public class EmployeeViewPendingServlet extends ERSServlet {
             return;
         }
 
+        if (isListNotModified(request, response)) return; // nothing has changed
+
         ERSRequest ereq = makeERSRequest(ERSRequestType.EMPLOYEE_VIEW_PENDING, request.getSession());
         ERSResponse eres = getResponse(ereq);
 
         if (isFailure(eres)){
-            handleProblem(response, request.getSession(), eres.getMessage(), "menu");
+            handleProblem(response, request, eres.getMessage(), "menu");
             return;
         }
 
-        String table 
-                = makeTableFromReimbursementRequests(eres.getReturnedReimbursementRequests());
-        
-        handleSuccess(response, request.getSession(), table, "menu");
+        // written straight to the response, rather than stored in the session
+        renderResult(response, out -> writeTableFromReimbursementRequests(
+                out, eres.getReturnedReimbursementRequests()), "menu");
     }
 
     
@@ -44,12 +44,12 @@ public class EmployeeViewSelfServlet extends ERSServlet {
         ERSResponse eres = getResponse(ereq);
 
         if (isFailure(eres)) {
-            handleProblem(response, request.getSession(), eres.getMessage(), "menu");
+            handleProblem(response, request, eres.getMessage(), "menu");
             return;
         }
 
-        String table = makeTableFromUserProfiles(eres.getReturnedUserProfiles());
-
-        handleSuccess(response, request.getSession(), table, "menu");
+        renderResult(response, 
+                out -> writeTableFromUserProfiles(out, eres.getReturnedUserProfiles()), 
+                "menu");
     }
 }
@@ -39,7 +39,7 @@ public class SubmitRequestServlet extends ERSServlet {
             return;
         }
 
-        request.getRequestDispatcher("submit_request.html").forward(request, response);
+        servePage(request, response, "submit_request.html");
     }
 
     /**
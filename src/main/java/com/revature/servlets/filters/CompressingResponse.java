@@ -0,0 +1,337 @@
+/**
+ * The response wrapper used by CompressionFilter. The body is held back until either
+ * the threshold is reached (then it's gzipped from there on) or the servlet is done
+ * (then it's sent as-is, since it's small). If the content type isn't one that's worth
+ * compressing, the body goes straight through from the first byte, so streamed
+ * responses aren't held up. The same goes for a servlet that switches to non-blocking
+ * writes (setWriteListener): those can't be held back or gzipped here.
+ *
+ * @author Andrew Curry
+ */
+package com.revature.servlets.filters;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.Locale;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+class CompressingResponse extends HttpServletResponseWrapper {
+
+    // constants
+    private static final int GZIP_BUFFER_SIZE = 8192;
+
+    /**
+     * What the body is doing: still being held back, going out unchanged, or going out
+     * gzipped.
+     */
+    private enum Mode{
+        UNDECIDED, PLAIN, GZIP
+    }
+
+    // instance variables
+    private final HttpServletResponse original;
+    private final int threshold;
+    private final Set<String> contentTypes;
+
+    private Mode mode = Mode.UNDECIDED;
+    private final ByteArrayOutputStream held = new ByteArrayOutputStream();
+    private ServletOutputStream target; // once decided: plain or gzip
+    private GZIPOutputStream gzip; // only in GZIP mode
+    private long contentLength = -1; // as set by the servlet, passed on if PLAIN
+
+    private BodyStream stream;
+    private PrintWriter writer;
+    private boolean discarding; // while throwing away what the writer still has buffered
+
+    // constructor(s)
+
+    CompressingResponse(
+            HttpServletResponse original, int threshold, Set<String> contentTypes){
+
+        super(original);
+        this.original = original;
+        this.threshold = threshold;
+        this.contentTypes = contentTypes;
+    }
+
+    // methods
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException{
+
+        if (writer != null) throw new IllegalStateException("getWriter() already called");
+        if (stream == null) stream = new BodyStream();
+        return stream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException{
+
+        if (writer == null){
+            if (stream != null)
+                throw new IllegalStateException("getOutputStream() already called");
+            stream = new BodyStream();
+            writer = new PrintWriter(
+                    new OutputStreamWriter(stream, getCharacterEncoding()));
+        }
+        return writer;
+    }
+
+    @Override
+    public void setContentLength(int len){
+        setContentLengthLong(len);
+    }
+
+    @Override
+    public void setContentLengthLong(long len){
+
+        // the compressed length isn't known ahead of time
+        if (mode == Mode.PLAIN) super.setContentLengthLong(len);
+        else contentLength = len;
+    }
+
+    @Override
+    public void flushBuffer() throws IOException{
+
+        if (writer != null) writer.flush();
+        if (mode == Mode.UNDECIDED && held.size() > 0) decide(true);
+        if (stream != null) stream.flush();
+        super.flushBuffer();
+    }
+
+    /**
+     * Starts the body (and headers) over, including the choice of plain or gzip, since
+     * the new body may be a different type.
+     */
+    @Override
+    public void reset(){
+
+        super.reset(); // throws if anything has really been sent
+        discardPending();
+        held.reset();
+        contentLength = -1;
+        mode = Mode.UNDECIDED;
+        target = null;
+        gzip = null; // whatever it had buffered went with the container's buffer
+    }
+
+    /**
+     * Starts the body over. The headers stay, so if it was being gzipped it still is,
+     * but in a brand new gzip stream.
+     */
+    @Override
+    public void resetBuffer(){
+
+        super.resetBuffer(); // throws if anything has really been sent
+        discardPending();
+        held.reset();
+        if (gzip != null){
+            try{
+                gzip = new GZIPOutputStream(target, GZIP_BUFFER_SIZE, true);
+            }
+            catch(IOException e){
+                // only writes the gzip header into the (just emptied) buffer
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    @Override
+    public void sendError(int sc, String msg) throws IOException{
+
+        held.reset(); // the error page replaces whatever was written
+        mode = Mode.PLAIN;
+        super.sendError(sc, msg);
+    }
+
+    @Override
+    public void sendError(int sc) throws IOException{
+
+        held.reset();
+        mode = Mode.PLAIN;
+        super.sendError(sc);
+    }
+
+    @Override
+    public void sendRedirect(String location) throws IOException{
+
+        held.reset();
+        mode = Mode.PLAIN;
+        super.sendRedirect(location);
+    }
+
+    /**
+     * Sends whatever is still held back (as-is, since it never reached the threshold),
+     * or finishes the gzip stream. Called by the filter once the servlet is done.
+     *
+     * @throws IOException
+     */
+    void finish() throws IOException{
+
+        if (writer != null) writer.flush();
+        if (mode == Mode.UNDECIDED){
+            if (held.size() == 0) return; // eg a redirect or a 304
+            if (contentLength < 0) contentLength = held.size(); // that's all of it
+            decide(false);
+        }
+        if (gzip != null) gzip.finish();
+        if (target != null) target.flush();
+    }
+
+    // helpers
+
+    /**
+     * Throws away anything the writer still has buffered (chars it hasn't encoded and
+     * passed on yet), so it doesn't come out after a reset.
+     */
+    private void discardPending(){
+
+        if (writer == null) return;
+        discarding = true;
+        try{
+            writer.flush();
+        }
+        finally{
+            discarding = false;
+        }
+    }
+
+    /**
+     * Picks PLAIN or GZIP and sends anything held back.
+     *
+     * @param compress : true to gzip (if the content type allows it)
+     * @throws IOException
+     */
+    private void decide(boolean compress) throws IOException{
+
+        boolean compressible = isCompressible();
+        if (compressible) original.addHeader("Vary", "Accept-Encoding");
+
+        target = original.getOutputStream();
+        if (compress && compressible){
+            mode = Mode.GZIP;
+            original.setHeader("Content-Encoding", "gzip");
+            // an ETag names the bytes that were sent, which are now different
+            String etag = original.getHeader("ETag");
+            if (etag != null && !etag.startsWith("W/"))
+                original.setHeader("ETag", "W/" + etag);
+            gzip = new GZIPOutputStream(target, GZIP_BUFFER_SIZE, true);
+        }
+        else{
+            mode = Mode.PLAIN;
+            if (contentLength >= 0) super.setContentLengthLong(contentLength);
+        }
+
+        if (held.size() > 0){
+            if (gzip != null) held.writeTo(gzip);
+            else held.writeTo(target);
+            held.reset();
+        }
+    }
+
+    /**
+     * True if the content type is on the allow-list and the body isn't already encoded.
+     *
+     * @return
+     */
+    private boolean isCompressible(){
+
+        if (original.getHeader("Content-Encoding") != null) return false;
+        String type = getContentType();
+        if (type == null) return false;
+        int semicolon = type.indexOf(';');
+        if (semicolon >= 0) type = type.substring(0, semicolon);
+        return contentTypes.contains(type.trim().toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * What the servlet writes to. Holds bytes back until there are enough to be worth
+     * compressing, then writes to the plain or gzip stream.
+     */
+    private class BodyStream extends ServletOutputStream {
+
+        @Override
+        public void write(int b) throws IOException{
+
+            if (discarding) return;
+            if (mode == Mode.UNDECIDED && !isCompressible()) decide(false);
+            if (mode == Mode.UNDECIDED){
+                held.write(b);
+                if (held.size() >= threshold) decide(true);
+            }
+            else if (gzip != null) gzip.write(b);
+            else if (target != null) target.write(b); // null after an error/redirect
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException{
+
+            if (discarding) return;
+            if (mode == Mode.UNDECIDED && !isCompressible()) decide(false);
+            if (mode == Mode.UNDECIDED){
+                held.write(b, off, len);
+                if (held.size() >= threshold) decide(true);
+            }
+            else if (gzip != null) gzip.write(b, off, len);
+            else if (target != null) target.write(b, off, len);
+        }
+
+        /**
+         * While undecided, there's nothing to flush yet; the body is probably still
+         * being written.
+         */
+        @Override
+        public void flush() throws IOException{
+
+            if (discarding) return;
+            if (gzip != null) gzip.flush(); // a sync flush, so it really goes out
+            else if (target != null) target.flush();
+        }
+
+        @Override
+        public void close() throws IOException{
+            finish();
+        }
+
+        /**
+         * Only meaningful once writes go straight through (see setWriteListener);
+         * until then, writes never block on the client.
+         */
+        @Override
+        public boolean isReady(){
+            return (mode == Mode.PLAIN && target != null) ? target.isReady() : true;
+        }
+
+        /**
+         * Switches to non-blocking writes. Nothing can be held back or gzipped after
+         * that, so the body goes out plain from here on, straight to the container's
+         * stream.
+         *
+         * @param listener
+         * @throws IllegalStateException if the body is already being gzipped
+         */
+        @Override
+        public void setWriteListener(WriteListener listener){
+
+            try{
+                if (mode == Mode.UNDECIDED) decide(false);
+            }
+            catch(IOException e){
+                throw new IllegalStateException(e);
+            }
+            if (mode == Mode.GZIP)
+                throw new IllegalStateException("already writing a gzipped body");
+            if (target == null) // after an error/redirect
+                throw new IllegalStateException("the response has already been sent");
+            target.setWriteListener(listener);
+        }
+    }
+}
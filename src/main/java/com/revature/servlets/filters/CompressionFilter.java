@@ -0,0 +1,144 @@
+/**
+ * Gzips responses for browsers that accept it, which makes a big difference for the
+ * manager list pages: large html tables are mostly the same few tags over and over, and
+ * often go over a slow VPN.
+ *
+ * Only responses whose content type is on the allow-list are compressed (images, gzip
+ * downloads and event streams would gain nothing, or would be held up). Anything shorter
+ * than the threshold is sent as-is, since it's already tiny and gzip has its own
+ * overhead. The threshold and the allow-list can be changed with the filter's
+ * init-params in web.xml.
+ *
+ * (Only gzip: the JDK has no Brotli encoder.)
+ *
+ * @author Andrew Curry
+ */
+package com.revature.servlets.filters;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+public class CompressionFilter implements Filter {
+
+    // constants
+    public static final String THRESHOLD_PARAM = "threshold";
+    public static final String CONTENT_TYPES_PARAM = "contentTypes";
+    public static final int DEFAULT_THRESHOLD = 1024; // bytes
+    public static final String DEFAULT_CONTENT_TYPES = "text/html,text/css,text/plain,"
+            + "text/csv,text/javascript,application/javascript,application/json,"
+            + "application/x-ndjson,image/svg+xml";
+
+    // instance variables
+    private int threshold = DEFAULT_THRESHOLD;
+    private Set<String> contentTypes = parseContentTypes(DEFAULT_CONTENT_TYPES);
+
+    // methods
+
+    @Override
+    public void init(FilterConfig config) throws ServletException{
+
+        String thresholdParam = config.getInitParameter(THRESHOLD_PARAM);
+        if (thresholdParam != null) threshold = Integer.parseInt(thresholdParam.trim());
+        String typesParam = config.getInitParameter(CONTENT_TYPES_PARAM);
+        if (typesParam != null) contentTypes = parseContentTypes(typesParam);
+    }
+
+    /**
+     * Wraps the response so that its body is compressed (if it turns out to be worth
+     * it), then finishes the compressed stream once the servlet is done.
+     *
+     * @param req
+     * @param res
+     * @param chain
+     * @throws IOException, ServletException
+     */
+    @Override
+    public void doFilter(ServletRequest req, ServletResponse res, FilterChain chain)
+            throws IOException, ServletException{
+
+        HttpServletRequest request = (HttpServletRequest)req;
+        HttpServletResponse response = (HttpServletResponse)res;
+        if ("HEAD".equals(request.getMethod())
+                || !acceptsGzip(request.getHeader("Accept-Encoding"))){
+            chain.doFilter(request, response);
+            return;
+        }
+
+        CompressingResponse wrapped
+                = new CompressingResponse(response, threshold, contentTypes);
+        chain.doFilter(request, wrapped);
+
+        if (request.isAsyncStarted()){
+            // still being written to (eg an event stream); finish once it's done
+            request.getAsyncContext().addListener(new AsyncListener(){
+                @Override
+                public void onComplete(AsyncEvent event) throws IOException{
+                    wrapped.finish();
+                }
+                @Override
+                public void onTimeout(AsyncEvent event){}
+                @Override
+                public void onError(AsyncEvent event){}
+                @Override
+                public void onStartAsync(AsyncEvent event){}
+            });
+        }
+        else wrapped.finish();
+    }
+
+    @Override
+    public void destroy(){
+        // nothing to clean up
+    }
+
+    // helpers
+
+    /**
+     * True if the given Accept-Encoding header allows gzip, ie lists it (or *) without
+     * q=0.
+     *
+     * @param acceptEncoding : may be null
+     * @return
+     */
+    static boolean acceptsGzip(String acceptEncoding){
+
+        if (acceptEncoding == null) return false;
+        for (String part : acceptEncoding.split(",")){
+            String[] pieces = part.trim().split(";");
+            String coding = pieces[0].trim().toLowerCase(Locale.ROOT);
+            if (!coding.equals("gzip") && !coding.equals("*")) continue;
+
+            boolean refused = false;
+            for (int i = 1; i < pieces.length; i++){
+                String param = pieces[i].trim().replace(" ", "");
+                refused = refused || param.matches("q=0(\\.0*)?");
+            }
+            if (!refused) return true;
+        }
+        return false;
+    }
+
+    private static Set<String> parseContentTypes(String list){
+
+        Set<String> types = new HashSet<>();
+        for (String type : Arrays.asList(list.split(","))){
+            if (!type.trim().isEmpty()) types.add(type.trim().toLowerCase(Locale.ROOT));
+        }
+        return Collections.unmodifiableSet(types);
+    }
+}
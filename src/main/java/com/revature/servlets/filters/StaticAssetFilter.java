@@ -0,0 +1,70 @@
+/**
+ * Sets the caching headers for static files (eg css/styles.css). A request for the
+ * current version of a file (?v=<its fingerprint>, as put in the pages by StaticAssets)
+ * can be kept by the browser for a year without asking again, since any change to the
+ * file changes the link. Anything else has to be checked with the server each time,
+ * which the container answers with a 304 if the file hasn't changed.
+ *
+ * While templates are being reloaded (the templateReload context-param), nothing is
+ * cached for long, since the files are probably being edited.
+ *
+ * @author Andrew Curry
+ */
+package com.revature.servlets.filters;
+
+import java.io.IOException;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.revature.servlets.StaticAssets;
+import com.revature.servlets.TemplateCache;
+
+public class StaticAssetFilter implements Filter {
+
+    // constants
+    public static final String IMMUTABLE = "public, max-age=31536000, immutable";
+    public static final String REVALIDATE = "no-cache";
+
+    // instance variables
+    private ServletContext context;
+    private boolean reloading;
+
+    // methods
+
+    @Override
+    public void init(FilterConfig config) throws ServletException{
+
+        context = config.getServletContext();
+        reloading = Boolean.parseBoolean(
+                context.getInitParameter(TemplateCache.RELOAD_PARAM));
+    }
+
+    @Override
+    public void doFilter(ServletRequest req, ServletResponse res, FilterChain chain)
+            throws IOException, ServletException{
+
+        HttpServletRequest request = (HttpServletRequest)req;
+        HttpServletResponse response = (HttpServletResponse)res;
+
+        String version = request.getParameter(StaticAssets.VERSION_PARAM);
+        String path = request.getServletPath().substring(1); // drop the leading /
+        boolean current = !reloading && version != null
+                && version.equals(StaticAssets.getFingerprint(context, path));
+        response.setHeader("Cache-Control", current ? IMMUTABLE : REVALIDATE);
+
+        chain.doFilter(request, response);
+    }
+
+    @Override
+    public void destroy(){
+        // nothing to clean up
+    }
+}
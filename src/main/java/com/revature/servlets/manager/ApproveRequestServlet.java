@@ -39,7 +39,7 @@ public class ApproveRequestServlet extends ERSServlet {
             return;
         }
 
-        request.getRequestDispatcher("approve_request.html").forward(request, response);
+        servePage(request, response, "approve_request.html");
     }
 
     /**
@@ -0,0 +1,109 @@
+/**
+ * Handles a manager approving or denying several requests at once, from the checkboxes
+ * on the view-all-pending page.
+ */
+package com.revature.servlets.manager;
+
+import java.io.IOException;
+import java.util.StringJoiner;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.revature.model.UserProfile.UserRole;
+import com.revature.service.comms.ERSRequest;
+import com.revature.service.comms.ERSResponse;
+import com.revature.service.comms.ERSRequest.ERSRequestType;
+import com.revature.servlets.ERSServlet;
+
+public class BulkResolveServlet extends ERSServlet {
+
+    private static final long serialVersionUID = 0L;
+
+    // the values of the two submit buttons (see ViewAllPendingServlet)
+    public static final String APPROVE_ACTION = "Approve Selected";
+    public static final String DENY_ACTION = "Deny Selected";
+
+    public BulkResolveServlet() {
+        super();
+    }
+
+    /**
+     * There's no page of its own; the form is on the view-all-pending page.
+     *
+     * @param request
+     * @param response
+     * @throws ServletException, IOException
+     */
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+
+        if (getCurrentUserRole(request) != UserRole.MANAGER) {
+            redirectToMenu(response);
+            return;
+        }
+
+        response.sendRedirect("view_all_pending");
+    }
+
+    /**
+     * Validate the checked ID numbers and carry out the actual action. The result page
+     * says what happened to each of them.
+     *
+     * @param request
+     * @param response
+     * @throws ServletException, IOException
+     */
+    @Override
+    protected void doPost(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+
+        if (getCurrentUserRole(request) != UserRole.MANAGER) {
+            redirectToMenu(response);
+            return;
+        }
+
+        String action = request.getParameter("action");
+        ERSRequestType type;
+        if (APPROVE_ACTION.equals(action)) type = ERSRequestType.BULK_APPROVE_REQUEST;
+        else if (DENY_ACTION.equals(action)) type = ERSRequestType.BULK_DENY_REQUEST;
+        else{
+            handleProblem(response, request, "unknown action", "view_all_pending");
+            return;
+        }
+
+        String[] idStrings = request.getParameterValues("reimbID");
+        if (idStrings == null || idStrings.length == 0){
+            handleProblem(response, request,
+                    "No reimbursement requests were selected.", "view_all_pending");
+            return;
+        }
+
+        StringJoiner ids = new StringJoiner(",");
+        for (String idString : idStrings){
+            if (!isStringBlank(idString) && isIDStringValid(idString))
+                ids.add(cleanIDString(idString));
+            else{
+                handleProblem(response, request, "invalid format for ID#",
+                        "view_all_pending");
+                return;
+            }
+        }
+
+        // good to make the actual request
+        ERSRequest ereq = makeERSRequest(type, request);
+        ereq.putParameter(ERSRequest.REIMBURSEMENT_IDS_KEY, ids.toString());
+        ERSResponse eres = getResponse(ereq);
+
+        // handle results
+        if (isFailure(eres)){
+            handleProblem(response, request, eres.getMessage(), "view_all_pending");
+            return;
+        }
+
+        // the message says which ones didn't go through
+        handleSuccess(response, request, eres.getMessage(), "view_all_pending");
+    }
+}
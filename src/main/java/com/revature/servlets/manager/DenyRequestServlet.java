@@ -39,7 +39,7 @@ public class DenyRequestServlet extends ERSServlet {
             return;
         }
 
-        request.getRequestDispatcher("deny_request.html").forward(request, response);
+        servePage(request, response, "deny_request.html");
     }
 
     /**
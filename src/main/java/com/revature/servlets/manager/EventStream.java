@@ -0,0 +1,287 @@
+/**
+ * One manager's connection to the pending events stream (see PendingEventsServlet).
+ *
+ * Events are put in a small queue on the thread that published them, and written out on
+ * one of the servlet's own threads, so a slow connection never holds up an approve or a
+ * submit. The output is non-blocking (a WriteListener): nothing is written unless the
+ * connection is ready for it, and the container calls back once it is again, so a slow
+ * connection can't hold up the writer threads or the heartbeat either. If the queue
+ * fills up (the connection has fallen too far behind), everything in it is dropped and
+ * the browser gets a single "reset" event instead, telling it that its list is out of
+ * date. That way a stuck client can only ever cost a queue's worth of memory, and if
+ * one heartbeat still hasn't gone out by the next, the stream is closed.
+ *
+ * @author Andrew Curry
+ */
+package com.revature.servlets.manager;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+
+import com.revature.service.events.ReimbursementEvent;
+import com.revature.service.events.ReimbursementEventListener;
+import com.revature.service.events.Subscription;
+import com.revature.servlets.api.JsonUtil;
+
+class EventStream implements ReimbursementEventListener {
+
+    // constants
+    static final String SUBMITTED_EVENT = "submitted";
+    static final String RESOLVED_EVENT = "resolved";
+    static final String RESET_EVENT = "reset";
+    static final String HEARTBEAT = ": ping\n\n"; // a comment, ignored by the browser
+    private static final int RETRY_MILLIS = 5000; // how soon the browser reconnects
+
+    // instance variables
+    private final BlockingQueue<ReimbursementEvent> queue;
+    private final Executor executor;
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    private volatile boolean missed; // events were dropped, or couldn't be replayed
+    private volatile boolean heartbeatDue; // cleared by anything getting written
+    private volatile boolean started;
+    private volatile boolean closed;
+
+    // set by start(); only written to while holding the lock
+    private AsyncContext async;
+    private ServletOutputStream out;
+    private String preamble; // written before any event
+    private Subscription subscription;
+    private Runnable onClose;
+
+    // constructor(s)
+
+    /**
+     * @param capacity : how many events can be waiting to be written
+     * @param executor : where the writing is done
+     */
+    EventStream(int capacity, Executor executor){
+
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.executor = executor;
+    }
+
+    // methods
+
+    /**
+     * Starts writing to the given (already started) async request, switching its output
+     * to non-blocking. Events that came in before this are written first.
+     *
+     * @param async
+     * @param subscription : cancelled when the stream closes
+     * @param onClose : run when the stream closes
+     * @throws IOException
+     */
+    void start(AsyncContext async, Subscription subscription, Runnable onClose) 
+            throws IOException{
+
+        synchronized (this){
+            this.async = async;
+            this.subscription = subscription;
+            this.onClose = onClose;
+            async.addListener(new AsyncListener(){
+                @Override
+                public void onComplete(AsyncEvent event){
+                    close();
+                }
+                @Override
+                public void onTimeout(AsyncEvent event){
+                    close(); // the browser will reconnect, with its Last-Event-ID
+                }
+                @Override
+                public void onError(AsyncEvent event){
+                    close();
+                }
+                @Override
+                public void onStartAsync(AsyncEvent event){}
+            });
+            preamble = "retry: " + RETRY_MILLIS + "\n\n";
+            out = async.getResponse().getOutputStream();
+            out.setWriteListener(new WriteListener(){
+                @Override
+                public void onWritePossible(){
+                    drain();
+                }
+                @Override
+                public void onError(Throwable t){
+                    close(); // the browser went away
+                }
+            });
+            started = true;
+        }
+        scheduleDrain();
+    }
+
+    /**
+     * Queues the event to be written. If the queue is full, the client is too far
+     * behind: it'll get a reset instead.
+     *
+     * @param event
+     */
+    @Override
+    public void onEvent(ReimbursementEvent event){
+
+        if (closed) return;
+        if (!queue.offer(event)) missed = true;
+        scheduleDrain();
+    }
+
+    @Override
+    public void eventsMissed(){
+
+        missed = true;
+        scheduleDrain();
+    }
+
+    /**
+     * Has a comment written, so that proxies don't drop the connection for being idle,
+     * and so that a browser that has gone away is noticed. Never waits on the stream: if
+     * the last heartbeat still hasn't been written, the connection is stuck, and the
+     * stream is closed instead (the browser will reconnect, with its Last-Event-ID).
+     */
+    void heartbeat(){
+
+        if (!started || closed) return;
+        if (heartbeatDue){
+            close();
+            return;
+        }
+        heartbeatDue = true;
+        scheduleDrain();
+    }
+
+    /**
+     * Stops listening, and finishes the response (if it isn't already). Safe to call
+     * more than once.
+     */
+    void close(){
+
+        synchronized (this){
+            if (closed) return;
+            closed = true;
+        }
+        queue.clear();
+        if (subscription != null) subscription.cancel();
+        if (onClose != null) onClose.run();
+        if (async != null){
+            try{
+                async.complete();
+            }
+            catch(IllegalStateException e){
+                // already completed
+            }
+        }
+    }
+
+    boolean isClosed(){
+        return closed;
+    }
+
+    /**
+     * Formats an event the way an EventSource expects it, eg
+     * id: 12
+     * event: resolved
+     * data: {"id":7,"status":"APPROVED","resolverId":4}
+     *
+     * @param event
+     * @return
+     * @throws IOException
+     */
+    static String format(ReimbursementEvent event) throws IOException{
+
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("id", event.getReimbID());
+        if (event.isSubmit()){
+            data.put("authorId", event.getAuthorID());
+            data.put("type", event.getType().name());
+            data.put("moneyAmount", event.getMoneyAmount());
+            data.put("description", event.getDescription());
+        }
+        else{
+            data.put("status", event.getStatus().name());
+            data.put("resolverId", event.getResolverID());
+        }
+
+        // the JSON is all on one line, as each data: line has to be
+        return "id: " + event.getSequence() + "\n"
+                + "event: " + (event.isSubmit() ? SUBMITTED_EVENT : RESOLVED_EVENT) + "\n"
+                + "data: " + JsonUtil.getMapper().writeValueAsString(data) + "\n\n";
+    }
+
+    // helpers
+
+    private void scheduleDrain(){
+
+        if (!started || closed || !drainScheduled.compareAndSet(false, true)) return;
+        try{
+            executor.execute(this::drain);
+        }
+        catch(RejectedExecutionException e){
+            close(); // shutting down
+        }
+    }
+
+    /**
+     * Writes out everything that's queued (or a reset, if events were missed), for as
+     * long as the connection is ready for it. Whatever is left waits for the container
+     * to call onWritePossible, so this never blocks, and the lock is only held briefly.
+     */
+    private synchronized void drain(){
+
+        drainScheduled.set(false);
+        if (closed) return;
+        try{
+            while (out.isReady()){
+                String text = nextText();
+                if (text == null){
+                    out.flush();
+                    return;
+                }
+                out.write(text.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        catch(IOException e){
+            close(); // the browser went away
+        }
+    }
+
+    /**
+     * Returns what should be written next, or null if there's nothing. Only called while
+     * holding the lock.
+     *
+     * @return
+     * @throws IOException
+     */
+    private String nextText() throws IOException{
+
+        if (preamble != null){
+            String text = preamble;
+            preamble = null;
+            return text;
+        }
+        StringBuilder text = new StringBuilder();
+        if (missed){
+            missed = false;
+            queue.clear();
+            text.append("event: " + RESET_EVENT + "\ndata: {}\n\n");
+        }
+        ReimbursementEvent event;
+        while ((event = queue.poll()) != null) text.append(format(event));
+        if (text.length() == 0 && !heartbeatDue) return null;
+        if (text.length() == 0) text.append(HEARTBEAT);
+        heartbeatDue = false; // anything written does the same job
+        return text.toString();
+    }
+}
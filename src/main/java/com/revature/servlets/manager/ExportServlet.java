@@ -0,0 +1,139 @@
+/**
+ * Lets a manager download every reimb-req (or some of them) as one file, eg for a
+ * nightly export to finance. Rows are written to the response as they're read from the
+ * database, so any number of them can be exported without running out of memory.
+ *
+ * Parameters (all optional):
+ *      format : csv (the default) or jsonl
+ *      status : all (the default), pending, or resolved
+ *      from, to : the days the reqs were submitted in, eg 2021-01-31 (both included)
+ *      gzip : if true, the file is gzipped (and named .gz)
+ *
+ * Like MetricsServlet, this is usually used by a program, so problems get a status code
+ * instead of a result page.
+ */
+package com.revature.servlets.manager;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.revature.model.UserProfile.UserRole;
+import com.revature.service.comms.ERSRequest;
+import com.revature.service.comms.ERSResponse;
+import com.revature.service.comms.ERSRequest.ERSRequestType;
+import com.revature.servlets.ERSServlet;
+import com.revature.servlets.api.ApiServlet;
+import com.revature.servlets.manager.ExportWriter.ExportFormat;
+
+public class ExportServlet extends ERSServlet {
+
+    private static final long serialVersionUID = 0L;
+
+    // constants
+    private static final int BUFFER_SIZE = 64 * 1024; // chars/bytes between writes
+    private static final String FILE_NAME = "reimbursement_requests";
+
+    public ExportServlet() {
+        super();
+    }
+
+    /**
+     * Streams the export out as the service layer reads it.
+     *
+     * @param request
+     * @param response
+     * @throws ServletException, IOException
+     */
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+
+        // don't make a session just to say no
+        if (getCurrentUserRole(request.getSession(false)) != UserRole.MANAGER) {
+            response.sendError(HttpServletResponse.SC_FORBIDDEN);
+            return;
+        }
+
+        String formatName = request.getParameter("format");
+        ExportFormat format = isStringBlank(formatName)
+                ? ExportFormat.CSV : ExportFormat.fromString(formatName);
+        if (format == null){
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST,
+                    "format must be csv or jsonl");
+            return;
+        }
+        boolean gzip = "true".equalsIgnoreCase(request.getParameter("gzip"));
+
+        ERSRequest ereq = makeERSRequest(ERSRequestType.EXPORT_REQUESTS, request);
+        copyParameter(request, "status", ereq, ERSRequest.SEARCH_STATUS_KEY);
+        copyParameter(request, "from", ereq, ERSRequest.SUBMITTED_FROM_KEY);
+        copyParameter(request, "to", ereq, ERSRequest.SUBMITTED_TO_KEY);
+
+        String fileName = FILE_NAME + "." + format.getExtension() + (gzip ? ".gz" : "");
+        response.setContentType(gzip ? "application/gzip" : format.getContentType());
+        response.setHeader("Content-Disposition",
+                "attachment; filename=\"" + fileName + "\"");
+        response.setHeader("Cache-Control", "no-store");
+
+        OutputStream os = response.getOutputStream();
+        GZIPOutputStream gzipStream = gzip ? new GZIPOutputStream(os, BUFFER_SIZE) : null;
+        Writer out = new BufferedWriter(new OutputStreamWriter(
+                gzip ? gzipStream : os, StandardCharsets.UTF_8), BUFFER_SIZE);
+        ExportWriter writer = new ExportWriter(format, out);
+        ereq.setExportSink(writer);
+
+        ERSResponse eres;
+        try{
+            eres = getResponse(ereq);
+        }
+        catch(UncheckedIOException e){
+            throw e.getCause(); // couldn't write to the client
+        }
+
+        if (isFailure(eres)){
+            // bad parameters are caught before any rows are read, so this is the usual
+            // case: nothing has been sent yet, and the header row etc can be dropped
+            if (!response.isCommitted()){
+                response.reset();
+                response.sendError(
+                        ApiServlet.toHttpStatus(eres.getType()), eres.getMessage());
+                return;
+            }
+            // part of the file is already out; make sure the download fails, rather
+            // than looking like a complete (but short) file
+            throw new ServletException("Export failed part way: " + eres.getMessage());
+        }
+
+        writer.finish();
+        if (gzipStream != null) gzipStream.finish();
+        os.flush();
+    }
+
+    // helpers
+
+    /**
+     * Copies the given http parameter into the ERSRequest (under a possibly different
+     * name), unless it's missing or blank.
+     *
+     * @param request
+     * @param name
+     * @param ereq
+     * @param key
+     */
+    private void copyParameter(
+            HttpServletRequest request, String name, ERSRequest ereq, String key){
+
+        String value = request.getParameter(name);
+        if (!isStringBlank(value)) ereq.putParameter(key, value.trim());
+    }
+}
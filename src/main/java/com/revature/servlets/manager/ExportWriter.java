@@ -0,0 +1,196 @@
+/**
+ * Writes reimb-reqs out as they come from the DAO's exportReimbursementRequests, either
+ * as CSV (for spreadsheets) or as JSON lines (one object per line, the same shape the
+ * JSON API uses). Nothing is kept after it's written, so the export takes the same memory
+ * no matter how many rows there are.
+ *
+ * @author Andrew Curry
+ */
+package com.revature.servlets.manager;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.revature.model.ReimbursementRequest;
+import com.revature.repository.DAO.interfaces.ReimbursementRequestDAO.ExportSink;
+import com.revature.servlets.api.JsonUtil;
+import com.revature.servlets.api.ReimbursementRequestDTO;
+
+public class ExportWriter implements ExportSink {
+
+    // constants
+    public static final String CSV_HEADER = "ID,AUTHOR_ID,TYPE,AMOUNT,STATUS,DESCRIPTION,"
+            + "TIME_SUBMITTED,RESOLVER_ID,TIME_RESOLVED\n";
+
+    /**
+     * The formats an export can be in.
+     */
+    public enum ExportFormat{
+
+        CSV("text/csv; charset=utf-8", "csv"),
+        JSONL("application/x-ndjson; charset=utf-8", "jsonl");
+
+        private final String contentType;
+        private final String extension;
+
+        private ExportFormat(String contentType, String extension){
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType(){
+            return contentType;
+        }
+
+        public String getExtension(){
+            return extension;
+        }
+
+        /**
+         * Returns the format with the given name (eg "csv"), ignoring case, or null if
+         * there isn't one.
+         *
+         * @param name
+         * @return
+         */
+        public static ExportFormat fromString(String name){
+
+            for (ExportFormat format : values()){
+                if (format.name().equalsIgnoreCase(name)) return format;
+            }
+            return null;
+        }
+    }
+
+    // instance variables
+    private final ExportFormat format;
+    private final Writer out;
+    private final JsonGenerator gen; // only for JSONL
+    private final StringBuilder line = new StringBuilder(); // reused for every CSV row
+
+    // constructor(s)
+
+    /**
+     * Writes the CSV header line right away, if it's a CSV export.
+     *
+     * @param format
+     * @param out : should be buffered; every row is a few small writes
+     * @throws IOException
+     */
+    public ExportWriter(ExportFormat format, Writer out) throws IOException{
+
+        this.format = format;
+        this.out = out;
+        if (format == ExportFormat.JSONL){
+            gen = JsonUtil.getMapper().getFactory().createGenerator(out);
+            gen.setRootValueSeparator(null); // we write the newlines ourselves
+        }
+        else{
+            gen = null;
+            out.write(CSV_HEADER);
+        }
+    }
+
+    // methods
+
+    /**
+     * Writes one reimb-req as one line.
+     *
+     * @param reimb
+     * @throws IOException
+     */
+    @Override
+    public void accept(ReimbursementRequest reimb) throws IOException{
+
+        if (format == ExportFormat.JSONL){
+            JsonUtil.getReimbursementWriter()
+                    .writeValue(gen, new ReimbursementRequestDTO(reimb));
+            gen.writeRaw('\n');
+            return;
+        }
+
+        line.setLength(0);
+        line.append(reimb.getID()).append(',')
+                .append(reimb.getAuthorID()).append(',')
+                .append(reimb.getType()).append(',');
+        appendDollars(line, reimb.getMoneyAmount());
+        line.append(',').append(reimb.getStatus()).append(',');
+        appendCSVField(line, reimb.getDescription());
+        line.append(',');
+        if (reimb.getTimeSubmitted() != null) line.append(reimb.getTimeSubmitted());
+        line.append(',');
+        if (reimb.getResolverID() > 0) line.append(reimb.getResolverID());
+        line.append(',');
+        if (reimb.getTimeResolved() != null) line.append(reimb.getTimeResolved());
+        line.append('\n');
+        out.append(line);
+    }
+
+    /**
+     * Pushes out anything still buffered. Doesn't close the writer.
+     *
+     * @throws IOException
+     */
+    public void finish() throws IOException{
+
+        if (gen != null) gen.flush();
+        out.flush();
+    }
+
+    // helpers
+
+    /**
+     * Appends eg 1250 cents as "12.50".
+     *
+     * @param sb
+     * @param cents
+     */
+    static void appendDollars(StringBuilder sb, long cents){
+
+        if (cents < 0){
+            sb.append('-');
+            cents = -cents;
+        }
+        long remainder = cents % 100;
+        sb.append(cents / 100).append('.');
+        if (remainder < 10) sb.append('0');
+        sb.append(remainder);
+    }
+
+    /**
+     * Appends the given text as one CSV field: quoted if it has a comma, quote, or line
+     * break in it, with any quotes doubled. Text that a spreadsheet would take as a
+     * formula (starting with =, +, - or @) gets a ' in front, so opening the file can't
+     * run anything an employee typed into a description.
+     *
+     * @param sb
+     * @param text : may be null
+     */
+    static void appendCSVField(StringBuilder sb, String text){
+
+        if (text == null || text.isEmpty()) return;
+
+        char first = text.charAt(0);
+        if (first == '=' || first == '+' || first == '-' || first == '@')
+            text = "'" + text;
+
+        boolean quote = false;
+        for (int i = 0; i < text.length() && !quote; i++){
+            char c = text.charAt(i);
+            quote = (c == ',' || c == '"' || c == '\n' || c == '\r');
+        }
+        if (!quote){
+            sb.append(text);
+            return;
+        }
+
+        sb.append('"');
+        for (int i = 0; i < text.length(); i++){
+            char c = text.charAt(i);
+            if (c == '"') sb.append('"');
+            sb.append(c);
+        }
+        sb.append('"');
+    }
+}
@@ -0,0 +1,55 @@
+/**
+ * Handles the task of a manager looking at the dashboard: totals for every reimbursement
+ * request, by type and status, and who has the most waiting on a decision.
+ */
+package com.revature.servlets.manager;
+
+import java.io.IOException;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.revature.model.UserProfile.UserRole;
+import com.revature.service.comms.ERSRequest;
+import com.revature.service.comms.ERSResponse;
+import com.revature.service.comms.ERSRequest.ERSRequestType;
+import com.revature.servlets.ERSServlet;
+
+public class ManagerDashboardServlet extends ERSServlet {
+
+    private static final long serialVersionUID = 0L;
+
+    public ManagerDashboardServlet() {
+        super();
+    }
+
+    /**
+     * Prompts the service layer for the dashboard totals and displays them.
+     * 
+     * @param request
+     * @param response
+     * @throws ServletException, IOException
+     */
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+
+        // make sure only a manager can view this
+        if (getCurrentUserRole(request) != UserRole.MANAGER) {
+            redirectToMenu(response);
+            return;
+        }
+
+        ERSRequest ereq 
+                = makeERSRequest(ERSRequestType.MANAGER_DASHBOARD, request.getSession());
+        ERSResponse eres = getResponse(ereq);
+
+        if (isFailure(eres)){
+            handleProblem(response, request, eres.getMessage(), "menu");
+            return;
+        }
+
+        renderResult(response, out -> writeDashboard(out, eres.getDashboard()), "menu");
+    }
+}
@@ -24,7 +24,9 @@ public class ManagerViewByEmployeeServlet extends ERSServlet {
     }
 
     /**
-     * Serves the html file with the form to input the authoring user id
+     * Serves the html file with the form to input the authoring user id.
+     * If the employeeID is already given (eg, from one of the next/previous page links),
+     * shows the reimb-reqs instead.
      * 
      * @param request
      * @param response
@@ -40,8 +42,13 @@ public class ManagerViewByEmployeeServlet extends ERSServlet {
             return;
         }
 
-        request.getRequestDispatcher("manager_view_by_employee.html").forward(
-                request, response);
+        if (!isStringBlank(request.getParameter("employeeID"))){
+            if (isListNotModified(request, response)) return; // nothing has changed
+            showRequests(request, response);
+            return;
+        }
+
+        servePage(request, response, "manager_view_by_employee.html");
     }
 
     /**
@@ -61,6 +68,20 @@ public class ManagerViewByEmployeeServlet extends ERSServlet {
             return;
         }
 
+        showRequests(request, response);
+    }
+
+    /**
+     * Does the actual work for both doGet and doPost, once it's known that the user is a
+     * manager and there's an employeeID to look up.
+     * 
+     * @param request
+     * @param response
+     * @throws IOException
+     */
+    private void showRequests(HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+
         String idString = request.getParameter("employeeID");
         
         if (isIDStringValid(idString)) idString = cleanIDString(idString);
@@ -74,6 +95,7 @@ public class ManagerViewByEmployeeServlet extends ERSServlet {
         ERSRequest ereq 
                 = makeERSRequest(ERSRequestType.MANAGER_VIEW_BY_EMPLOYEE, request);
         ereq.putParameter(ERSRequest.EMPLOYEE_ID_KEY, idString);
+        putPageParameters(ereq, request);
         ERSResponse eres = getResponse(ereq);
 
         if (isFailure(eres)){
@@ -82,11 +104,13 @@ public class ManagerViewByEmployeeServlet extends ERSServlet {
             return;
         }
 
-        // display results
-        String html = makeTableFromReimbursementRequests(
-                    eres.getReturnedReimbursementRequests());
-        
-        handleSuccess(response, request, html, "menu");
+        // display results, straight to the response rather than through the session
+        String pageURL = "manager_view_by_employee?employeeID=" + idString;
+        renderResult(response, out -> {
+            writeTableFromReimbursementRequests(
+                    out, eres.getReturnedReimbursementRequests());
+            out.write(makePageLinks(eres, request, pageURL));
+        }, "menu");
     }
     
 }
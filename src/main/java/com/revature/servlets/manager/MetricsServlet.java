@@ -0,0 +1,47 @@
+/**
+ * Lets a manager see the back end's request and DAO metrics, in the Prometheus text
+ * format (see Metrics). Anyone else gets a 403 instead of being sent to the menu, since
+ * this is usually read by a program rather than a person.
+ */
+package com.revature.servlets.manager;
+
+import java.io.IOException;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.revature.model.UserProfile.UserRole;
+import com.revature.service.metrics.Metrics;
+import com.revature.servlets.ERSServlet;
+
+public class MetricsServlet extends ERSServlet {
+
+    private static final long serialVersionUID = 0L;
+
+    public MetricsServlet() {
+        super();
+    }
+
+    /**
+     * Writes out the current metrics.
+     * 
+     * @param request
+     * @param response
+     * @throws ServletException, IOException
+     */
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+
+        // don't make a session just to say no
+        if (getCurrentUserRole(request.getSession(false)) != UserRole.MANAGER) {
+            response.sendError(HttpServletResponse.SC_FORBIDDEN);
+            return;
+        }
+
+        response.setContentType(Metrics.CONTENT_TYPE);
+        response.setHeader("Cache-Control", "no-store");
+        Metrics.getShared().writePrometheus(response.getWriter());
+    }
+}
@@ -0,0 +1,132 @@
+/**
+ * Pushes changes to the pending queue to managers as they happen (server-sent events),
+ * so the pending list page doesn't have to be reloaded over and over to see them. Each
+ * submit, approve, and deny is one small event (see EventStream.format).
+ *
+ * The connection is held open with an AsyncContext, so no request thread waits on it.
+ * Events are written out by this servlet's own few threads, which also send each stream
+ * a heartbeat every so often. The writes are non-blocking (see EventStream), so a few
+ * threads are enough however slow some of the connections are. After STREAM_TIMEOUT
+ * the stream is closed and the browser reconnects, picking up where it left off (its
+ * Last-Event-ID).
+ *
+ * Parameters (optional):
+ *      since : the event sequence number to start after (the pending list page puts
+ *              this in for you)
+ */
+package com.revature.servlets.manager;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.revature.model.UserProfile.UserRole;
+import com.revature.service.comms.ERSRequest;
+import com.revature.service.comms.ERSResponse;
+import com.revature.service.comms.ERSRequest.ERSRequestType;
+import com.revature.servlets.ERSServlet;
+import com.revature.servlets.api.ApiServlet;
+
+public class PendingEventsServlet extends ERSServlet {
+
+    private static final long serialVersionUID = 0L;
+
+    // constants
+    public static final String CONTENT_TYPE = "text/event-stream; charset=UTF-8";
+    private static final int STREAM_BUFFER = 100; // events waiting per stream
+    private static final long HEARTBEAT_SECONDS = 20;
+    private static final long STREAM_TIMEOUT = TimeUnit.MINUTES.toMillis(30);
+    private static final int WRITER_THREADS = 2;
+
+    // instance variables
+    private ScheduledExecutorService executor; // writes events and heartbeats
+    private final Set<EventStream> streams = ConcurrentHashMap.newKeySet();
+
+    public PendingEventsServlet() {
+        super();
+    }
+
+    @Override
+    public void init() throws ServletException {
+
+        executor = Executors.newScheduledThreadPool(WRITER_THREADS, task -> {
+            Thread thread = new Thread(task, "pending-events");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleAtFixedRate(() -> streams.forEach(EventStream::heartbeat),
+                HEARTBEAT_SECONDS, HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void destroy() {
+
+        for (EventStream stream : streams) stream.close();
+        executor.shutdownNow();
+    }
+
+    /**
+     * Subscribes to the pending queue's events and leaves the response open for them.
+     *
+     * @param request
+     * @param response
+     * @throws ServletException, IOException
+     */
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+
+        // an EventSource can't follow a redirect to a menu anyway
+        if (getCurrentUserRole(request.getSession(false)) != UserRole.MANAGER) {
+            response.sendError(HttpServletResponse.SC_FORBIDDEN);
+            return;
+        }
+
+        // a reconnecting browser says which event it saw last
+        String since = request.getHeader("Last-Event-ID");
+        if (isStringBlank(since)) since = request.getParameter("since");
+
+        EventStream stream = new EventStream(STREAM_BUFFER, executor);
+        ERSRequest ereq = makeERSRequest(ERSRequestType.WATCH_PENDING, request);
+        ereq.setEventListener(stream);
+        if (!isStringBlank(since)) 
+            ereq.putParameter(ERSRequest.EVENTS_SINCE_KEY, since.trim());
+        ERSResponse eres = getResponse(ereq);
+
+        if (isFailure(eres)){
+            response.sendError(
+                    ApiServlet.toHttpStatus(eres.getType()), eres.getMessage());
+            return;
+        }
+
+        response.setContentType(CONTENT_TYPE);
+        response.setHeader("Cache-Control", "no-store");
+        response.setHeader("X-Accel-Buffering", "no"); // eg nginx would hold events back
+
+        AsyncContext async;
+        try{
+            async = request.startAsync(request, response);
+        }
+        catch(IllegalStateException e){
+            eres.getSubscription().cancel(); // eg async-supported missing from web.xml
+            throw e;
+        }
+        async.setTimeout(STREAM_TIMEOUT);
+        streams.add(stream);
+        try{
+            stream.start(async, eres.getSubscription(), () -> streams.remove(stream));
+        }
+        catch(IOException e){
+            stream.close();
+            throw e;
+        }
+    }
+}
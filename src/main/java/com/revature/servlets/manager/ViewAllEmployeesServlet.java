@@ -45,13 +45,14 @@ public class ViewAllEmployeesServlet extends ERSServlet {
         ERSResponse eres = getResponse(ereq);
 
         if (isFailure(eres)){
-            handleProblem(response, request.getSession(), eres.getMessage(), "menu");
+            handleProblem(response, request, eres.getMessage(), "menu");
             return;
         }
 
-        String table = makeTableFromUserProfiles(eres.getReturnedUserProfiles());
-        
-        handleSuccess(response, request.getSession(), table, "menu");
+        // written straight to the response, rather than stored in the session
+        renderResult(response, 
+                out -> writeTableFromUserProfiles(out, eres.getReturnedUserProfiles()), 
+                "menu");
     }
 
     
@@ -4,11 +4,14 @@
 package com.revature.servlets.manager;
 
 import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import com.revature.model.ReimbursementRequest;
 import com.revature.model.UserProfile.UserRole;
 import com.revature.service.comms.ERSRequest;
 import com.revature.service.comms.ERSResponse;
@@ -19,12 +22,33 @@ public class ViewAllPendingServlet extends ERSServlet {
 
     private static final long serialVersionUID = 0L;
 
+    // constants
+    // listens to pending_events (see PendingEventsServlet) and lists what has changed
+    // since the page was loaded; %SINCE% is the last event the list already includes
+    private static final String LIVE_UPDATES = "<div id=\"live\"></div><script>"
+            + "(function(){if(!window.EventSource)return;"
+            + "var live=document.getElementById('live');"
+            + "function note(text){if(!live.firstChild)live.innerHTML="
+            + "'<a href=\"view_all_pending\">Reload to see these changes:</a>';"
+            + "var line=document.createElement('div');line.textContent=text;"
+            + "live.appendChild(line);}"
+            + "var source=new EventSource('pending_events?since=%SINCE%');"
+            + "source.addEventListener('submitted',function(e){var r=JSON.parse(e.data);"
+            + "note('New: #'+r.id+' from employee #'+r.authorId+', '+r.type.toLowerCase()"
+            + "+', $'+(r.moneyAmount/100).toFixed(2));});"
+            + "source.addEventListener('resolved',function(e){var r=JSON.parse(e.data);"
+            + "note('#'+r.id+' was '+r.status.toLowerCase()+' by #'+r.resolverId);});"
+            + "source.addEventListener('reset',function(){"
+            + "note('Some changes were missed.');});"
+            + "})();</script>";
+
     public ViewAllPendingServlet() {
         super();
     }
 
     /**
-     * Prompts the service layer for the reimb-reqs and displays the results.
+     * Prompts the service layer for one page of the reimb-reqs and displays the
+     * results, with links to the next/previous pages.
      * 
      * @param request
      * @param response
@@ -40,19 +64,47 @@ public class ViewAllPendingServlet extends ERSServlet {
             return;
         }
 
+        if (isListNotModified(request, response)) return; // nothing has changed
+
         ERSRequest ereq 
                 = makeERSRequest(ERSRequestType.VIEW_ALL_PENDING, request.getSession());
+        putPageParameters(ereq, request); // there can be far too many to show at once
         ERSResponse eres = getResponse(ereq);
 
         if (isFailure(eres)){
-            handleProblem(response, request.getSession(), eres.getMessage(), "menu");
+            handleProblem(response, request, eres.getMessage(), "menu");
             return;
         }
 
-        String table = makeTableFromReimbursementRequests(
-                eres.getReturnedReimbursementRequests());
-        
-        handleSuccess(response, request.getSession(), table, "menu");
+        // written straight to the response, rather than stored in the session
+        // the table doubles as a form for approving/denying several reqs at once
+        List<ReimbursementRequest> reimbs = eres.getReturnedReimbursementRequests();
+        renderResult(response, out -> {
+            if (reimbs.isEmpty()) writeTableFromReimbursementRequests(out, reimbs);
+            else{
+                out.write("<form action=\"bulk_resolve\" method=\"post\">");
+                writeTableFromReimbursementRequests(out, reimbs, true);
+                out.write("<input type=\"submit\" class=\"button\" name=\"action\" "
+                        + "value=\"" + BulkResolveServlet.APPROVE_ACTION + "\"/> ");
+                out.write("<input type=\"submit\" class=\"button\" name=\"action\" "
+                        + "value=\"" + BulkResolveServlet.DENY_ACTION + "\"/></form>");
+            }
+            out.write(makePageLinks(eres, request, "view_all_pending"));
+            writeLiveUpdates(out, eres.getEventSequence());
+        }, "menu");
+    }
+
+    // helpers
+
+    /**
+     * Writes the script that shows changes to the pending queue as they happen.
+     * 
+     * @param out
+     * @param since : the last event the page already includes
+     * @throws IOException
+     */
+    private void writeLiveUpdates(Writer out, long since) throws IOException {
+        out.write(LIVE_UPDATES.replace("%SINCE%", Long.toString(since)));
     }
 
     
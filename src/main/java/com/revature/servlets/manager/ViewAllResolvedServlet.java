@@ -24,7 +24,8 @@ public class ViewAllResolvedServlet extends ERSServlet {
     }
 
     /**
-     * Prompts the service layer for the reimb-reqs and displays the results.
+     * Prompts the service layer for one page of the reimb-reqs and displays the
+     * results, with links to the next/previous pages.
      * 
      * @param request
      * @param response
@@ -40,19 +41,24 @@ public class ViewAllResolvedServlet extends ERSServlet {
             return;
         }
 
+        if (isListNotModified(request, response)) return; // nothing has changed
+
         ERSRequest ereq 
                 = makeERSRequest(ERSRequestType.VIEW_ALL_RESOLVED, request.getSession());
+        putPageParameters(ereq, request); // there can be far too many to show at once
         ERSResponse eres = getResponse(ereq);
 
         if (isFailure(eres)){
-            handleProblem(response, request.getSession(), eres.getMessage(), "menu");
+            handleProblem(response, request, eres.getMessage(), "menu");
             return;
         }
 
-        String table = makeTableFromReimbursementRequests(
-                eres.getReturnedReimbursementRequests());
-        
-        handleSuccess(response, request.getSession(), table, "menu");
+        // written straight to the response, rather than stored in the session
+        renderResult(response, out -> {
+            writeTableFromReimbursementRequests(
+                    out, eres.getReturnedReimbursementRequests());
+            out.write(makePageLinks(eres, request, "view_all_resolved"));
+        }, "menu");
     }
 
     
@@ -0,0 +1,30 @@
+-- V1: the tables as hibernate (hbm2ddl) used to create them. Everything here is
+-- IF NOT EXISTS, so this is a no-op on a database that hibernate already set up.
+
+CREATE SCHEMA IF NOT EXISTS ${schema};
+
+CREATE TABLE IF NOT EXISTS ${schema}.USER_PROFILE (
+    USER_ID SERIAL PRIMARY KEY,
+    USER_ROLE VARCHAR(255),
+    USERNAME VARCHAR(255),
+    FIRST_NAME VARCHAR(255),
+    LAST_NAME VARCHAR(255),
+    EMAIL_ADDRESS VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS ${schema}.USER_PASSWORD (
+    PASSWORD_USER_ID INTEGER PRIMARY KEY REFERENCES ${schema}.USER_PROFILE (USER_ID),
+    PASS VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS ${schema}.REIMBURSEMENT_REQUEST (
+    RR_ID SERIAL PRIMARY KEY,
+    USER_ID INTEGER NOT NULL REFERENCES ${schema}.USER_PROFILE (USER_ID),
+    RR_MONEY_AMOUNT BIGINT,
+    RR_TYPE VARCHAR(255),
+    RR_STATUS VARCHAR(255),
+    RR_DESCRIPTION VARCHAR(255),
+    RR_TIME_SUBMITTED VARCHAR(255),
+    RR_RESOLVER_ID INTEGER,
+    RR_TIME_RESOLVED VARCHAR(255)
+);
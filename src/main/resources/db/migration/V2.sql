@@ -0,0 +1,28 @@
+-- V2: indexes for the columns every query filters on.
+
+-- ReimbursementRequestDAOImpl: employee views filter on author + status, and pages are
+-- walked in RR_ID order, so all three go in one index
+CREATE INDEX IF NOT EXISTS RR_USER_STATUS_ID_IDX
+    ON ${schema}.REIMBURSEMENT_REQUEST (USER_ID, RR_STATUS, RR_ID);
+
+-- manager views filter on status alone (any author)
+CREATE INDEX IF NOT EXISTS RR_STATUS_ID_IDX
+    ON ${schema}.REIMBURSEMENT_REQUEST (RR_STATUS, RR_ID);
+
+-- UserProfileDAOImpl: log in / checkExists look up by username and email, which the
+-- service layer already expects to be unique.
+-- If an existing database already has duplicates (eg two accounts made at the same
+-- time, before these existed), this script fails, the app won't deploy, and nothing
+-- here is applied. Find them with
+--   SELECT USERNAME FROM USER_PROFILE GROUP BY USERNAME HAVING COUNT(*) > 1;
+--   SELECT EMAIL_ADDRESS FROM USER_PROFILE GROUP BY EMAIL_ADDRESS HAVING COUNT(*) > 1;
+-- and rename (or merge) the extra accounts by hand before deploying again.
+CREATE UNIQUE INDEX IF NOT EXISTS USER_PROFILE_USERNAME_UQ
+    ON ${schema}.USER_PROFILE (USERNAME);
+
+CREATE UNIQUE INDEX IF NOT EXISTS USER_PROFILE_EMAIL_UQ
+    ON ${schema}.USER_PROFILE (EMAIL_ADDRESS);
+
+-- getAllEmployeeProfiles()
+CREATE INDEX IF NOT EXISTS USER_PROFILE_ROLE_IDX
+    ON ${schema}.USER_PROFILE (USER_ROLE);
@@ -0,0 +1,28 @@
+-- V3: the submitted/resolved times used to be LocalDateTime.toString() values in
+-- VARCHAR columns, with '--' meaning "not set". They move to real TIMESTAMP columns
+-- (NULL meaning "not set") so they can be indexed and compared.
+-- New columns + UPDATE + DROP instead of ALTER ... TYPE ... USING, so this also runs
+-- on databases that don't support USING. If an old value can't be cast, the whole
+-- script fails and is rolled back, rather than quietly losing the time.
+
+ALTER TABLE ${schema}.REIMBURSEMENT_REQUEST ADD COLUMN RR_SUBMITTED_AT TIMESTAMP;
+ALTER TABLE ${schema}.REIMBURSEMENT_REQUEST ADD COLUMN RR_RESOLVED_AT TIMESTAMP;
+
+UPDATE ${schema}.REIMBURSEMENT_REQUEST SET
+    RR_SUBMITTED_AT = CASE WHEN RR_TIME_SUBMITTED IS NULL
+            OR RR_TIME_SUBMITTED IN ('--', '') THEN NULL
+        ELSE CAST(REPLACE(RR_TIME_SUBMITTED, 'T', ' ') AS TIMESTAMP) END,
+    RR_RESOLVED_AT = CASE WHEN RR_TIME_RESOLVED IS NULL
+            OR RR_TIME_RESOLVED IN ('--', '') THEN NULL
+        ELSE CAST(REPLACE(RR_TIME_RESOLVED, 'T', ' ') AS TIMESTAMP) END;
+
+ALTER TABLE ${schema}.REIMBURSEMENT_REQUEST DROP COLUMN RR_TIME_SUBMITTED;
+ALTER TABLE ${schema}.REIMBURSEMENT_REQUEST DROP COLUMN RR_TIME_RESOLVED;
+
+-- ReimbursementRequestDAO.getReimbursementRequestsSubmittedBetween()
+CREATE INDEX IF NOT EXISTS RR_SUBMITTED_IDX
+    ON ${schema}.REIMBURSEMENT_REQUEST (RR_SUBMITTED_AT, RR_ID);
+
+-- ReimbursementRequestDAO.getOldestPendingRequests(): status = ? ORDER BY time, id
+CREATE INDEX IF NOT EXISTS RR_STATUS_SUBMITTED_IDX
+    ON ${schema}.REIMBURSEMENT_REQUEST (RR_STATUS, RR_SUBMITTED_AT, RR_ID);
@@ -0,0 +1,8 @@
+-- V4: version numbers for optimistic locking. Hibernate bumps the version on every
+-- update and only writes a row if its version hasn't changed since it was read, so
+-- two people saving the same row at once can't silently overwrite each other.
+
+ALTER TABLE ${schema}.REIMBURSEMENT_REQUEST
+    ADD COLUMN RR_VERSION INTEGER DEFAULT 0 NOT NULL;
+ALTER TABLE ${schema}.USER_PROFILE
+    ADD COLUMN USER_VERSION INTEGER DEFAULT 0 NOT NULL;
@@ -0,0 +1,13 @@
+-- V5: a count of the writes to the reimb-reqs. The list pages use it as a cheap "has
+-- anything changed?" check (ReimbursementRequestDAO.getChangeCount()), so a browser
+-- that already has the page can be told 304 Not Modified instead of being sent the
+-- whole table again. Every save and bulk resolve bumps it in its own transaction; a
+-- last-modified time wouldn't do, since a transaction can commit after a later one
+-- with an older time, and the time would come from the app servers' clocks.
+
+CREATE TABLE IF NOT EXISTS ${schema}.RR_CHANGE_COUNT (
+    ID INTEGER PRIMARY KEY,
+    CHANGE_COUNT BIGINT NOT NULL
+);
+
+INSERT INTO ${schema}.RR_CHANGE_COUNT (ID, CHANGE_COUNT) VALUES (1, 0);
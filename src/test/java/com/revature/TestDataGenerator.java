@@ -0,0 +1,174 @@
+/**
+ * This class contains tests for the DataGenerator class, run against the embedded test
+ * database.
+ */
+package com.revature;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.revature.model.ReimbursementRequest;
+import com.revature.model.UserPassword;
+import com.revature.model.ReimbursementRequest.ReimbursementStatus;
+import com.revature.model.ReimbursementRequest.ReimbursementType;
+import com.revature.repository.DAO.exceptions.DAOException;
+import com.revature.repository.DAO.impl.ReimbursementRequestDAOImpl;
+import com.revature.repository.DAO.impl.UserProfileDAOImpl;
+import com.revature.repository.DAO.interfaces.ReimbursementRequestDAO;
+import com.revature.repository.DAO.interfaces.UserProfileDAO;
+import com.revature.repository.DAO.interfaces.ReimbursementRequestDAO.SearchType;
+import com.revature.repository.Util.HibernateConnectionUtil;
+import com.revature.service.BCryptPasswordPolicy;
+import com.revature.service.PasswordPolicy;
+import com.revature.service.PasswordUtil;
+
+public class TestDataGenerator {
+
+    // instance variables
+    private UserProfileDAO updao;
+    private ReimbursementRequestDAO rrdao;
+    private PasswordPolicy oldPolicy;
+
+    @Before
+    public void setup(){
+
+        HibernateConnectionUtil.enterTestMode();
+        updao = new UserProfileDAOImpl();
+        rrdao = new ReimbursementRequestDAOImpl();
+        oldPolicy = PasswordUtil.getPolicy();
+        PasswordUtil.setPolicy(new BCryptPasswordPolicy(4)); // fast
+    }
+
+    @After
+    public void cleanup(){
+
+        PasswordUtil.setPolicy(oldPolicy);
+        HibernateConnectionUtil.exitTestMode();
+    }
+
+    @Test
+    public void testGenerate() throws DAOException{
+
+        DataGenerator.Settings settings = DataGenerator.Settings.fromArgs(new String[] {
+                "--employees=30", "--managers=3", "--reqsPerEmployee=20", "--prefix=a"});
+        long changesBefore = rrdao.getChangeCount();
+        assertEquals(600, new DataGenerator(settings).generate());
+        assertTrue(rrdao.getChangeCount() > changesBefore);
+
+        List<ReimbursementRequest> all 
+                = rrdao.getReimbursementRequests(-1, SearchType.ALL);
+        assertEquals(600, all.size());
+        assertEquals(30, updao.getAllEmployeeProfiles().size());
+
+        int resolved = 0;
+        for (ReimbursementRequest rr : all){
+            assertTrue(rr.getMoneyAmount() > 0);
+            assertTrue(rr.getTimeSubmitted() != null);
+            if (rr.getStatus() != ReimbursementStatus.PENDING){
+                resolved++;
+                assertTrue(!rr.getTimeResolved().isBefore(rr.getTimeSubmitted()));
+                assertTrue(updao.checkExists(rr.getResolverID()));
+            }
+        }
+        assertTrue(resolved > 0 && resolved < 600); // 80% by default
+
+        UserPassword pass = updao.findUserPassword("a_e17").get();
+        assertTrue(PasswordUtil.checkPassword("password", pass.getPass()));
+        assertTrue(updao.findUserPassword("a_m2").isPresent());
+
+        // not twice with the same prefix
+        try{
+            new DataGenerator(settings).generate();
+            fail();
+        }
+        catch(DAOException e){
+            // expected
+        }
+    }
+
+    /**
+     * Same seed, same data (apart from the names and IDs). The time range doesn't depend
+     * on when it's run unless asked to.
+     */
+    @Test
+    public void testReproducible() throws DAOException{
+
+        String[] common = {"--employees=5", "--managers=1", "--reqsPerEmployee=10",
+                "--seed=7", "--status=PENDING:1", "--types=food:1"};
+        assertEquals(LocalDateTime.of(2021, 1, 1, 0, 0), 
+                settingsWithPrefix(common, "x").end);
+        assertEquals(LocalDateTime.of(2020, 6, 30, 0, 0), 
+                DataGenerator.Settings.fromArgs(new String[] {"--end=2020-06-30"}).end);
+        assertEquals(LocalDate.now().atStartOfDay(), 
+                DataGenerator.Settings.fromArgs(new String[] {"--end=today"}).end);
+
+        new DataGenerator(settingsWithPrefix(common, "x")).generate();
+        new DataGenerator(settingsWithPrefix(common, "y")).generate();
+
+        for (int i = 0; i < 5; i++){
+            List<Long> x = getAmounts("x_e" + i);
+            List<Long> y = getAmounts("y_e" + i);
+            assertEquals(10, x.size());
+            assertEquals(x, y);
+        }
+
+        List<ReimbursementRequest> all 
+                = rrdao.getReimbursementRequests(-1, SearchType.ALL);
+        for (ReimbursementRequest rr : all){
+            assertEquals(ReimbursementStatus.PENDING, rr.getStatus());
+            assertEquals(ReimbursementType.FOOD, rr.getType());
+        }
+    }
+
+    @Test
+    public void testBadArgs(){
+
+        String[][] bad = {{"employees=5"}, {"--employees"}, {"--employes=5"},
+                {"--employees=-1"}, {"--status=PENDING"}, {"--types=BOAT:1"},
+                {"--status=PENDING:0"}, {"--end=yesterday"}, {"--end=2021-13-01"}};
+        for (String[] args : bad){
+            try{
+                DataGenerator.Settings settings = DataGenerator.Settings.fromArgs(args);
+                new DataGenerator(settings).generate(); // some only fail here
+                fail(args[0]);
+            }
+            catch(IllegalArgumentException | DAOException e){
+                // expected
+            }
+        }
+    }
+
+    // helpers
+
+    private DataGenerator.Settings settingsWithPrefix(String[] common, String prefix){
+
+        String[] args = new String[common.length + 1];
+        System.arraycopy(common, 0, args, 0, common.length);
+        args[common.length] = "--prefix=" + prefix;
+        return DataGenerator.Settings.fromArgs(args);
+    }
+
+    private List<Long> getAmounts(String username) throws DAOException{
+
+        int id = updao.getUserProfile(username).getID();
+        List<Long> amounts = new ArrayList<>();
+        List<ReimbursementRequest> reqs 
+                = rrdao.getReimbursementRequests(id, SearchType.ALL);
+        for (ReimbursementRequest rr : reqs){
+            amounts.add(rr.getMoneyAmount());
+        }
+        Collections.sort(amounts);
+        return amounts;
+    }
+}
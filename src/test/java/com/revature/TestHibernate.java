@@ -3,12 +3,29 @@
  */
 package com.revature;
 
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import com.revature.model.ReimbursementRequest;
+import com.revature.model.UserProfile;
 import com.revature.repository.Util.HibernateConnectionUtil;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.stat.Statistics;
 import org.junit.Test;
 
 public class TestHibernate {
@@ -30,4 +47,147 @@ public class TestHibernate {
         session.close();
         testSession.close();
     }
+
+    /**
+     * Every getSession() inside a request scope should hand back the same session, and it
+     * should only be closed when the outermost scope ends.
+     */
+    @Test
+    public void testRequestScope(){
+        HibernateConnectionUtil.enterTestMode();
+
+        HibernateConnectionUtil.beginRequestScope();
+        Session first = HibernateConnectionUtil.getSession();
+        HibernateConnectionUtil.releaseSession(first);
+        assertTrue(first.isOpen()); // still in scope
+
+        HibernateConnectionUtil.beginRequestScope(); // nested
+        Session second = HibernateConnectionUtil.getSession();
+        assertSame(first, second);
+        HibernateConnectionUtil.endRequestScope();
+        assertTrue(first.isOpen()); // outer scope hasn't ended yet
+
+        HibernateConnectionUtil.endRequestScope();
+        assertFalse(first.isOpen());
+
+        // outside of a scope, every call gets its own session
+        Session third = HibernateConnectionUtil.getSession();
+        Session fourth = HibernateConnectionUtil.getSession();
+        assertNotSame(third, fourth);
+        HibernateConnectionUtil.releaseSession(third);
+        HibernateConnectionUtil.releaseSession(fourth);
+        assertFalse(third.isOpen());
+        assertFalse(fourth.isOpen());
+
+        HibernateConnectionUtil.forceDropSessionFactory();
+        HibernateConnectionUtil.exitTestMode();
+    }
+
+    /**
+     * Releasing the request's session early gives its connection back, and the next DAO
+     * call in the same request gets a new session.
+     */
+    @Test
+    public void testReleaseRequestSession(){
+        HibernateConnectionUtil.enterTestMode();
+
+        HibernateConnectionUtil.releaseRequestSession(); // not in a scope; nothing to do
+        HibernateConnectionUtil.beginRequestScope();
+        Session first = HibernateConnectionUtil.getSession();
+        HibernateConnectionUtil.releaseRequestSession();
+        assertFalse(first.isOpen());
+
+        Session second = HibernateConnectionUtil.getSession();
+        assertNotSame(first, second);
+        assertTrue(second.isOpen());
+        assertSame(second, HibernateConnectionUtil.getSession());
+        HibernateConnectionUtil.endRequestScope();
+        assertFalse(second.isOpen());
+
+        HibernateConnectionUtil.forceDropSessionFactory();
+        HibernateConnectionUtil.exitTestMode();
+    }
+
+    /**
+     * A transaction left open by a failed write shouldn't still be open for the next DAO
+     * call, or survive the end of the request.
+     */
+    @Test
+    public void testRollBack(){
+        HibernateConnectionUtil.enterTestMode();
+
+        HibernateConnectionUtil.beginRequestScope();
+        Session session = HibernateConnectionUtil.getSession();
+        Transaction tx = session.beginTransaction();
+        HibernateConnectionUtil.rollBack(session);
+        assertFalse(tx.isActive());
+        HibernateConnectionUtil.rollBack(null); // nothing to do
+
+        tx = HibernateConnectionUtil.getSession().beginTransaction();
+        HibernateConnectionUtil.endRequestScope();
+        assertFalse(tx.isActive());
+        assertFalse(session.isOpen());
+
+        HibernateConnectionUtil.forceDropSessionFactory();
+        HibernateConnectionUtil.exitTestMode();
+    }
+
+    /**
+     * A burst of threads asking for sessions at the same time should still only build one
+     * SessionFactory.
+     */
+    @Test
+    public void testConcurrentInitialization() throws Exception{
+        HibernateConnectionUtil.enterTestMode();
+        HibernateConnectionUtil.forceDropSessionFactory();
+
+        int threadCount = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(threadCount);
+        List<Future<SessionFactory>> results = new ArrayList<>();
+        for (int i = 0; i < threadCount; i++){
+            results.add(pool.submit(new Callable<SessionFactory>(){
+                @Override
+                public SessionFactory call(){
+                    Session session = HibernateConnectionUtil.getSession();
+                    SessionFactory factory = session.getSessionFactory();
+                    HibernateConnectionUtil.releaseSession(session);
+                    return factory;
+                }
+            }));
+        }
+
+        SessionFactory first = results.get(0).get();
+        for (Future<SessionFactory> result : results){
+            assertSame(first, result.get());
+        }
+        pool.shutdown();
+
+        HibernateConnectionUtil.forceDropSessionFactory();
+        HibernateConnectionUtil.exitTestMode();
+    }
+
+    /**
+     * Makes sure the second level cache is on, and that both entities have a region.
+     */
+    @Test
+    public void testCacheConfiguration(){
+        HibernateConnectionUtil.enterTestMode();
+        HibernateConnectionUtil.forceDropSessionFactory();
+        assertNull(HibernateConnectionUtil.getStatistics());
+
+        Session session = HibernateConnectionUtil.getSession();
+        SessionFactory factory = session.getSessionFactory();
+        HibernateConnectionUtil.releaseSession(session);
+
+        Statistics stats = HibernateConnectionUtil.getStatistics();
+        assertNotNull(stats);
+        assertTrue(stats.isStatisticsEnabled());
+        assertNotNull(factory.getClassMetadata(UserProfile.class));
+        assertNotNull(stats.getSecondLevelCacheStatistics(UserProfile.class.getName()));
+        assertNotNull(stats.getSecondLevelCacheStatistics(
+                ReimbursementRequest.class.getName()));
+
+        HibernateConnectionUtil.forceDropSessionFactory();
+        HibernateConnectionUtil.exitTestMode();
+    }
 }
@@ -0,0 +1,240 @@
+/**
+ * Fills the (test mode) database with a known set of users and reimb-reqs, fast: every
+ * row goes in through one JDBC batch per table, in a single transaction, instead of one
+ * session.save() and commit per object. Thousands of rows take well under a second on
+ * the embedded database, so DAO tests and benchmarks can work with realistic sizes.
+ *
+ * What gets made (for load(e, m, r)):
+ *      managers "manager0".."manager{m-1}", employees "employee0".."employee{e-1}",
+ *      all with the password PASSWORD
+ *      r reimb-reqs per employee; every third one (r = 0, 3, 6..) is PENDING, the rest
+ *      alternate APPROVED/DENIED and were resolved by the first manager
+ *      the types cycle through ReimbursementType.values(), and each employee's reqs are
+ *      submitted one hour apart starting at START
+ */
+package com.revature.repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.mindrot.jbcrypt.BCrypt;
+
+import com.revature.model.ReimbursementRequest.ReimbursementStatus;
+import com.revature.model.ReimbursementRequest.ReimbursementType;
+import com.revature.model.UserProfile.UserRole;
+import com.revature.repository.Util.HibernateConnectionUtil;
+
+public class DAOFixtures {
+
+    // constants
+    public static final String PASSWORD = "password";
+    public static final LocalDateTime START = LocalDateTime.of(2021, 1, 4, 9, 0);
+    private static final int BATCH_SIZE = 1000;
+    // one (cheap) hash shared by everyone; bcrypt per user would be most of the cost
+    private static final String HASH = BCrypt.hashpw(PASSWORD, BCrypt.gensalt(4));
+
+    // instance variables
+    private final int[] employeeIDs;
+    private final int[] managerIDs;
+    private final int reimbsPerEmployee;
+
+    // constructor(s)
+
+    private DAOFixtures(int[] employeeIDs, int[] managerIDs, int reimbsPerEmployee){
+
+        this.employeeIDs = employeeIDs;
+        this.managerIDs = managerIDs;
+        this.reimbsPerEmployee = reimbsPerEmployee;
+    }
+
+    // methods
+
+    /**
+     * Loads the fixtures into the current (test mode) database. Assumes the tables are
+     * empty, as they are right after enterTestMode() builds a new SessionFactory.
+     *
+     * @param employees
+     * @param managers
+     * @param reimbsPerEmployee
+     * @return what was made, mostly for the generated IDs
+     */
+    public static DAOFixtures load(int employees, int managers, int reimbsPerEmployee){
+
+        String schema = HibernateConnectionUtil.getDefaultSchema();
+        String prefix = (schema == null) ? "" : schema + ".";
+        Map<String, Integer> ids = new HashMap<>();
+
+        Session session = HibernateConnectionUtil.getSession();
+        Transaction tx = session.beginTransaction();
+        try{
+            session.doWork(connection -> {
+                insertUsers(connection, prefix, "manager", UserRole.MANAGER, managers);
+                insertUsers(connection, prefix, "employee", UserRole.EMPLOYEE, employees);
+                readIDs(connection, prefix, ids);
+                insertPasswords(connection, prefix, ids);
+            });
+
+            int[] managerIDs = toIDs(ids, "manager", managers);
+            int[] employeeIDs = toIDs(ids, "employee", employees);
+            int resolverID = (managers > 0) ? managerIDs[0] : -1;
+            session.doWork(connection -> insertReimbs(
+                    connection, prefix, employeeIDs, reimbsPerEmployee, resolverID));
+            tx.commit();
+
+            // the rows went around hibernate, so nothing it has cached is still right
+            session.getSessionFactory().getCache().evictEntityRegions();
+            session.getSessionFactory().getCache().evictQueryRegions();
+            return new DAOFixtures(employeeIDs, managerIDs, reimbsPerEmployee);
+        }
+        catch(RuntimeException e){
+            tx.rollback();
+            throw e;
+        }
+        finally{
+            HibernateConnectionUtil.releaseSession(session);
+        }
+    }
+
+    /**
+     * @return the generated ID of employee{i}
+     */
+    public int getEmployeeID(int i){
+        return employeeIDs[i];
+    }
+
+    /**
+     * @return the generated ID of manager{i}
+     */
+    public int getManagerID(int i){
+        return managerIDs[i];
+    }
+
+    public int getEmployeeCount(){
+        return employeeIDs.length;
+    }
+
+    public int getReimbCount(){
+        return employeeIDs.length * reimbsPerEmployee;
+    }
+
+    /**
+     * @return how many of the reimb-reqs are PENDING (every third one, per employee)
+     */
+    public int getPendingCount(){
+        return employeeIDs.length * ((reimbsPerEmployee + 2) / 3);
+    }
+
+    // helpers
+
+    private static void insertUsers(Connection connection, String prefix, String name,
+            UserRole role, int count) throws SQLException{
+
+        String sql = "INSERT INTO " + prefix + "USER_PROFILE "
+                + "(USER_ROLE, USERNAME, FIRST_NAME, LAST_NAME, EMAIL_ADDRESS, "
+                + "USER_VERSION) "
+                + "VALUES (?, ?, ?, ?, ?, 0)";
+        try (PreparedStatement ps = connection.prepareStatement(sql)){
+            for (int i = 0; i < count; i++){
+                ps.setString(1, role.name());
+                ps.setString(2, name + i);
+                ps.setString(3, "First" + i);
+                ps.setString(4, "Last" + i);
+                ps.setString(5, name + i + "@example.com");
+                addToBatch(ps, i);
+            }
+            ps.executeBatch();
+        }
+    }
+
+    /**
+     * Looks up the generated IDs by username (getGeneratedKeys after a batch isn't
+     * something every driver does).
+     */
+    private static void readIDs(Connection connection, String prefix,
+            Map<String, Integer> ids) throws SQLException{
+
+        try (Statement st = connection.createStatement();
+                ResultSet rs = st.executeQuery(
+                        "SELECT USER_ID, USERNAME FROM " + prefix + "USER_PROFILE")){
+            while (rs.next()) ids.put(rs.getString(2), rs.getInt(1));
+        }
+    }
+
+    private static void insertPasswords(Connection connection, String prefix,
+            Map<String, Integer> ids) throws SQLException{
+
+        String sql = "INSERT INTO " + prefix + "USER_PASSWORD (PASSWORD_USER_ID, PASS) "
+                + "VALUES (?, ?)";
+        try (PreparedStatement ps = connection.prepareStatement(sql)){
+            int i = 0;
+            for (int id : ids.values()){
+                ps.setInt(1, id);
+                ps.setString(2, HASH);
+                addToBatch(ps, i++);
+            }
+            ps.executeBatch();
+        }
+    }
+
+    private static void insertReimbs(Connection connection, String prefix,
+            int[] employeeIDs, int perEmployee, int resolverID) throws SQLException{
+
+        String sql = "INSERT INTO " + prefix + "REIMBURSEMENT_REQUEST "
+                + "(USER_ID, RR_MONEY_AMOUNT, RR_TYPE, RR_STATUS, RR_DESCRIPTION, "
+                + "RR_SUBMITTED_AT, RR_RESOLVER_ID, RR_RESOLVED_AT, RR_VERSION) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, 0)";
+        ReimbursementType[] types = ReimbursementType.values();
+
+        try (PreparedStatement ps = connection.prepareStatement(sql)){
+            int count = 0;
+            for (int e = 0; e < employeeIDs.length; e++){
+                for (int r = 0; r < perEmployee; r++){
+                    LocalDateTime submitted = START.plusHours(r);
+                    ReimbursementStatus status = (r % 3 == 0) 
+                            ? ReimbursementStatus.PENDING
+                            : (r % 3 == 1) 
+                                    ? ReimbursementStatus.APPROVED 
+                                    : ReimbursementStatus.DENIED;
+                    boolean resolved = (status != ReimbursementStatus.PENDING);
+
+                    ps.setInt(1, employeeIDs[e]);
+                    ps.setLong(2, 100L * (r + 1) + e);
+                    ps.setString(3, types[r % types.length].name());
+                    ps.setString(4, status.name());
+                    ps.setString(5, "fixture req " + r + " for employee" + e);
+                    ps.setTimestamp(6, Timestamp.valueOf(submitted));
+                    ps.setInt(7, resolved ? resolverID : -1);
+                    ps.setTimestamp(8, 
+                            resolved ? Timestamp.valueOf(submitted.plusDays(1)) : null);
+                    addToBatch(ps, count++);
+                }
+            }
+            ps.executeBatch();
+        }
+    }
+
+    /**
+     * Adds the current row to the batch, and sends the batch every BATCH_SIZE rows.
+     */
+    private static void addToBatch(PreparedStatement ps, int row) throws SQLException{
+
+        ps.addBatch();
+        if ((row + 1) % BATCH_SIZE == 0) ps.executeBatch();
+    }
+
+    private static int[] toIDs(Map<String, Integer> ids, String name, int count){
+
+        int[] result = new int[count];
+        for (int i = 0; i < count; i++) result[i] = ids.get(name + i);
+        return result;
+    }
+}
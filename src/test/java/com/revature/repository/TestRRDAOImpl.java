@@ -8,12 +8,18 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import org.hibernate.Transaction;
 import org.hibernate.Criteria;
 import org.hibernate.Session;
+import org.hibernate.stat.Statistics;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -24,9 +30,12 @@ import com.revature.model.ReimbursementRequest.ReimbursementStatus;
 import com.revature.model.ReimbursementRequest.ReimbursementType;
 import com.revature.model.UserProfile.UserRole;
 import com.revature.repository.DAO.exceptions.DAOException;
+import com.revature.repository.DAO.exceptions.StaleDataException;
 import com.revature.repository.DAO.impl.ReimbursementRequestDAOImpl;
+import com.revature.repository.DAO.impl.UserProfileDAOImpl;
 import com.revature.repository.DAO.interfaces.ReimbursementRequestDAO;
 import com.revature.repository.DAO.interfaces.ReimbursementRequestDAO.SearchType;
+import com.revature.repository.DAO.interfaces.UserProfileDAO;
 import com.revature.repository.Util.HibernateConnectionUtil;
 
 public class TestRRDAOImpl {
@@ -302,6 +311,410 @@ public class TestRRDAOImpl {
         assertTrue(rrdao.checkExists(reimb.getID()));
     }
 
+    /**
+     * Three reqs submitted a day apart (saved newest first), plus one approved req and
+     * one with no time.
+     * 
+     * @throws DAOException
+     */
+    @Test
+    public void testTimeQueries() throws DAOException{
+
+        LocalDateTime start = LocalDateTime.of(2020, 10, 1, 9, 0);
+        assertTrue(rrdao.getOldestPendingRequests(10).isEmpty());
+
+        UserProfile up = new UserProfile();
+        up.setUsername("up");
+        up.setRole(UserRole.EMPLOYEE);
+
+        Session session = HibernateConnectionUtil.getSession();
+        Transaction tx = session.beginTransaction();
+        session.save(up);
+        int[] ids = new int[3];
+        for (int i = ids.length - 1; i >= 0; i--){
+            ReimbursementRequest rr = new ReimbursementRequest();
+            rr.setAuthor(up);
+            rr.setStatus(ReimbursementStatus.PENDING);
+            rr.setType(ReimbursementType.FOOD);
+            rr.setTimeSubmitted(start.plusDays(i));
+            session.save(rr);
+            ids[i] = rr.getID();
+        }
+        ReimbursementRequest approved = new ReimbursementRequest();
+        approved.setAuthor(up);
+        approved.setStatus(ReimbursementStatus.APPROVED);
+        approved.setType(ReimbursementType.FOOD);
+        approved.setTimeSubmitted(start.minusDays(1));
+        approved.setTimeResolved(start);
+        session.save(approved);
+        ReimbursementRequest noTime = new ReimbursementRequest();
+        noTime.setAuthor(up);
+        noTime.setStatus(ReimbursementStatus.PENDING);
+        noTime.setType(ReimbursementType.FOOD);
+        session.save(noTime);
+        tx.commit();
+        session.close();
+
+        List<ReimbursementRequest> found = rrdao.getOldestPendingRequests(2);
+        assertEquals(2, found.size());
+        assertEquals(ids[0], found.get(0).getID());
+        assertEquals(ids[1], found.get(1).getID());
+        assertEquals(start, found.get(0).getTimeSubmitted());
+        assertNull(found.get(0).getTimeResolved());
+
+        // [from, to)
+        found = rrdao.getReimbursementRequestsSubmittedBetween(
+                start.minusDays(1), start.plusDays(2));
+        assertEquals(3, found.size());
+        assertEquals(approved.getID(), found.get(0).getID());
+        assertEquals(start, found.get(0).getTimeResolved());
+        assertEquals(ids[0], found.get(1).getID());
+        assertEquals(ids[1], found.get(2).getID());
+
+        assertTrue(rrdao.getReimbursementRequestsSubmittedBetween(
+                start.plusDays(5), start.plusDays(6)).isEmpty());
+    }
+
+    /**
+     * Walks forward and then backward through 5 reqs, 2 at a time.
+     * 
+     * @throws DAOException
+     */
+    @Test
+    public void testGetReimbursementRequestPage() throws DAOException{
+
+        assertTrue(rrdao.getReimbursementRequestPage(-1, SearchType.ALL, 0, true, 2)
+                .isEmpty());
+
+        UserProfile up = new UserProfile();
+        up.setUsername("up");
+        up.setRole(UserRole.EMPLOYEE);
+
+        Session session = HibernateConnectionUtil.getSession();
+        Transaction tx = session.beginTransaction();
+        session.save(up);
+        int[] ids = new int[5];
+        for (int i = 0; i < ids.length; i++){
+            ReimbursementRequest rr = new ReimbursementRequest();
+            rr.setAuthor(up);
+            rr.setStatus(ReimbursementStatus.PENDING);
+            rr.setType(ReimbursementType.FOOD);
+            session.save(rr);
+            ids[i] = rr.getID();
+        }
+        tx.commit();
+        session.close();
+
+        List<ReimbursementRequest> page 
+                = rrdao.getReimbursementRequestPage(-1, SearchType.ALL, 0, true, 2);
+        assertEquals(2, page.size());
+        assertEquals(ids[0], page.get(0).getID());
+        assertEquals(ids[1], page.get(1).getID());
+
+        page = rrdao.getReimbursementRequestPage(-1, SearchType.ALL, ids[1], true, 2);
+        assertEquals(2, page.size());
+        assertEquals(ids[2], page.get(0).getID());
+        assertEquals(ids[3], page.get(1).getID());
+
+        page = rrdao.getReimbursementRequestPage(-1, SearchType.ALL, ids[3], true, 2);
+        assertEquals(1, page.size());
+        assertEquals(ids[4], page.get(0).getID());
+
+        // backwards still comes back in ascending order
+        page = rrdao.getReimbursementRequestPage(-1, SearchType.ALL, ids[4], false, 2);
+        assertEquals(2, page.size());
+        assertEquals(ids[2], page.get(0).getID());
+        assertEquals(ids[3], page.get(1).getID());
+
+        // the other filters still apply
+        assertTrue(rrdao.getReimbursementRequestPage(-1, SearchType.RESOLVED, 0, true, 2)
+                .isEmpty());
+    }
+
+    /**
+     * Pages through a few thousand reqs loaded with DAOFixtures, checking the counts.
+     * 
+     * @throws DAOException
+     */
+    @Test
+    public void testWithFixtures() throws DAOException{
+
+        DAOFixtures fixtures = DAOFixtures.load(200, 2, 10);
+        assertEquals(2000, fixtures.getReimbCount());
+
+        assertEquals(fixtures.getPendingCount(),
+                rrdao.getReimbursementRequests(-1, SearchType.PENDING).size());
+        assertEquals(10, rrdao.getReimbursementRequests(
+                fixtures.getEmployeeID(17), SearchType.ALL).size());
+
+        // every pending req exactly once, in ID order
+        int seen = 0;
+        int cursor = 0;
+        List<ReimbursementRequest> page;
+        while (!(page = rrdao.getReimbursementRequestPage(
+                -1, SearchType.PENDING, cursor, true, 50)).isEmpty()){
+            for (ReimbursementRequest rr : page){
+                assertTrue(rr.getID() > cursor);
+                assertEquals(ReimbursementStatus.PENDING, rr.getStatus());
+                cursor = rr.getID();
+            }
+            seen += page.size();
+        }
+        assertEquals(fixtures.getPendingCount(), seen);
+
+        // everyone's first req was submitted at the same time
+        assertEquals(200, rrdao.getReimbursementRequestsSubmittedBetween(
+                DAOFixtures.START, DAOFixtures.START.plusMinutes(1)).size());
+    }
+
+    /**
+     * Each list query should be one SQL statement, no matter how many different authors
+     * the reqs have (no extra select per author).
+     * 
+     * @throws DAOException
+     */
+    @Test
+    public void testListQueriesAreOneStatement() throws DAOException{
+
+        DAOFixtures.load(100, 1, 4);
+        Statistics stats = HibernateConnectionUtil.getStatistics();
+
+        stats.clear();
+        List<ReimbursementRequest> reimbList 
+                = rrdao.getReimbursementRequests(-1, SearchType.ALL);
+        assertEquals(400, reimbList.size());
+        assertEquals(1, stats.getPrepareStatementCount());
+        assertEquals("employee99", reimbList.get(399).getAuthor().getUsername());
+
+        stats.clear();
+        rrdao.getReimbursementRequestPage(-1, SearchType.PENDING, 0, true, 50);
+        assertEquals(1, stats.getPrepareStatementCount());
+
+        stats.clear();
+        rrdao.getReimbursementRequestsSubmittedBetween(
+                DAOFixtures.START, DAOFixtures.START.plusDays(1));
+        assertEquals(1, stats.getPrepareStatementCount());
+
+        stats.clear();
+        rrdao.getOldestPendingRequests(50);
+        assertEquals(1, stats.getPrepareStatementCount());
+    }
+
+    /**
+     * Exports go through every matching req once, in ID order, with one statement.
+     * 
+     * @throws DAOException
+     * @throws IOException
+     */
+    @Test
+    public void testExportReimbursementRequests() throws DAOException, IOException{
+
+        DAOFixtures fixtures = DAOFixtures.load(100, 1, 6);
+        Statistics stats = HibernateConnectionUtil.getStatistics();
+
+        stats.clear();
+        List<ReimbursementRequest> exported = new ArrayList<>();
+        int count = rrdao.exportReimbursementRequests(
+                SearchType.ALL, null, null, exported::add);
+        assertEquals(600, count);
+        assertEquals(600, exported.size());
+        assertEquals(1, stats.getPrepareStatementCount()); // authors are joined in
+        for (int i = 1; i < exported.size(); i++){
+            assertTrue(exported.get(i).getID() > exported.get(i - 1).getID());
+        }
+        assertEquals("employee99", exported.get(599).getAuthor().getUsername());
+
+        assertEquals(fixtures.getPendingCount(), rrdao.exportReimbursementRequests(
+                SearchType.PENDING, null, null, rr -> {}));
+        assertEquals(400, rrdao.exportReimbursementRequests(
+                SearchType.RESOLVED, null, null, rr -> {}));
+
+        // each employee submitted their first two in the first two hours
+        assertEquals(200, rrdao.exportReimbursementRequests(SearchType.ALL,
+                DAOFixtures.START, DAOFixtures.START.plusHours(2), rr -> {}));
+
+        // a sink that fails stops the export, and the exception comes back out
+        int[] seen = new int[1];
+        try{
+            rrdao.exportReimbursementRequests(SearchType.ALL, null, null, rr -> {
+                if (++seen[0] == 10) throw new IOException("client went away");
+            });
+            fail();
+        }
+        catch(IOException e){
+            assertEquals(10, seen[0]);
+        }
+        // and the DAO still works afterwards
+        assertEquals(600, rrdao.getReimbursementRequests(-1, SearchType.ALL).size());
+    }
+
+    /**
+     * Bulk approves a mix of pending, resolved, and missing reqs.
+     * 
+     * @throws DAOException
+     */
+    @Test
+    public void testResolvePendingRequests() throws DAOException{
+
+        DAOFixtures fixtures = DAOFixtures.load(10, 1, 3);
+        List<ReimbursementRequest> pending 
+                = rrdao.getReimbursementRequests(-1, SearchType.PENDING);
+        List<ReimbursementRequest> resolved 
+                = rrdao.getReimbursementRequests(-1, SearchType.RESOLVED);
+        ReimbursementRequest cached 
+                = rrdao.getReimbursementRequest(pending.get(0).getID());
+        assertEquals(ReimbursementStatus.PENDING, cached.getStatus());
+
+        List<Integer> ids = new ArrayList<>();
+        ids.add(pending.get(0).getID());
+        ids.add(pending.get(1).getID());
+        ids.add(resolved.get(0).getID());
+        ids.add(12345); // not there
+        int managerID = fixtures.getManagerID(0);
+        LocalDateTime now = LocalDateTime.of(2021, 2, 1, 12, 0);
+
+        Map<Integer, ReimbursementStatus> before = rrdao.resolvePendingRequests(
+                ids, ReimbursementStatus.APPROVED, managerID, now);
+        assertEquals(3, before.size());
+        assertEquals(ReimbursementStatus.PENDING, before.get(ids.get(0)));
+        assertEquals(ReimbursementStatus.PENDING, before.get(ids.get(1)));
+        assertEquals(resolved.get(0).getStatus(), before.get(ids.get(2)));
+        assertFalse(before.containsKey(12345));
+
+        // the change shows up, even though the req was in the second level cache
+        ReimbursementRequest reimb = rrdao.getReimbursementRequest(ids.get(0));
+        assertEquals(ReimbursementStatus.APPROVED, reimb.getStatus());
+        assertEquals(managerID, reimb.getResolverID());
+        assertEquals(now, reimb.getTimeResolved());
+        assertEquals(fixtures.getPendingCount() - 2,
+                rrdao.getReimbursementRequests(-1, SearchType.PENDING).size());
+
+        // the resolved one wasn't touched
+        assertEquals(resolved.get(0).getResolverID(),
+                rrdao.getReimbursementRequest(ids.get(2)).getResolverID());
+
+        // doing it again changes nothing
+        before = rrdao.resolvePendingRequests(
+                ids, ReimbursementStatus.DENIED, managerID, now);
+        assertEquals(ReimbursementStatus.APPROVED, before.get(ids.get(0)));
+        assertEquals(ReimbursementStatus.APPROVED, 
+                rrdao.getReimbursementRequest(ids.get(0)).getStatus());
+    }
+
+    /**
+     * Saving or bulk resolving a req should bump the change count, and a failed save or
+     * a bulk resolve that changes nothing shouldn't.
+     * 
+     * @throws DAOException
+     */
+    @Test
+    public void testGetChangeCount() throws DAOException{
+
+        DAOFixtures fixtures = DAOFixtures.load(2, 1, 2);
+        long loaded = rrdao.getChangeCount();
+
+        List<ReimbursementRequest> pending 
+                = rrdao.getReimbursementRequests(-1, SearchType.PENDING);
+        List<Integer> ids = new ArrayList<>();
+        ids.add(pending.get(0).getID());
+        rrdao.resolvePendingRequests(ids, ReimbursementStatus.APPROVED, 
+                fixtures.getManagerID(0), LocalDateTime.of(2021, 2, 1, 12, 0));
+        long resolved = rrdao.getChangeCount();
+        assertEquals(loaded + 1, resolved);
+
+        // already resolved, so nothing changes
+        rrdao.resolvePendingRequests(ids, ReimbursementStatus.DENIED, 
+                fixtures.getManagerID(0), LocalDateTime.of(2021, 2, 1, 12, 0));
+        assertEquals(resolved, rrdao.getChangeCount());
+
+        ReimbursementRequest reimb 
+                = rrdao.getReimbursementRequest(pending.get(1).getID());
+        ReimbursementRequest stale 
+                = rrdao.getReimbursementRequest(pending.get(1).getID());
+        reimb.setDescription("changed");
+        rrdao.saveReimbursementRequest(reimb);
+        assertEquals(resolved + 1, rrdao.getChangeCount());
+
+        stale.setDescription("changed again");
+        try{
+            rrdao.saveReimbursementRequest(stale);
+            fail("expected a StaleDataException");
+        }
+        catch (StaleDataException e){
+            assertEquals(resolved + 1, rrdao.getChangeCount()); // rolled back
+        }
+    }
+
+    /**
+     * Bumping the change count shouldn't empty the second level cache: a profile that
+     * has nothing to do with the write should still be cached afterwards.
+     * 
+     * @throws DAOException
+     */
+    @Test
+    public void testChangeCountKeepsCache() throws DAOException{
+
+        DAOFixtures fixtures = DAOFixtures.load(3, 1, 1);
+        UserProfileDAO updao = new UserProfileDAOImpl();
+        int otherID = fixtures.getEmployeeID(2);
+        updao.getUserProfile(otherID);
+        assertTrue(isProfileCached(otherID));
+
+        ReimbursementRequest reimb = rrdao.getReimbursementRequests(
+                fixtures.getEmployeeID(0), SearchType.ALL).get(0);
+        reimb.setDescription("changed");
+        rrdao.saveReimbursementRequest(reimb);
+        assertTrue(isProfileCached(otherID));
+
+        List<Integer> ids = new ArrayList<>();
+        ids.add(reimb.getID());
+        rrdao.resolvePendingRequests(ids, ReimbursementStatus.APPROVED, 
+                fixtures.getManagerID(0), LocalDateTime.of(2021, 2, 1, 12, 0));
+        assertTrue(isProfileCached(otherID));
+    }
+
+    /**
+     * Two managers read the same pending req, then both try to resolve it.
+     * 
+     * @throws DAOException
+     */
+    @Test
+    public void testSaveStaleReimbursementRequest() throws DAOException{
+
+        DAOFixtures fixtures = DAOFixtures.load(1, 2, 3);
+        int reimbID 
+                = rrdao.getReimbursementRequests(-1, SearchType.PENDING).get(0).getID();
+
+        ReimbursementRequest first = rrdao.getReimbursementRequest(reimbID);
+        ReimbursementRequest second = rrdao.getReimbursementRequest(reimbID);
+        int version = first.getVersion();
+
+        first.setStatus(ReimbursementStatus.APPROVED);
+        first.setResolverID(fixtures.getManagerID(0));
+        rrdao.saveReimbursementRequest(first);
+        assertEquals(version + 1, first.getVersion());
+
+        second.setStatus(ReimbursementStatus.DENIED);
+        second.setResolverID(fixtures.getManagerID(1));
+        try{
+            rrdao.saveReimbursementRequest(second);
+            fail("should have been stale");
+        }
+        catch(StaleDataException e){
+            // expected
+        }
+
+        // the first one stuck
+        ReimbursementRequest reimb = rrdao.getReimbursementRequest(reimbID);
+        assertEquals(ReimbursementStatus.APPROVED, reimb.getStatus());
+        assertEquals(fixtures.getManagerID(0), reimb.getResolverID());
+
+        // and the first copy is up to date, so it can be saved again
+        first.setDescription("changed");
+        rrdao.saveReimbursementRequest(first);
+        assertEquals("changed", rrdao.getReimbursementRequest(reimbID).getDescription());
+    }
+
     @Test
     public void testGetReimbursementRequest() throws DAOException {
 
@@ -342,5 +755,20 @@ public class TestRRDAOImpl {
         assertEquals(reimb.getAuthorID(), found.getAuthorID());
         assertEquals(reimb.getStatus(), found.getStatus());
         assertEquals(reimb.getType(), found.getType());
+
+        // the Optional version should agree
+        assertTrue(rrdao.findReimbursementRequest(reimb.getID()).isPresent());
+        assertFalse(rrdao.findReimbursementRequest(12345).isPresent());
+    }
+
+    // helpers
+
+    private boolean isProfileCached(int userID){
+
+        Session session = HibernateConnectionUtil.getSession();
+        boolean cached = session.getSessionFactory().getCache()
+                .containsEntity(UserProfile.class, userID);
+        HibernateConnectionUtil.releaseSession(session);
+        return cached;
     }
 }
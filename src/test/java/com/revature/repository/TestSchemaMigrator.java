@@ -0,0 +1,169 @@
+/**
+ * This class contains tests for SchemaMigrator: the script handling on its own, and the
+ * real scripts run against an in-memory H2 database (in PostgreSQL mode, like the DAO
+ * tests) laid out the way hbm2ddl used to leave it.
+ */
+package com.revature.repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Scanner;
+
+import com.revature.repository.Util.SchemaMigrator;
+
+import org.junit.Test;
+
+public class TestSchemaMigrator {
+
+    // its own database, so it can't meet the DAO tests' tables; gone once it's closed
+    private static final String LEGACY_URL 
+            = "jdbc:h2:mem:migrator_test;MODE=PostgreSQL";
+
+    @Test
+    public void testSplitStatements(){
+
+        String script = "-- a comment; with a semicolon\n"
+                + "CREATE TABLE A (\n"
+                + "    ID INTEGER\n"
+                + ");\n"
+                + "\n"
+                + "CREATE INDEX A_IDX ON A (ID);\n"
+                + "CREATE INDEX B_IDX ON A (ID)"; // no ; at the end
+
+        List<String> statements = SchemaMigrator.splitStatements(script);
+        assertEquals(3, statements.size());
+        assertEquals("CREATE TABLE A ( ID INTEGER )", statements.get(0));
+        assertEquals("CREATE INDEX A_IDX ON A (ID)", statements.get(1));
+        assertEquals("CREATE INDEX B_IDX ON A (ID)", statements.get(2));
+
+        assertTrue(SchemaMigrator.splitStatements("-- nothing here\n").isEmpty());
+    }
+
+    @Test
+    public void testFillInSchema(){
+
+        String script = "CREATE SCHEMA IF NOT EXISTS ${schema};\n"
+                + "CREATE INDEX A_IDX ON ${schema}.A (ID);";
+
+        assertEquals("CREATE SCHEMA IF NOT EXISTS project1;\n"
+                + "CREATE INDEX A_IDX ON project1.A (ID);", 
+                new SchemaMigrator("project1").fillInSchema(script));
+
+        // no schema: tables are left unqualified, and there's no schema to create
+        String filled = new SchemaMigrator(null).fillInSchema(script);
+        List<String> statements = SchemaMigrator.splitStatements(filled);
+        assertEquals(1, statements.size());
+        assertEquals("CREATE INDEX A_IDX ON A (ID)", statements.get(0));
+    }
+
+    /**
+     * Makes sure the real scripts are on the classpath, and have nothing left unfilled.
+     */
+    @Test
+    public void testScriptsExist(){
+
+        SchemaMigrator migrator = new SchemaMigrator("project1_test");
+        for (int version = 1; version <= 5; version++){
+            String path = String.format(SchemaMigrator.SCRIPT_PATH, version);
+            assertNotNull(path, getClass().getClassLoader().getResource(path));
+        }
+        InputStream is = getClass().getClassLoader().getResourceAsStream(
+                String.format(SchemaMigrator.SCRIPT_PATH, 2));
+        String v2;
+        try (Scanner scanner = new Scanner(is, "UTF-8")){
+            v2 = scanner.useDelimiter("\\A").next(); // the whole file
+        }
+        for (String sql : SchemaMigrator.splitStatements(migrator.fillInSchema(v2))){
+            assertFalse(sql, sql.contains(SchemaMigrator.SCHEMA_PLACEHOLDER));
+            assertTrue(sql, sql.startsWith("CREATE"));
+        }
+    }
+
+    /**
+     * Runs every script against tables as hbm2ddl made them, with the times still in
+     * VARCHAR columns: set, set with fractions of a second, set without seconds (what
+     * LocalDateTime.toString() gives when they're 0), or not set ('--', '', or NULL).
+     * They should all come out as TIMESTAMPs or NULLs, and running it again should do
+     * nothing.
+     *
+     * @throws SQLException
+     */
+    @Test
+    public void testMigrateLegacyTables() throws SQLException{
+
+        try (Connection connection 
+                = DriverManager.getConnection(LEGACY_URL, "sa", "");
+                Statement st = connection.createStatement()){
+            st.execute("CREATE SCHEMA legacy");
+            st.execute("CREATE TABLE legacy.USER_PROFILE (USER_ID SERIAL PRIMARY KEY, "
+                    + "USER_ROLE VARCHAR(255), USERNAME VARCHAR(255), "
+                    + "FIRST_NAME VARCHAR(255), LAST_NAME VARCHAR(255), "
+                    + "EMAIL_ADDRESS VARCHAR(255))");
+            st.execute("CREATE TABLE legacy.REIMBURSEMENT_REQUEST ("
+                    + "RR_ID SERIAL PRIMARY KEY, USER_ID INTEGER NOT NULL, "
+                    + "RR_MONEY_AMOUNT BIGINT, RR_TYPE VARCHAR(255), "
+                    + "RR_STATUS VARCHAR(255), RR_DESCRIPTION VARCHAR(255), "
+                    + "RR_TIME_SUBMITTED VARCHAR(255), RR_RESOLVER_ID INTEGER, "
+                    + "RR_TIME_RESOLVED VARCHAR(255))");
+            st.execute("INSERT INTO legacy.USER_PROFILE (USER_ROLE, USERNAME) "
+                    + "VALUES ('EMPLOYEE', 'emp'), ('MANAGER', 'man')");
+            st.execute("INSERT INTO legacy.REIMBURSEMENT_REQUEST (USER_ID, "
+                    + "RR_STATUS, RR_TIME_SUBMITTED, RR_RESOLVER_ID, RR_TIME_RESOLVED) "
+                    + "VALUES (1, 'PENDING', '2020-01-02T03:04:05', -1, '--'), "
+                    + "(1, 'APPROVED', '2020-01-02T03:04:05.123', 2, "
+                    + "'2020-01-03T10:00'), "
+                    + "(1, 'PENDING', '', -1, NULL)");
+
+            SchemaMigrator migrator = new SchemaMigrator("legacy");
+            assertEquals(5, migrator.migrate(connection));
+            assertEquals(5, migrator.getCurrentVersion(connection));
+            assertEquals(0, migrator.migrate(connection)); // already up to date
+
+            try (ResultSet rs = st.executeQuery("SELECT RR_SUBMITTED_AT, RR_RESOLVED_AT, "
+                    + "RR_VERSION FROM legacy.REIMBURSEMENT_REQUEST ORDER BY RR_ID")){
+                assertTrue(rs.next());
+                assertEquals(LocalDateTime.of(2020, 1, 2, 3, 4, 5), 
+                        rs.getTimestamp(1).toLocalDateTime());
+                assertNull(rs.getTimestamp(2));
+                assertEquals(0, rs.getInt(3));
+
+                assertTrue(rs.next());
+                assertEquals(Timestamp.valueOf("2020-01-02 03:04:05.123"), 
+                        rs.getTimestamp(1));
+                assertEquals(LocalDateTime.of(2020, 1, 3, 10, 0), 
+                        rs.getTimestamp(2).toLocalDateTime());
+
+                assertTrue(rs.next());
+                assertNull(rs.getTimestamp(1));
+                assertNull(rs.getTimestamp(2));
+                assertFalse(rs.next());
+            }
+
+            // the old columns are gone, and the change count starts at 0
+            try (ResultSet rs = st.executeQuery("SELECT COUNT(*) "
+                    + "FROM INFORMATION_SCHEMA.COLUMNS WHERE TABLE_SCHEMA = 'LEGACY' "
+                    + "AND COLUMN_NAME IN ('RR_TIME_SUBMITTED', 'RR_TIME_RESOLVED')")){
+                rs.next();
+                assertEquals(0, rs.getInt(1));
+            }
+            try (ResultSet rs = st.executeQuery(
+                    "SELECT CHANGE_COUNT FROM legacy.RR_CHANGE_COUNT WHERE ID = 1")){
+                assertTrue(rs.next());
+                assertEquals(0, rs.getLong(1));
+            }
+        }
+    }
+}
@@ -10,6 +10,7 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.util.List;
+import java.util.Optional;
 
 import org.hibernate.Transaction;
 
@@ -185,6 +186,61 @@ public class TestUPDAOImpl {
         assertEquals(password, foundPass);
     }
 
+    /**
+     * findUserPassword should bring back the profile along with the password.
+     */
+    @Test
+    public void testFindUserPassword() throws DAOException, HibernateException{
+
+        assertFalse(updao.findUserPassword("username").isPresent());
+
+        Session session = HibernateConnectionUtil.getSession();
+        UserProfile up = new UserProfile(-1, UserRole.EMPLOYEE);
+        String username = "username";
+        up.setUsername(username);
+        Transaction tx = session.beginTransaction();
+        session.save(up);
+        UserPassword uPass = new UserPassword();
+        uPass.setUser(up);
+        uPass.setPass("password");
+        session.save(uPass);
+        tx.commit();
+        session.close();
+
+        Optional<UserPassword> found = updao.findUserPassword(username);
+        assertTrue(found.isPresent());
+        assertEquals("password", found.get().getPass());
+        assertEquals(up.getID(), found.get().getUser().getID());
+        assertEquals(username, found.get().getUser().getUsername());
+
+        assertTrue(updao.findUserProfile(username).isPresent());
+        assertTrue(updao.findUserProfile(up.getID()).isPresent());
+        assertFalse(updao.findUserProfile(up.getID() + 1).isPresent());
+    }
+
+    @Test
+    public void testUpdatePassword() throws DAOException, HibernateException{
+
+        assertFalse(updao.updatePassword(1, "nope")); // no one to update
+
+        Session session = HibernateConnectionUtil.getSession();
+        UserProfile up = new UserProfile(-1, UserRole.EMPLOYEE);
+        String username = "username";
+        up.setUsername(username);
+        Transaction tx = session.beginTransaction();
+        session.save(up);
+        UserPassword uPass = new UserPassword();
+        uPass.setUser(up);
+        uPass.setPass("old");
+        session.save(uPass);
+        tx.commit();
+        session.close();
+
+        assertTrue(updao.updatePassword(up.getID(), "new"));
+        assertEquals("new", updao.findUserPassword(username).get().getPass());
+        assertEquals("new", updao.getPassword(up.getID()));
+    }
+
     @Test
     public void testGetAllEmployeeProfiles() throws DAOException, HibernateException{
 
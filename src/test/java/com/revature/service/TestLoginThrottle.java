@@ -0,0 +1,100 @@
+/**
+ * This class contains tests for the LoginThrottle and PasswordChecker classes.
+ */
+package com.revature.service;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+public class TestLoginThrottle {
+
+    @Test
+    public void testPerUserLimit(){
+
+        AtomicLong now = new AtomicLong(0L);
+        LoginThrottle throttle = new LoginThrottle(2, 100, 1000L, now::get);
+
+        assertTrue(throttle.tryAttempt("bob", "1.1.1.1"));
+        assertTrue(throttle.tryAttempt("BOB", "1.1.1.1")); // same user
+        assertFalse(throttle.tryAttempt("bob", "1.1.1.1"));
+        assertTrue(throttle.tryAttempt("alice", "1.1.1.1")); // others aren't affected
+        // and bob can still log in from anywhere else, so he can't be locked out
+        assertTrue(throttle.tryAttempt("bob", "2.2.2.2"));
+        assertTrue(throttle.tryAttempt("bob", null));
+        assertTrue(throttle.tryAttempt("bob", null));
+        assertFalse(throttle.tryAttempt("bob", null)); // unknown addresses share a count
+
+        now.set(1000L); // new window
+        assertTrue(throttle.tryAttempt("bob", "1.1.1.1"));
+
+        // logging in successfully starts over
+        assertTrue(throttle.tryAttempt("bob", "1.1.1.1"));
+        throttle.recordSuccess("bob", "1.1.1.1");
+        assertTrue(throttle.tryAttempt("bob", "1.1.1.1"));
+        assertTrue(throttle.tryAttempt("bob", "1.1.1.1"));
+        assertFalse(throttle.tryAttempt("bob", "1.1.1.1"));
+    }
+
+    @Test
+    public void testPerAddressLimit(){
+
+        AtomicLong now = new AtomicLong(0L);
+        LoginThrottle throttle = new LoginThrottle(100, 3, 1000L, now::get);
+
+        assertTrue(throttle.tryAttempt("a", "1.1.1.1"));
+        assertTrue(throttle.tryAttempt("b", "1.1.1.1"));
+        assertTrue(throttle.tryAttempt("c", "1.1.1.1"));
+        assertFalse(throttle.tryAttempt("d", "1.1.1.1"));
+        assertTrue(throttle.tryAttempt("d", "2.2.2.2"));
+
+        // the turned-away attempt didn't count against d
+        now.set(1000L);
+        assertTrue(throttle.tryAttempt("d", "1.1.1.1"));
+    }
+
+    /**
+     * With one thread and no room in the queue, a second check at the same time is
+     * turned away instead of waiting.
+     */
+    @Test
+    public void testPasswordCheckerRejects() throws Exception{
+
+        PasswordChecker checker = new PasswordChecker(1, 1, 10000L);
+        String hash = PasswordUtil.hash("password");
+        assertTrue(checker.checkPassword("password", hash));
+        assertFalse(checker.checkPassword("wrong", hash));
+
+        // fill up the thread and the queue with slow checks
+        Thread[] busy = new Thread[2];
+        for (int i = 0; i < busy.length; i++){
+            busy[i] = new Thread(() -> {
+                try{
+                    checker.checkPassword("password", hash);
+                }
+                catch(PasswordCheckException e){
+                    // fine either way
+                }
+            });
+            busy[i].start();
+        }
+        while (checker.getQueuedCount() == 0 && busy[1].isAlive()) Thread.sleep(1);
+
+        try{
+            if (checker.getQueuedCount() > 0){
+                checker.checkPassword("password", hash);
+                fail("should have been rejected");
+            }
+        }
+        catch(PasswordCheckException e){
+            // expected
+        }
+        finally{
+            checker.shutDown();
+        }
+    }
+}
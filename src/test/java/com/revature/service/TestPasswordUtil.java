@@ -0,0 +1,61 @@
+/**
+ * This class contains tests for PasswordUtil and BCryptPasswordPolicy.
+ */
+package com.revature.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class TestPasswordUtil {
+
+    @Test
+    public void testHashAndCheck(){
+
+        String hash = PasswordUtil.hash("password");
+        assertTrue(PasswordUtil.checkPassword("password", hash));
+        assertFalse(PasswordUtil.checkPassword("Password", hash));
+        assertFalse(PasswordUtil.needsRehash(hash));
+
+        // something that isn't a bcrypt hash never matches (instead of throwing)
+        assertFalse(PasswordUtil.checkPassword("password", "password"));
+        assertFalse(PasswordUtil.checkPassword("password", null));
+    }
+
+    @Test
+    public void testNeedsRehash(){
+
+        BCryptPasswordPolicy weak = new BCryptPasswordPolicy(4);
+        BCryptPasswordPolicy strong = new BCryptPasswordPolicy(5);
+        String weakHash = weak.hash("password");
+        String strongHash = strong.hash("password");
+
+        assertEquals(4, BCryptPasswordPolicy.getWorkFactor(weakHash));
+        assertEquals(5, BCryptPasswordPolicy.getWorkFactor(strongHash));
+        assertEquals(-1, BCryptPasswordPolicy.getWorkFactor("$2a$xx$"));
+
+        assertTrue(strong.needsRehash(weakHash));
+        assertFalse(strong.needsRehash(strongHash));
+        assertFalse(weak.needsRehash(strongHash)); // never downgrades
+        assertTrue(strong.needsRehash("plain text"));
+
+        // old hashes still work
+        assertTrue(strong.matches("password", weakHash));
+    }
+
+    @Test
+    public void testCalibrate(){
+
+        // nothing can be that fast, so it stays at the minimum
+        assertEquals(4, BCryptPasswordPolicy.calibrate(0L, 4, 8));
+        // and anything is that fast, so it goes up to the max
+        assertEquals(8, BCryptPasswordPolicy.calibrate(Long.MAX_VALUE, 4, 8));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBadWorkFactor(){
+        new BCryptPasswordPolicy(3);
+    }
+}
@@ -0,0 +1,130 @@
+/**
+ * This class contains tests for the ServiceFront class: permissions, dispatching, and
+ * the timing hooks. The handlers are real, but their DAOs are mocks.
+ */
+package com.revature.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.revature.model.UserProfile.UserRole;
+import com.revature.repository.DAO.exceptions.DAOException;
+import com.revature.repository.DAO.interfaces.ReimbursementRequestDAO;
+import com.revature.repository.DAO.interfaces.ReimbursementRequestDAO.SearchType;
+import com.revature.repository.DAO.interfaces.UserProfileDAO;
+import com.revature.service.comms.ERSRequest;
+import com.revature.service.comms.ERSResponse;
+import com.revature.service.comms.ERSRequest.ERSRequestType;
+import com.revature.service.comms.ERSResponse.ERSResponseType;
+import com.revature.service.handlers.AuthRequestHandler;
+import com.revature.service.handlers.ModifyRequestHandler;
+import com.revature.service.handlers.ViewRequestHandler;
+
+public class TestServiceFront {
+
+    // instance variables
+    private ServiceFront sf;
+    private UserProfileDAO updao;
+    private ReimbursementRequestDAO rrdao;
+
+    @Before
+    public void setup(){
+
+        updao = mock(UserProfileDAO.class);
+        rrdao = mock(ReimbursementRequestDAO.class);
+        sf = new ServiceFront(
+                new AuthRequestHandler(updao, rrdao),
+                new ViewRequestHandler(updao, rrdao),
+                new ModifyRequestHandler(updao, rrdao));
+    }
+
+    @Test
+    public void testPossibleRequestTypes(){
+
+        assertEquals(EnumSet.of(ERSRequestType.LOG_IN),
+                sf.getPossibleRequestTypes(UserRole.LOGGED_OUT));
+        assertTrue(sf.getPossibleRequestTypes(UserRole.NONE).isEmpty());
+
+        EnumSet<ERSRequestType> employee = sf.getPossibleRequestTypes(UserRole.EMPLOYEE);
+        assertEquals(7, employee.size());
+        assertTrue(employee.contains(ERSRequestType.SUBMIT_REQUEST));
+        assertFalse(employee.contains(ERSRequestType.APPROVE_REQUEST));
+
+        EnumSet<ERSRequestType> manager = sf.getPossibleRequestTypes(UserRole.MANAGER);
+        assertEquals(13, manager.size());
+        assertTrue(manager.contains(ERSRequestType.APPROVE_REQUEST));
+        assertFalse(manager.contains(ERSRequestType.SUBMIT_REQUEST));
+
+        // a copy, so it can't change the permissions
+        manager.add(ERSRequestType.SUBMIT_REQUEST);
+        assertFalse(sf.getPossibleRequestTypes(UserRole.MANAGER)
+                .contains(ERSRequestType.SUBMIT_REQUEST));
+    }
+
+    @Test
+    public void testDispatchAndTiming() throws DAOException{
+
+        List<ERSRequestType> types = new ArrayList<>();
+        List<ERSResponseType> results = new ArrayList<>();
+        sf.addTimingListener((type, result, elapsed) -> {
+            types.add(type);
+            results.add(result);
+            assertTrue(elapsed >= 0);
+        });
+
+        // an employee can't see everyone's requests; the handler is never reached
+        ERSRequest req
+                = new ERSRequest(ERSRequestType.VIEW_ALL_PENDING, 1, UserRole.EMPLOYEE);
+        assertEquals(ERSResponseType.FORBIDDEN, sf.handleERSRequest(req).getType());
+        verify(rrdao, never()).getReimbursementRequests(-1, SearchType.PENDING);
+
+        // but a manager can
+        when(rrdao.getReimbursementRequests(-1, SearchType.PENDING))
+                .thenReturn(new ArrayList<>());
+        when(updao.checkExists(2)).thenReturn(true);
+        req = new ERSRequest(ERSRequestType.VIEW_ALL_PENDING, 2, UserRole.MANAGER);
+        ERSResponse res = sf.handleERSRequest(req);
+        assertEquals(ERSResponseType.SUCCESS, res.getType());
+        verify(rrdao).getReimbursementRequests(-1, SearchType.PENDING);
+
+        // nobody can do NONE
+        req = new ERSRequest(ERSRequestType.NONE, 2, UserRole.MANAGER);
+        assertEquals(ERSResponseType.FORBIDDEN, sf.handleERSRequest(req).getType());
+
+        assertEquals(3, types.size());
+        assertEquals(ERSRequestType.VIEW_ALL_PENDING, types.get(0));
+        assertEquals(ERSResponseType.FORBIDDEN, results.get(0));
+        assertEquals(ERSResponseType.SUCCESS, results.get(1));
+        assertEquals(ERSRequestType.NONE, types.get(2));
+    }
+
+    /**
+     * A listener that throws doesn't change the response, or stop the listeners after
+     * it.
+     */
+    @Test
+    public void testBrokenTimingListener(){
+
+        List<ERSRequestType> types = new ArrayList<>();
+        sf.addTimingListener((type, result, elapsed) -> {
+            throw new IllegalStateException("broken");
+        });
+        sf.addTimingListener((type, result, elapsed) -> types.add(type));
+
+        ERSRequest req = new ERSRequest(ERSRequestType.NONE, 2, UserRole.MANAGER);
+        assertEquals(ERSResponseType.FORBIDDEN, sf.handleERSRequest(req).getType());
+        assertEquals(1, types.size());
+    }
+}
@@ -0,0 +1,182 @@
+/**
+ * This class contains unit tests for the DashboardStore class.
+ */
+package com.revature.service.dashboard;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.revature.model.ReimbursementRequest;
+import com.revature.model.ReimbursementRequest.ReimbursementStatus;
+import com.revature.model.ReimbursementRequest.ReimbursementType;
+import com.revature.model.UserProfile;
+import com.revature.model.UserProfile.UserRole;
+import com.revature.repository.DAO.exceptions.DAOException;
+import com.revature.repository.DAO.interfaces.ReimbursementRequestDAO;
+import com.revature.repository.DAO.interfaces.ReimbursementRequestDAO.ExportSink;
+import com.revature.repository.DAO.interfaces.ReimbursementRequestDAO.SearchType;
+import com.revature.service.events.ReimbursementEventBus;
+
+public class TestDashboardStore {
+
+    private ReimbursementRequestDAO rrdao;
+    private DashboardStore store;
+    private ReimbursementEventBus events;
+
+    @Before
+    public void setup() throws DAOException, IOException{
+
+        List<ReimbursementRequest> inDatabase = Arrays.asList(
+                make(1, 3, 1000, ReimbursementType.FOOD, ReimbursementStatus.PENDING),
+                make(2, 3, 500, ReimbursementType.FOOD, ReimbursementStatus.APPROVED),
+                make(3, 4, 20000, ReimbursementType.LODGING, ReimbursementStatus.PENDING),
+                make(4, 4, 250, ReimbursementType.FOOD, ReimbursementStatus.DENIED));
+
+        rrdao = mock(ReimbursementRequestDAO.class);
+        doAnswer(inv -> {
+            ExportSink sink = (ExportSink)inv.getArguments()[3];
+            for (ReimbursementRequest rr : inDatabase) sink.accept(rr);
+            return inDatabase.size();
+        }).when(rrdao).exportReimbursementRequests(
+                any(SearchType.class), any(), any(), any(ExportSink.class));
+        store = new DashboardStore(rrdao);
+        events = new ReimbursementEventBus();
+        events.subscribe(store);
+    }
+
+    @Test
+    public void testLoad() throws DAOException, IOException{
+
+        assertFalse(store.isLoaded());
+        Dashboard dashboard = store.getDashboard(); // loads on first use
+        assertTrue(store.isLoaded());
+
+        DashboardTotals overall = dashboard.getOverall();
+        assertEquals(1, overall.getCount(
+                ReimbursementStatus.PENDING, ReimbursementType.FOOD));
+        assertEquals(2, overall.getCount(ReimbursementStatus.PENDING));
+        assertEquals(21000, overall.getAmount(ReimbursementStatus.PENDING));
+        assertEquals(500, overall.getAmount(ReimbursementStatus.APPROVED));
+        assertEquals(1, overall.getCount(ReimbursementStatus.DENIED));
+
+        assertEquals(Arrays.asList(3, 4), 
+                Arrays.asList(dashboard.getByAuthor().keySet().toArray()));
+        assertEquals(20000, dashboard.getByAuthor().get(4).getAmount(
+                ReimbursementStatus.PENDING, ReimbursementType.LODGING));
+
+        // nothing changed, so no need for a new snapshot (or another load)
+        assertSame(dashboard, store.getDashboard());
+        verify(rrdao, times(1)).exportReimbursementRequests(
+                any(SearchType.class), any(), any(), any(ExportSink.class));
+    }
+
+    @Test
+    public void testUpdates() throws DAOException{
+
+        Dashboard before = store.getDashboard();
+
+        events.publishSubmitted(make(5, 3, 700, ReimbursementType.TRAVEL, 
+                ReimbursementStatus.PENDING));
+        events.publishResolved(3, ReimbursementStatus.APPROVED, 1);
+        Dashboard after = store.getDashboard();
+        assertNotSame(before, after);
+
+        // the old snapshot didn't change
+        assertEquals(21000, before.getOverall().getAmount(ReimbursementStatus.PENDING));
+
+        DashboardTotals overall = after.getOverall();
+        assertEquals(2, overall.getCount(ReimbursementStatus.PENDING));
+        assertEquals(1700, overall.getAmount(ReimbursementStatus.PENDING));
+        assertEquals(20500, overall.getAmount(ReimbursementStatus.APPROVED));
+        DashboardTotals author4 = after.getByAuthor().get(4);
+        assertEquals(0, author4.getCount(ReimbursementStatus.PENDING));
+        assertEquals(1, author4.getCount(
+                ReimbursementStatus.APPROVED, ReimbursementType.LODGING));
+
+        // reported twice, or not pending as far as the store knows: no change
+        events.publishSubmitted(make(5, 3, 700, ReimbursementType.TRAVEL, 
+                ReimbursementStatus.PENDING));
+        events.publishResolved(3, ReimbursementStatus.DENIED, 1);
+        events.publishResolved(2, ReimbursementStatus.DENIED, 1);
+        events.publishResolved(999, ReimbursementStatus.DENIED, 1);
+        assertSame(after, store.getDashboard());
+    }
+
+    @Test
+    public void testUpdatesBeforeLoadAreIgnored() throws DAOException{
+
+        events.publishSubmitted(make(5, 3, 700, ReimbursementType.TRAVEL, 
+                ReimbursementStatus.PENDING));
+        events.publishResolved(1, ReimbursementStatus.APPROVED, 1);
+        assertFalse(store.isLoaded());
+
+        // the load sees the database as it is, which is all that counts
+        DashboardTotals overall = store.getDashboard().getOverall();
+        assertEquals(2, overall.getCount(ReimbursementStatus.PENDING));
+        assertEquals(0, overall.getCount(
+                ReimbursementStatus.PENDING, ReimbursementType.TRAVEL));
+    }
+
+    @Test
+    public void testUpdatesDuringLoad() throws DAOException, IOException{
+
+        List<ReimbursementRequest> inDatabase = Arrays.asList(
+                make(1, 3, 1000, ReimbursementType.FOOD, ReimbursementStatus.PENDING),
+                make(2, 3, 500, ReimbursementType.FOOD, ReimbursementStatus.APPROVED),
+                make(3, 4, 20000, ReimbursementType.LODGING, ReimbursementStatus.PENDING));
+        doAnswer(inv -> {
+            ExportSink sink = (ExportSink)inv.getArguments()[3];
+            sink.accept(inDatabase.get(0));
+            sink.accept(inDatabase.get(1));
+
+            // published by another request halfway through; it mustn't wait for the load
+            Thread publisher = new Thread(() -> {
+                events.publishSubmitted(make(5, 3, 700, ReimbursementType.TRAVEL, 
+                        ReimbursementStatus.PENDING));
+                events.publishResolved(3, ReimbursementStatus.APPROVED, 1);
+                // reported late: the load already counted it, resolved
+                events.publishSubmitted(make(2, 3, 500, ReimbursementType.FOOD, 
+                        ReimbursementStatus.PENDING));
+            });
+            publisher.start();
+            publisher.join(5000);
+            assertFalse(publisher.isAlive());
+
+            sink.accept(inDatabase.get(2)); // read before the resolve committed
+            return inDatabase.size();
+        }).when(rrdao).exportReimbursementRequests(
+                any(SearchType.class), any(), any(), any(ExportSink.class));
+
+        DashboardTotals overall = store.getDashboard().getOverall();
+        assertEquals(2, overall.getCount(ReimbursementStatus.PENDING));
+        assertEquals(1700, overall.getAmount(ReimbursementStatus.PENDING));
+        assertEquals(20500, overall.getAmount(ReimbursementStatus.APPROVED));
+        assertEquals(0, overall.getCount(ReimbursementStatus.DENIED));
+    }
+
+    // helpers
+
+    private ReimbursementRequest make(int id, int authorID, long amount, 
+            ReimbursementType type, ReimbursementStatus status){
+
+        ReimbursementRequest rr = new ReimbursementRequest(
+                id, new UserProfile(authorID, UserRole.EMPLOYEE), amount, type);
+        rr.setStatus(status);
+        return rr;
+    }
+}
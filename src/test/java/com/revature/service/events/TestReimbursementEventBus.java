@@ -0,0 +1,114 @@
+/**
+ * This class contains unit tests for the ReimbursementEventBus class.
+ */
+package com.revature.service.events;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.revature.model.ReimbursementRequest;
+import com.revature.model.ReimbursementRequest.ReimbursementStatus;
+import com.revature.model.ReimbursementRequest.ReimbursementType;
+import com.revature.model.UserProfile;
+import com.revature.model.UserProfile.UserRole;
+
+public class TestReimbursementEventBus {
+
+    private ReimbursementEventBus bus = new ReimbursementEventBus();
+
+    @Test
+    public void testPublish(){
+
+        Recorder recorder = new Recorder();
+        Subscription subscription = bus.subscribe(recorder);
+        assertEquals(0, bus.getLastSequence());
+
+        ReimbursementRequest reimb = new ReimbursementRequest(
+                7, new UserProfile(3, UserRole.EMPLOYEE), 1250, ReimbursementType.FOOD);
+        reimb.setDescription("lunch");
+        bus.publishSubmitted(reimb);
+        bus.publishResolved(7, ReimbursementStatus.DENIED, 4);
+
+        assertEquals(2, recorder.events.size());
+        ReimbursementEvent submitted = recorder.events.get(0);
+        assertTrue(submitted.isSubmit());
+        assertEquals(1, submitted.getSequence());
+        assertEquals(3, submitted.getAuthorID());
+        assertEquals(1250, submitted.getMoneyAmount());
+        assertEquals("lunch", submitted.getDescription());
+        ReimbursementEvent resolved = recorder.events.get(1);
+        assertFalse(resolved.isSubmit());
+        assertEquals(2, resolved.getSequence());
+        assertEquals(ReimbursementStatus.DENIED, resolved.getStatus());
+        assertEquals(4, resolved.getResolverID());
+        assertNull(resolved.getType());
+
+        // a listener that throws doesn't stop the others
+        bus.subscribe(event -> { throw new IllegalStateException("broken"); });
+        subscription.cancel();
+        Recorder second = new Recorder();
+        bus.subscribe(second);
+        bus.publishResolved(8, ReimbursementStatus.APPROVED, 4);
+        assertEquals(2, recorder.events.size()); // cancelled
+        assertEquals(1, second.events.size());
+    }
+
+    @Test
+    public void testReplay(){
+
+        for (int i = 1; i <= ReimbursementEventBus.HISTORY_SIZE + 10; i++){
+            bus.publishResolved(i, ReimbursementStatus.APPROVED, 4);
+        }
+        long last = bus.getLastSequence();
+
+        // caught up: nothing to replay
+        Recorder recorder = new Recorder();
+        bus.subscribe(recorder, last);
+        assertEquals(0, recorder.events.size());
+
+        // a few behind
+        recorder = new Recorder();
+        bus.subscribe(recorder, last - 3);
+        assertEquals(3, recorder.events.size());
+        assertEquals(last - 2, recorder.events.get(0).getSequence());
+        assertFalse(recorder.missed);
+
+        // further back than the history goes, or from before a restart
+        recorder = new Recorder();
+        bus.subscribe(recorder, 5);
+        assertTrue(recorder.missed);
+        assertEquals(0, recorder.events.size());
+        recorder = new Recorder();
+        bus.subscribe(recorder, last + 100);
+        assertTrue(recorder.missed);
+
+        // and they all hear about new ones
+        bus.publishResolved(999, ReimbursementStatus.DENIED, 4);
+        assertEquals(last + 1, recorder.events.get(0).getSequence());
+    }
+
+    // helpers
+
+    private static class Recorder implements ReimbursementEventListener {
+
+        List<ReimbursementEvent> events = new ArrayList<>();
+        boolean missed;
+
+        @Override
+        public void onEvent(ReimbursementEvent event){
+            events.add(event);
+        }
+
+        @Override
+        public void eventsMissed(){
+            missed = true;
+        }
+    }
+}
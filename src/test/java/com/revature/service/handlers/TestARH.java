@@ -6,21 +6,29 @@ package com.revature.service.handlers;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.junit.MockitoJUnit;
 import org.mockito.junit.MockitoRule;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.*;
 
 import java.util.List;
+import java.util.Optional;
 
+import com.revature.model.UserPassword;
 import com.revature.model.UserProfile;
 import com.revature.model.UserProfile.UserRole;
 import com.revature.repository.DAO.exceptions.DAOException;
 import com.revature.repository.DAO.interfaces.ReimbursementRequestDAO;
 import com.revature.repository.DAO.interfaces.UserProfileDAO;
+import com.revature.service.BCryptPasswordPolicy;
+import com.revature.service.LoginThrottle;
+import com.revature.service.PasswordCheckException;
+import com.revature.service.PasswordChecker;
 import com.revature.service.PasswordUtil;
 import com.revature.service.comms.ERSRequest;
 import com.revature.service.comms.ERSResponse;
@@ -75,12 +83,13 @@ public class TestARH extends TestRequestHandler{
         req.putParameter(ERSRequest.USERNAME_KEY, username);
         req.putParameter(ERSRequest.PASSWORD_KEY, password);
 
-        when(updao.checkExists(username)).thenReturn(true);
-        when(updao.getPassword(username)).thenReturn(encryptPassword(password));
-        when(updao.getUserProfile(username)).thenReturn(up);
+        when(updao.findUserPassword(username))
+                .thenReturn(Optional.of(makeUserPassword(up, password)));
 
         ERSResponse res = arh.handleLogIn(req);
         ensureSuccessfulResponse(res);
+        verify(updao, times(1)).findUserPassword(username);
+        verifyNoMoreInteractions(updao); // everything should come from the one lookup
         assertTrue(res.getReturnedReimbursementRequests().isEmpty());
         List<UserProfile> returnedUsers = res.getReturnedUserProfiles();
         assertEquals(1, returnedUsers.size());
@@ -99,7 +108,7 @@ public class TestARH extends TestRequestHandler{
         req.putParameter(ERSRequest.USERNAME_KEY, username);
         req.putParameter(ERSRequest.PASSWORD_KEY, password);
 
-        when(updao.checkExists(username)).thenReturn(false);
+        when(updao.findUserPassword(username)).thenReturn(Optional.empty());
         ERSResponse res = arh.handleLogIn(req);
         ensureInvalidParameterResponse(res);
     }
@@ -116,8 +125,9 @@ public class TestARH extends TestRequestHandler{
         req.putParameter(ERSRequest.USERNAME_KEY, username);
         req.putParameter(ERSRequest.PASSWORD_KEY, password);
 
-        when(updao.checkExists(username)).thenReturn(true);
-        when(updao.getPassword(username)).thenReturn(encryptPassword("different"));
+        UserProfile up = new UserProfile(1, UserRole.EMPLOYEE);
+        when(updao.findUserPassword(username))
+                .thenReturn(Optional.of(makeUserPassword(up, "different")));
 
         ERSResponse res = arh.handleLogIn(req);
         ensureInvalidParameterResponse(res);
@@ -135,7 +145,7 @@ public class TestARH extends TestRequestHandler{
         req.putParameter(ERSRequest.USERNAME_KEY, username);
         req.putParameter(ERSRequest.PASSWORD_KEY, password);
 
-        when(updao.checkExists(username)).thenThrow(new DAOException(""));
+        when(updao.findUserPassword(username)).thenThrow(new DAOException(""));
 
         ERSResponse res = arh.handleLogIn(req);
         ensureDatabaseErrorResponse(res);
@@ -170,6 +180,93 @@ public class TestARH extends TestRequestHandler{
         ensureMalformedRequestResponse(res);
     }
 
+    /**
+     * A hash made with a lower cost than the current policy should be replaced after a
+     * successful log in, with one that still matches the password.
+     */
+    @Test
+    public void testHandleLogInRehash() throws DAOException{
+
+        int userID = 1;
+        String username = "testuser";
+        String password = "testpass";
+        UserProfile up = new UserProfile(userID, UserRole.EMPLOYEE);
+        UserPassword uPass = new UserPassword();
+        uPass.setUser(up);
+        uPass.setPass(new BCryptPasswordPolicy(4).hash(password)); // cheap, old hash
+        when(updao.findUserPassword(username)).thenReturn(Optional.of(uPass));
+
+        ERSRequest req = new ERSRequest(ERSRequestType.LOG_IN, -1, UserRole.LOGGED_OUT);
+        req.putParameter(ERSRequest.USERNAME_KEY, username);
+        req.putParameter(ERSRequest.PASSWORD_KEY, password);
+        ensureSuccessfulResponse(arh.handleLogIn(req));
+
+        ArgumentCaptor<String> newHash = ArgumentCaptor.forClass(String.class);
+        verify(updao, times(1)).updatePassword(eq(userID), newHash.capture());
+        assertTrue(PasswordUtil.checkPassword(password, newHash.getValue()));
+        assertFalse(PasswordUtil.needsRehash(newHash.getValue()));
+
+        // a failed write doesn't stop the log in
+        when(updao.updatePassword(anyInt(), anyString())).thenThrow(new DAOException(""));
+        ensureSuccessfulResponse(arh.handleLogIn(req));
+    }
+
+    /**
+     * Two attempts allowed per username from one address; the third is turned away
+     * before the DAO is touched. The same username from another address still gets in,
+     * so nobody can lock someone else out.
+     */
+    @Test
+    public void testHandleLogInThrottled() throws DAOException{
+
+        LoginThrottle throttle = new LoginThrottle(2, 100, 60000L, () -> 0L);
+        arh = new AuthRequestHandler(updao, rrdao, PasswordChecker.getShared(), throttle);
+
+        String username = "testuser";
+        when(updao.findUserPassword(username)).thenReturn(Optional.empty());
+        for (int i = 0; i < 4; i++){
+            ERSRequest req 
+                    = new ERSRequest(ERSRequestType.LOG_IN, -1, UserRole.LOGGED_OUT);
+            req.putParameter(ERSRequest.USERNAME_KEY, username);
+            req.putParameter(ERSRequest.PASSWORD_KEY, "testpass");
+            String address = (i < 3) ? "10.0.0.1" : "10.0.0.2";
+            req.putParameter(ERSRequest.CLIENT_ADDRESS_KEY, address);
+            ERSResponse res = arh.handleLogIn(req);
+
+            if (i == 2){
+                assertEquals(ERSResponseType.TOO_MANY_REQUESTS, res.getType());
+                ensureResponseListsAreEmpty(res);
+            }
+            else ensureInvalidParameterResponse(res); // no such user
+        }
+        verify(updao, times(3)).findUserPassword(username);
+    }
+
+    /**
+     * If the password checker is too busy, the log in fails without an answer about the
+     * password.
+     */
+    @Test
+    public void testHandleLogInBusy() throws DAOException, PasswordCheckException{
+
+        PasswordChecker checker = mock(PasswordChecker.class);
+        when(checker.checkPassword(anyString(), anyString()))
+                .thenThrow(new PasswordCheckException(""));
+        arh = new AuthRequestHandler(updao, rrdao, checker, new LoginThrottle());
+
+        String username = "testuser";
+        UserProfile up = new UserProfile(1, UserRole.EMPLOYEE);
+        when(updao.findUserPassword(username))
+                .thenReturn(Optional.of(makeUserPassword(up, "testpass")));
+        ERSRequest req = new ERSRequest(ERSRequestType.LOG_IN, -1, UserRole.LOGGED_OUT);
+        req.putParameter(ERSRequest.USERNAME_KEY, username);
+        req.putParameter(ERSRequest.PASSWORD_KEY, "testpass");
+
+        ERSResponse res = arh.handleLogIn(req);
+        assertEquals(ERSResponseType.TOO_MANY_REQUESTS, res.getType());
+        ensureResponseListsAreEmpty(res);
+    }
+
     /**
      * A helper for test methods related to passwords.
      * Eventually, this will be setup to mimic whatever encryption method I use.
@@ -179,6 +276,16 @@ public class TestARH extends TestRequestHandler{
         return PasswordUtil.hash(password);
     }
 
+    /**
+     * Builds what UserProfileDAO.findUserPassword() would return for the given user.
+     */
+    private UserPassword makeUserPassword(UserProfile up, String password){
+        UserPassword uPass = new UserPassword();
+        uPass.setUser(up);
+        uPass.setPass(encryptPassword(password));
+        return uPass;
+    }
+
     // --------------------------------------------------------------------------
     // handleLogOut
     // --------------------------------------------------------------------------
@@ -13,17 +13,29 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
 import static org.mockito.Mockito.*;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
 import com.revature.model.ReimbursementRequest;
 import com.revature.model.UserProfile;
 import com.revature.model.ReimbursementRequest.ReimbursementStatus;
 import com.revature.model.ReimbursementRequest.ReimbursementType;
 import com.revature.model.UserProfile.UserRole;
 import com.revature.repository.DAO.exceptions.DAOException;
+import com.revature.repository.DAO.exceptions.StaleDataException;
 import com.revature.repository.DAO.interfaces.ReimbursementRequestDAO;
 import com.revature.repository.DAO.interfaces.UserProfileDAO;
 import com.revature.service.comms.ERSRequest;
 import com.revature.service.comms.ERSResponse;
 import com.revature.service.comms.ERSRequest.ERSRequestType;
+import com.revature.service.comms.ERSResponse.BulkOutcome;
+import com.revature.service.comms.ERSResponse.ERSResponseType;
+import com.revature.service.events.ReimbursementEvent;
+import com.revature.service.events.ReimbursementEventBus;
 
 public class TestMRH extends TestRequestHandler{
     
@@ -63,7 +75,7 @@ public class TestMRH extends TestRequestHandler{
         int authorID = 2;
         UserRole authorRole = UserRole.EMPLOYEE;
         UserProfile author = new UserProfile(authorID, authorRole);
-        when(updao.getUserProfile(authorID)).thenReturn(author);
+        when(updao.findUserProfile(authorID)).thenReturn(Optional.of(author));
 
         int reimbID = 454; // would be generated by sequence
         ERSRequest req 
@@ -73,7 +85,6 @@ public class TestMRH extends TestRequestHandler{
         req.putParameter(ERSRequest.MONEY_AMOUNT_KEY, "" + 123456L);
         req.putParameter(ERSRequest.REIMBURSEMENT_DESCRIPTION_KEY, "stayed in hotel");
 
-        when(updao.checkExists(authorID)).thenReturn(true);
         when(rrdao.saveReimbursementRequest(any())).thenReturn(reimbID);
 
         ERSResponse res = mrh.handleSubmitRequest(req);
@@ -88,7 +99,7 @@ public class TestMRH extends TestRequestHandler{
         int authorID = 2;
         UserRole authorRole = UserRole.EMPLOYEE;
         UserProfile author = new UserProfile(authorID, authorRole);
-        when(updao.getUserProfile(authorID)).thenReturn(author);
+        when(updao.findUserProfile(authorID)).thenReturn(Optional.of(author));
 
         int reimbID = 454;
         ERSRequest req 
@@ -98,7 +109,6 @@ public class TestMRH extends TestRequestHandler{
         //req.putParameter(ERSRequest.MONEY_AMOUNT_KEY, "" + 123456L);
         req.putParameter(ERSRequest.REIMBURSEMENT_DESCRIPTION_KEY, "stayed in hotel");
 
-        when(updao.checkExists(authorID)).thenReturn(true);
         when(rrdao.saveReimbursementRequest(any())).thenReturn(reimbID);
 
         ERSResponse res = mrh.handleSubmitRequest(req);
@@ -111,7 +121,7 @@ public class TestMRH extends TestRequestHandler{
         int authorID = 2;
         UserRole authorRole = UserRole.EMPLOYEE;
         UserProfile author = new UserProfile(authorID, authorRole);
-        when(updao.getUserProfile(authorID)).thenReturn(author);
+        when(updao.findUserProfile(authorID)).thenReturn(Optional.of(author));
 
         int reimbID = 454;
         ERSRequest req 
@@ -121,7 +131,6 @@ public class TestMRH extends TestRequestHandler{
         req.putParameter(ERSRequest.MONEY_AMOUNT_KEY, "" + 123456L);
         req.putParameter(ERSRequest.REIMBURSEMENT_DESCRIPTION_KEY, "stayed in hotel");
 
-        when(updao.checkExists(authorID)).thenReturn(true);
         when(rrdao.saveReimbursementRequest(any())).thenReturn(reimbID);
 
         ERSResponse res = mrh.handleSubmitRequest(req);
@@ -134,7 +143,7 @@ public class TestMRH extends TestRequestHandler{
         int authorID = 2;
         UserRole authorRole = UserRole.EMPLOYEE;
         UserProfile author = new UserProfile(authorID, authorRole);
-        when(updao.getUserProfile(authorID)).thenReturn(author);
+        when(updao.findUserProfile(authorID)).thenReturn(Optional.of(author));
 
         int reimbID = 454;
         ERSRequest req 
@@ -144,7 +153,6 @@ public class TestMRH extends TestRequestHandler{
         req.putParameter(ERSRequest.MONEY_AMOUNT_KEY, "" + 123456L);
         //req.putParameter(ERSRequest.REIMBURSEMENT_DESCRIPTION_KEY, "stayed in hotel");
 
-        when(updao.checkExists(authorID)).thenReturn(true);
         when(rrdao.saveReimbursementRequest(any())).thenReturn(reimbID);
 
         ERSResponse res = mrh.handleSubmitRequest(req);
@@ -153,13 +161,56 @@ public class TestMRH extends TestRequestHandler{
         assertNotEquals("", res.getMessage());
     }
 
+    @Test
+    public void testHandleSubmitRequestNegativeAmount() throws DAOException {
+
+        int authorID = 2;
+        UserRole authorRole = UserRole.EMPLOYEE;
+        UserProfile author = new UserProfile(authorID, authorRole);
+        when(updao.findUserProfile(authorID)).thenReturn(Optional.of(author));
+
+        ERSRequest req 
+                = new ERSRequest(ERSRequestType.SUBMIT_REQUEST, authorID, authorRole);
+        req.putParameter(
+                ERSRequest.REIMBURSEMENT_TYPE_KEY, "" + ReimbursementType.LODGING);
+        req.putParameter(ERSRequest.MONEY_AMOUNT_KEY, "-5");
+
+        ERSResponse res = mrh.handleSubmitRequest(req);
+        ensureInvalidParameterResponse(res);
+        verify(rrdao, never()).saveReimbursementRequest(any());
+    }
+
+    @Test
+    public void testHandleSubmitRequestLongDescription() throws DAOException {
+
+        int authorID = 2;
+        UserRole authorRole = UserRole.EMPLOYEE;
+        UserProfile author = new UserProfile(authorID, authorRole);
+        when(updao.findUserProfile(authorID)).thenReturn(Optional.of(author));
+        when(rrdao.saveReimbursementRequest(any())).thenReturn(454);
+
+        char[] longest = new char[ReimbursementRequest.MAX_DESCRIPTION_LENGTH];
+        Arrays.fill(longest, 'x');
+        ERSRequest req 
+                = new ERSRequest(ERSRequestType.SUBMIT_REQUEST, authorID, authorRole);
+        req.putParameter(
+                ERSRequest.REIMBURSEMENT_TYPE_KEY, "" + ReimbursementType.LODGING);
+        req.putParameter(ERSRequest.MONEY_AMOUNT_KEY, "0");
+        req.putParameter(ERSRequest.REIMBURSEMENT_DESCRIPTION_KEY, new String(longest));
+        ensureSuccessfulResponse(mrh.handleSubmitRequest(req));
+
+        req.putParameter(
+                ERSRequest.REIMBURSEMENT_DESCRIPTION_KEY, new String(longest) + "x");
+        ensureInvalidParameterResponse(mrh.handleSubmitRequest(req));
+        verify(rrdao, times(1)).saveReimbursementRequest(any());
+    }
+
     @Test
     public void testHandleSubmitRequestUserNotFound() throws DAOException {
 
         int authorID = 2;
         UserRole authorRole = UserRole.EMPLOYEE;
         UserProfile author = new UserProfile(authorID, authorRole);
-        when(updao.getUserProfile(authorID)).thenReturn(author);
 
         int reimbID = 454;
         ERSRequest req 
@@ -169,7 +220,7 @@ public class TestMRH extends TestRequestHandler{
         req.putParameter(ERSRequest.MONEY_AMOUNT_KEY, "" + 123456L);
         //req.putParameter(ERSRequest.REIMBURSEMENT_DESCRIPTION_KEY, "stayed in hotel");
 
-        when(updao.checkExists(authorID)).thenReturn(false);
+        when(updao.findUserProfile(authorID)).thenReturn(Optional.empty());
         when(rrdao.saveReimbursementRequest(any())).thenReturn(reimbID);
 
         ERSResponse res = mrh.handleSubmitRequest(req);
@@ -182,7 +233,7 @@ public class TestMRH extends TestRequestHandler{
         int authorID = 2;
         UserRole authorRole = UserRole.EMPLOYEE;
         UserProfile author = new UserProfile(authorID, authorRole);
-        when(updao.getUserProfile(authorID)).thenReturn(author);
+        when(updao.findUserProfile(authorID)).thenReturn(Optional.of(author));
 
         //int reimbID = 454;
         ERSRequest req 
@@ -192,7 +243,6 @@ public class TestMRH extends TestRequestHandler{
         req.putParameter(ERSRequest.MONEY_AMOUNT_KEY, "" + 123456L);
         req.putParameter(ERSRequest.REIMBURSEMENT_DESCRIPTION_KEY, "stayed in hotel");
 
-        when(updao.checkExists(authorID)).thenReturn(true);
         when(rrdao.saveReimbursementRequest(any())).thenThrow(new DAOException(""));
 
         ERSResponse res = mrh.handleSubmitRequest(req);
@@ -205,7 +255,7 @@ public class TestMRH extends TestRequestHandler{
         int authorID = 2;
         UserRole authorRole = UserRole.EMPLOYEE;
         UserProfile author = new UserProfile(authorID, authorRole);
-        when(updao.getUserProfile(authorID)).thenReturn(author);
+        when(updao.findUserProfile(authorID)).thenReturn(Optional.of(author));
 
         int reimbID = 454;
         ERSRequest req 
@@ -215,7 +265,6 @@ public class TestMRH extends TestRequestHandler{
         req.putParameter(ERSRequest.MONEY_AMOUNT_KEY, "not a long");
         req.putParameter(ERSRequest.REIMBURSEMENT_DESCRIPTION_KEY, "stayed in hotel");
 
-        when(updao.checkExists(authorID)).thenReturn(true);
         when(rrdao.saveReimbursementRequest(any())).thenReturn(reimbID);
 
         ERSResponse res = mrh.handleSubmitRequest(req);
@@ -253,10 +302,9 @@ public class TestMRH extends TestRequestHandler{
         req.putParameter(ERSRequest.EMAIL_ADDRESS_KEY, newEmail);
 
         // make sure everything can proceed
-        when(updao.checkExists(userID)).thenReturn(true);
-        when(updao.getUserProfile(userID)).thenReturn(up);
+        when(updao.findUserProfile(userID)).thenReturn(Optional.of(up));
         when(updao.checkExists(newUsername)).thenReturn(false);
-        when(updao.checkExists(newEmail)).thenReturn(false);
+        when(updao.checkExistsEmail(newEmail)).thenReturn(false);
         // tried to use mockito answer here but it was too complicated
 
         ERSResponse res = mrh.handleEmployeeUpdateSelf(req);
@@ -298,10 +346,9 @@ public class TestMRH extends TestRequestHandler{
         req.putParameter(ERSRequest.EMAIL_ADDRESS_KEY, email); // keep old value
 
         // make sure everything can proceed
-        when(updao.checkExists(userID)).thenReturn(true);
-        when(updao.getUserProfile(userID)).thenReturn(up);
+        when(updao.findUserProfile(userID)).thenReturn(Optional.of(up));
         when(updao.checkExists(newUsername)).thenReturn(true); // shouldn't be checked
-        when(updao.checkExists(newEmail)).thenReturn(true); // shouldn't be checked
+        when(updao.checkExistsEmail(newEmail)).thenReturn(true); // shouldn't be checked
         // tried to use mockito answer here but it was too complicated
 
         ERSResponse res = mrh.handleEmployeeUpdateSelf(req);
@@ -339,10 +386,9 @@ public class TestMRH extends TestRequestHandler{
         req.putParameter(ERSRequest.EMAIL_ADDRESS_KEY, newEmail);
 
         // indicate the username is already taken
-        when(updao.checkExists(userID)).thenReturn(true);
-        when(updao.getUserProfile(userID)).thenReturn(up);
+        when(updao.findUserProfile(userID)).thenReturn(Optional.of(up));
         when(updao.checkExists(newUsername)).thenReturn(true);
-        when(updao.checkExists(newEmail)).thenReturn(false);
+        when(updao.checkExistsEmail(newEmail)).thenReturn(false);
 
         ERSResponse res = mrh.handleEmployeeUpdateSelf(req);
         ensureInvalidParameterResponse(res);
@@ -372,10 +418,9 @@ public class TestMRH extends TestRequestHandler{
         req.putParameter(ERSRequest.EMAIL_ADDRESS_KEY, newEmail);
 
         // indicate the email is already taken
-        when(updao.checkExists(userID)).thenReturn(true);
-        when(updao.getUserProfile(userID)).thenReturn(up);
+        when(updao.findUserProfile(userID)).thenReturn(Optional.of(up));
         when(updao.checkExists(newUsername)).thenReturn(false);
-        when(updao.checkExists(newEmail)).thenReturn(true);
+        when(updao.checkExistsEmail(newEmail)).thenReturn(true);
 
         ERSResponse res = mrh.handleEmployeeUpdateSelf(req);
         ensureInvalidParameterResponse(res);
@@ -423,7 +468,7 @@ public class TestMRH extends TestRequestHandler{
         req.putParameter(ERSRequest.EMAIL_ADDRESS_KEY, newEmail);
 
         // make sure everything can proceed
-        when(updao.checkExists(userID)).thenThrow(new DAOException(""));
+        when(updao.findUserProfile(userID)).thenThrow(new DAOException(""));
 
         ERSResponse res = mrh.handleEmployeeUpdateSelf(req);
         ensureDatabaseErrorResponse(res);
@@ -443,7 +488,6 @@ public class TestMRH extends TestRequestHandler{
         int authorID = 1; 
         UserRole authorRole = UserRole.EMPLOYEE;
         UserProfile author = new UserProfile(authorID, authorRole);
-        when(updao.getUserProfile(authorID)).thenReturn(author);
 
         int reimbID = 45;
 
@@ -457,8 +501,7 @@ public class TestMRH extends TestRequestHandler{
         req.putParameter(ERSRequest.REIMBURSEMENT_ID_KEY, "" + reimbID);
 
         when(updao.checkExists(userID)).thenReturn(true);
-        when(rrdao.checkExists(reimbID)).thenReturn(true);
-        when(rrdao.getReimbursementRequest(reimbID)).thenReturn(reimb);
+        when(rrdao.findReimbursementRequest(reimbID)).thenReturn(Optional.of(reimb));
         ERSResponse res = mrh.handleApproveRequest(req);
         ensureSuccessfulResponse(res);
         ensureResponseListsAreEmpty(res);
@@ -482,7 +525,6 @@ public class TestMRH extends TestRequestHandler{
         int authorID = 1; 
         UserRole authorRole = UserRole.EMPLOYEE;
         UserProfile author = new UserProfile(authorID, authorRole);
-        when(updao.getUserProfile(authorID)).thenReturn(author);
 
         int reimbID = 45;
         long moneyAmount = 12345L;
@@ -496,8 +538,7 @@ public class TestMRH extends TestRequestHandler{
         req.putParameter(ERSRequest.REIMBURSEMENT_ID_KEY, "" + reimbID);
 
         when(updao.checkExists(userID)).thenReturn(true);
-        when(rrdao.checkExists(reimbID)).thenReturn(true);
-        when(rrdao.getReimbursementRequest(reimbID)).thenReturn(reimb);
+        when(rrdao.findReimbursementRequest(reimbID)).thenReturn(Optional.of(reimb));
         ERSResponse res = mrh.handleApproveRequest(req);
         ensureInvalidParameterResponse(res);
     }
@@ -513,8 +554,7 @@ public class TestMRH extends TestRequestHandler{
         UserRole authorRole = UserRole.EMPLOYEE;
         UserProfile author = new UserProfile(authorID, authorRole);
         // technically doesn't exist i guess
-        when(updao.getUserProfile(authorID)).thenReturn(author); 
-
+        
         int reimbID = 45;
         long moneyAmount = 12345L;
         ReimbursementType type = ReimbursementType.FOOD;
@@ -526,8 +566,7 @@ public class TestMRH extends TestRequestHandler{
         req.putParameter(ERSRequest.REIMBURSEMENT_ID_KEY, "" + reimbID);
 
         when(updao.checkExists(userID)).thenReturn(false); // not found
-        when(rrdao.checkExists(reimbID)).thenReturn(true);
-        when(rrdao.getReimbursementRequest(reimbID)).thenReturn(reimb);
+        when(rrdao.findReimbursementRequest(reimbID)).thenReturn(Optional.of(reimb));
         ERSResponse res = mrh.handleApproveRequest(req);
         ensureInvalidParameterResponse(res);
     }
@@ -542,7 +581,6 @@ public class TestMRH extends TestRequestHandler{
         int authorID = 1; 
         UserRole authorRole = UserRole.EMPLOYEE;
         UserProfile author = new UserProfile(authorID, authorRole);
-        when(updao.getUserProfile(authorID)).thenReturn(author);
 
         int reimbID = 45; // invalid
         long moneyAmount = 12345L;
@@ -555,8 +593,7 @@ public class TestMRH extends TestRequestHandler{
         req.putParameter(ERSRequest.REIMBURSEMENT_ID_KEY, "" + reimbID);
 
         when(updao.checkExists(userID)).thenReturn(true);
-        when(rrdao.checkExists(reimbID)).thenReturn(false); // not found
-        when(rrdao.getReimbursementRequest(reimbID)).thenReturn(reimb);
+        when(rrdao.findReimbursementRequest(reimbID)).thenReturn(Optional.empty()); // not found
         ERSResponse res = mrh.handleApproveRequest(req);
         ensureInvalidParameterResponse(res);
     }
@@ -609,7 +646,6 @@ public class TestMRH extends TestRequestHandler{
         int authorID = 1; 
         UserRole authorRole = UserRole.EMPLOYEE;
         UserProfile author = new UserProfile(authorID, authorRole);
-        when(updao.getUserProfile(authorID)).thenReturn(author);
 
         int reimbID = 45;
         long moneyAmount = 12345L;
@@ -622,8 +658,7 @@ public class TestMRH extends TestRequestHandler{
         req.putParameter(ERSRequest.REIMBURSEMENT_ID_KEY, "" + reimbID);
 
         when(updao.checkExists(userID)).thenReturn(true);
-        when(rrdao.checkExists(reimbID)).thenReturn(true);
-        when(rrdao.getReimbursementRequest(reimbID)).thenReturn(reimb);
+        when(rrdao.findReimbursementRequest(reimbID)).thenReturn(Optional.of(reimb));
         ERSResponse res = mrh.handleDenyRequest(req);
         ensureSuccessfulResponse(res);
         ensureResponseListsAreEmpty(res);
@@ -647,7 +682,6 @@ public class TestMRH extends TestRequestHandler{
         int authorID = 1; 
         UserRole authorRole = UserRole.EMPLOYEE;
         UserProfile author = new UserProfile(authorID, authorRole);
-        when(updao.getUserProfile(authorID)).thenReturn(author);
 
         int reimbID = 45;
         long moneyAmount = 12345L;
@@ -661,8 +695,7 @@ public class TestMRH extends TestRequestHandler{
         req.putParameter(ERSRequest.REIMBURSEMENT_ID_KEY, "" + reimbID);
 
         when(updao.checkExists(userID)).thenReturn(true);
-        when(rrdao.checkExists(reimbID)).thenReturn(true);
-        when(rrdao.getReimbursementRequest(reimbID)).thenReturn(reimb);
+        when(rrdao.findReimbursementRequest(reimbID)).thenReturn(Optional.of(reimb));
         ERSResponse res = mrh.handleDenyRequest(req);
         ensureInvalidParameterResponse(res);
     }
@@ -677,7 +710,6 @@ public class TestMRH extends TestRequestHandler{
         int authorID = 1; 
         UserRole authorRole = UserRole.EMPLOYEE;
         UserProfile author = new UserProfile(authorID, authorRole);
-        when(updao.getUserProfile(authorID)).thenReturn(author);
 
         int reimbID = 45;
         long moneyAmount = 12345L;
@@ -690,8 +722,7 @@ public class TestMRH extends TestRequestHandler{
         req.putParameter(ERSRequest.REIMBURSEMENT_ID_KEY, "" + reimbID);
 
         when(updao.checkExists(userID)).thenReturn(false); // not found
-        when(rrdao.checkExists(reimbID)).thenReturn(true);
-        when(rrdao.getReimbursementRequest(reimbID)).thenReturn(reimb);
+        when(rrdao.findReimbursementRequest(reimbID)).thenReturn(Optional.of(reimb));
         ERSResponse res = mrh.handleDenyRequest(req);
         ensureInvalidParameterResponse(res);
     }
@@ -706,7 +737,6 @@ public class TestMRH extends TestRequestHandler{
         int authorID = 1; 
         UserRole authorRole = UserRole.EMPLOYEE;
         UserProfile author = new UserProfile(authorID, authorRole);
-        when(updao.getUserProfile(authorID)).thenReturn(author);
 
         int reimbID = 45; // invalid
         long moneyAmount = 12345L;
@@ -719,8 +749,7 @@ public class TestMRH extends TestRequestHandler{
         req.putParameter(ERSRequest.REIMBURSEMENT_ID_KEY, "" + reimbID);
 
         when(updao.checkExists(userID)).thenReturn(true);
-        when(rrdao.checkExists(reimbID)).thenReturn(false); // not found
-        when(rrdao.getReimbursementRequest(reimbID)).thenReturn(reimb);
+        when(rrdao.findReimbursementRequest(reimbID)).thenReturn(Optional.empty()); // not found
         ERSResponse res = mrh.handleDenyRequest(req);
         ensureInvalidParameterResponse(res);
     }
@@ -745,6 +774,32 @@ public class TestMRH extends TestRequestHandler{
         ensureDatabaseErrorResponse(res);
     }
 
+    /**
+     * Another manager resolved it between the read and the save
+     * 
+     * @throws DAOException
+     */
+    @Test
+    public void testHandleDenyRequestLostRace() throws DAOException {
+
+        int userID = 4; // the logged-in manager
+        UserRole role = UserRole.MANAGER;
+
+        int reimbID = 45;
+        UserProfile author = new UserProfile(1, UserRole.EMPLOYEE);
+        ReimbursementRequest reimb = new ReimbursementRequest(
+                reimbID, author, 12345L, ReimbursementType.FOOD);
+        ERSRequest req = new ERSRequest(ERSRequestType.DENY_REQUEST, userID, role);
+        req.putParameter(ERSRequest.REIMBURSEMENT_ID_KEY, "" + reimbID);
+
+        when(updao.checkExists(userID)).thenReturn(true);
+        when(rrdao.findReimbursementRequest(reimbID)).thenReturn(Optional.of(reimb));
+        when(rrdao.saveReimbursementRequest(reimb)).thenThrow(new StaleDataException(""));
+        ERSResponse res = mrh.handleDenyRequest(req);
+        assertEquals(ERSResponseType.CONFLICT, res.getType());
+        ensureResponseListsAreEmpty(res);
+    }
+
     @Test
     public void testHandleDenyRequestMalformed() throws DAOException {
 
@@ -759,4 +814,127 @@ public class TestMRH extends TestRequestHandler{
         ensureMalformedRequestResponse(res);
     }
 
+    // --------------------------------------------------------------------------
+    // handleBulkApproveRequest / handleBulkDenyRequest
+    // --------------------------------------------------------------------------
+
+    /**
+     * One of each outcome, plus a duplicate ID
+     * 
+     * @throws DAOException
+     */
+    @Test
+    public void testHandleBulkApproveRequest() throws DAOException {
+
+        int userID = 4; // the logged-in manager
+        UserRole role = UserRole.MANAGER;
+
+        ERSRequest req 
+                = new ERSRequest(ERSRequestType.BULK_APPROVE_REQUEST, userID, role);
+        req.putParameter(ERSRequest.REIMBURSEMENT_IDS_KEY, "7, 8,9,7");
+
+        Map<Integer, ReimbursementStatus> before = new HashMap<>();
+        before.put(7, ReimbursementStatus.PENDING);
+        before.put(8, ReimbursementStatus.DENIED); // 9 doesn't exist
+        when(updao.checkExists(userID)).thenReturn(true);
+        when(rrdao.resolvePendingRequests(
+                anyCollectionOf(Integer.class), 
+                eq(ReimbursementStatus.APPROVED), 
+                eq(userID), 
+                any())).thenReturn(before);
+
+        ERSResponse res = mrh.handleBulkApproveRequest(req);
+        ensureSuccessfulResponse(res);
+        ensureResponseListsAreEmpty(res);
+
+        Map<Integer, BulkOutcome> outcomes = res.getBulkOutcomes();
+        assertEquals(Arrays.asList(7, 8, 9), Arrays.asList(outcomes.keySet().toArray()));
+        assertEquals(BulkOutcome.RESOLVED, outcomes.get(7));
+        assertEquals(BulkOutcome.NOT_PENDING, outcomes.get(8));
+        assertEquals(BulkOutcome.NOT_FOUND, outcomes.get(9));
+        assertEquals(
+                "Approved 1 of 3 reimbursement requests. Not found: #9. Not pending: #8.",
+                res.getMessage());
+    }
+
+    /**
+     * Only the reqs that really were resolved should be published.
+     * 
+     * @throws DAOException
+     */
+    @Test
+    public void testHandleBulkApproveRequestPublishesEvents() throws DAOException {
+
+        ReimbursementEventBus events = new ReimbursementEventBus();
+        List<ReimbursementEvent> published = new ArrayList<>();
+        events.subscribe(published::add);
+        mrh = new ModifyRequestHandler(updao, rrdao, events);
+        int userID = 4;
+
+        ERSRequest req = new ERSRequest(
+                ERSRequestType.BULK_APPROVE_REQUEST, userID, UserRole.MANAGER);
+        req.putParameter(ERSRequest.REIMBURSEMENT_IDS_KEY, "7,8,9");
+
+        Map<Integer, ReimbursementStatus> before = new HashMap<>();
+        before.put(7, ReimbursementStatus.PENDING);
+        before.put(8, ReimbursementStatus.DENIED);
+        when(updao.checkExists(userID)).thenReturn(true);
+        when(rrdao.resolvePendingRequests(
+                anyCollectionOf(Integer.class), 
+                eq(ReimbursementStatus.APPROVED), 
+                eq(userID), 
+                any())).thenReturn(before);
+
+        ensureSuccessfulResponse(mrh.handleBulkApproveRequest(req));
+        assertEquals(1, published.size());
+        assertEquals(7, published.get(0).getReimbID());
+        assertEquals(ReimbursementStatus.APPROVED, published.get(0).getStatus());
+        assertEquals(userID, published.get(0).getResolverID());
+    }
+
+    @Test
+    public void testHandleBulkDenyRequestBadInput() throws DAOException {
+
+        int userID = 4; // the logged-in manager
+        UserRole role = UserRole.MANAGER;
+        when(updao.checkExists(userID)).thenReturn(true);
+
+        // missing
+        ERSRequest req = new ERSRequest(ERSRequestType.BULK_DENY_REQUEST, userID, role);
+        ensureMalformedRequestResponse(mrh.handleBulkDenyRequest(req));
+
+        // empty
+        req.putParameter(ERSRequest.REIMBURSEMENT_IDS_KEY, " , ");
+        ensureMalformedRequestResponse(mrh.handleBulkDenyRequest(req));
+
+        // not numbers
+        req.putParameter(ERSRequest.REIMBURSEMENT_IDS_KEY, "3,four");
+        ensureInvalidParameterResponse(mrh.handleBulkDenyRequest(req));
+
+        // too many
+        StringBuilder ids = new StringBuilder("1");
+        for (int i = 2; i <= ModifyRequestHandler.MAX_BULK_IDS + 1; i++){
+            ids.append(',').append(i);
+        }
+        req.putParameter(ERSRequest.REIMBURSEMENT_IDS_KEY, ids.toString());
+        ensureInvalidParameterResponse(mrh.handleBulkDenyRequest(req));
+
+        verify(rrdao, never()).resolvePendingRequests(any(), any(), anyInt(), any());
+    }
+
+    @Test
+    public void testHandleBulkDenyRequestDAOException() throws DAOException {
+
+        int userID = 4; // the logged-in manager
+        UserRole role = UserRole.MANAGER;
+
+        ERSRequest req = new ERSRequest(ERSRequestType.BULK_DENY_REQUEST, userID, role);
+        req.putParameter(ERSRequest.REIMBURSEMENT_IDS_KEY, "1,2");
+
+        when(updao.checkExists(userID)).thenReturn(true);
+        when(rrdao.resolvePendingRequests(any(), any(), anyInt(), any()))
+                .thenThrow(new DAOException(""));
+        ERSResponse res = mrh.handleBulkDenyRequest(req);
+        ensureDatabaseErrorResponse(res);
+    }
 }
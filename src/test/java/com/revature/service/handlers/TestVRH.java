@@ -15,6 +15,7 @@ import com.revature.model.UserProfile.UserRole;
 import com.revature.repository.DAO.exceptions.DAOException;
 import com.revature.repository.DAO.interfaces.ReimbursementRequestDAO;
 import com.revature.repository.DAO.interfaces.UserProfileDAO;
+import com.revature.repository.DAO.interfaces.ReimbursementRequestDAO.ExportSink;
 import com.revature.repository.DAO.interfaces.ReimbursementRequestDAO.SearchType;
 import com.revature.service.comms.ERSRequest;
 import com.revature.service.comms.ERSResponse;
@@ -29,8 +30,12 @@ import org.mockito.junit.MockitoRule;
 
 import static org.mockito.Mockito.*;
 
+import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 
 public class TestVRH extends TestRequestHandler{
 
@@ -91,6 +96,7 @@ public class TestVRH extends TestRequestHandler{
         List<ReimbursementRequest> returnedReimbList 
                 = res.getReturnedReimbursementRequests();
         assertEquals(rrlist.size(), returnedReimbList.size());
+        verify(updao, never()).checkExists(userID); // had requests, so no need to look
     }
 
     /**
@@ -232,8 +238,7 @@ public class TestVRH extends TestRequestHandler{
                 "empemail");
 
         ERSRequest req = new ERSRequest(ERSRequestType.EMPLOYEE_VIEW_SELF, userID, role);
-        when(updao.checkExists(userID)).thenReturn(true);
-        when(updao.getUserProfile(userID)).thenReturn(emp);
+        when(updao.findUserProfile(userID)).thenReturn(Optional.of(emp));
 
         ERSResponse res = vrh.handleEmployeeViewSelf(req);
         assertNotNull(res);
@@ -262,7 +267,7 @@ public class TestVRH extends TestRequestHandler{
         UserRole role = UserRole.EMPLOYEE;
 
         ERSRequest req = new ERSRequest(ERSRequestType.EMPLOYEE_VIEW_SELF, userID, role);
-        when(updao.checkExists(userID)).thenReturn(false);
+        when(updao.findUserProfile(userID)).thenReturn(Optional.empty());
 
         ensureInvalidParameterResponse(vrh.handleEmployeeViewSelf(req));
     }
@@ -274,7 +279,7 @@ public class TestVRH extends TestRequestHandler{
         UserRole role = UserRole.EMPLOYEE;
 
         ERSRequest req = new ERSRequest(ERSRequestType.EMPLOYEE_VIEW_SELF, userID, role);
-        when(updao.checkExists(userID)).thenThrow(new DAOException(""));
+        when(updao.findUserProfile(userID)).thenThrow(new DAOException(""));
 
         ensureDatabaseErrorResponse(vrh.handleEmployeeViewSelf(req));
     }
@@ -313,6 +318,89 @@ public class TestVRH extends TestRequestHandler{
         assertEquals(rrlist, returnedReimbs); // should use List's equals()
     }
 
+    /**
+     * Asks for pages of 2 from a table with 3 pending reqs (IDs 1-3).
+     */
+    @Test
+    public void testHandleViewAllPendingPaged() throws DAOException {
+
+        int manID = 1;
+        UserRole manRole = UserRole.MANAGER;
+        UserProfile author = new UserProfile(2, UserRole.EMPLOYEE);
+        ReimbursementRequest rr1 
+                = new ReimbursementRequest(1, author, 100L, ReimbursementType.FOOD);
+        ReimbursementRequest rr2 
+                = new ReimbursementRequest(2, author, 200L, ReimbursementType.FOOD);
+        ReimbursementRequest rr3 
+                = new ReimbursementRequest(3, author, 300L, ReimbursementType.FOOD);
+
+        // first page: the DAO is asked for one extra, to see if there's a next page
+        when(rrdao.getReimbursementRequestPage(-1, SearchType.PENDING, 0, true, 3))
+                .thenReturn(new ArrayList<>(Arrays.asList(rr1, rr2, rr3)));
+        ERSRequest req = new ERSRequest(ERSRequestType.VIEW_ALL_PENDING, manID, manRole);
+        req.putParameter(ERSRequest.PAGE_SIZE_KEY, "2");
+        ERSResponse res = vrh.handleViewAllPending(req);
+        ensureSuccessfulResponse(res);
+        assertEquals(Arrays.asList(rr1, rr2), res.getReturnedReimbursementRequests());
+        assertTrue(res.hasNextPage());
+        assertFalse(res.hasPreviousPage());
+        verify(rrdao, never()).getReimbursementRequests(anyInt(), any());
+
+        // second page: checks that there's still something before it
+        when(rrdao.getReimbursementRequestPage(-1, SearchType.PENDING, 2, true, 3))
+                .thenReturn(new ArrayList<>(Arrays.asList(rr3)));
+        when(rrdao.getReimbursementRequestPage(-1, SearchType.PENDING, 3, false, 1))
+                .thenReturn(new ArrayList<>(Arrays.asList(rr2)));
+        req = new ERSRequest(ERSRequestType.VIEW_ALL_PENDING, manID, manRole);
+        req.putParameter(ERSRequest.PAGE_SIZE_KEY, "2");
+        req.putParameter(ERSRequest.AFTER_ID_KEY, "2");
+        res = vrh.handleViewAllPending(req);
+        ensureSuccessfulResponse(res);
+        assertEquals(Arrays.asList(rr3), res.getReturnedReimbursementRequests());
+        assertFalse(res.hasNextPage());
+        assertTrue(res.hasPreviousPage());
+
+        // and back again
+        when(rrdao.getReimbursementRequestPage(-1, SearchType.PENDING, 3, false, 3))
+                .thenReturn(new ArrayList<>(Arrays.asList(rr1, rr2)));
+        when(rrdao.getReimbursementRequestPage(-1, SearchType.PENDING, 2, true, 1))
+                .thenReturn(new ArrayList<>(Arrays.asList(rr3)));
+        req = new ERSRequest(ERSRequestType.VIEW_ALL_PENDING, manID, manRole);
+        req.putParameter(ERSRequest.PAGE_SIZE_KEY, "2");
+        req.putParameter(ERSRequest.BEFORE_ID_KEY, "3");
+        res = vrh.handleViewAllPending(req);
+        ensureSuccessfulResponse(res);
+        assertEquals(Arrays.asList(rr1, rr2), res.getReturnedReimbursementRequests());
+        assertTrue(res.hasNextPage());
+        assertFalse(res.hasPreviousPage());
+
+        // once rr3 has been resolved, there's no next page to go back to
+        when(rrdao.getReimbursementRequestPage(-1, SearchType.PENDING, 2, true, 1))
+                .thenReturn(new ArrayList<>());
+        res = vrh.handleViewAllPending(req);
+        assertFalse(res.hasNextPage());
+
+        // and a cursor past everything gets an empty page, with a way back
+        when(rrdao.getReimbursementRequestPage(-1, SearchType.PENDING, 10, false, 1))
+                .thenReturn(new ArrayList<>(Arrays.asList(rr3)));
+        req = new ERSRequest(ERSRequestType.VIEW_ALL_PENDING, manID, manRole);
+        req.putParameter(ERSRequest.PAGE_SIZE_KEY, "2");
+        req.putParameter(ERSRequest.AFTER_ID_KEY, "9");
+        res = vrh.handleViewAllPending(req);
+        assertTrue(res.getReturnedReimbursementRequests().isEmpty());
+        assertFalse(res.hasNextPage());
+        assertTrue(res.hasPreviousPage());
+    }
+
+    @Test
+    public void testHandleViewAllPendingPagedMalformed() throws DAOException {
+
+        ERSRequest req 
+                = new ERSRequest(ERSRequestType.VIEW_ALL_PENDING, 1, UserRole.MANAGER);
+        req.putParameter(ERSRequest.PAGE_SIZE_KEY, "lots");
+        ensureMalformedRequestResponse(vrh.handleViewAllPending(req));
+    }
+
     @Test
     public void testHandleViewAllPendingDAOException() throws DAOException {
 
@@ -497,4 +585,46 @@ public class TestVRH extends TestRequestHandler{
 
         ensureMalformedRequestResponse(res);
     }
+
+    // --------------------------------------------------------------------------
+    // handleExportRequests
+    // --------------------------------------------------------------------------
+
+    @Test
+    public void testHandleExportRequests() throws DAOException, IOException {
+
+        ExportSink sink = reimb -> {};
+        when(rrdao.exportReimbursementRequests(any(), any(), any(), any()))
+                .thenReturn(42);
+        ERSRequest req 
+                = new ERSRequest(ERSRequestType.EXPORT_REQUESTS, 1, UserRole.MANAGER);
+        req.setExportSink(sink);
+        req.putParameter(ERSRequest.SEARCH_STATUS_KEY, "resolved");
+        req.putParameter(ERSRequest.SUBMITTED_FROM_KEY, "2021-01-04");
+        req.putParameter(ERSRequest.SUBMITTED_TO_KEY, "2021-01-31");
+        ERSResponse res = vrh.handleExportRequests(req);
+
+        ensureSuccessfulResponse(res);
+        assertEquals("Exported 42 reimbursement requests.", res.getMessage());
+        // the last day is included
+        verify(rrdao).exportReimbursementRequests(SearchType.RESOLVED, 
+                LocalDateTime.of(2021, 1, 4, 0, 0), LocalDateTime.of(2021, 2, 1, 0, 0), 
+                sink);
+    }
+
+    @Test
+    public void testHandleExportRequestsBadParameters() throws DAOException {
+
+        ERSRequest req 
+                = new ERSRequest(ERSRequestType.EXPORT_REQUESTS, 1, UserRole.MANAGER);
+        ensureMalformedRequestResponse(vrh.handleExportRequests(req)); // no sink
+
+        req.setExportSink(reimb -> {});
+        req.putParameter(ERSRequest.SEARCH_STATUS_KEY, "sideways");
+        ensureInvalidParameterResponse(vrh.handleExportRequests(req));
+
+        req.putParameter(ERSRequest.SEARCH_STATUS_KEY, "ALL");
+        req.putParameter(ERSRequest.SUBMITTED_TO_KEY, "01/31/2021");
+        ensureInvalidParameterResponse(vrh.handleExportRequests(req));
+    }
 }
@@ -0,0 +1,107 @@
+/**
+ * This class contains tests for the Metrics and LatencyHistogram classes.
+ */
+package com.revature.service.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import org.junit.Test;
+
+import com.revature.repository.DAO.exceptions.DAOException;
+import com.revature.repository.DAO.interfaces.UserProfileDAO;
+import com.revature.service.comms.ERSRequest.ERSRequestType;
+import com.revature.service.comms.ERSResponse.ERSResponseType;
+
+public class TestMetrics {
+
+    @Test
+    public void testBuckets(){
+
+        // every value fits in its own bucket, and buckets don't overlap
+        long[] values = {0, 1, 7, 8, 9, 15, 16, 17, 1000, 123456789, Long.MAX_VALUE};
+        for (long value : values){
+            int index = LatencyHistogram.indexFor(value);
+            assertTrue(value < LatencyHistogram.upperBoundOf(index)
+                    || value == Long.MAX_VALUE);
+            if (index > 0) assertTrue(value >= LatencyHistogram.upperBoundOf(index - 1));
+        }
+
+        // within 12.5%
+        long bound = LatencyHistogram.upperBoundOf(LatencyHistogram.indexFor(1000));
+        assertTrue(bound > 1000 && bound <= 1125);
+    }
+
+    @Test
+    public void testPercentiles(){
+
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getValueAtPercentile(99.0));
+
+        for (long i = 1; i <= 1000; i++){
+            histogram.record(i * 1000); // 1us to 1ms
+        }
+        assertEquals(1000, histogram.getCount());
+        assertEquals(1000000, histogram.getMax());
+        assertEquals(500500000L, histogram.getSum());
+
+        long p50 = histogram.getValueAtPercentile(50.0);
+        assertTrue(p50 >= 500000 && p50 <= 500000 * 1.125);
+        long p99 = histogram.getValueAtPercentile(99.0);
+        assertTrue(p99 >= 990000 && p99 <= 1000000);
+        assertEquals(1000000, histogram.getValueAtPercentile(100.0));
+
+        assertEquals(0, histogram.getCountBelow(1000));
+        assertEquals(1000, histogram.getCountBelow(1L << 20)); // ~1.05ms
+    }
+
+    @Test
+    public void testRequestsAndDAOs() throws DAOException, IOException{
+
+        Metrics metrics = new Metrics();
+        metrics.requestHandled(
+                ERSRequestType.LOG_IN, ERSResponseType.SUCCESS, 2000000L);
+        metrics.requestHandled(
+                ERSRequestType.LOG_IN, ERSResponseType.INVALID_PARAMETER, 3000000L);
+        assertEquals(2, metrics.getRequestLatency(ERSRequestType.LOG_IN).getCount());
+
+        UserProfileDAO real = mock(UserProfileDAO.class);
+        when(real.checkExists(1)).thenReturn(true);
+        when(real.checkExists(2)).thenThrow(new DAOException("down"));
+        UserProfileDAO timed = metrics.timed(UserProfileDAO.class, real);
+
+        assertNull(metrics.getDAOLatency("UserProfileDAO.checkExists"));
+        assertTrue(timed.checkExists(1));
+        try{
+            timed.checkExists(2);
+            fail();
+        }
+        catch(DAOException e){
+            assertEquals("down", e.getMessage()); // passed through as-is
+        }
+        assertEquals(2, metrics.getDAOLatency("UserProfileDAO.checkExists").getCount());
+
+        StringWriter out = new StringWriter();
+        metrics.writePrometheus(out);
+        String text = out.toString();
+        assertTrue(text.contains(
+                "ers_requests_total{type=\"LOG_IN\",result=\"SUCCESS\"} 1\n"));
+        assertTrue(text.contains(
+                "ers_request_duration_seconds_count{type=\"LOG_IN\"} 2\n"));
+        assertTrue(text.contains(
+                "ers_request_duration_seconds_bucket{type=\"LOG_IN\",le=\"+Inf\"} 2\n"));
+        assertTrue(text.contains("ers_dao_call_duration_seconds_count"
+                + "{method=\"UserProfileDAO.checkExists\"} 2\n"));
+        assertTrue(text.contains(
+                "ers_dao_errors_total{method=\"UserProfileDAO.checkExists\"} 1\n"));
+        assertFalse(text.contains("type=\"LOG_OUT\"")); // never seen
+    }
+}
@@ -0,0 +1,24 @@
+/**
+ * This class contains unit tests for the BuildInfo class.
+ */
+package com.revature.servlets;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class TestBuildInfo {
+
+    /**
+     * maven fills in build.properties before the tests run, so this is the real thing.
+     */
+    @Test
+    public void testBuildID(){
+
+        String id = BuildInfo.getBuildID();
+        assertFalse(id, id.startsWith("unbuilt-"));
+        assertFalse(id, id.contains("${"));
+        assertTrue(id, id.matches(".+-\\d{14}"));
+    }
+}
@@ -0,0 +1,52 @@
+/**
+ * This class contains unit tests for the PageTemplate class.
+ */
+package com.revature.servlets;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class TestPageTemplate {
+
+    @Test
+    public void testCompile(){
+
+        PageTemplate template = PageTemplate.compile("<p>%MESSAGE%</p>%DEST%%DEST%");
+        assertEquals(Arrays.asList("MESSAGE", "DEST", "DEST"), template.getSlots());
+
+        // a lone %, or lower case, isn't a placeholder
+        template = PageTemplate.compile("100% of %not_a_slot%");
+        assertEquals(0, template.getSlots().size());
+    }
+
+    @Test
+    public void testRender() throws IOException{
+
+        PageTemplate template
+                = PageTemplate.compile("<p>%MESSAGE%</p>\n<a href=\"%DEST%\">100%</a>");
+        Map<String, PageWriter> values = new HashMap<>();
+        values.put("MESSAGE", out -> out.write("hello"));
+        values.put("DEST", out -> out.write("menu"));
+
+        StringWriter out = new StringWriter();
+        template.render(out, values);
+        assertEquals("<p>hello</p>\n<a href=\"menu\">100%</a>", out.toString());
+
+        // missing values are left blank
+        out = new StringWriter();
+        template.render(out, new HashMap<>());
+        assertEquals("<p></p>\n<a href=\"\">100%</a>", out.toString());
+
+        // no slots at all
+        out = new StringWriter();
+        PageTemplate.compile("plain").render(out, values);
+        assertEquals("plain", out.toString());
+    }
+}
@@ -0,0 +1,74 @@
+/**
+ * This class contains unit tests for the StaticAssets class.
+ */
+package com.revature.servlets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+
+import javax.servlet.ServletContext;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class TestStaticAssets {
+
+    @After
+    public void cleanup(){
+        StaticAssets.clear();
+    }
+
+    @Test
+    public void testFingerprint(){
+
+        String fingerprint = StaticAssets.fingerprint("body { color: red; }");
+        assertEquals(16, fingerprint.length());
+        assertEquals(fingerprint, StaticAssets.fingerprint("body { color: red; }"));
+        assertNotEquals(fingerprint, StaticAssets.fingerprint("body { color: blue; }"));
+    }
+
+    @Test
+    public void testAddVersions() throws IOException{
+
+        ServletContext context = makeContext("body { color: red; }");
+        String fingerprint = StaticAssets.fingerprint("body { color: red; }");
+
+        String html = "<link href=\"css/styles.css\"/><link href=\"css/missing.css\"/>"
+                + "<a href=\"menu\">menu</a>";
+        assertEquals("<link href=\"css/styles.css?v=" + fingerprint + "\"/>"
+                + "<link href=\"css/missing.css\"/><a href=\"menu\">menu</a>",
+                StaticAssets.addVersions(context, html));
+        assertNull(StaticAssets.getFingerprint(context, "css/missing.css"));
+    }
+
+    @Test
+    public void testLoadAll() throws IOException{
+
+        ServletContext context = makeContext("p { margin: 0; }");
+        when(context.getResourcePaths(StaticAssets.ASSET_FOLDER)).thenReturn(
+                new HashSet<>(Arrays.asList("/css/styles.css", "/css/fonts/")));
+
+        assertEquals(1, StaticAssets.loadAll(context));
+        assertEquals(StaticAssets.fingerprint("p { margin: 0; }"),
+                StaticAssets.getFingerprint(context, "css/styles.css"));
+    }
+
+    // helpers
+
+    private ServletContext makeContext(String css){
+
+        ServletContext context = mock(ServletContext.class);
+        when(context.getResourceAsStream("/css/styles.css")).thenReturn(
+                new ByteArrayInputStream(css.getBytes(StandardCharsets.UTF_8)));
+        return context;
+    }
+}
@@ -0,0 +1,168 @@
+/**
+ * This class contains unit tests for the parts of the ApiServlet that don't need a
+ * running container: routing, status codes, and the JSON it writes.
+ */
+package com.revature.servlets.api;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpSession;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.revature.model.ReimbursementRequest;
+import com.revature.model.ReimbursementRequest.ReimbursementStatus;
+import com.revature.model.ReimbursementRequest.ReimbursementType;
+import com.revature.model.UserProfile;
+import com.revature.model.UserProfile.UserRole;
+import com.revature.service.comms.ERSRequest;
+import com.revature.service.comms.ERSResponse;
+import com.revature.service.comms.ERSRequest.ERSRequestType;
+import com.revature.service.comms.ERSResponse.BulkOutcome;
+import com.revature.service.comms.ERSResponse.ERSResponseType;
+
+public class TestApiServlet {
+
+    private ApiServlet servlet = new ApiServlet();
+
+    @Test
+    public void testRouting(){
+
+        assertArrayEquals(new String[0], ApiServlet.splitPath(null));
+        assertArrayEquals(new String[] {"requests", "12", "approve"},
+                ApiServlet.splitPath("/requests/12/approve/"));
+
+        String[] path = ApiServlet.splitPath("/requests/12/approve");
+        assertTrue(ApiServlet.matches(path, "requests", null, "approve"));
+        assertFalse(ApiServlet.matches(path, "requests", null, "deny"));
+        assertFalse(ApiServlet.matches(path, "requests", "approve"));
+    }
+
+    /**
+     * A list without a page size still gets one, so it never loads the whole table.
+     */
+    @Test
+    public void testListsArePaged(){
+
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        when(request.getSession()).thenReturn(mock(HttpSession.class));
+        ERSRequest ereq 
+                = servlet.makeListRequest(ERSRequestType.VIEW_ALL_RESOLVED, request);
+        // ERSServlet.DEFAULT_PAGE_SIZE
+        assertEquals("50", ereq.getParameter(ERSRequest.PAGE_SIZE_KEY));
+        assertFalse(ereq.hasParameter(ERSRequest.AFTER_ID_KEY));
+
+        when(request.getParameter(ERSRequest.PAGE_SIZE_KEY)).thenReturn("200");
+        when(request.getParameter(ERSRequest.AFTER_ID_KEY)).thenReturn("17");
+        ereq = servlet.makeListRequest(ERSRequestType.VIEW_ALL_RESOLVED, request);
+        assertEquals("200", ereq.getParameter(ERSRequest.PAGE_SIZE_KEY));
+        assertEquals("17", ereq.getParameter(ERSRequest.AFTER_ID_KEY));
+    }
+
+    @Test
+    public void testToHttpStatus(){
+
+        assertEquals(403, ApiServlet.toHttpStatus(ERSResponseType.FORBIDDEN));
+        assertEquals(400, ApiServlet.toHttpStatus(ERSResponseType.INVALID_PARAMETER));
+        assertEquals(400, ApiServlet.toHttpStatus(ERSResponseType.MALFORMED_REQUEST));
+        assertEquals(409, ApiServlet.toHttpStatus(ERSResponseType.CONFLICT));
+        assertEquals(429, ApiServlet.toHttpStatus(ERSResponseType.TOO_MANY_REQUESTS));
+        assertEquals(500, ApiServlet.toHttpStatus(ERSResponseType.DATABASE_ERROR));
+    }
+
+    @Test
+    public void testCheckSubmission() throws IOException{
+
+        assertNull(servlet.checkSubmission(number("1299"), "FOOD"));
+        assertNull(servlet.checkSubmission(number("0"), "FOOD"));
+        assertNotNull(servlet.checkSubmission(number("12.99"), "FOOD"));
+        assertNotNull(servlet.checkSubmission(number("12.0"), "FOOD"));
+        assertNotNull(servlet.checkSubmission(number("\"1299\""), "FOOD"));
+        assertNotNull(servlet.checkSubmission(null, "FOOD"));
+        assertNotNull(servlet.checkSubmission(number("1299"), ""));
+        // left to the service layer (see TestMRH)
+        assertNull(servlet.checkSubmission(number("-5"), "FOOD"));
+    }
+
+    @Test
+    public void testWriteReimbursementRequests() throws IOException{
+
+        UserProfile author = new UserProfile(3, UserRole.EMPLOYEE);
+        ReimbursementRequest pending
+                = new ReimbursementRequest(7, author, 1250, ReimbursementType.FOOD);
+        pending.setTimeSubmitted(LocalDateTime.of(2020, 1, 2, 3, 4, 5));
+        ReimbursementRequest approved
+                = new ReimbursementRequest(8, author, 99, ReimbursementType.TRAVEL);
+        approved.setStatus(ReimbursementStatus.APPROVED);
+        approved.setResolverID(1);
+
+        ERSResponse eres = new ERSResponse(ERSResponseType.SUCCESS, "",
+                new ArrayList<>(), Arrays.asList(pending, approved));
+        eres.setHasNextPage(true);
+
+        JsonNode json = write(servlet::writeReimbursementRequests, eres);
+        assertTrue(json.get("hasNextPage").asBoolean());
+        assertFalse(json.get("hasPreviousPage").asBoolean());
+
+        JsonNode first = json.get("requests").get(0);
+        assertEquals(7, first.get("id").asInt());
+        assertEquals(3, first.get("authorId").asInt());
+        assertEquals("FOOD", first.get("type").asText());
+        assertEquals(1250, first.get("moneyAmount").asLong());
+        assertEquals("2020-01-02T03:04:05", first.get("timeSubmitted").asText());
+        assertFalse(first.has("resolverId")); // not resolved yet
+
+        JsonNode second = json.get("requests").get(1);
+        assertEquals("APPROVED", second.get("status").asText());
+        assertEquals(1, second.get("resolverId").asInt());
+    }
+
+    @Test
+    public void testWriteBulkOutcomes() throws IOException{
+
+        Map<Integer, BulkOutcome> outcomes = new LinkedHashMap<>();
+        outcomes.put(7, BulkOutcome.RESOLVED);
+        outcomes.put(9, BulkOutcome.NOT_FOUND);
+        ERSResponse eres = new ERSResponse(ERSResponseType.SUCCESS, "done");
+        eres.setBulkOutcomes(outcomes);
+
+        JsonNode json = write(servlet::writeBulkOutcomes, eres);
+        assertEquals("done", json.get("message").asText());
+        assertEquals("RESOLVED", json.get("outcomes").get("7").asText());
+        assertEquals("NOT_FOUND", json.get("outcomes").get("9").asText());
+    }
+
+    // helpers
+
+    private JsonNode number(String json) throws IOException{
+        return JsonUtil.getMapper().readTree(json);
+    }
+
+    private JsonNode write(ApiServlet.BodyWriter body, ERSResponse eres)
+            throws IOException{
+
+        StringWriter out = new StringWriter();
+        try (JsonGenerator gen = JsonUtil.getMapper().getFactory().createGenerator(out)){
+            body.write(gen, eres);
+        }
+        return JsonUtil.getMapper().readTree(out.toString());
+    }
+}
@@ -0,0 +1,209 @@
+/**
+ * This class contains unit tests for the CompressionFilter class and the
+ * CompressingResponse it wraps responses in.
+ */
+package com.revature.servlets.filters;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestCompressionFilter {
+
+    private static final Set<String> TYPES
+            = new HashSet<>(Arrays.asList("text/html", "text/csv"));
+
+    private HttpServletResponse original;
+    private Map<String, String> headers;
+    private ByteArrayOutputStream body;
+    private WriteListener writeListener; // set on the container's stream
+
+    @Before
+    public void setup() throws IOException{
+
+        headers = new HashMap<>();
+        body = new ByteArrayOutputStream();
+        writeListener = null;
+        original = mock(HttpServletResponse.class);
+        when(original.getCharacterEncoding()).thenReturn("UTF-8");
+        when(original.getOutputStream()).thenReturn(new ServletOutputStream(){
+            @Override
+            public void write(int b){
+                body.write(b);
+            }
+            @Override
+            public boolean isReady(){
+                return true;
+            }
+            @Override
+            public void setWriteListener(WriteListener listener){
+                writeListener = listener;
+            }
+        });
+        doAnswer(inv -> {
+            body.reset();
+            headers.clear();
+            return null;
+        }).when(original).reset();
+        doAnswer(inv -> headers.put((String)inv.getArguments()[0], 
+                (String)inv.getArguments()[1]))
+                .when(original).setHeader(anyString(), anyString());
+        doAnswer(inv -> headers.put((String)inv.getArguments()[0], 
+                (String)inv.getArguments()[1]))
+                .when(original).addHeader(anyString(), anyString());
+        doAnswer(inv -> headers.get((String)inv.getArguments()[0]))
+                .when(original).getHeader(anyString());
+    }
+
+    @Test
+    public void testAcceptsGzip(){
+
+        assertTrue(CompressionFilter.acceptsGzip("gzip, deflate, br"));
+        assertTrue(CompressionFilter.acceptsGzip("deflate;q=1, GZIP;q=0.5"));
+        assertTrue(CompressionFilter.acceptsGzip("*"));
+        assertFalse(CompressionFilter.acceptsGzip(null));
+        assertFalse(CompressionFilter.acceptsGzip("deflate, br"));
+        assertFalse(CompressionFilter.acceptsGzip("gzip;q=0"));
+        assertFalse(CompressionFilter.acceptsGzip("gzip; q=0.000"));
+    }
+
+    @Test
+    public void testSmallBodyIsSentAsIs() throws IOException{
+
+        when(original.getContentType()).thenReturn("text/html; charset=UTF-8");
+        CompressingResponse wrapped = new CompressingResponse(original, 1024, TYPES);
+        wrapped.getWriter().write("<p>hello</p>");
+        assertEquals(0, body.size()); // still held back
+        wrapped.finish();
+
+        assertEquals("<p>hello</p>", body.toString("UTF-8"));
+        assertNull(headers.get("Content-Encoding"));
+        assertEquals("Accept-Encoding", headers.get("Vary"));
+        verify(original).setContentLengthLong(12);
+    }
+
+    @Test
+    public void testLargeBodyIsGzipped() throws IOException{
+
+        when(original.getContentType()).thenReturn("text/html");
+        headers.put("ETag", "\"abc\"");
+        CompressingResponse wrapped = new CompressingResponse(original, 1024, TYPES);
+        StringBuilder html = new StringBuilder();
+        for (int i = 0; i < 500; i++){
+            html.append("<tr><td>").append(i).append("</td></tr>");
+        }
+        PrintWriter out = wrapped.getWriter();
+        out.write(html.toString());
+        wrapped.setContentLength(html.length()); // ignored, it won't be that long
+        wrapped.finish();
+
+        assertEquals("gzip", headers.get("Content-Encoding"));
+        assertEquals("W/\"abc\"", headers.get("ETag"));
+        assertTrue(body.size() < html.length() / 4);
+        assertEquals(html.toString(), gunzip(body.toByteArray()));
+        verify(original, never()).setContentLengthLong(anyLong());
+    }
+
+    @Test
+    public void testOtherTypesPassThrough() throws IOException{
+
+        when(original.getContentType()).thenReturn("application/gzip");
+        CompressingResponse wrapped = new CompressingResponse(original, 4, TYPES);
+        ServletOutputStream out = wrapped.getOutputStream();
+        out.write(new byte[] {1, 2, 3, 4, 5, 6});
+        assertEquals(6, body.size()); // not held back at all
+        wrapped.finish();
+
+        assertEquals(6, body.size());
+        assertNull(headers.get("Content-Encoding"));
+        assertNull(headers.get("Vary"));
+    }
+
+    /**
+     * A reset after gzipping has started starts over completely: the next body can be
+     * plain.
+     */
+    @Test
+    public void testResetAfterDeciding() throws IOException{
+
+        when(original.getContentType()).thenReturn("text/html");
+        CompressingResponse wrapped = new CompressingResponse(original, 16, TYPES);
+        PrintWriter out = wrapped.getWriter();
+        out.write("<p>this is long enough to be gzipped</p>");
+        out.flush();
+        assertEquals("gzip", headers.get("Content-Encoding"));
+
+        wrapped.reset();
+        out.write("never sent"); // still in the writer's buffer when reset
+        wrapped.reset();
+        out.write("<p>hi</p>");
+        wrapped.finish();
+
+        assertEquals("<p>hi</p>", body.toString("UTF-8"));
+        assertNull(headers.get("Content-Encoding"));
+    }
+
+    /**
+     * Non-blocking writes go straight to the container's stream, uncompressed.
+     */
+    @Test
+    public void testWriteListener() throws IOException{
+
+        when(original.getContentType()).thenReturn("text/html");
+        CompressingResponse wrapped = new CompressingResponse(original, 1024, TYPES);
+        ServletOutputStream out = wrapped.getOutputStream();
+        WriteListener listener = mock(WriteListener.class);
+        out.setWriteListener(listener);
+        assertSame(listener, writeListener);
+        assertTrue(out.isReady());
+
+        out.write("<p>hi</p>".getBytes(StandardCharsets.UTF_8));
+        assertEquals("<p>hi</p>", body.toString("UTF-8")); // not held back
+        assertNull(headers.get("Content-Encoding"));
+    }
+
+    // helpers
+
+    private String gunzip(byte[] bytes) throws IOException{
+
+        StringWriter result = new StringWriter();
+        try (Reader in = new InputStreamReader(new GZIPInputStream(
+                new ByteArrayInputStream(bytes)), StandardCharsets.UTF_8)){
+            char[] buffer = new char[4096];
+            int count;
+            while ((count = in.read(buffer)) != -1) result.write(buffer, 0, count);
+        }
+        return result.toString();
+    }
+}
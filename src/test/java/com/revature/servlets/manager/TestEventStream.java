@@ -0,0 +1,181 @@
+/**
+ * This class contains unit tests for the EventStream class, using a fake async request
+ * and running its writes on the calling thread.
+ */
+package com.revature.servlets.manager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.Executor;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.ServletResponse;
+import javax.servlet.WriteListener;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.revature.model.ReimbursementRequest;
+import com.revature.model.ReimbursementRequest.ReimbursementStatus;
+import com.revature.model.ReimbursementRequest.ReimbursementType;
+import com.revature.model.UserProfile;
+import com.revature.model.UserProfile.UserRole;
+import com.revature.service.events.ReimbursementEventBus;
+import com.revature.service.events.Subscription;
+
+public class TestEventStream {
+
+    private ReimbursementEventBus bus;
+    private ByteArrayOutputStream body;
+    private AsyncContext async;
+    private boolean failWrites;
+    private boolean ready; // whether the connection can take more right now
+    private WriteListener writeListener;
+
+    @Before
+    public void setup() throws IOException{
+
+        bus = new ReimbursementEventBus();
+        body = new ByteArrayOutputStream();
+        failWrites = false;
+        ready = true;
+        writeListener = null;
+        ServletResponse response = mock(ServletResponse.class);
+        when(response.getOutputStream()).thenReturn(new ServletOutputStream(){
+            @Override
+            public void write(int b) throws IOException{
+                if (failWrites) throw new IOException("browser went away");
+                body.write(b);
+            }
+            @Override
+            public boolean isReady(){
+                return ready;
+            }
+            @Override
+            public void setWriteListener(WriteListener listener){
+                writeListener = listener;
+            }
+        });
+        async = mock(AsyncContext.class);
+        when(async.getResponse()).thenReturn(response);
+    }
+
+    @Test
+    public void testEvents() throws IOException{
+
+        EventStream stream = new EventStream(10, Runnable::run);
+        Subscription subscription = bus.subscribe(stream);
+        // published before the stream has started: held until then
+        bus.publishSubmitted(makeReimb());
+        assertEquals(0, body.size());
+
+        stream.start(async, subscription, () -> {});
+        bus.publishResolved(7, ReimbursementStatus.APPROVED, 4);
+        stream.heartbeat();
+
+        assertEquals("retry: 5000\n\n"
+                + "id: 1\nevent: submitted\ndata: {\"id\":7,\"authorId\":3,"
+                + "\"type\":\"FOOD\",\"moneyAmount\":1250,\"description\":\"lunch\"}\n\n"
+                + "id: 2\nevent: resolved\ndata: {\"id\":7,\"status\":\"APPROVED\","
+                + "\"resolverId\":4}\n\n"
+                + EventStream.HEARTBEAT, body.toString("UTF-8"));
+    }
+
+    @Test
+    public void testFullQueueBecomesReset() throws IOException{
+
+        // nothing gets written until the test runs the queued drain
+        Runnable[] drain = new Runnable[1];
+        Executor later = task -> drain[0] = task;
+        EventStream stream = new EventStream(3, later);
+        stream.start(async, bus.subscribe(stream), () -> {});
+        drain[0].run();
+        body.reset();
+
+        for (int i = 0; i < 5; i++) bus.publishResolved(i, ReimbursementStatus.DENIED, 4);
+        drain[0].run();
+        assertEquals("event: reset\ndata: {}\n\n", body.toString("UTF-8"));
+
+        // and it carries on after that
+        body.reset();
+        bus.publishResolved(9, ReimbursementStatus.DENIED, 4);
+        drain[0].run();
+        assertTrue(body.toString("UTF-8").startsWith("id: 6\n"));
+    }
+
+    @Test
+    public void testClosesWhenWriteFails() throws IOException{
+
+        boolean[] removed = new boolean[1];
+        EventStream stream = new EventStream(10, Runnable::run);
+        stream.start(async, bus.subscribe(stream), () -> removed[0] = true);
+        assertFalse(stream.isClosed());
+
+        failWrites = true;
+        stream.heartbeat();
+        assertTrue(stream.isClosed());
+        assertTrue(removed[0]);
+        verify(async).complete();
+
+        // unsubscribed, so publishing doesn't touch it
+        failWrites = false;
+        body.reset();
+        bus.publishResolved(1, ReimbursementStatus.DENIED, 4);
+        assertEquals(0, body.size());
+    }
+
+    @Test
+    public void testWaitsForSlowConnection() throws IOException{
+
+        EventStream stream = new EventStream(10, Runnable::run);
+        ready = false;
+        stream.start(async, bus.subscribe(stream), () -> {});
+        bus.publishResolved(7, ReimbursementStatus.APPROVED, 4);
+        stream.heartbeat();
+        assertEquals(0, body.size()); // nothing waited for the connection
+        assertFalse(stream.isClosed());
+
+        // the container says it can take more; the events count as the heartbeat
+        ready = true;
+        writeListener.onWritePossible();
+        assertEquals("retry: 5000\n\n"
+                + "id: 1\nevent: resolved\ndata: {\"id\":7,\"status\":\"APPROVED\","
+                + "\"resolverId\":4}\n\n", body.toString("UTF-8"));
+        stream.heartbeat();
+        assertFalse(stream.isClosed());
+    }
+
+    @Test
+    public void testClosesWhenStuck() throws IOException{
+
+        boolean[] removed = new boolean[1];
+        EventStream stream = new EventStream(10, Runnable::run);
+        ready = false;
+        stream.start(async, bus.subscribe(stream), () -> removed[0] = true);
+
+        stream.heartbeat();
+        assertFalse(stream.isClosed());
+        stream.heartbeat(); // the first one still hasn't gone out
+        assertTrue(stream.isClosed());
+        assertTrue(removed[0]);
+        verify(async).complete();
+    }
+
+    // helpers
+
+    private ReimbursementRequest makeReimb(){
+
+        ReimbursementRequest reimb = new ReimbursementRequest(
+                7, new UserProfile(3, UserRole.EMPLOYEE), 1250, ReimbursementType.FOOD);
+        reimb.setDescription("lunch");
+        return reimb;
+    }
+}
@@ -0,0 +1,102 @@
+/**
+ * This class contains unit tests for the ExportWriter class.
+ */
+package com.revature.servlets.manager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.time.LocalDateTime;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.revature.model.ReimbursementRequest;
+import com.revature.model.ReimbursementRequest.ReimbursementStatus;
+import com.revature.model.ReimbursementRequest.ReimbursementType;
+import com.revature.model.UserProfile;
+import com.revature.model.UserProfile.UserRole;
+import com.revature.servlets.api.JsonUtil;
+import com.revature.servlets.manager.ExportWriter.ExportFormat;
+
+public class TestExportWriter {
+
+    @Test
+    public void testCSV() throws IOException{
+
+        StringWriter out = new StringWriter();
+        ExportWriter writer = new ExportWriter(ExportFormat.CSV, out);
+        writer.accept(makePending());
+        writer.accept(makeApproved());
+        writer.finish();
+
+        String[] lines = out.toString().split("\n");
+        assertEquals(3, lines.length);
+        assertEquals(ExportWriter.CSV_HEADER.trim(), lines[0]);
+        assertEquals("7,3,FOOD,12.05,PENDING,\"lunch, with \"\"client\"\"\","
+                + "2021-01-04T09:00,,", lines[1]);
+        assertEquals("8,3,TRAVEL,0.99,APPROVED,'=1+1,,1,2021-01-05T09:00", lines[2]);
+    }
+
+    @Test
+    public void testJSONL() throws IOException{
+
+        StringWriter out = new StringWriter();
+        ExportWriter writer = new ExportWriter(ExportFormat.JSONL, out);
+        writer.accept(makePending());
+        writer.accept(makeApproved());
+        writer.finish();
+
+        String[] lines = out.toString().split("\n");
+        assertEquals(2, lines.length);
+        JsonNode first = JsonUtil.getMapper().readTree(lines[0]);
+        assertEquals(7, first.get("id").asInt());
+        assertEquals(1205, first.get("moneyAmount").asLong());
+        assertEquals("lunch, with \"client\"", first.get("description").asText());
+        JsonNode second = JsonUtil.getMapper().readTree(lines[1]);
+        assertEquals(1, second.get("resolverId").asInt());
+    }
+
+    @Test
+    public void testHelpers(){
+
+        StringBuilder sb = new StringBuilder();
+        ExportWriter.appendDollars(sb, 100000);
+        assertEquals("1000.00", sb.toString());
+
+        sb.setLength(0);
+        ExportWriter.appendCSVField(sb, "no quoting needed");
+        assertEquals("no quoting needed", sb.toString());
+
+        sb.setLength(0);
+        ExportWriter.appendCSVField(sb, "two\nlines");
+        assertEquals("\"two\nlines\"", sb.toString());
+
+        assertEquals(ExportFormat.JSONL, ExportFormat.fromString("jsonl"));
+        assertNull(ExportFormat.fromString("xml"));
+    }
+
+    // helpers
+
+    private ReimbursementRequest makePending(){
+
+        ReimbursementRequest rr = new ReimbursementRequest(
+                7, new UserProfile(3, UserRole.EMPLOYEE), 1205, ReimbursementType.FOOD);
+        rr.setDescription("lunch, with \"client\"");
+        rr.setTimeSubmitted(LocalDateTime.of(2021, 1, 4, 9, 0));
+        return rr;
+    }
+
+    private ReimbursementRequest makeApproved(){
+
+        ReimbursementRequest rr = new ReimbursementRequest(
+                8, new UserProfile(3, UserRole.EMPLOYEE), 99, ReimbursementType.TRAVEL);
+        rr.setDescription("=1+1");
+        rr.setStatus(ReimbursementStatus.APPROVED);
+        rr.setResolverID(1);
+        rr.setTimeResolved(LocalDateTime.of(2021, 1, 5, 9, 0));
+        return rr;
+    }
+}
@@ -0,0 +1,4 @@
+-- run by hbm2ddl after it creates the mapped tables (one statement per line); adds
+-- what the migrations create that no entity maps, see db/migration/V5.sql
+CREATE TABLE IF NOT EXISTS project1_test.RR_CHANGE_COUNT (ID INTEGER PRIMARY KEY, CHANGE_COUNT BIGINT NOT NULL)
+MERGE INTO project1_test.RR_CHANGE_COUNT (ID, CHANGE_COUNT) KEY (ID) VALUES (1, 0)